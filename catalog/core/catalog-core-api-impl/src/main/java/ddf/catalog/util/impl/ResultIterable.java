@@ -18,6 +18,7 @@
 import static org.apache.commons.lang.Validate.notNull;
 
 import ddf.catalog.CatalogFramework;
+import ddf.catalog.Constants;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.Result;
 import ddf.catalog.federation.FederationException;
@@ -30,10 +31,12 @@
 import ddf.catalog.source.UnsupportedQueryException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.Spliterator;
@@ -50,6 +53,11 @@
  *
  * <p>Since the class may use the page size provided in the {@link Query} to fetch the results, its
  * value should be carefully set to avoid any memory or performance issues.
+ *
+ * <p>When a single source is queried from the first result, the results are fetched with the
+ * {@link Constants#CURSOR_MARK_KEY} request property, so sources that support cursor paging do not
+ * have to skip over the previous pages for each page. Other sources, and queries that the catalog
+ * framework federates to more than one source, are paged by start index.
  */
 public class ResultIterable implements Iterable<Result> {
   public static final int DEFAULT_PAGE_SIZE = 64;
@@ -157,6 +165,7 @@ private static class ResultIterator implements Iterator<Result> {
     private final QueryFunction queryFunction;
     private final Set<String> foundIds = new HashSet<>(2048);
     private int currentIndex;
+    private String cursorMark;
     private QueryImpl queryCopy;
     private QueryRequestImpl queryRequestCopy;
     private Iterator<Result> results = Collections.emptyIterator();
@@ -168,6 +177,12 @@ private static class ResultIterator implements Iterator<Result> {
       copyQueryRequestAndQuery(queryRequest);
 
       this.currentIndex = queryCopy.getStartIndex();
+
+      if (currentIndex == 1
+          && !queryRequest.isEnterprise()
+          && (queryRequest.getSourceIds() == null || queryRequest.getSourceIds().size() <= 1)) {
+        this.cursorMark = Constants.INITIAL_CURSOR_MARK;
+      }
     }
 
     @Override
@@ -207,13 +222,42 @@ public Result next() {
 
     @SuppressWarnings("squid:CommentedOutCodeLine")
     private void fetchNextResults() {
-      queryCopy.setStartIndex(currentIndex);
+      if (cursorMark != null) {
+        queryRequestCopy.getProperties().put(Constants.CURSOR_MARK_KEY, cursorMark);
+      } else {
+        queryRequestCopy.getProperties().remove(Constants.CURSOR_MARK_KEY);
+        queryCopy.setStartIndex(currentIndex);
+      }
 
       try {
         SourceResponse response = queryFunction.query(queryRequestCopy);
 
         final List<Result> resultList = response.getResults();
 
+        // Sources that do not support cursors ignore the cursor, and since the first page was
+        // requested, the results of that page are the same as when paging by start index.
+        String nextCursorMark =
+            Optional.ofNullable(response.getProperties())
+                .map(m -> m.get(Constants.NEXT_CURSOR_MARK_KEY))
+                .filter(String.class::isInstance)
+                .map(String.class::cast)
+                .orElse(null);
+        boolean lastCursorPage = false;
+        if (cursorMark != null) {
+          if (nextCursorMark == null && !Constants.INITIAL_CURSOR_MARK.equals(cursorMark)) {
+            // The cursor was dropped after the first page, for example because the catalog
+            // framework now queries more than one source, so the response holds the first page
+            // again. Discard it and continue from the current index.
+            cursorMark = null;
+            return;
+          } else if (nextCursorMark == null) {
+            cursorMark = null;
+          } else {
+            lastCursorPage = cursorMark.equals(nextCursorMark);
+            cursorMark = nextCursorMark;
+          }
+        }
+
         // Because some of the results may be filtered out by the catalog framework's
         // plugins, we need a way to know the actual page size and increment currentIndex based
         // on that number instead of using the result list size.
@@ -238,20 +282,27 @@ private void fetchNextResults() {
         }
         currentIndex += actualResultSize;
 
-        List<Result> dedupedResults = new ArrayList<>(resultList.size());
-        for (Result result : resultList) {
-          if (isDistinctResult(result)) {
-            dedupedResults.add(result);
+        if (cursorMark != null) {
+          // cursors never return a result twice, so there is no need to remember the ids
+          List<Result> nonNullResults = new ArrayList<>(resultList.size());
+          resultList.stream().filter(Objects::nonNull).forEach(nonNullResults::add);
+          this.results = nonNullResults.iterator();
+        } else {
+          List<Result> dedupedResults = new ArrayList<>(resultList.size());
+          for (Result result : resultList) {
+            if (isDistinctResult(result)) {
+              dedupedResults.add(result);
+            }
+            Optional.ofNullable(result)
+                .map(Result::getMetacard)
+                .map(Metacard::getId)
+                .ifPresent(foundIds::add);
           }
-          Optional.ofNullable(result)
-              .map(Result::getMetacard)
-              .map(Metacard::getId)
-              .ifPresent(foundIds::add);
-        }
 
-        this.results = dedupedResults.iterator();
+          this.results = dedupedResults.iterator();
+        }
 
-        if (response.getHits() >= 0 && currentIndex > response.getHits()) {
+        if (lastCursorPage || (response.getHits() >= 0 && currentIndex > response.getHits())) {
           finished = true;
         }
       } catch (UnsupportedQueryException | SourceUnavailableException | FederationException e) {
@@ -286,7 +337,9 @@ private void copyQueryRequestAndQuery(QueryRequest queryRequest) {
               queryCopy,
               queryRequest.isEnterprise(),
               queryRequest.getSourceIds(),
-              queryRequest.getProperties());
+              queryRequest.getProperties() == null
+                  ? new HashMap<>()
+                  : new HashMap<>(queryRequest.getProperties()));
     }
   }
 }
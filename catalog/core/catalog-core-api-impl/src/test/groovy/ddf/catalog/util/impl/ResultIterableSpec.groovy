@@ -30,6 +30,9 @@ import org.junit.runner.RunWith
 import spock.lang.Specification
 import spock.lang.Unroll
 
+import static ddf.catalog.Constants.CURSOR_MARK_KEY
+import static ddf.catalog.Constants.INITIAL_CURSOR_MARK
+import static ddf.catalog.Constants.NEXT_CURSOR_MARK_KEY
 import static ddf.catalog.util.impl.ResultIterable.resultIterable
 import static java.util.stream.Collectors.toList
 
@@ -403,6 +406,103 @@ class ResultIterableSpec extends Specification {
         queryResults.size() == dedupedCount
     }
 
+    def "Pages with the cursor when the source supports it"() {
+        setup:
+        def actualResults = (1..6).collect { new ResultImpl() }
+        def cursorPages = [[0..2, "c1"], [3..5, "c2"], [[], "c2"]]
+        def requests = []
+
+        3 * catalogFramework.query(_ as QueryRequest) >> { QueryRequest queryRequest ->
+            requests << [queryRequest.getPropertyValue(CURSOR_MARK_KEY),
+                         queryRequest.query.startIndex]
+            def page = cursorPages[requests.size() - 1]
+            buildCursorQueryResponse(actualResults, page[0], page[1])
+        }
+
+        Query queryMock = createQueryMock(1, 3)
+        QueryRequest queryRequestMock = createQueryRequestMock(queryMock)
+
+        when:
+        def queryResults = resultIterable(catalogFramework, queryRequestMock).stream()
+                .collect(toList())
+
+        then:
+        queryResults == actualResults
+        requests == [[INITIAL_CURSOR_MARK, 1], ["c1", 1], ["c2", 1]]
+    }
+
+    def "Pages by start index when the source does not support cursors"() {
+        setup:
+        def actualResults = (1..6).collect { new ResultImpl() }
+        def requests = []
+
+        2 * catalogFramework.query(_ as QueryRequest) >> { QueryRequest queryRequest ->
+            requests << [queryRequest.getPropertyValue(CURSOR_MARK_KEY),
+                         queryRequest.query.startIndex]
+            int start = queryRequest.query.startIndex - 1
+            buildQueryResponse(actualResults, start..(start + 2))
+        }
+
+        Query queryMock = createQueryMock(1, 3)
+        QueryRequest queryRequestMock = createQueryRequestMock(queryMock)
+
+        when:
+        def queryResults = resultIterable(catalogFramework, queryRequestMock).stream()
+                .collect(toList())
+
+        then:
+        queryResults == actualResults
+        requests == [[INITIAL_CURSOR_MARK, 1], [null, 4]]
+    }
+
+    def "Pages by start index when the cursor is dropped after the first page"() {
+        setup:
+        def actualResults = (1..6).collect { new ResultImpl() }
+        def requests = []
+
+        // the framework drops the cursor of the second page, for example because a connected
+        // source became available, so the source returns the first page by start index again
+        3 * catalogFramework.query(_ as QueryRequest) >> { QueryRequest queryRequest ->
+            def cursorMark = queryRequest.getPropertyValue(CURSOR_MARK_KEY)
+            requests << [cursorMark, queryRequest.query.startIndex]
+            if (cursorMark == INITIAL_CURSOR_MARK) {
+                return buildCursorQueryResponse(actualResults, 0..2, "c1")
+            }
+            int start = cursorMark == null ? queryRequest.query.startIndex - 1 : 0
+            buildQueryResponse(actualResults, start..(start + 2))
+        }
+
+        Query queryMock = createQueryMock(1, 3)
+        QueryRequest queryRequestMock = createQueryRequestMock(queryMock)
+
+        when:
+        def queryResults = resultIterable(catalogFramework, queryRequestMock).stream()
+                .collect(toList())
+
+        then:
+        queryResults == actualResults
+        requests == [[INITIAL_CURSOR_MARK, 1], ["c1", 1], [null, 4]]
+    }
+
+    def "Does not use the cursor for enterprise queries"() {
+        setup:
+        QueryRequest cursorRequest = null
+        1 * catalogFramework.query(_ as QueryRequest) >> { QueryRequest queryRequest ->
+            cursorRequest = queryRequest
+            buildEmptyQueryResponse([])
+        }
+
+        Query queryMock = createQueryMock(1, 3)
+        QueryRequest queryRequestMock = createQueryRequestMock(queryMock)
+        queryRequestMock.isEnterprise() >> true
+
+        when:
+        resultIterable(catalogFramework, queryRequestMock).stream().collect(toList())
+
+        then:
+        !cursorRequest.containsPropertyName(CURSOR_MARK_KEY)
+    }
+
     def "next() when number of results from catalog varies"() {
         setup:
         def actualResults = (1..6).collect { new ResultImpl() }
@@ -621,6 +721,16 @@ class ResultIterableSpec extends Specification {
         return response
     }
 
+    private QueryResponse buildCursorQueryResponse(List<Result> resultList, def resultRange,
+                                                   String nextCursorMark) {
+        def results = resultList[resultRange]
+        return new QueryResponseImpl(new QueryRequestImpl(null),
+                results,
+                true,
+                -1L,
+                ["actualResultSize": results.size(), (NEXT_CURSOR_MARK_KEY): nextCursorMark])
+    }
+
     private buildQueryResponse(QueryRequest queryRequest, int resultListsSize, int totalResults) {
         int startIndex = queryRequest.getQuery()
                 .getStartIndex()
@@ -139,6 +139,15 @@ public final class Constants {
 
   public static final String ATTRIBUTE_UPDATE_MAP_KEY = "attributeUpdateMap";
 
+  /**
+   * {@link ddf.catalog.operation.UpdateRequest} property holding the names of the only attributes
+   * the request changes. These attributes of the stored metacards are replaced by the ones of the
+   * request's metacards, or removed if those do not have them, while all other attributes keep
+   * their stored values. Such partial updates must identify the metacards by {@link
+   * ddf.catalog.data.Metacard#ID}.
+   */
+  public static final String PARTIAL_UPDATE_ATTRIBUTES_KEY = "partial-update-attributes";
+
   public static final String STORE_REFERENCE_KEY = "storeReference";
 
   public static final String EXPERIMENTAL_FACET_PROPERTIES_KEY = "facet-properties";
@@ -159,5 +168,18 @@ public final class Constants {
 
   public static final String ADDITIONAL_SORT_BYS = "additional-sort-bys";
 
+  /**
+   * {@link ddf.catalog.operation.QueryRequest} property holding the cursor of the page to return,
+   * which is used instead of the start index of the query. Sources that support cursor paging put
+   * the cursor of the following page in the {@link #NEXT_CURSOR_MARK_KEY} response property, and
+   * return the same cursor once all the results were returned.
+   */
+  public static final String CURSOR_MARK_KEY = "cursor-mark";
+
+  public static final String NEXT_CURSOR_MARK_KEY = "next-cursor-mark";
+
+  /** Value of the {@link #CURSOR_MARK_KEY} property for the first page of results. */
+  public static final String INITIAL_CURSOR_MARK = "*";
+
   private Constants() {}
 }
@@ -0,0 +1,33 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.plugin;
+
+import ddf.catalog.operation.CreateRequest;
+
+/**
+ * A {@link PreIngestPlugin} that processes each {@link ddf.catalog.data.Metacard} of a {@link
+ * CreateRequest} independently of the other {@link ddf.catalog.data.Metacard}s of the request, and
+ * that does not change the properties of the request. The catalog framework may process
+ * partitions of the {@link ddf.catalog.data.Metacard}s of a large {@link CreateRequest}
+ * concurrently, each as a {@link CreateRequest} of its own with the properties of the original
+ * request.
+ *
+ * <p>The plugin may change, replace or remove the {@link ddf.catalog.data.Metacard}s it is given.
+ * The {@link ddf.catalog.data.Metacard}s returned for each partition are combined in the order of
+ * the partitions.
+ *
+ * <p><b> This code is experimental. While this interface is functional and tested, it may change or
+ * be removed in a future version of the library. </b>
+ */
+public interface PartitionablePreIngestPlugin extends PreIngestPlugin {}
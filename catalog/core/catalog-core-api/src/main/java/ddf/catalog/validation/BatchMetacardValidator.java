@@ -0,0 +1,37 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.validation;
+
+import ddf.catalog.data.Metacard;
+import java.util.List;
+
+/**
+ * A {@link MetacardValidator} that can validate several {@link Metacard}s of the same request more
+ * efficiently together than one at a time, e.g., by looking up the data it needs for all of them
+ * at once.
+ *
+ * <p><b> This code is experimental. While this interface is functional and tested, it may change or
+ * be removed in a future version of the library. </b>
+ */
+public interface BatchMetacardValidator extends MetacardValidator {
+
+  /**
+   * Prepares the validation of the {@link Metacard}s of a request.
+   *
+   * @param metacards the {@link Metacard}s about to be validated, cannot be null
+   * @return the {@link MetacardValidator} to validate each of the {@code metacards} with. It may
+   *     not be used to validate other {@link Metacard}s.
+   */
+  MetacardValidator forMetacards(List<Metacard> metacards);
+}
@@ -20,6 +20,7 @@
 import ddf.catalog.transform.InputTransformer;
 import ddf.mime.MimeTypeResolutionException;
 import ddf.mime.MimeTypeToTransformerMapper;
+import io.micrometer.core.instrument.Metrics;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.List;
@@ -51,6 +52,12 @@ public class InputTransformerProducer extends TransformerProducer {
 
   private static final String DEFAULT_MIME_TYPE = "application/octet-stream";
 
+  private static final String FAILED_ATTEMPTS_METRIC = "ddf.catalog.inputtransformer.failures";
+
+  private static final String TRANSFORMER_TAG = "transformer";
+
+  private final InputTransformerSelector transformerSelector = new InputTransformerSelector();
+
   /**
    * Constructs the {@link org.apache.camel.Producer} for the custom Camel CatalogComponent. This
    * producer would map to a Camel <to> route node with a URI like <code>catalog:inputtransformer
@@ -109,7 +116,9 @@ protected Object transform(
       }
 
       String metacardUpdateID = getHeaderAsStringAndRemove(in, METACARD_ID_HEADER);
-      return generateMetacard(derivedMimeType, mapper, tfbos, metacardUpdateID)
+      byte[] header = tfbos.asByteSource().slice(0, InputTransformerSelector.HEADER_LENGTH).read();
+      String signature = transformerSelector.getSignature(derivedMimeType, header);
+      return generateMetacard(derivedMimeType, signature, mapper, tfbos, metacardUpdateID)
           .orElseThrow(
               () ->
                   new CatalogTransformerException(
@@ -123,12 +132,15 @@ protected Object transform(
 
   private Optional<Metacard> generateMetacard(
       MimeType mimeType,
+      String signature,
       MimeTypeToTransformerMapper mapper,
       TemporaryFileBackedOutputStream tfbos,
       String metacardId) {
     LOGGER.trace("ENTERING: generateMetacard");
 
-    List<InputTransformer> listOfCandidates = mapper.findMatches(InputTransformer.class, mimeType);
+    // The transformers that failed to transform content with the same signature are tried last
+    List<InputTransformer> listOfCandidates =
+        transformerSelector.rank(signature, mapper.findMatches(InputTransformer.class, mimeType));
 
     if (LOGGER.isDebugEnabled()) {
       LOGGER.debug("List of matches for mimeType [{}]: {}", mimeType, listOfCandidates);
@@ -150,12 +162,16 @@ private Optional<Metacard> generateMetacard(
         }
       } catch (CatalogTransformerException e) {
         LOGGER.debug("Transformer [{}] could not create metacard.", transformer, e);
+        transformerSelector.failed(signature, transformer);
       } catch (IOException e) {
         LOGGER.debug("Could not open input stream", e);
       }
       if (generatedMetacard != null) {
+        transformerSelector.succeeded(signature, transformer);
         break;
       }
+      Metrics.counter(FAILED_ATTEMPTS_METRIC, TRANSFORMER_TAG, transformer.getClass().getName())
+          .increment();
     }
 
     LOGGER.trace("EXITING: generateMetacard");
@@ -0,0 +1,138 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.camel.component.catalog.inputtransformer;
+
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.io.BaseEncoding;
+import ddf.catalog.transform.InputTransformer;
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.TimeUnit;
+import javax.activation.MimeType;
+import org.codice.ddf.platform.util.XMLUtils;
+
+/**
+ * Orders the {@link InputTransformer}s that match the MIME type of a message so that the ones that
+ * keep failing to transform similar content are tried last.
+ *
+ * <p>The content of a message is identified by a signature made of its MIME type and, read from a
+ * bounded header of the content, the namespace of its root element when it is XML or its leading
+ * magic bytes otherwise. Since different content may share a signature, a transformer is never
+ * moved ahead of another candidate: the candidates that failed {@value #FAILURES_BEFORE_DEMOTION}
+ * times in a row to transform content with the same signature are only moved behind the ones that
+ * did not, and are tried again when the others fail. A single bad payload therefore does not demote
+ * a transformer, and a transformer that succeeds starts over. Because a demoted transformer may
+ * never get the chance to succeed again behind a fallback that accepts anything, the failures
+ * recorded for a signature are also forgotten {@value #FAILURE_EXPIRATION_MINUTES} minutes after
+ * the first of them.
+ */
+class InputTransformerSelector {
+
+  /** Number of bytes read from the start of the content to compute its signature */
+  static final int HEADER_LENGTH = 8 * 1024;
+
+  private static final int MAGIC_LENGTH = 8;
+
+  /** Number of consecutive failures after which a transformer is tried last */
+  static final int FAILURES_BEFORE_DEMOTION = 3;
+
+  static final long FAILURE_EXPIRATION_MINUTES = 10;
+
+  private static final int MAXIMUM_SIGNATURES = 1000;
+
+  private static final byte[] UTF_8_BOM = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+
+  private final Cache<String, Map<InputTransformer, Integer>> failedTransformers;
+
+  InputTransformerSelector() {
+    this(Ticker.systemTicker());
+  }
+
+  InputTransformerSelector(Ticker ticker) {
+    failedTransformers =
+        CacheBuilder.newBuilder()
+            .maximumSize(MAXIMUM_SIGNATURES)
+            .expireAfterWrite(FAILURE_EXPIRATION_MINUTES, TimeUnit.MINUTES)
+            .ticker(ticker)
+            .build();
+  }
+
+  String getSignature(MimeType mimeType, byte[] header) {
+    String namespace = isXml(header) ? getRootNamespace(header) : null;
+    if (namespace != null) {
+      return mimeType + "|xml|" + namespace;
+    }
+    return mimeType
+        + "|magic|"
+        + BaseEncoding.base16().encode(header, 0, Math.min(header.length, MAGIC_LENGTH));
+  }
+
+  List<InputTransformer> rank(String signature, List<InputTransformer> candidates) {
+    Map<InputTransformer, Integer> failures = failedTransformers.getIfPresent(signature);
+    if (failures == null || failures.isEmpty()) {
+      return candidates;
+    }
+
+    List<InputTransformer> ranked = new ArrayList<>(candidates.size());
+    candidates.stream().filter(candidate -> !isDemoted(failures, candidate)).forEach(ranked::add);
+    candidates.stream().filter(candidate -> isDemoted(failures, candidate)).forEach(ranked::add);
+    return ranked;
+  }
+
+  void failed(String signature, InputTransformer transformer) {
+    // Weak keys so that transformers that are no longer registered can be collected
+    failedTransformers
+        .asMap()
+        .computeIfAbsent(signature, key -> Collections.synchronizedMap(new WeakHashMap<>()))
+        .merge(transformer, 1, Integer::sum);
+  }
+
+  void succeeded(String signature, InputTransformer transformer) {
+    Map<InputTransformer, Integer> failures = failedTransformers.getIfPresent(signature);
+    if (failures != null) {
+      failures.remove(transformer);
+    }
+  }
+
+  private boolean isDemoted(Map<InputTransformer, Integer> failures, InputTransformer candidate) {
+    return failures.getOrDefault(candidate, 0) >= FAILURES_BEFORE_DEMOTION;
+  }
+
+  private boolean isXml(byte[] header) {
+    int start = startsWith(header, UTF_8_BOM) ? UTF_8_BOM.length : 0;
+    for (int i = start; i < header.length; i++) {
+      if (!Character.isWhitespace(header[i])) {
+        return header[i] == '<';
+      }
+    }
+    return false;
+  }
+
+  private boolean startsWith(byte[] bytes, byte[] prefix) {
+    return bytes.length >= prefix.length
+        && Arrays.equals(Arrays.copyOf(bytes, prefix.length), prefix);
+  }
+
+  // The root element of real documents is well within the header, so a truncated document is fine
+  private String getRootNamespace(byte[] header) {
+    return XMLUtils.getInstance().getRootNamespace(new ByteArrayInputStream(header));
+  }
+}
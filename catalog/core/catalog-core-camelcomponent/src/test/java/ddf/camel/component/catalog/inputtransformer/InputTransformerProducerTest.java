@@ -18,6 +18,7 @@
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -29,6 +30,7 @@
 import ddf.mime.MimeTypeToTransformerMapper;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Arrays;
 import java.util.Collections;
 import javax.activation.MimeType;
 import org.apache.camel.Message;
@@ -136,4 +138,54 @@ public void testMessageInputStreamIsClosed() throws Exception {
     inputTransformerProducer.transform(message, "", "", mimeTypeToTransformerMapper);
     verify(is).close();
   }
+
+  @Test
+  public void testRepeatedlyFailingTransformerIsTriedLast() throws Exception {
+    InputTransformer failingTransformer = mock(InputTransformer.class);
+    when(failingTransformer.transform(any(InputStream.class)))
+        .thenThrow(CatalogTransformerException.class);
+    InputTransformer succeedingTransformer = mock(InputTransformer.class);
+    when(succeedingTransformer.transform(any(InputStream.class)))
+        .thenReturn(mock(Metacard.class));
+    when(mimeTypeToTransformerMapper.findMatches(any(Class.class), any(MimeType.class)))
+        .thenReturn(Arrays.asList(failingTransformer, succeedingTransformer));
+    when(message.getBody(InputStream.class))
+        .thenAnswer(
+            invocation -> this.getClass().getClassLoader().getResourceAsStream("file.txt"));
+
+    int payloads = InputTransformerSelector.FAILURES_BEFORE_DEMOTION + 1;
+    for (int i = 0; i < payloads; i++) {
+      inputTransformerProducer.transform(message, TEXT_MIME_TYPE, "", mimeTypeToTransformerMapper);
+    }
+
+    verify(failingTransformer, times(InputTransformerSelector.FAILURES_BEFORE_DEMOTION))
+        .transform(any(InputStream.class));
+    verify(succeedingTransformer, times(payloads)).transform(any(InputStream.class));
+  }
+
+  @Test
+  public void testSingleBadPayloadDoesNotDemoteTransformer() throws Exception {
+    Metacard metacard = mock(Metacard.class);
+    InputTransformer preferredTransformer = mock(InputTransformer.class);
+    when(preferredTransformer.transform(any(InputStream.class)))
+        .thenThrow(CatalogTransformerException.class)
+        .thenReturn(metacard);
+    InputTransformer fallbackTransformer = mock(InputTransformer.class);
+    when(fallbackTransformer.transform(any(InputStream.class)))
+        .thenReturn(mock(Metacard.class));
+    when(mimeTypeToTransformerMapper.findMatches(any(Class.class), any(MimeType.class)))
+        .thenReturn(Arrays.asList(preferredTransformer, fallbackTransformer));
+    when(message.getBody(InputStream.class))
+        .thenAnswer(
+            invocation -> this.getClass().getClassLoader().getResourceAsStream("file.txt"));
+
+    inputTransformerProducer.transform(message, TEXT_MIME_TYPE, "", mimeTypeToTransformerMapper);
+    Object transformed =
+        inputTransformerProducer.transform(
+            message, TEXT_MIME_TYPE, "", mimeTypeToTransformerMapper);
+
+    assertThat(transformed, is(metacard));
+    verify(preferredTransformer, times(2)).transform(any(InputStream.class));
+    verify(fallbackTransformer, times(1)).transform(any(InputStream.class));
+  }
 }
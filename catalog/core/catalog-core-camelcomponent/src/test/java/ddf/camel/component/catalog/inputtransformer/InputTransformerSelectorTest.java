@@ -0,0 +1,163 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.camel.component.catalog.inputtransformer;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.mockito.Mockito.mock;
+
+import com.google.common.base.Ticker;
+import ddf.catalog.transform.InputTransformer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.activation.MimeType;
+import org.junit.Before;
+import org.junit.Test;
+
+public class InputTransformerSelectorTest {
+
+  private static final String XML_MIME_TYPE = "text/xml";
+
+  private final AtomicLong nanos = new AtomicLong();
+
+  private InputTransformerSelector selector;
+
+  private InputTransformer first;
+
+  private InputTransformer second;
+
+  private InputTransformer third;
+
+  @Before
+  public void setUp() {
+    selector =
+        new InputTransformerSelector(
+            new Ticker() {
+              @Override
+              public long read() {
+                return nanos.get();
+              }
+            });
+    first = mock(InputTransformer.class);
+    second = mock(InputTransformer.class);
+    third = mock(InputTransformer.class);
+  }
+
+  @Test
+  public void testXmlSignatureUsesRootNamespace() throws Exception {
+    MimeType mimeType = new MimeType(XML_MIME_TYPE);
+
+    String signature =
+        selector.getSignature(
+            mimeType, "<?xml version=\"1.0\"?><a xmlns=\"urn:a\"><b/></a>".getBytes(UTF_8));
+
+    assertThat(
+        selector.getSignature(mimeType, "\n<a xmlns=\"urn:a\">text</a>".getBytes(UTF_8)),
+        is(signature));
+    assertThat(
+        selector.getSignature(mimeType, "<b xmlns=\"urn:b\"/>".getBytes(UTF_8)),
+        is(not(signature)));
+  }
+
+  @Test
+  public void testSignatureUsesMagicBytes() throws Exception {
+    MimeType mimeType = new MimeType("application/octet-stream");
+
+    String signature = selector.getSignature(mimeType, new byte[] {'P', 'K', 3, 4, 1});
+
+    assertThat(selector.getSignature(mimeType, new byte[] {'P', 'K', 3, 4, 1}), is(signature));
+    assertThat(
+        selector.getSignature(mimeType, new byte[] {'%', 'P', 'D', 'F'}), is(not(signature)));
+    assertThat(
+        selector.getSignature(new MimeType(XML_MIME_TYPE), new byte[] {'P', 'K', 3, 4, 1}),
+        is(not(signature)));
+  }
+
+  @Test
+  public void testCandidatesKeepOrderWithoutFailures() {
+    assertThat(
+        selector.rank("signature", Arrays.asList(first, second, third)),
+        contains(first, second, third));
+  }
+
+  @Test
+  public void testFailedTransformersAreRankedLast() {
+    fail("signature", first, InputTransformerSelector.FAILURES_BEFORE_DEMOTION);
+
+    List<InputTransformer> ranked = selector.rank("signature", Arrays.asList(first, second, third));
+
+    assertThat(ranked, contains(second, third, first));
+    assertThat(
+        selector.rank("other", Arrays.asList(first, second, third)),
+        contains(first, second, third));
+  }
+
+  @Test
+  public void testSuccessfulTransformerIsNotRankedAheadOfOtherCandidates() {
+    selector.succeeded("signature", third);
+
+    assertThat(
+        selector.rank("signature", Arrays.asList(first, second, third)),
+        contains(first, second, third));
+  }
+
+  @Test
+  public void testSingleFailureDoesNotDemoteTransformer() {
+    fail("signature", first, InputTransformerSelector.FAILURES_BEFORE_DEMOTION - 1);
+
+    assertThat(
+        selector.rank("signature", Arrays.asList(first, second, third)),
+        contains(first, second, third));
+  }
+
+  @Test
+  public void testSuccessClearsFailure() {
+    fail("signature", first, InputTransformerSelector.FAILURES_BEFORE_DEMOTION - 1);
+    selector.succeeded("signature", first);
+    selector.failed("signature", first);
+
+    assertThat(
+        selector.rank("signature", Arrays.asList(first, second, third)),
+        contains(first, second, third));
+  }
+
+  @Test
+  public void testDemotionExpires() {
+    fail("signature", first, InputTransformerSelector.FAILURES_BEFORE_DEMOTION);
+
+    nanos.addAndGet(TimeUnit.MINUTES.toNanos(InputTransformerSelector.FAILURE_EXPIRATION_MINUTES));
+
+    assertThat(
+        selector.rank("signature", Arrays.asList(first, second, third)),
+        contains(first, second, third));
+  }
+
+  @Test
+  public void testUnavailableTransformerIsIgnored() {
+    fail("signature", third, InputTransformerSelector.FAILURES_BEFORE_DEMOTION);
+
+    assertThat(selector.rank("signature", Arrays.asList(first, second)), contains(first, second));
+  }
+
+  private void fail(String signature, InputTransformer transformer, int times) {
+    for (int i = 0; i < times; i++) {
+      selector.failed(signature, transformer);
+    }
+  }
+}
@@ -30,9 +30,11 @@
 import ddf.catalog.plugin.PreDeliveryPlugin;
 import ddf.catalog.plugin.PreSubscriptionPlugin;
 import ddf.catalog.pubsub.criteria.contextual.ContextualEvaluator;
+import ddf.catalog.pubsub.criteria.contextual.ContextualIndex;
 import ddf.catalog.pubsub.internal.PubSubConstants;
 import ddf.catalog.pubsub.internal.PubSubThread;
 import ddf.catalog.pubsub.internal.SubscriptionFilterVisitor;
+import ddf.catalog.pubsub.internal.SubscriptionIndex;
 import ddf.catalog.pubsub.predicate.Predicate;
 import ddf.catalog.util.impl.Requests;
 import java.net.URI;
@@ -76,6 +78,8 @@ public class EventProcessorImpl implements EventProcessor, EventHandler, PostIng
 
   private Map<String, ServiceRegistration> existingSubscriptions;
 
+  private final SubscriptionIndex subscriptionIndex = new SubscriptionIndex();
+
   private final ExecutorService threadPool =
       Executors.newCachedThreadPool(
           StandardThreadFactoryBuilder.newThreadFactory("eventProcessorThread"));
@@ -123,6 +127,25 @@ public EventProcessorImpl(
    * @param eventAdmin - OSGi EventAdmin service used post events
    */
   public static void processEntry(Metacard metacard, String operation, EventAdmin eventAdmin) {
+    processEntry(metacard, operation, eventAdmin, null);
+  }
+
+  /**
+   * Processes an entry by adding properties from the metacard to the event. Then the eventAdmin is
+   * used to post the metacard properties as a single event. When a subscription index is
+   * specified, the IDs of the subscriptions that can match the entry are added to the event so
+   * that the other subscriptions ignore it without evaluating their predicates.
+   *
+   * @param metacard - the metacard to process
+   * @param operation - The type of event {@link ddf.catalog.pubsub.internal.PubSubConstants}
+   * @param eventAdmin - OSGi EventAdmin service used post events
+   * @param subscriptionIndex - index of the existing subscriptions, may be null
+   */
+  public static void processEntry(
+      Metacard metacard,
+      String operation,
+      EventAdmin eventAdmin,
+      SubscriptionIndex subscriptionIndex) {
     String methodName = "processEntry";
     LOGGER.trace(ENTERING, methodName);
 
@@ -131,7 +154,7 @@ public static void processEntry(Metacard metacard, String operation, EventAdmin
       LOGGER.debug("catalog ID = {}", metacard.getId());
       LOGGER.debug("operation = {}", operation);
 
-      HashMap<String, Object> properties = new HashMap<>(3, 1);
+      HashMap<String, Object> properties = new HashMap<>(8, 1);
 
       // Common headers
       properties.put(PubSubConstants.HEADER_OPERATION_KEY, operation);
@@ -177,21 +200,19 @@ public static void processEntry(Metacard metacard, String operation, EventAdmin
         try {
           // Build Lucene search index on entry's entire metadata using
           // default XPaths (specified
-          // in ContextualEvaluator) - this index will be used by all
-          // contextual predicates that do
-          // *NOT* specify any textPaths. (Building index here optimizes
-          // code so that this index is
-          // not built for every contextual subscription that has no
-          // textPaths.)
+          // in ContextualEvaluator) - this index will be
+          // shared by all contextual predicates for this entry. Predicates
+          // that specify textPaths share the indexes built for each
+          // distinct set of textPaths through the same ContextualIndex.
           Directory index = ContextualEvaluator.buildIndex(metacard.getMetadata());
+          ContextualIndex contextualIndex = new ContextualIndex(metacard.getMetadata(), index);
 
           // Build contextual info to be sent in event for this entry.
-          // Include the default Lucene search
-          // index and the entry's metadata (in case subscription has
-          // textPaths, then it can create Lucene
-          // search indices on the metadata using its textPaths)
-          Map<String, Object> contextualMap = new HashMap<>(2, 1);
-          contextualMap.put("DEFAULT_INDEX", index);
+          // Include the shared contextual index, the default Lucene search
+          // index and the entry's metadata
+          Map<String, Object> contextualMap = new HashMap<>(4, 1);
+          contextualMap.put(PubSubConstants.CONTEXTUAL_INDEX, contextualIndex);
+          contextualMap.put(PubSubConstants.DEFAULT_INDEX, index);
           contextualMap.put("METADATA", metacard.getMetadata());
           properties.put(PubSubConstants.HEADER_CONTEXTUAL_KEY, contextualMap);
         } catch (Exception e) {
@@ -199,6 +220,13 @@ public static void processEntry(Metacard metacard, String operation, EventAdmin
         }
       }
 
+      // CANDIDATE SUBSCRIPTIONS
+      if (subscriptionIndex != null) {
+        properties.put(
+            PubSubConstants.HEADER_CANDIDATES_KEY,
+            subscriptionIndex.getCandidates(metacard, operation));
+      }
+
       if (eventAdmin != null) {
         eventAdmin.postEvent(new Event(PubSubConstants.PUBLISHED_EVENT_TOPIC_NAME, properties));
       } else {
@@ -243,7 +271,7 @@ public void handleEvent(Event event) {
       Metacard entry = (Metacard) event.getProperty(EventProcessor.EVENT_METACARD);
       LOGGER.debug("metacard ID = {}", entry.getId());
 
-      new PubSubThread(entry, topic, eventAdmin).start();
+      new PubSubThread(entry, topic, eventAdmin, subscriptionIndex).start();
     } else {
       LOGGER.debug(
           "No existing subscriptions, so no need to handle event since there is no one listening ...");
@@ -293,10 +321,11 @@ public void createSubscription(Subscription subscription, String subscriptionId)
           bundleContext.registerService(
               EventHandler.class.getName(),
               new PublishedEventHandler(
-                  finalPredicate, subscription, preDelivery, catalog, threadPool),
+                  subscriptionId, finalPredicate, subscription, preDelivery, catalog, threadPool),
               props);
 
       existingSubscriptions.put(subscriptionId, serviceRegistration);
+      subscriptionIndex.add(subscriptionId, finalPredicate);
 
       LOGGER.debug("Subscription {} created.", subscriptionId);
     } catch (Exception e) {
@@ -339,6 +368,7 @@ public void deleteSubscription(String subscriptionId) throws SubscriptionNotFoun
         sr.unregister();
         LOGGER.debug("Removal complete");
         existingSubscriptions.remove(subscriptionId);
+        subscriptionIndex.remove(subscriptionId);
       } else {
         LOGGER.debug(
             "Unable to find existing subscription: {}.  May already be deleted.", subscriptionId);
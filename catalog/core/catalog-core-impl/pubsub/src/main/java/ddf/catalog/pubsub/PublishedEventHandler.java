@@ -35,6 +35,8 @@ public class PublishedEventHandler implements EventHandler {
 
   private final ExecutorService threadPool;
 
+  private final String subscriptionId;
+
   private Predicate predicate;
 
   private Subscription subscription;
@@ -49,6 +51,21 @@ public PublishedEventHandler(
       List<PreDeliveryPlugin> preDelivery,
       CatalogFramework catalog,
       ExecutorService threadPool) {
+    this(null, finalPredicate, subscription, preDelivery, catalog, threadPool);
+  }
+
+  /**
+   * @param subscriptionId the ID of the subscription, used to ignore events whose candidate
+   *     subscriptions do not include this subscription
+   */
+  public PublishedEventHandler(
+      String subscriptionId,
+      Predicate finalPredicate,
+      Subscription subscription,
+      List<PreDeliveryPlugin> preDelivery,
+      CatalogFramework catalog,
+      ExecutorService threadPool) {
+    this.subscriptionId = subscriptionId;
     this.predicate = finalPredicate;
     this.subscription = subscription;
     this.preDelivery = preDelivery;
@@ -58,9 +75,22 @@ public PublishedEventHandler(
 
   @Override
   public void handleEvent(Event event) {
+    if (!isCandidate(event)) {
+      LOGGER.trace("Subscription {} cannot match event, ignoring it", subscriptionId);
+      return;
+    }
     threadPool.submit(new EventProcessor(event));
   }
 
+  private boolean isCandidate(Event event) {
+    if (subscriptionId == null) {
+      return true;
+    }
+
+    Set<String> candidates = (Set<String>) event.getProperty(PubSubConstants.HEADER_CANDIDATES_KEY);
+    return candidates == null || candidates.contains(subscriptionId);
+  }
+
   private class EventProcessor implements Runnable {
 
     private Event event;
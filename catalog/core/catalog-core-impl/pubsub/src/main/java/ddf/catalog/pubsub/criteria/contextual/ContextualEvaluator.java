@@ -88,25 +88,53 @@ public static boolean evaluate(ContextualEvaluationCriteria cec)
     // text path(s)
     // and be used to determine if an element or attribute exist
     if (searchPhrase == null || searchPhrase.isEmpty()) {
-      String[] textPaths = cec.getTextPaths();
-      String fullDocument = cec.getMetadata();
-
-      if (textPaths != null && textPaths.length > 0 && fullDocument != null) {
-        String indexableText = getIndexableText(fullDocument, textPaths);
-        if (indexableText != null && !indexableText.isEmpty()) {
-          LOGGER.trace("Found element/attribute for textPaths");
-          return true;
-        }
-      }
+      return hasIndexableText(cec.getMetadata(), cec.getTextPaths());
+    }
 
-      LOGGER.trace(
-          "No search phrase specified and could not find element/attribute based on textPaths");
-      return false;
+    return evaluate(compile(searchPhrase, cec.isCaseSensitiveSearch()), index);
+  }
+
+  /**
+   * Searches an index with a query compiled by {@link #compile(String, boolean)}. The query and
+   * the index can be shared by concurrent evaluations; each evaluation opens its own read-only
+   * searcher and closes it before returning.
+   *
+   * @param query the compiled contextual query
+   * @param index the index of the metadata
+   * @return true if the indexed metadata matches the query
+   * @throws IOException
+   */
+  public static boolean evaluate(Query query, Directory index) throws IOException {
+    IndexSearcher searcher = new IndexSearcher(index, true);
+    try {
+      // a. search
+      int hitsPerPage = 1;
+      TopDocs topDocs = searcher.search(query, hitsPerPage);
+
+      // b. display results
+      LOGGER.debug("Found {} hits.", topDocs.totalHits);
+
+      return topDocs.totalHits > 0;
+    } finally {
+      // searcher can only be closed when there
+      // is no need to access the documents any more.
+      searcher.close();
     }
+  }
 
-    // a. query
+  /**
+   * Parses a normalized search phrase into a Lucene query that can be reused for every evaluation
+   * of the phrase.
+   *
+   * @param searchPhrase the normalized search phrase
+   * @param caseSensitiveSearch true to search the case-sensitive indexed text
+   * @return the parsed query
+   * @throws ParseException if the search phrase is not valid Lucene syntax
+   */
+  public static Query compile(String searchPhrase, boolean caseSensitiveSearch)
+      throws ParseException {
     QueryParser queryParser = null;
-    if (cec.isCaseSensitiveSearch()) {
+    if (caseSensitiveSearch) {
       LOGGER.debug("Doing case-sensitive search ...");
       queryParser =
           new QueryParser(
@@ -127,21 +155,29 @@ public static boolean evaluate(ContextualEvaluationCriteria cec)
     // contextual search phrase
     queryParser.setAllowLeadingWildcard(true);
 
-    Query q = queryParser.parse(searchPhrase);
-
-    // b. search
-    int hitsPerPage = 1;
-    IndexSearcher searcher = new IndexSearcher(index, true);
-    TopDocs topDocs = searcher.search(q, hitsPerPage);
-
-    // c. display results
-    LOGGER.debug("Found {} hits.", topDocs.totalHits);
+    return queryParser.parse(searchPhrase);
+  }
 
-    // searcher can only be closed when there
-    // is no need to access the documents any more.
-    searcher.close();
+  /**
+   * Determines if the specified text paths select any element or attribute of the document. Used
+   * for contextual criteria that do not specify a search phrase.
+   *
+   * @param fullDocument the XML document
+   * @param textPaths the XPath selectors
+   * @return true if the text paths select indexable text in the document
+   */
+  public static boolean hasIndexableText(String fullDocument, String[] textPaths) {
+    if (textPaths != null && textPaths.length > 0 && fullDocument != null) {
+      String indexableText = getIndexableText(fullDocument, textPaths);
+      if (indexableText != null && !indexableText.isEmpty()) {
+        LOGGER.trace("Found element/attribute for textPaths");
+        return true;
+      }
+    }
 
-    return topDocs.totalHits > 0;
+    LOGGER.trace(
+        "No search phrase specified and could not find element/attribute based on textPaths");
+    return false;
   }
 
   /**
@@ -0,0 +1,97 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.pubsub.criteria.contextual;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.lucene.store.Directory;
+
+/**
+ * The contextual index of a single published event, shared by every subscription evaluating that
+ * event.
+ *
+ * <p>Indexes for subscriptions that specify text paths are built the first time a subscription asks
+ * for a given set of text paths, and are then reused by every other subscription with the same text
+ * paths. No searcher is held open over the indexes, so nothing has to be closed once the event
+ * has been delivered. All methods are safe to call concurrently.
+ */
+public class ContextualIndex {
+
+  private static final List<String> DEFAULT_TEXT_PATHS = Collections.emptyList();
+
+  private final String metadata;
+
+  private final Map<List<String>, Directory> indexes = new ConcurrentHashMap<>();
+
+  /**
+   * Builds the default index for the specified metadata.
+   *
+   * @param metadata the XML metadata of the event's entry
+   * @throws IOException if the default index cannot be built
+   */
+  public ContextualIndex(String metadata) throws IOException {
+    this(metadata, ContextualEvaluator.buildIndex(metadata));
+  }
+
+  /**
+   * @param metadata the XML metadata of the event's entry
+   * @param defaultIndex the index of the metadata built with the default XPath selectors
+   */
+  public ContextualIndex(String metadata, Directory defaultIndex) {
+    this.metadata = metadata;
+    indexes.put(DEFAULT_TEXT_PATHS, defaultIndex);
+  }
+
+  public String getMetadata() {
+    return metadata;
+  }
+
+  /** @return the index built with the default XPath selectors */
+  public Directory getIndex() {
+    return indexes.get(DEFAULT_TEXT_PATHS);
+  }
+
+  /**
+   * Returns the index built with the specified text paths, building it if no other subscription has
+   * asked for these text paths yet.
+   *
+   * @param textPaths the XPath selectors used to extract the indexable text
+   * @return the index built with the text paths
+   * @throws IOException if the index cannot be built
+   */
+  public Directory getIndex(String[] textPaths) throws IOException {
+    if (textPaths == null || textPaths.length == 0) {
+      return getIndex();
+    }
+
+    try {
+      return indexes.computeIfAbsent(
+          Arrays.asList(textPaths.clone()),
+          paths -> {
+            try {
+              return ContextualEvaluator.buildIndex(metadata, textPaths.clone());
+            } catch (IOException e) {
+              throw new UncheckedIOException(e);
+            }
+          });
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+}
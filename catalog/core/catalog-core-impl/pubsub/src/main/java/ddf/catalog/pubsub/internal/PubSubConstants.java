@@ -22,6 +22,10 @@ public class PubSubConstants {
 
   public static final String HEADER_TEMPORAL_KEY = "temporalInput";
 
+  public static final String CONTEXTUAL_INDEX = "CONTEXTUAL_INDEX";
+
+  public static final String DEFAULT_INDEX = "DEFAULT_INDEX";
+
   public static final String HEADER_XPATH_KEY = "xpathInput";
 
   public static final String HEADER_ENTRY_KEY = "entry";
@@ -34,6 +38,8 @@ public class PubSubConstants {
 
   public static final String HEADER_DAD_KEY = "dad";
 
+  public static final String HEADER_CANDIDATES_KEY = "candidateSubscriptions";
+
   public static final String CREATE = "CREATE";
 
   public static final String DELETE = "DELETE";
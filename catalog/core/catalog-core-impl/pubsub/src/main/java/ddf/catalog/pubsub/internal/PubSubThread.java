@@ -29,10 +29,18 @@ public class PubSubThread extends Thread {
 
   private EventAdmin eventAdmin;
 
+  private SubscriptionIndex subscriptionIndex;
+
   public PubSubThread(Metacard entry, String topic, EventAdmin eventAdmin) {
+    this(entry, topic, eventAdmin, null);
+  }
+
+  public PubSubThread(
+      Metacard entry, String topic, EventAdmin eventAdmin, SubscriptionIndex subscriptionIndex) {
     this.entry = entry;
     this.topic = topic;
     this.eventAdmin = eventAdmin;
+    this.subscriptionIndex = subscriptionIndex;
   }
 
   @Override
@@ -40,13 +48,16 @@ public void run() {
     LOGGER.debug("Processing entry event in separate thread - topic = {}", topic);
 
     if (topic.equals(EventProcessor.EVENTS_TOPIC_CREATED)) {
-      EventProcessorImpl.processEntry(entry, PubSubConstants.CREATE, eventAdmin);
+      EventProcessorImpl.processEntry(
+          entry, PubSubConstants.CREATE, eventAdmin, subscriptionIndex);
       // new EventProcessorImpl().processEntry( entry, PubSubConstants.CREATE, eventAdmin );
     } else if (topic.equals(EventProcessor.EVENTS_TOPIC_UPDATED)) {
-      EventProcessorImpl.processEntry(entry, PubSubConstants.UPDATE, eventAdmin);
+      EventProcessorImpl.processEntry(
+          entry, PubSubConstants.UPDATE, eventAdmin, subscriptionIndex);
       // new EventProcessorImpl().processEntry( entry, PubSubConstants.UPDATE, eventAdmin );
     } else if (topic.equals(EventProcessor.EVENTS_TOPIC_DELETED)) {
-      EventProcessorImpl.processEntry(entry, PubSubConstants.DELETE, eventAdmin);
+      EventProcessorImpl.processEntry(
+          entry, PubSubConstants.DELETE, eventAdmin, subscriptionIndex);
       // new EventProcessorImpl().processEntry( entry, PubSubConstants.DELETE, eventAdmin );
     }
   }
@@ -0,0 +1,315 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.pubsub.internal;
+
+import ddf.catalog.data.Metacard;
+import ddf.catalog.pubsub.predicate.AndPredicate;
+import ddf.catalog.pubsub.predicate.ContentTypePredicate;
+import ddf.catalog.pubsub.predicate.GeospatialPredicate;
+import ddf.catalog.pubsub.predicate.OrPredicate;
+import ddf.catalog.pubsub.predicate.Predicate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.index.strtree.STRtree;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKTReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Index of the registered subscriptions used to find which subscriptions an event can possibly
+ * match without evaluating every subscription's predicate.
+ *
+ * <p>Each subscription's predicate is reduced to the constraints every matching event must satisfy:
+ * the envelopes its location must intersect and the content types it must have. Envelopes are kept
+ * in an {@link STRtree} and content types in an inverted index, and subscriptions without such a
+ * constraint are always candidates. The constraints are conservative, so the candidates always
+ * include every matching subscription and each candidate's predicate still gives the exact answer.
+ *
+ * <p>The indexes are rebuilt on the first lookup after subscriptions change, since subscriptions
+ * change far less often than events are published.
+ */
+public class SubscriptionIndex {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(SubscriptionIndex.class);
+
+  /** Spatial predicates compare with a tolerance, so envelopes are grown by at least this much. */
+  private static final double ENVELOPE_TOLERANCE = 0.000001;
+
+  /** Content types containing any of these characters are wildcards or regular expressions. */
+  private static final Pattern NON_LITERAL_CONTENT_TYPE =
+      Pattern.compile("[\\\\.*?+^$|()\\[\\]{}]");
+
+  private static final String UNKNOWN_CONTENT_TYPE = "UNKNOWN";
+
+  private final Map<String, Constraints> subscriptions = new ConcurrentHashMap<>();
+
+  private volatile Snapshot snapshot;
+
+  /**
+   * Adds or replaces a subscription in the index.
+   *
+   * @param subscriptionId the ID of the subscription
+   * @param predicate the subscription's predicate, or {@code null} for a filterless subscription
+   */
+  public void add(String subscriptionId, Predicate predicate) {
+    Constraints constraints = predicate == null ? Constraints.NONE : constraintsOf(predicate);
+    LOGGER.debug("Indexing subscription {} with constraints {}", subscriptionId, constraints);
+    subscriptions.put(subscriptionId, constraints);
+    snapshot = null;
+  }
+
+  public void remove(String subscriptionId) {
+    if (subscriptions.remove(subscriptionId) != null) {
+      snapshot = null;
+    }
+  }
+
+  public int size() {
+    return subscriptions.size();
+  }
+
+  /**
+   * Returns the IDs of the subscriptions that can match an event for the specified entry.
+   *
+   * @param metacard the entry of the event
+   * @param operation the operation of the event, one of the {@link PubSubConstants} operations
+   * @return the IDs of the candidate subscriptions
+   */
+  public Set<String> getCandidates(Metacard metacard, String operation) {
+    Snapshot current = getSnapshot();
+
+    // delete events without metadata match every content type and spatial predicate
+    if (PubSubConstants.DELETE.equals(operation)
+        && PubSubConstants.METADATA_DELETED.equals(metacard.getMetadata())) {
+      return current.all;
+    }
+
+    Set<String> candidates = new HashSet<>(current.unconstrained);
+
+    Set<String> contentTypeCandidates = new HashSet<>(current.anyContentType);
+    Set<String> byContentType = current.byContentType.get(getContentType(metacard));
+    if (byContentType != null) {
+      contentTypeCandidates.addAll(byContentType);
+    }
+
+    Geometry location = readLocation(metacard);
+    Set<String> spatialCandidates = new HashSet<>(current.anyLocation);
+    if (location == null) {
+      // without a location, leave the spatial predicates to decide
+      spatialCandidates.addAll(current.all);
+    } else {
+      for (Object subscriptionId : current.locations.query(location.getEnvelopeInternal())) {
+        spatialCandidates.add((String) subscriptionId);
+      }
+    }
+
+    contentTypeCandidates.retainAll(spatialCandidates);
+    candidates.addAll(contentTypeCandidates);
+
+    LOGGER.debug(
+        "Entry {} is a candidate for {} of {} subscriptions",
+        metacard.getId(),
+        candidates.size(),
+        current.all.size());
+    return candidates;
+  }
+
+  private Snapshot getSnapshot() {
+    Snapshot current = snapshot;
+    if (current == null) {
+      synchronized (this) {
+        current = snapshot;
+        if (current == null) {
+          current = new Snapshot(new HashMap<>(subscriptions));
+          snapshot = current;
+        }
+      }
+    }
+    return current;
+  }
+
+  /** Returns the content type the content type predicates compare, see {@code processEntry}. */
+  private String getContentType(Metacard metacard) {
+    String type = metacard.getContentTypeName();
+    if (type == null) {
+      return UNKNOWN_CONTENT_TYPE;
+    }
+
+    int separator = type.indexOf(',');
+    String contentType = separator < 0 ? type : type.substring(0, separator);
+    return contentType.isEmpty() ? "null" : contentType;
+  }
+
+  private Geometry readLocation(Metacard metacard) {
+    String wkt = metacard.getLocation();
+    if (wkt == null || wkt.isEmpty()) {
+      return null;
+    }
+
+    try {
+      return new WKTReader().read(wkt);
+    } catch (ParseException e) {
+      LOGGER.debug("Unable to read location of entry {}", metacard.getId(), e);
+      return null;
+    }
+  }
+
+  /** Reduces a predicate to the constraints every event it matches must satisfy. */
+  static Constraints constraintsOf(Predicate predicate) {
+    if (predicate instanceof AndPredicate) {
+      AndPredicate and = (AndPredicate) predicate;
+      return constraintsOf(and.getLeft()).and(constraintsOf(and.getRight()));
+    } else if (predicate instanceof OrPredicate) {
+      OrPredicate or = (OrPredicate) predicate;
+      return constraintsOf(or.getLeft()).or(constraintsOf(or.getRight()));
+    } else if (predicate instanceof GeospatialPredicate) {
+      GeospatialPredicate geospatial = (GeospatialPredicate) predicate;
+      if (geospatial.getGeoCriteria() == null) {
+        return Constraints.NONE;
+      }
+      Envelope envelope = new Envelope(geospatial.getGeoCriteria().getEnvelopeInternal());
+      envelope.expandBy(Math.abs(geospatial.getDistance()) + ENVELOPE_TOLERANCE);
+      return new Constraints(Collections.singletonList(envelope), null);
+    } else if (predicate instanceof ContentTypePredicate) {
+      String type = ((ContentTypePredicate) predicate).getType();
+      if (type == null || NON_LITERAL_CONTENT_TYPE.matcher(type).find()) {
+        return Constraints.NONE;
+      }
+      return new Constraints(null, Collections.singleton(type));
+    }
+
+    // contextual, temporal, entry, XPath and negated predicates are left to the exact check
+    return Constraints.NONE;
+  }
+
+  /**
+   * Necessary conditions on an event. A {@code null} list of envelopes or set of content types
+   * means the event is not constrained on its location or content type.
+   */
+  static class Constraints {
+
+    static final Constraints NONE = new Constraints(null, null);
+
+    private final List<Envelope> envelopes;
+
+    private final Set<String> contentTypes;
+
+    Constraints(List<Envelope> envelopes, Set<String> contentTypes) {
+      this.envelopes = envelopes;
+      this.contentTypes = contentTypes;
+    }
+
+    List<Envelope> getEnvelopes() {
+      return envelopes;
+    }
+
+    Set<String> getContentTypes() {
+      return contentTypes;
+    }
+
+    Constraints and(Constraints other) {
+      List<Envelope> andEnvelopes = envelopes != null ? envelopes : other.envelopes;
+
+      Set<String> andContentTypes;
+      if (contentTypes == null) {
+        andContentTypes = other.contentTypes;
+      } else if (other.contentTypes == null) {
+        andContentTypes = contentTypes;
+      } else {
+        andContentTypes = new HashSet<>(contentTypes);
+        andContentTypes.retainAll(other.contentTypes);
+      }
+
+      return new Constraints(andEnvelopes, andContentTypes);
+    }
+
+    Constraints or(Constraints other) {
+      List<Envelope> orEnvelopes = null;
+      if (envelopes != null && other.envelopes != null) {
+        orEnvelopes = new ArrayList<>(envelopes);
+        orEnvelopes.addAll(other.envelopes);
+      }
+
+      Set<String> orContentTypes = null;
+      if (contentTypes != null && other.contentTypes != null) {
+        orContentTypes = new HashSet<>(contentTypes);
+        orContentTypes.addAll(other.contentTypes);
+      }
+
+      return new Constraints(orEnvelopes, orContentTypes);
+    }
+
+    @Override
+    public String toString() {
+      return "envelopes = " + envelopes + ", contentTypes = " + contentTypes;
+    }
+  }
+
+  private static class Snapshot {
+
+    private final Set<String> all;
+
+    private final Set<String> unconstrained = new HashSet<>();
+
+    private final Set<String> anyContentType = new HashSet<>();
+
+    private final Set<String> anyLocation = new HashSet<>();
+
+    private final Map<String, Set<String>> byContentType = new HashMap<>();
+
+    private final STRtree locations = new STRtree();
+
+    private Snapshot(Map<String, Constraints> subscriptions) {
+      all = Collections.unmodifiableSet(new HashSet<>(subscriptions.keySet()));
+
+      for (Map.Entry<String, Constraints> entry : subscriptions.entrySet()) {
+        String subscriptionId = entry.getKey();
+        Constraints constraints = entry.getValue();
+
+        if (constraints.getEnvelopes() == null && constraints.getContentTypes() == null) {
+          unconstrained.add(subscriptionId);
+          continue;
+        }
+
+        if (constraints.getContentTypes() == null) {
+          anyContentType.add(subscriptionId);
+        } else {
+          for (String contentType : constraints.getContentTypes()) {
+            byContentType.computeIfAbsent(contentType, type -> new HashSet<>()).add(subscriptionId);
+          }
+        }
+
+        if (constraints.getEnvelopes() == null) {
+          anyLocation.add(subscriptionId);
+        } else {
+          for (Envelope envelope : constraints.getEnvelopes()) {
+            locations.insert(envelope, subscriptionId);
+          }
+        }
+      }
+
+      locations.build();
+    }
+  }
+}
@@ -13,9 +13,8 @@
  */
 package ddf.catalog.pubsub.predicate;
 
-import ddf.catalog.pubsub.criteria.contextual.ContextualEvaluationCriteria;
-import ddf.catalog.pubsub.criteria.contextual.ContextualEvaluationCriteriaImpl;
 import ddf.catalog.pubsub.criteria.contextual.ContextualEvaluator;
+import ddf.catalog.pubsub.criteria.contextual.ContextualIndex;
 import ddf.catalog.pubsub.criteria.contextual.ContextualTokenizer;
 import ddf.catalog.pubsub.internal.PubSubConstants;
 import java.io.IOException;
@@ -26,6 +25,7 @@
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang.builder.ToStringBuilder;
 import org.apache.lucene.queryParser.ParseException;
+import org.apache.lucene.search.Query;
 import org.apache.lucene.store.Directory;
 import org.osgi.service.event.Event;
 import org.slf4j.Logger;
@@ -42,6 +42,14 @@ public class ContextualPredicate implements Predicate {
 
   private Collection<String> textPaths;
 
+  /**
+   * The search phrase parsed once when the predicate is created, or {@code null} if the predicate
+   * has no search phrase or the phrase could not be parsed.
+   */
+  private Query query;
+
+  private boolean invalidSearchPhrase;
+
   public ContextualPredicate(
       String searchPhrase,
       boolean fuzzy,
@@ -55,6 +63,15 @@ public ContextualPredicate(
       this.textPaths = new ArrayList<String>(textPaths);
     }
     this.searchPhrase = normalizePhrase(searchPhrase, fuzzy);
+
+    if (!this.searchPhrase.isEmpty()) {
+      try {
+        this.query = ContextualEvaluator.compile(this.searchPhrase, caseSensitiveSearch);
+      } catch (ParseException e) {
+        LOGGER.debug("Unable to parse contextual search phrase [{}]", this.searchPhrase, e);
+        this.invalidSearchPhrase = true;
+      }
+    }
   }
 
   public static boolean isContextual(String searchPhrase) {
@@ -209,7 +226,6 @@ public boolean matches(Event properties) {
 
     LOGGER.debug("Headers: {}", properties);
 
-    ContextualEvaluationCriteria cec = null;
     Map<String, Object> contextualMap =
         (Map<String, Object>) properties.getProperty(PubSubConstants.HEADER_CONTEXTUAL_KEY);
 
@@ -235,46 +251,32 @@ public boolean matches(Event properties) {
       return true;
     }
 
-    // If predicate specified one or more text paths, then extract the entry's metadata from the
-    // Event properties and
-    // pass it and the text path(s) to the evaluation criteria (which will build a Lucene index
-    // on the metadata using the
-    // text paths)
-    if (this.textPaths != null && !this.textPaths.isEmpty()) {
-      LOGGER.debug("creating criteria with textPaths and metadata document");
-      try {
-        cec =
-            new ContextualEvaluationCriteriaImpl(
-                searchPhrase,
-                fuzzy,
-                caseSensitiveSearch,
-                this.textPaths.toArray(new String[this.textPaths.size()]),
-                (String) contextualMap.get("METADATA"));
-      } catch (IOException e) {
-        LOGGER.debug("IO exception during context evaluation", e);
-        return false;
-      }
+    if (invalidSearchPhrase) {
+      LOGGER.debug("Search phrase [{}] could not be parsed, so no event matches", searchPhrase);
+      return false;
+    }
 
-      // This predicate has no text paths specified, so can use default Lucene search index, which
-      // indexed the entry's entire metadata
-      // per the default XPath expressions in ContextualEvaluator, from the event's properties
-      // data
-    } else {
-      LOGGER.debug("using default Lucene search index for metadata");
-      cec =
-          new ContextualEvaluationCriteriaImpl(
-              searchPhrase,
-              fuzzy,
-              caseSensitiveSearch,
-              (Directory) contextualMap.get("DEFAULT_INDEX"));
+    String[] textPathArray =
+        hasTextPaths() ? this.textPaths.toArray(new String[this.textPaths.size()]) : null;
+
+    // With no search phrase, the predicate only checks that its text paths select something in
+    // the entry's metadata, so there is nothing to search
+    if (query == null) {
+      return ContextualEvaluator.hasIndexableText(metadata, textPathArray);
     }
 
+    // The event carries one contextual index that every subscription shares: the default Lucene
+    // search index, which indexed the entry's entire metadata per the default XPath expressions
+    // in ContextualEvaluator, and the indexes built for each distinct set of text paths
     try {
-      return ContextualEvaluator.evaluate(cec);
+      ContextualIndex contextualIndex = getContextualIndex(contextualMap, metadata);
+      Directory index =
+          textPathArray != null
+              ? contextualIndex.getIndex(textPathArray)
+              : contextualIndex.getIndex();
+      return ContextualEvaluator.evaluate(query, index);
     } catch (IOException e) {
       LOGGER.debug("IO Exception evaluating context criteria", e);
-    } catch (ParseException e) {
-      LOGGER.debug("Parse Exception evaluating context criteria", e);
     }
 
     LOGGER.debug("EXITING: {}", methodName);
@@ -282,6 +284,28 @@ public boolean matches(Event properties) {
     return false;
   }
 
+  /**
+   * Returns the contextual index shared by all subscriptions for the event. Events that only carry
+   * the default index, such as events built outside of {@link
+   * ddf.catalog.pubsub.EventProcessorImpl}, get a contextual index wrapping it, which is then
+   * shared the same way.
+   */
+  private ContextualIndex getContextualIndex(Map<String, Object> contextualMap, String metadata)
+      throws IOException {
+    synchronized (contextualMap) {
+      Object contextualIndex = contextualMap.get(PubSubConstants.CONTEXTUAL_INDEX);
+      if (!(contextualIndex instanceof ContextualIndex)) {
+        Directory defaultIndex = (Directory) contextualMap.get(PubSubConstants.DEFAULT_INDEX);
+        contextualIndex =
+            defaultIndex != null
+                ? new ContextualIndex(metadata, defaultIndex)
+                : new ContextualIndex(metadata);
+        contextualMap.put(PubSubConstants.CONTEXTUAL_INDEX, contextualIndex);
+      }
+      return (ContextualIndex) contextualIndex;
+    }
+  }
+
   public String getSearchPhrase() {
     return searchPhrase;
   }
@@ -18,6 +18,7 @@
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
@@ -27,6 +28,7 @@
 import ddf.catalog.pubsub.criteria.contenttype.ContentTypeEvaluationCriteriaImpl;
 import ddf.catalog.pubsub.criteria.contenttype.ContentTypeEvaluator;
 import ddf.catalog.pubsub.criteria.contextual.ContextualEvaluator;
+import ddf.catalog.pubsub.criteria.contextual.ContextualIndex;
 import ddf.catalog.pubsub.criteria.contextual.ContextualTokenizer;
 import ddf.catalog.pubsub.criteria.geospatial.GeospatialEvaluationCriteria;
 import ddf.catalog.pubsub.criteria.geospatial.GeospatialEvaluationCriteriaImpl;
@@ -1123,6 +1125,35 @@ public void testContextualQuery() throws Exception {
     LOGGER.debug("***************  END: {}  *****************", methodName);
   }
 
+  @Test
+  public void testContextualQueryManySubscriptionsShareEventIndex() throws Exception {
+    int subscriptionCount = 1000;
+    List<Predicate> predicates = new ArrayList<>(subscriptionCount);
+    for (int i = 0; i < subscriptionCount; i++) {
+      predicates.add(getPredicate(i % 2 == 0 ? "serengeti event" : "serengeti"));
+    }
+
+    Event testEvent = getEvent(TestDataLibrary.getCatAndDogEntry());
+
+    for (Predicate predicate : predicates) {
+      assertTrue(predicate.matches(testEvent));
+    }
+
+    Map<String, Object> contextualMap =
+        (Map<String, Object>) testEvent.getProperty(PubSubConstants.HEADER_CONTEXTUAL_KEY);
+    assertThat(
+        contextualMap.get(PubSubConstants.CONTEXTUAL_INDEX) instanceof ContextualIndex, is(true));
+  }
+
+  @Test
+  public void testContextualIndexSharesTextPathIndexes() throws Exception {
+    ContextualIndex contextualIndex = new ContextualIndex(TestDataLibrary.getCatAndDogEntry());
+    String[] textPaths = new String[] {"//title"};
+
+    assertSame(contextualIndex.getIndex(textPaths), contextualIndex.getIndex(textPaths));
+    assertSame(contextualIndex.getIndex(), contextualIndex.getIndex(null));
+  }
+
   @Test
   public void testCaseSensitiveContextualQuery() throws Exception {
     String methodName = "testCaseSensitiveContextualQuery";
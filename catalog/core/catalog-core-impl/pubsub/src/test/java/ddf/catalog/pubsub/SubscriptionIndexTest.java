@@ -0,0 +1,167 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.pubsub;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.pubsub.internal.PubSubConstants;
+import ddf.catalog.pubsub.internal.SubscriptionIndex;
+import ddf.catalog.pubsub.predicate.AndPredicate;
+import ddf.catalog.pubsub.predicate.ContentTypePredicate;
+import ddf.catalog.pubsub.predicate.GeospatialPredicate;
+import ddf.catalog.pubsub.predicate.NotPredicate;
+import ddf.catalog.pubsub.predicate.OrPredicate;
+import ddf.catalog.pubsub.predicate.Predicate;
+import java.util.Set;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.osgi.service.event.Event;
+import org.osgi.service.event.EventAdmin;
+
+public class SubscriptionIndexTest {
+
+  private static final String NORTH_EAST = "POLYGON ((10 10, 20 10, 20 20, 10 20, 10 10))";
+
+  private static final String SOUTH_WEST =
+      "POLYGON ((-20 -20, -10 -20, -10 -10, -20 -10, -20 -20))";
+
+  private SubscriptionIndex index;
+
+  @Before
+  public void setUp() {
+    index = new SubscriptionIndex();
+  }
+
+  @Test
+  public void testSpatialCandidates() {
+    index.add("northEast", contains(NORTH_EAST));
+    index.add("southWest", contains(SOUTH_WEST));
+    index.add("nearSouthWest", new GeospatialPredicate("POINT (-5 -5)", null, 8.0));
+
+    assertThat(candidates("POINT (15 15)", "type"), containsInAnyOrder("northEast"));
+    assertThat(
+        candidates("POINT (-12 -12)", "type"), containsInAnyOrder("southWest", "nearSouthWest"));
+    assertThat(candidates("POINT (50 50)", "type"), is(empty()));
+  }
+
+  @Test
+  public void testEntryWithoutLocationIsCandidateForSpatialSubscriptions() {
+    index.add("northEast", contains(NORTH_EAST));
+    index.add("nitf", new ContentTypePredicate("nitf", null));
+
+    assertThat(candidates(null, "nitf"), containsInAnyOrder("northEast", "nitf"));
+    assertThat(candidates("NOT WKT", "other"), containsInAnyOrder("northEast"));
+  }
+
+  @Test
+  public void testContentTypeCandidates() {
+    index.add("nitf", new ContentTypePredicate("nitf", "2.1"));
+    index.add("pdf", new ContentTypePredicate("pdf", null));
+    index.add("wildcard", new ContentTypePredicate("ni*", null));
+    index.add("unknown", new ContentTypePredicate("UNKNOWN", null));
+
+    assertThat(candidates(null, "nitf"), containsInAnyOrder("nitf", "wildcard"));
+    assertThat(candidates(null, "pdf"), containsInAnyOrder("pdf", "wildcard"));
+    assertThat(candidates(null, null), containsInAnyOrder("unknown", "wildcard"));
+  }
+
+  @Test
+  public void testCompoundPredicateCandidates() {
+    index.add(
+        "nitfInNorthEast",
+        new AndPredicate(new ContentTypePredicate("nitf", null), contains(NORTH_EAST)));
+    index.add("eitherCorner", new OrPredicate(contains(NORTH_EAST), contains(SOUTH_WEST)));
+    index.add(
+        "nitfOrNorthEast",
+        new OrPredicate(new ContentTypePredicate("nitf", null), contains(NORTH_EAST)));
+    index.add("notNitf", new NotPredicate(new ContentTypePredicate("nitf", null)));
+    index.add("filterless", null);
+
+    assertThat(
+        candidates("POINT (15 15)", "nitf"),
+        containsInAnyOrder(
+            "nitfInNorthEast", "eitherCorner", "nitfOrNorthEast", "notNitf", "filterless"));
+    assertThat(
+        candidates("POINT (15 15)", "pdf"),
+        containsInAnyOrder("eitherCorner", "nitfOrNorthEast", "notNitf", "filterless"));
+    assertThat(
+        candidates("POINT (-15 -15)", "pdf"),
+        containsInAnyOrder("eitherCorner", "nitfOrNorthEast", "notNitf", "filterless"));
+  }
+
+  @Test
+  public void testDeletedEntryIsCandidateForAllSubscriptions() {
+    index.add("northEast", contains(NORTH_EAST));
+    index.add("nitf", new ContentTypePredicate("nitf", null));
+
+    MetacardImpl metacard = metacard("POINT (50 50)", "pdf");
+    metacard.setMetadata(PubSubConstants.METADATA_DELETED);
+
+    assertThat(
+        index.getCandidates(metacard, PubSubConstants.DELETE),
+        containsInAnyOrder("northEast", "nitf"));
+  }
+
+  @Test
+  public void testRemovedSubscriptionIsNotCandidate() {
+    index.add("northEast", contains(NORTH_EAST));
+    index.add("alsoNorthEast", contains(NORTH_EAST));
+    assertThat(
+        candidates("POINT (15 15)", "type"), containsInAnyOrder("northEast", "alsoNorthEast"));
+
+    index.remove("northEast");
+
+    assertThat(candidates("POINT (15 15)", "type"), containsInAnyOrder("alsoNorthEast"));
+    assertThat(index.size(), is(1));
+  }
+
+  @Test
+  public void testProcessEntryAddsCandidatesToEvent() {
+    index.add("northEast", contains(NORTH_EAST));
+    index.add("southWest", contains(SOUTH_WEST));
+    EventAdmin eventAdmin = mock(EventAdmin.class);
+
+    EventProcessorImpl.processEntry(
+        metacard("POINT (15 15)", "type"), PubSubConstants.CREATE, eventAdmin, index);
+
+    ArgumentCaptor<Event> event = ArgumentCaptor.forClass(Event.class);
+    verify(eventAdmin).postEvent(event.capture());
+    assertThat(
+        (Set<String>) event.getValue().getProperty(PubSubConstants.HEADER_CANDIDATES_KEY),
+        containsInAnyOrder("northEast"));
+  }
+
+  private Predicate contains(String wkt) {
+    return new GeospatialPredicate(wkt, "CONTAINS", 0.0);
+  }
+
+  private Set<String> candidates(String location, String contentType) {
+    return index.getCandidates(metacard(location, contentType), PubSubConstants.CREATE);
+  }
+
+  private MetacardImpl metacard(String location, String contentType) {
+    MetacardImpl metacard = new MetacardImpl();
+    metacard.setId("id");
+    metacard.setLocation(location);
+    metacard.setContentTypeName(contentType);
+    return metacard;
+  }
+}
@@ -0,0 +1,105 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.content.impl;
+
+import com.google.common.io.ByteSource;
+import com.google.common.io.ByteStreams;
+import ddf.security.encryption.crypter.Crypter;
+import ddf.security.encryption.crypter.Crypter.CrypterException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.apache.commons.lang.Validate;
+
+/**
+ * {@link ByteSource} over an encrypted content file that decrypts lazily, as the content is read.
+ *
+ * <p>Stored content is encrypted in independently authenticated segments, so a slice of this
+ * source only decrypts the segments it covers instead of the whole file. Nothing is copied to
+ * temporary storage.
+ */
+class DecryptingFileByteSource extends ByteSource {
+
+  private final Crypter crypter;
+
+  private final Path path;
+
+  private final long offset;
+
+  private final long length;
+
+  DecryptingFileByteSource(Crypter crypter, Path path) {
+    this(crypter, path, 0, Long.MAX_VALUE);
+  }
+
+  private DecryptingFileByteSource(Crypter crypter, Path path, long offset, long length) {
+    this.crypter = crypter;
+    this.path = path;
+    this.offset = offset;
+    this.length = length;
+  }
+
+  @Override
+  public InputStream openStream() throws IOException {
+    SeekableByteChannel decryptedChannel = openDecryptedChannel();
+    try {
+      if (offset > 0) {
+        decryptedChannel.position(offset);
+      }
+    } catch (IOException e) {
+      decryptedChannel.close();
+      throw e;
+    }
+
+    InputStream decryptedInputStream = Channels.newInputStream(decryptedChannel);
+    return length == Long.MAX_VALUE
+        ? decryptedInputStream
+        : ByteStreams.limit(decryptedInputStream, length);
+  }
+
+  @Override
+  public long size() throws IOException {
+    try (SeekableByteChannel decryptedChannel = openDecryptedChannel()) {
+      return Math.min(length, Math.max(0, decryptedChannel.size() - offset));
+    }
+  }
+
+  @Override
+  public ByteSource slice(long sliceOffset, long sliceLength) {
+    Validate.isTrue(sliceOffset >= 0, "offset cannot be negative");
+    Validate.isTrue(sliceLength >= 0, "length cannot be negative");
+
+    long maxLength = Math.max(0, length - sliceOffset);
+    return new DecryptingFileByteSource(
+        crypter, path, offset + sliceOffset, Math.min(sliceLength, maxLength));
+  }
+
+  @Override
+  public String toString() {
+    return String.format("DecryptingFileByteSource(%s, %d, %d)", path, offset, length);
+  }
+
+  private SeekableByteChannel openDecryptedChannel() throws IOException {
+    SeekableByteChannel encryptedChannel = Files.newByteChannel(path);
+    try {
+      return crypter.decrypt(encryptedChannel);
+    } catch (CrypterException e) {
+      encryptedChannel.close();
+      throw new IOException(String.format("Cannot decrypt content file %s.", path), e);
+    }
+  }
+}
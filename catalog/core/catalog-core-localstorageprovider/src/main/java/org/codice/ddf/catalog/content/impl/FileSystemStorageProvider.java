@@ -14,6 +14,8 @@
 package org.codice.ddf.catalog.content.impl;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.io.ByteSource;
 import com.google.common.io.FileBackedOutputStream;
 import ddf.catalog.Constants;
@@ -44,6 +46,7 @@
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Serializable;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
@@ -55,9 +58,11 @@
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -91,6 +96,10 @@ public class FileSystemStorageProvider implements StorageProvider {
 
   public static final String REF_EXT = "external-reference";
 
+  @VisibleForTesting static final String BYTES_TO_SKIP = "BytesToSkip";
+
+  private static final int MIME_TYPE_CACHE_SIZE = 10000;
+
   /** Mapper for file extensions-to-mime types (and vice versa) */
   private MimeTypeMapper mimeTypeMapper;
 
@@ -105,6 +114,13 @@ public class FileSystemStorageProvider implements StorageProvider {
 
   private Crypter crypter;
 
+  /**
+   * MIME types of stored content files, keyed by the path, size and modification time of the file
+   * so that an entry is not used once its content is replaced
+   */
+  private final Cache<List<Object>, String> mimeTypeCache =
+      CacheBuilder.newBuilder().maximumSize(MIME_TYPE_CACHE_SIZE).build();
+
   /** Default constructor, invoked by blueprint. */
   public FileSystemStorageProvider() {
     LOGGER.debug("File System Provider initializing...");
@@ -161,7 +177,7 @@ public ReadStorageResponse read(ReadStorageRequest readRequest) throws StorageEx
     }
 
     URI uri = readRequest.getResourceUri();
-    ContentItem returnItem = readContent(uri);
+    ContentItem returnItem = readContent(uri, getBytesToSkip(readRequest));
     return new ReadStorageResponseImpl(readRequest, returnItem);
   }
 
@@ -402,7 +418,21 @@ public void rollback(StorageRequest request) throws StorageException {
     }
   }
 
-  private ContentItem readContent(URI uri) throws StorageException {
+  private long getBytesToSkip(ReadStorageRequest readRequest) {
+    Serializable bytesToSkip = readRequest.getPropertyValue(BYTES_TO_SKIP);
+    if (bytesToSkip == null) {
+      return 0;
+    }
+
+    try {
+      return Math.max(0, Long.parseLong(bytesToSkip.toString()));
+    } catch (NumberFormatException e) {
+      LOGGER.debug("Invalid number of bytes to skip [{}]; reading from the start.", bytesToSkip);
+      return 0;
+    }
+  }
+
+  private ContentItem readContent(URI uri, long bytesToSkip) throws StorageException {
     Path path = getContentFilePath(uri);
 
     if (path == null) {
@@ -412,10 +442,11 @@ private ContentItem readContent(URI uri) throws StorageException {
 
     String filename = path.getFileName().toString();
 
-    // resolve external reference if necessary, determine the extension, and retrieve an
-    // InputStream to the content
-    InputStream contentInputStream;
+    // resolve external reference if necessary, determine the extension, and retrieve a
+    // ByteSource over the decrypted content
+    ByteSource byteSource;
     String extension;
+    List<Object> mimeTypeCacheKey = null;
 
     try {
       if (REF_EXT.equals(FilenameUtils.getExtension(filename))) {
@@ -423,18 +454,26 @@ private ContentItem readContent(URI uri) throws StorageException {
         extension =
             FilenameUtils.getExtension(
                 FilenameUtils.removeExtension(path.getFileName().toString()));
-        contentInputStream = getInputStreamFromReference(path);
+        byteSource = decryptStream(getInputStreamFromReference(path));
       } else {
         extension = FilenameUtils.getExtension(path.getFileName().toString());
-        contentInputStream = getInputStreamFromResource(path);
+        // stored content is decrypted lazily, only for the bytes that are actually read
+        byteSource = new DecryptingFileByteSource(crypter, path);
+        // external references are not cached since the content they refer to may change
+        mimeTypeCacheKey = getMimeTypeCacheKey(path);
       }
     } catch (IOException e) {
       throw new StorageException(
           String.format("Unable to resolve InputStream given URI of %s", uri), e);
     }
 
-    // decrypt the content and return as a ByteSource
-    ByteSource byteSource = decryptStream(contentInputStream);
+    // determine the MimeType of the content before any requested bytes are skipped
+    String mimeType = determineMimeType(extension, path, byteSource, mimeTypeCacheKey);
+
+    if (bytesToSkip > 0) {
+      LOGGER.debug("Skipping {} bytes of content {}", bytesToSkip, uri);
+      byteSource = byteSource.slice(bytesToSkip, Long.MAX_VALUE);
+    }
 
     // determine the size of the content
     long size = 0;
@@ -445,9 +484,6 @@ private ContentItem readContent(URI uri) throws StorageException {
       LOGGER.debug("Problem determining size of resource; defaulting to {}.", size, e);
     }
 
-    // determine the MimeType of the content
-    String mimeType = determineMimeType(extension, path, byteSource);
-
     return new ContentItemImpl(
         uri.getSchemeSpecificPart(), uri.getFragment(), byteSource, mimeType, filename, size, null);
   }
@@ -487,12 +523,25 @@ private InputStream getInputStreamFromResource(Path path) throws IOException {
     return Files.newInputStream(path);
   }
 
-  private String determineMimeType(String extension, Path path, ByteSource byteSource) {
+  private List<Object> getMimeTypeCacheKey(Path path) throws IOException {
+    BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+    return Arrays.asList(path, attributes.size(), attributes.lastModifiedTime());
+  }
+
+  private String determineMimeType(
+      String extension, Path path, ByteSource byteSource, List<Object> mimeTypeCacheKey) {
+    if (mimeTypeCacheKey != null) {
+      String cachedMimeType = mimeTypeCache.getIfPresent(mimeTypeCacheKey);
+      if (cachedMimeType != null) {
+        return cachedMimeType;
+      }
+    }
+
     String mimeType = DEFAULT_MIME_TYPE;
 
     // guess MimeType
-    try {
-      mimeType = mimeTypeMapper.guessMimeType(byteSource.openStream(), extension);
+    try (InputStream inputStream = byteSource.openStream()) {
+      mimeType = mimeTypeMapper.guessMimeType(inputStream, extension);
     } catch (IOException | MimeTypeResolutionException e) {
       LOGGER.debug(
           "Could not determine mime type for file extension = {}; defaulting to {}.",
@@ -510,6 +559,9 @@ private String determineMimeType(String extension, Path path, ByteSource byteSou
       }
     }
 
+    if (mimeTypeCacheKey != null && mimeType != null) {
+      mimeTypeCache.put(mimeTypeCacheKey, mimeType);
+    }
     return mimeType;
   }
 
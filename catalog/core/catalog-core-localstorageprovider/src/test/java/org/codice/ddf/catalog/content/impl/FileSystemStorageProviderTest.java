@@ -27,6 +27,7 @@
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -63,6 +64,7 @@
 import java.io.Serializable;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -168,6 +170,40 @@ public void testRead() throws Exception {
     assertReadRequest(uriString, NITF_MIME_TYPE);
   }
 
+  @Test
+  public void testReadCachesMimeType() throws Exception {
+    MimeTypeMapper mapper =
+        spy(new MimeTypeMapperImpl(Collections.singletonList(new MockMimeTypeResolver())));
+    provider.setMimeTypeMapper(mapper);
+    CreateStorageResponse createResponse =
+        assertContentItem(TEST_INPUT_CONTENTS, NITF_MIME_TYPE, TEST_INPUT_FILENAME);
+    String uriString = createResponse.getCreatedContentItems().get(0).getUri();
+
+    assertReadRequest(uriString, NITF_MIME_TYPE);
+    assertReadRequest(uriString, NITF_MIME_TYPE);
+
+    verify(mapper, times(1)).guessMimeType(any(), any());
+  }
+
+  @Test
+  public void testReadWithBytesToSkip() throws Exception {
+    CreateStorageResponse createResponse =
+        assertContentItem(TEST_INPUT_CONTENTS, NITF_MIME_TYPE, TEST_INPUT_FILENAME);
+    URI uri = new URI(createResponse.getCreatedContentItems().get(0).getUri());
+
+    ReadStorageResponse readResponse =
+        provider.read(
+            new ReadStorageRequestImpl(
+                uri, Collections.singletonMap(FileSystemStorageProvider.BYTES_TO_SKIP, 5L)));
+    ContentItem item = readResponse.getContentItem();
+
+    assertThat(item.getMimeTypeRawData(), is(NITF_MIME_TYPE));
+    assertThat(item.getSize(), is((long) TEST_INPUT_CONTENTS.length() - 5));
+    assertThat(
+        IOUtils.toString(item.getInputStream(), StandardCharsets.UTF_8),
+        is(TEST_INPUT_CONTENTS.substring(5)));
+  }
+
   @Test(expected = StorageException.class)
   public void testReadDeletedReference() throws Exception {
     Path tempFile = Files.createTempFile("test", "nitf");
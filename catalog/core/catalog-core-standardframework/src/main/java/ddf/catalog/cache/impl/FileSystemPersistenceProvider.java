@@ -13,88 +13,148 @@
  */
 package ddf.catalog.cache.impl;
 
+import com.hazelcast.core.HazelcastInstance;
 import com.hazelcast.core.MapLoader;
+import com.hazelcast.core.MapLoaderLifecycleSupport;
 import com.hazelcast.core.MapStore;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.resource.data.ReliableResource;
 import java.io.BufferedInputStream;
-import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.ObjectInput;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutput;
 import java.io.ObjectOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.PathMatcher;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Properties;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import javax.activation.MimeType;
+import javax.activation.MimeTypeParseException;
 import org.apache.commons.io.FileUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Hazelcast persistence provider implementation of @MapLoader and @MapStore to serialize and
- * persist Java objects stored in Hazelcast cache to disk.
+ * Hazelcast persistence provider implementation of @MapLoader and @MapStore to persist Java objects
+ * stored in Hazelcast cache to disk.
+ *
+ * <p>Entries are appended to a single {@link ProductCacheLog} in the persistence directory.
+ * {@link ReliableResource}s are written with a compact binary encoding of their fields, while
+ * their metacard and any other value use Java serialization. Starting up reads the log once to
+ * index its keys, values are only decoded when Hazelcast loads them, and batches of entries are
+ * written or deleted with a single write. The log is compacted when it is opened and while it is
+ * written, whenever stale entries make up more than half of it. Entries persisted one file per key
+ * by previous versions are moved to the log the first time it is opened.
  */
 public class FileSystemPersistenceProvider
-    implements MapLoader<String, Object>, MapStore<String, Object> {
+    implements MapLoader<String, Object>,
+        MapStore<String, Object>,
+        MapLoaderLifecycleSupport {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(FileSystemPersistenceProvider.class);
 
-  private static final String EXT = ".ser";
+  static final String LOG_FILE_NAME = "product-cache.log";
 
   private static final String EXT_REGEX = "\\.ser";
 
   private static final String EXT_PATH_MATCH = "glob:**.ser";
+
+  private static final byte SERIALIZED_VALUE = 0;
+
+  private static final byte RELIABLE_RESOURCE_VALUE = 1;
+
   private File persistencePath;
 
+  private ProductCacheLog log;
+
   FileSystemPersistenceProvider(String mapName, String persistencePath) {
     LOGGER.trace("INSIDE: FileSystemPersistenceProvider constructor,  mapName = {}", mapName);
     this.persistencePath = new File(persistencePath);
     initializePersistencePath();
+    openLog();
   }
 
   @Override
-  public void store(String key, Object value) {
-    LOGGER.trace("Entering: store - key: {}", key);
-    try (ObjectOutput output =
-        new ObjectOutputStream(
-            new BufferedOutputStream(new FileOutputStream(getMapStoreFile(key))))) {
-      LOGGER.debug("file name: {}/{}{}", persistencePath, key, EXT);
-      output.writeObject(value);
+  public void init(HazelcastInstance hazelcastInstance, Properties properties, String mapName) {
+    // the log is opened when the provider is created
+  }
+
+  @Override
+  public void destroy() {
+    try {
+      log.close();
     } catch (IOException e) {
-      LOGGER.debug("IOException storing value in cache with key = " + key, e);
+      LOGGER.debug("Unable to close {}", getLogPath(), e);
     }
+  }
+
+  @Override
+  public void store(String key, Object value) {
+    LOGGER.trace("Entering: store - key: {}", key);
+    storeAll(Collections.singletonMap(key, value));
     LOGGER.trace("Exiting: store");
   }
 
   @Override
   public void storeAll(Map<String, Object> keyValueMap) {
-    keyValueMap.forEach(this::store);
+    Map<String, byte[]> values = new HashMap<>();
+    for (Map.Entry<String, Object> entry : keyValueMap.entrySet()) {
+      try {
+        values.put(entry.getKey(), encode(entry.getValue()));
+      } catch (IOException e) {
+        LOGGER.debug("IOException storing value in cache with key = " + entry.getKey(), e);
+      }
+    }
+
+    try {
+      log.putAll(values);
+    } catch (IOException e) {
+      LOGGER.debug("IOException storing values in cache with keys = " + values.keySet(), e);
+    }
   }
 
   @Override
   public void delete(String key) {
-    FileUtils.deleteQuietly(getMapStoreFile(key));
+    deleteAll(Collections.singletonList(key));
   }
 
   @Override
   public void deleteAll(Collection<String> keys) {
-    keys.forEach(this::delete);
+    try {
+      log.deleteAll(keys);
+    } catch (IOException e) {
+      LOGGER.debug("IOException deleting values in cache with keys = " + keys, e);
+    }
   }
 
   @Override
   public Object load(String key) {
-    // Not implemented because the Hazelcast data grid is all in cache,
-    // so never have something persisted that is
-    // not in memory and want to avoid a performance hit on the file system
+    try {
+      byte[] value = log.get(key);
+      return value == null ? null : decode(key, value);
+    } catch (IOException e) {
+      LOGGER.info("Unable to read object.", e);
+    } catch (ClassNotFoundException e) {
+      LOGGER.info("Class for object being read from stream does not exist.", e);
+      delete(key);
+    }
+
     return null;
   }
 
@@ -104,7 +164,7 @@ public Map<String, Object> loadAll(Collection<String> keys) {
 
     keys.forEach(
         key -> {
-          Object obj = loadFromPersistence(key);
+          Object obj = load(key);
           if (obj != null) {
             values.put(key, obj);
           }
@@ -114,31 +174,29 @@ public Map<String, Object> loadAll(Collection<String> keys) {
 
   @Override
   public Set<String> loadAllKeys() {
-    Set<String> keys = new HashSet<>();
     LOGGER.trace("Entering loadAllKeys");
-
-    try (Stream<Path> stream = Files.list(persistencePath.toPath())) {
-      keys =
-          stream
-              .filter(getPathMatcher()::matches)
-              .map(Path::getFileName)
-              .map(Path::toString)
-              .map(fileName -> fileName.replaceFirst(EXT_REGEX, ""))
-              .collect(Collectors.toSet());
-    } catch (IOException e) {
-      LOGGER.warn("Unable to read files at {}", persistencePath);
-    }
-
+    Set<String> keys = log.keys();
     LOGGER.trace("Leaving loadAllKeys");
 
     return keys;
   }
 
   public void clear() {
-    try (Stream<Path> stream = Files.list(persistencePath.toPath())) {
-      stream.filter(getPathMatcher()::matches).map(Path::toFile).forEach(FileUtils::deleteQuietly);
+    try {
+      log.clear();
     } catch (IOException e) {
-      LOGGER.warn("Unable to delete files at {}", persistencePath.getAbsolutePath());
+      LOGGER.warn("Unable to clear {}", getLogPath());
+    }
+
+    deleteSerializedFiles();
+  }
+
+  /** Rewrites the log with only its live entries. */
+  public void compact() {
+    try {
+      log.compact();
+    } catch (IOException e) {
+      LOGGER.warn("Unable to compact {}", getLogPath(), e);
     }
   }
 
@@ -146,13 +204,57 @@ public File getPersistencePath() {
     return persistencePath;
   }
 
-  private Object loadFromPersistence(String key) {
-    File file = getMapStoreFile(key);
+  private void openLog() {
+    Path logPath = getLogPath();
+    try {
+      log = new ProductCacheLog(logPath);
+    } catch (IOException e) {
+      LOGGER.warn("Unable to read {}, starting with an empty product cache", logPath, e);
+      FileUtils.deleteQuietly(logPath.toFile());
+      try {
+        log = new ProductCacheLog(logPath);
+      } catch (IOException e1) {
+        throw new IllegalStateException("Unable to create " + logPath, e1);
+      }
+    }
+
+    migrateSerializedFiles();
 
-    if (!file.exists()) {
-      return null;
+    // writes only compact logs holding a minimum of stale entries, small logs are compacted here
+    if (log.isStale()) {
+      LOGGER.debug(
+          "Compacting {} holding {} bytes of stale entries", logPath, log.getGarbageBytes());
+      compact();
+    }
+  }
+
+  /** Moves the entries persisted one file per key by previous versions to the log. */
+  private void migrateSerializedFiles() {
+    List<Path> serializedFiles = listSerializedFiles();
+    if (serializedFiles.isEmpty()) {
+      return;
+    }
+
+    LOGGER.info(
+        "Moving {} product cache entries from {} to {}",
+        serializedFiles.size(),
+        persistencePath,
+        LOG_FILE_NAME);
+
+    Map<String, Object> values = new HashMap<>();
+    for (Path file : serializedFiles) {
+      String key = file.getFileName().toString().replaceFirst(EXT_REGEX, "");
+      Object obj = loadFromSerializedFile(file.toFile());
+      if (obj != null && !log.contains(key)) {
+        values.put(key, obj);
+      }
     }
 
+    storeAll(values);
+    deleteSerializedFiles();
+  }
+
+  private Object loadFromSerializedFile(File file) {
     try (ObjectInput input =
         new ObjectInputStream(new BufferedInputStream(new FileInputStream(file)))) {
       return input.readObject();
@@ -160,14 +262,120 @@ private Object loadFromPersistence(String key) {
       LOGGER.info("Unable to read object.", e);
     } catch (ClassNotFoundException e) {
       LOGGER.info("Class for object being read from stream does not exist.", e);
-      FileUtils.deleteQuietly(file);
     }
 
     return null;
   }
 
-  private File getMapStoreFile(String key) {
-    return persistencePath.toPath().resolve(key + EXT).toFile();
+  private List<Path> listSerializedFiles() {
+    try (Stream<Path> stream = Files.list(persistencePath.toPath())) {
+      return stream.filter(getPathMatcher()::matches).collect(Collectors.toList());
+    } catch (IOException e) {
+      LOGGER.warn("Unable to read files at {}", persistencePath);
+      return Collections.emptyList();
+    }
+  }
+
+  private void deleteSerializedFiles() {
+    listSerializedFiles().stream().map(Path::toFile).forEach(FileUtils::deleteQuietly);
+  }
+
+  private byte[] encode(Object value) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream output = new DataOutputStream(bytes)) {
+      if (value instanceof ReliableResource) {
+        ReliableResource resource = (ReliableResource) value;
+        MimeType mimeType = resource.getMimeType();
+        output.writeByte(RELIABLE_RESOURCE_VALUE);
+        writeString(output, resource.getFilePath());
+        writeString(output, mimeType == null ? null : mimeType.toString());
+        writeString(output, resource.getName());
+        output.writeLong(resource.getSize());
+        output.writeLong(resource.getLastTouchedMillis());
+        writeObject(output, resource.getMetacard());
+      } else {
+        output.writeByte(SERIALIZED_VALUE);
+        writeObject(output, value);
+      }
+    }
+    return bytes.toByteArray();
+  }
+
+  private Object decode(String key, byte[] value) throws IOException, ClassNotFoundException {
+    try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(value))) {
+      if (input.readByte() == SERIALIZED_VALUE) {
+        return readObject(input);
+      }
+
+      String filePath = readString(input);
+      String mimeType = readString(input);
+      String name = readString(input);
+      long size = input.readLong();
+      long lastTouchedMillis = input.readLong();
+      Metacard metacard = (Metacard) readObject(input);
+
+      ReliableResource resource =
+          new ReliableResource(key, filePath, parseMimeType(mimeType), name, metacard);
+      resource.setSize(size);
+      resource.setLastTouchedMillis(lastTouchedMillis);
+      return resource;
+    }
+  }
+
+  private MimeType parseMimeType(String mimeType) {
+    if (mimeType == null) {
+      return null;
+    }
+
+    try {
+      return new MimeType(mimeType);
+    } catch (MimeTypeParseException e) {
+      LOGGER.debug("Unable to parse cached mime type {}", mimeType, e);
+      return null;
+    }
+  }
+
+  private void writeString(DataOutputStream output, String value) throws IOException {
+    if (value == null) {
+      output.writeInt(-1);
+      return;
+    }
+
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    output.writeInt(bytes.length);
+    output.write(bytes);
+  }
+
+  private String readString(DataInputStream input) throws IOException {
+    int length = input.readInt();
+    if (length < 0) {
+      return null;
+    }
+
+    byte[] bytes = new byte[length];
+    input.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private void writeObject(DataOutputStream output, Object value) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutput objectOutput = new ObjectOutputStream(bytes)) {
+      objectOutput.writeObject(value);
+    }
+    output.writeInt(bytes.size());
+    bytes.writeTo(output);
+  }
+
+  private Object readObject(DataInputStream input) throws IOException, ClassNotFoundException {
+    byte[] bytes = new byte[input.readInt()];
+    input.readFully(bytes);
+    try (ObjectInput objectInput = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+      return objectInput.readObject();
+    }
+  }
+
+  private Path getLogPath() {
+    return persistencePath.toPath().resolve(LOG_FILE_NAME);
   }
 
   private PathMatcher getPathMatcher() {
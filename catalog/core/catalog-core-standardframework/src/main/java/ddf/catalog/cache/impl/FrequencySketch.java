@@ -0,0 +1,93 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.cache.impl;
+
+/**
+ * Count-min sketch estimating how often each key was requested, in a fixed amount of memory
+ * whatever the number of distinct keys.
+ *
+ * <p>Counters saturate at {@value #MAX_COUNT}, and every counter is halved once the number of
+ * recorded requests reaches ten times the width of the sketch, so that the estimates follow
+ * recent popularity instead of accumulating forever. Not thread-safe.
+ */
+class FrequencySketch {
+
+  static final int MAX_COUNT = 15;
+
+  private static final int DEPTH = 4;
+
+  private static final int[] SEEDS = {0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F};
+
+  private final int[][] counters;
+
+  private final int mask;
+
+  private final int sampleSize;
+
+  private int additions;
+
+  /** @param expectedKeys the number of distinct keys expected to be tracked at the same time */
+  FrequencySketch(int expectedKeys) {
+    int width = Integer.highestOneBit(Math.max(16, expectedKeys - 1) << 1);
+    this.counters = new int[DEPTH][width];
+    this.mask = width - 1;
+    this.sampleSize = 10 * width;
+  }
+
+  /** @return the estimated number of recent requests for the key */
+  int frequency(String key) {
+    int hash = spread(key.hashCode());
+    int frequency = MAX_COUNT;
+    for (int i = 0; i < DEPTH; i++) {
+      frequency = Math.min(frequency, counters[i][index(hash, i)]);
+    }
+    return frequency;
+  }
+
+  /** Records a request for the key. */
+  void increment(String key) {
+    int hash = spread(key.hashCode());
+    boolean added = false;
+    for (int i = 0; i < DEPTH; i++) {
+      int index = index(hash, i);
+      if (counters[i][index] < MAX_COUNT) {
+        counters[i][index]++;
+        added = true;
+      }
+    }
+
+    if (added && ++additions >= sampleSize) {
+      reset();
+    }
+  }
+
+  private void reset() {
+    for (int[] row : counters) {
+      for (int i = 0; i < row.length; i++) {
+        row[i] >>>= 1;
+      }
+    }
+    additions /= 2;
+  }
+
+  private int index(int hash, int row) {
+    int h = (hash ^ SEEDS[row]) * SEEDS[row];
+    return (h ^ (h >>> 16)) & mask;
+  }
+
+  private static int spread(int hash) {
+    int h = hash * 0x45D9F3B;
+    return h ^ (h >>> 16);
+  }
+}
@@ -28,6 +28,7 @@
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -50,15 +51,23 @@
 
   private Set<String> manuallyEvictedEntries = Collections.synchronizedSet(new HashSet<String>());
 
+  private final ProductCacheEvictionPolicy evictionPolicy;
+
   /**
    * Constructor for new Hazelcast listener
    *
    * @param maxDirSizeBytes: If 0, no size limit will be enforced.
    */
   public ProductCacheDirListener(final long maxDirSizeBytes) {
+    this(maxDirSizeBytes, new ProductCacheEvictionPolicy(maxDirSizeBytes));
+  }
+
+  ProductCacheDirListener(
+      final long maxDirSizeBytes, final ProductCacheEvictionPolicy evictionPolicy) {
     synchronized (this) {
       this.maxDirSizeBytes = maxDirSizeBytes;
     }
+    this.evictionPolicy = evictionPolicy;
   }
 
   @Override
@@ -77,24 +86,67 @@ public synchronized void entryAdded(EntryEvent<K, V> event) {
       ReliableResource resource = (ReliableResource) value;
       LOGGER.debug("entry added event triggered: {}", resource.getKey());
 
+      evictionPolicy.add(resource.getKey(), resource.getSize());
       long currentCacheDirSize = cacheDirSize.addAndGet(resource.getSize());
       if (maxDirSizeBytes > 0 && maxDirSizeBytes < currentCacheDirSize) {
-        PagingPredicate pp =
-            new PagingPredicate(new ReliableResourceComparator(), DEFAULT_PAGE_SIZE);
-        Collection<ReliableResource> lruResourceEntries = map.values(pp);
-
-        Iterator<ReliableResource> itr = lruResourceEntries.iterator();
-        while (maxDirSizeBytes < currentCacheDirSize) {
-          if (itr.hasNext()) {
-            ReliableResource rr = itr.next();
-            deleteFromCache(map, rr);
-            currentCacheDirSize -= rr.getSize();
-          } else {
-            pp.nextPage();
-            lruResourceEntries = map.values(pp);
-            itr = lruResourceEntries.iterator();
-          }
-        }
+        currentCacheDirSize = evictSelectedEntries(resource, currentCacheDirSize);
+      }
+      if (maxDirSizeBytes > 0 && maxDirSizeBytes < currentCacheDirSize) {
+        evictLeastRecentlyTouchedEntries(currentCacheDirSize);
+      }
+    }
+  }
+
+  /**
+   * Evicts the entries selected by the eviction policy, which may be the entry that was just
+   * added. When the eviction policy does not admit the entry that was just added, only that entry
+   * is removed, and it is not counted as an eviction.
+   */
+  private long evictSelectedEntries(ReliableResource added, long currentCacheDirSize) {
+    List<String> victims =
+        evictionPolicy.selectVictims(added.getKey(), currentCacheDirSize - maxDirSizeBytes);
+
+    if (!evictionPolicy.admits(added.getKey(), added.getSize(), victims)) {
+      deleteFromCache(map, added);
+      return currentCacheDirSize - added.getSize();
+    }
+
+    long remainingCacheDirSize = currentCacheDirSize;
+    for (String key : victims) {
+      ReliableResource rr = key.equals(added.getKey()) ? added : map.get(key);
+      if (rr == null) {
+        evictionPolicy.remove(key);
+        continue;
+      }
+      deleteFromCache(map, rr);
+      evictionPolicy.recordEviction(rr.getSize());
+      remainingCacheDirSize -= rr.getSize();
+    }
+    return remainingCacheDirSize;
+  }
+
+  /**
+   * Evicts the least recently added entries, for entries that are not tracked by the eviction
+   * policy such as those loaded from disk when the cache started.
+   */
+  private void evictLeastRecentlyTouchedEntries(long currentCacheDirSize) {
+    PagingPredicate pp = new PagingPredicate(new ReliableResourceComparator(), DEFAULT_PAGE_SIZE);
+    Collection<ReliableResource> lruResourceEntries = map.values(pp);
+
+    Iterator<ReliableResource> itr = lruResourceEntries.iterator();
+    while (maxDirSizeBytes < currentCacheDirSize) {
+      if (itr.hasNext()) {
+        ReliableResource rr = itr.next();
+        deleteFromCache(map, rr);
+        evictionPolicy.recordEviction(rr.getSize());
+        currentCacheDirSize -= rr.getSize();
+      } else if (lruResourceEntries.isEmpty()) {
+        LOGGER.debug("No entries left to evict from the product cache");
+        return;
+      } else {
+        pp.nextPage();
+        lruResourceEntries = map.values(pp);
+        itr = lruResourceEntries.iterator();
       }
     }
   }
@@ -108,6 +160,7 @@ public void entryRemoved(EntryEvent<K, V> event) {
       if (manuallyEvictedEntries.contains(resource.getKey())) {
         manuallyEvictedEntries.remove(resource.getKey());
       } else {
+        evictionPolicy.remove(resource.getKey());
         cacheDirSize.addAndGet(-resource.getSize());
       }
     }
@@ -124,6 +177,7 @@ public void entryEvicted(EntryEvent<K, V> event) {
     if (value.getClass().isAssignableFrom(ReliableResource.class)) {
       ReliableResource resource = (ReliableResource) value;
       LOGGER.debug("entry evicted event triggered: {}", resource.getKey());
+      evictionPolicy.remove(resource.getKey());
       cacheDirSize.addAndGet(-resource.getSize());
     }
   }
@@ -131,6 +185,7 @@ public void entryEvicted(EntryEvent<K, V> event) {
   private void deleteFromCache(IMap<String, ReliableResource> cacheMap, ReliableResource rr) {
     LOGGER.debug("entry being deleted: {}", rr.getKey());
     manuallyEvictedEntries.add(rr.getKey());
+    evictionPolicy.remove(rr.getKey());
 
     // delete form cache
     cacheMap.delete(rr.getKey());
@@ -152,6 +207,11 @@ public synchronized long getMaxDirSizeBytes() {
 
   public synchronized void setMaxDirSizeBytes(long maxDirSizeBytes) {
     this.maxDirSizeBytes = maxDirSizeBytes;
+    evictionPolicy.setMaxSizeBytes(maxDirSizeBytes);
+  }
+
+  ProductCacheEvictionPolicy getEvictionPolicy() {
+    return evictionPolicy;
   }
 
   @Override
@@ -0,0 +1,269 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.cache.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Size- and frequency-aware eviction policy of the product cache.
+ *
+ * <p>Cached products are kept in two segments ordered from least to most recently used. New
+ * products enter the probationary segment and move to the protected segment when they are served
+ * from the cache again. The protected segment holds at most a configurable percentage of the cache
+ * size and demotes its least recently used products back to probation when it overflows. Products
+ * are evicted from the probationary segment first, so one-off downloads leave the cache before
+ * products that were downloaded repeatedly.
+ *
+ * <p>Requests for every product, cached or not, are counted in a {@link FrequencySketch}. When the
+ * admission filter is enabled, a new product that would evict a product requested more often than
+ * itself is rejected, and a product larger than the whole cache is never admitted. This keeps a
+ * burst of large one-off downloads from flushing the popular products out of the cache. The
+ * admission filter is disabled by default, since a product requested for the first time is always
+ * requested less often than the products it would evict.
+ *
+ * <p>The hit, miss, bytes served from the cache, eviction and rejection counts are published as
+ * micrometer metrics. Rejected products are not counted as evictions.
+ */
+class ProductCacheEvictionPolicy {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ProductCacheEvictionPolicy.class);
+
+  private static final String METRIC_PREFIX = "ddf.catalog.resource.cache";
+
+  static final int DEFAULT_PROTECTED_PERCENTAGE = 80;
+
+  private static final int EXPECTED_PRODUCTS = 10_000;
+
+  private final Map<String, Long> probation = new LinkedHashMap<>(16, 0.75f, true);
+
+  private final Map<String, Long> protectedSegment = new LinkedHashMap<>(16, 0.75f, true);
+
+  private final FrequencySketch sketch = new FrequencySketch(EXPECTED_PRODUCTS);
+
+  private final Counter hits = Metrics.counter(metricName("hits"));
+
+  private final Counter misses = Metrics.counter(metricName("misses"));
+
+  private final Counter bytesSaved = Metrics.counter(metricName("bytes.saved"));
+
+  private final Counter evictions = Metrics.counter(metricName("evictions"));
+
+  private final Counter evictedBytes = Metrics.counter(metricName("evictions.bytes"));
+
+  private final Counter rejections = Metrics.counter(metricName("rejections"));
+
+  private long maxSizeBytes;
+
+  private int protectedPercentage = DEFAULT_PROTECTED_PERCENTAGE;
+
+  private boolean admissionFilterEnabled = false;
+
+  private long protectedBytes;
+
+  private long hitCount;
+
+  private long missCount;
+
+  ProductCacheEvictionPolicy(long maxSizeBytes) {
+    this.maxSizeBytes = maxSizeBytes;
+    Metrics.gauge(metricName("hit.ratio"), this, ProductCacheEvictionPolicy::getHitRatio);
+  }
+
+  /** Records a request for a product, whether or not it is served from the cache. */
+  synchronized void recordRequest(String key) {
+    sketch.increment(key);
+  }
+
+  /**
+   * Records that a request was served from the cache and promotes the product to the protected
+   * segment.
+   */
+  synchronized void recordHit(String key, long size) {
+    hitCount++;
+    hits.increment();
+    if (size > 0) {
+      bytesSaved.increment(size);
+    }
+
+    Long probationSize = probation.remove(key);
+    if (probationSize != null) {
+      protectedSegment.put(key, probationSize);
+      protectedBytes += probationSize;
+      demoteOverflow();
+    } else if (protectedSegment.get(key) == null) {
+      // cached before this policy started tracking, e.g. loaded from disk on startup
+      protectedSegment.put(key, Math.max(0, size));
+      protectedBytes += Math.max(0, size);
+      demoteOverflow();
+    }
+  }
+
+  synchronized void recordMiss() {
+    missCount++;
+    misses.increment();
+  }
+
+  /** Starts tracking a product that was just added to the cache. */
+  synchronized void add(String key, long size) {
+    remove(key);
+    probation.put(key, Math.max(0, size));
+  }
+
+  /** Stops tracking a product that was removed from the cache. */
+  synchronized void remove(String key) {
+    probation.remove(key);
+    Long size = protectedSegment.remove(key);
+    if (size != null) {
+      protectedBytes -= size;
+    }
+  }
+
+  synchronized void recordEviction(long size) {
+    evictions.increment();
+    if (size > 0) {
+      evictedBytes.increment(size);
+    }
+  }
+
+  /**
+   * Selects the products to evict to free space after a product was added to the cache.
+   *
+   * @param candidate the key of the product that was just added
+   * @param bytesToFree the number of bytes over the cache size
+   * @return the keys of the products to evict, in eviction order. The list only contains the
+   *     candidate when nothing else frees enough space, and may free less than {@code bytesToFree}
+   *     when the policy does not track enough products.
+   */
+  synchronized List<String> selectVictims(String candidate, long bytesToFree) {
+    if (bytesToFree <= 0) {
+      return Collections.emptyList();
+    }
+
+    List<String> victims = new ArrayList<>();
+    long freed = 0;
+
+    for (Map<String, Long> segment : segmentsInEvictionOrder()) {
+      for (Map.Entry<String, Long> entry : segment.entrySet()) {
+        if (freed >= bytesToFree) {
+          return victims;
+        }
+        if (!entry.getKey().equals(candidate)) {
+          victims.add(entry.getKey());
+          freed += entry.getValue();
+        }
+      }
+    }
+
+    if (freed < bytesToFree && probation.containsKey(candidate)) {
+      victims.add(candidate);
+    }
+    return victims;
+  }
+
+  /**
+   * Returns whether a product that was just added to the cache is kept when it causes the given
+   * products to be evicted. Always true when the admission filter is disabled.
+   *
+   * @param candidate the key of the product that was just added
+   * @param candidateSize the size of the product that was just added
+   * @param victims the products selected by {@link #selectVictims(String, long)}
+   */
+  synchronized boolean admits(String candidate, long candidateSize, List<String> victims) {
+    if (!admissionFilterEnabled) {
+      return true;
+    }
+
+    if (maxSizeBytes > 0 && candidateSize > maxSizeBytes) {
+      LOGGER.debug("Not admitting {} since it is larger than the product cache", candidate);
+      rejections.increment();
+      return false;
+    }
+
+    int candidateFrequency = sketch.frequency(candidate);
+    for (String victim : victims) {
+      if (!victim.equals(candidate) && sketch.frequency(victim) > candidateFrequency) {
+        LOGGER.debug(
+            "Not admitting {} since it would evict {} which is requested more often",
+            candidate,
+            victim);
+        rejections.increment();
+        return false;
+      }
+    }
+    return true;
+  }
+
+  synchronized void setMaxSizeBytes(long maxSizeBytes) {
+    this.maxSizeBytes = maxSizeBytes;
+    demoteOverflow();
+  }
+
+  synchronized int getProtectedPercentage() {
+    return protectedPercentage;
+  }
+
+  synchronized void setProtectedPercentage(int protectedPercentage) {
+    this.protectedPercentage = Math.max(0, Math.min(100, protectedPercentage));
+    demoteOverflow();
+  }
+
+  synchronized boolean isAdmissionFilterEnabled() {
+    return admissionFilterEnabled;
+  }
+
+  synchronized void setAdmissionFilterEnabled(boolean admissionFilterEnabled) {
+    this.admissionFilterEnabled = admissionFilterEnabled;
+  }
+
+  synchronized double getHitRatio() {
+    long requests = hitCount + missCount;
+    return requests == 0 ? 0 : (double) hitCount / requests;
+  }
+
+  private List<Map<String, Long>> segmentsInEvictionOrder() {
+    List<Map<String, Long>> segments = new ArrayList<>(2);
+    segments.add(probation);
+    segments.add(protectedSegment);
+    return segments;
+  }
+
+  /** Moves the least recently used protected products to probation until the segment fits. */
+  private void demoteOverflow() {
+    if (maxSizeBytes <= 0) {
+      return;
+    }
+
+    long maxProtectedBytes = maxSizeBytes / 100 * protectedPercentage;
+    Iterator<Map.Entry<String, Long>> iterator = protectedSegment.entrySet().iterator();
+    while (protectedBytes > maxProtectedBytes && iterator.hasNext()) {
+      Map.Entry<String, Long> entry = iterator.next();
+      iterator.remove();
+      protectedBytes -= entry.getValue();
+      probation.put(entry.getKey(), entry.getValue());
+    }
+  }
+
+  private static String metricName(String name) {
+    return METRIC_PREFIX + "." + name;
+  }
+}
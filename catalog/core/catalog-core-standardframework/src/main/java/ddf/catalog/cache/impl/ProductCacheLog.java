@@ -0,0 +1,396 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.cache.impl;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Append-only log of the entries of a cache map, with an in-memory index of the position of the
+ * latest value of each key.
+ *
+ * <p>Every write appends one record per key, and a batch of keys is appended with a single write.
+ * Opening the log reads every record to verify its checksum and build the index, but values are
+ * only decoded by callers when they are asked for. Records that were overwritten or deleted stay
+ * in the file until the log is compacted, which rewrites the live records to a new file and
+ * replaces the log with it. A write compacts the log when stale records make up more than half of
+ * it and at least {@link #MINIMUM_COMPACTION_GARBAGE_BYTES}, so the log stays within about twice
+ * the size of its live records.
+ *
+ * <p>The log starts with a magic number and a format version. Each record is its body length, the
+ * CRC32 of its body and the body: the record type, the key and, for a put, the value. A record
+ * that is truncated or fails its checksum, such as one left behind by a crash, ends the log and is
+ * discarded when the log is opened.
+ */
+class ProductCacheLog implements Closeable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ProductCacheLog.class);
+
+  private static final int MAGIC = 0x44444643;
+
+  private static final byte VERSION = 1;
+
+  private static final int HEADER_LENGTH = Integer.BYTES + Byte.BYTES;
+
+  private static final int RECORD_HEADER_LENGTH = Integer.BYTES + Integer.BYTES;
+
+  private static final byte PUT = 1;
+
+  private static final byte DELETE = 2;
+
+  private static final String COMPACT_EXT = ".compact";
+
+  /** Stale bytes below which writes do not compact the log, so small logs are not rewritten */
+  static final long MINIMUM_COMPACTION_GARBAGE_BYTES = 1024L * 1024L;
+
+  private final Path path;
+
+  private final Map<String, Location> index = new HashMap<>();
+
+  private FileChannel channel;
+
+  private long end;
+
+  private long liveBytes;
+
+  private long compactionGarbageBytes = MINIMUM_COMPACTION_GARBAGE_BYTES;
+
+  ProductCacheLog(Path path) throws IOException {
+    this.path = path;
+    open();
+  }
+
+  synchronized boolean isEmpty() {
+    return index.isEmpty();
+  }
+
+  synchronized Set<String> keys() {
+    return new HashSet<>(index.keySet());
+  }
+
+  synchronized boolean contains(String key) {
+    return index.containsKey(key);
+  }
+
+  /**
+   * Reads the latest value of a key.
+   *
+   * @return the value, or {@code null} if the key is not in the log
+   */
+  synchronized byte[] get(String key) throws IOException {
+    Location location = index.get(key);
+    if (location == null) {
+      return null;
+    }
+
+    ByteBuffer buffer = ByteBuffer.allocate(location.length);
+    readFully(buffer, location.position);
+
+    ByteArrayInputStream recordBytes = new ByteArrayInputStream(buffer.array());
+    DataInputStream record = new DataInputStream(recordBytes);
+    record.skipBytes(RECORD_HEADER_LENGTH + Byte.BYTES);
+    record.readUTF();
+    byte[] value = new byte[recordBytes.available()];
+    record.readFully(value);
+    return value;
+  }
+
+  /** Appends the values of several keys with a single write. */
+  synchronized void putAll(Map<String, byte[]> values) throws IOException {
+    if (values.isEmpty()) {
+      return;
+    }
+
+    ByteArrayOutputStream batch = new ByteArrayOutputStream();
+    Map<String, Location> locations = new HashMap<>();
+    for (Map.Entry<String, byte[]> entry : values.entrySet()) {
+      long position = end + batch.size();
+      int length = writeRecord(batch, PUT, entry.getKey(), entry.getValue());
+      locations.put(entry.getKey(), new Location(position, length));
+    }
+
+    append(batch.toByteArray());
+    for (Map.Entry<String, Location> entry : locations.entrySet()) {
+      Location previous = index.put(entry.getKey(), entry.getValue());
+      liveBytes += entry.getValue().length - (previous == null ? 0 : previous.length);
+    }
+    compactWhenStale();
+  }
+
+  /** Appends a delete record for each of the keys that are in the log, with a single write. */
+  synchronized void deleteAll(Collection<String> keys) throws IOException {
+    ByteArrayOutputStream batch = new ByteArrayOutputStream();
+    for (String key : keys) {
+      if (index.containsKey(key)) {
+        writeRecord(batch, DELETE, key, null);
+      }
+    }
+
+    if (batch.size() == 0) {
+      return;
+    }
+
+    append(batch.toByteArray());
+    for (String key : keys) {
+      Location previous = index.remove(key);
+      if (previous != null) {
+        liveBytes -= previous.length;
+      }
+    }
+    compactWhenStale();
+  }
+
+  /** Removes every entry from the log. */
+  synchronized void clear() throws IOException {
+    channel.truncate(HEADER_LENGTH);
+    end = HEADER_LENGTH;
+    index.clear();
+    liveBytes = 0;
+  }
+
+  /** @return the number of bytes held by overwritten values and delete records */
+  synchronized long getGarbageBytes() {
+    return end - HEADER_LENGTH - liveBytes;
+  }
+
+  /** @return whether overwritten values and delete records make up more than half of the log */
+  synchronized boolean isStale() {
+    long garbageBytes = getGarbageBytes();
+    return garbageBytes > 0 && garbageBytes > end / 2;
+  }
+
+  /**
+   * Rewrites the live records to a new file and replaces the log with it. Reads and writes made
+   * from other threads wait for the compaction to finish.
+   */
+  synchronized void compact() throws IOException {
+    long garbageBytes = getGarbageBytes();
+    Path compacted = path.resolveSibling(path.getFileName() + COMPACT_EXT);
+
+    try (FileChannel target =
+        FileChannel.open(
+            compacted,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.WRITE)) {
+      writeFully(target, header(), 0);
+      long position = HEADER_LENGTH;
+      for (Location location : index.values()) {
+        ByteBuffer buffer = ByteBuffer.allocate(location.length);
+        readFully(buffer, location.position);
+        writeFully(target, buffer, position);
+        position += location.length;
+      }
+      target.force(true);
+    } catch (IOException e) {
+      Files.deleteIfExists(compacted);
+      throw e;
+    }
+
+    channel.close();
+    try {
+      Files.move(
+          compacted, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      // reopens the original log when it could not be replaced
+      open();
+    }
+
+    LOGGER.debug("Compacted {}, reclaimed {} bytes", path, garbageBytes);
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    channel.close();
+  }
+
+  private void compactWhenStale() {
+    if (getGarbageBytes() < compactionGarbageBytes || !isStale()) {
+      return;
+    }
+
+    try {
+      compact();
+      compactionGarbageBytes = MINIMUM_COMPACTION_GARBAGE_BYTES;
+    } catch (IOException e) {
+      // waits for more garbage before trying again, rather than rewriting the log on every write
+      compactionGarbageBytes = getGarbageBytes() * 2;
+      LOGGER.info("Unable to compact {}, it will be compacted once it grows further", path);
+      LOGGER.debug("Unable to compact the product cache log.", e);
+    }
+  }
+
+  private void open() throws IOException {
+    index.clear();
+    liveBytes = 0;
+    channel =
+        FileChannel.open(
+            path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+    if (channel.size() < HEADER_LENGTH) {
+      channel.truncate(0);
+      writeFully(channel, header(), 0);
+      end = HEADER_LENGTH;
+      return;
+    }
+
+    end = scan();
+    if (end < channel.size()) {
+      LOGGER.info(
+          "Discarding {} bytes of incomplete records at the end of {}", channel.size() - end, path);
+      channel.truncate(end);
+    }
+  }
+
+  /** Reads every record to build the index and returns the position after the last valid one. */
+  private long scan() throws IOException {
+    DataInputStream input =
+        new DataInputStream(
+            new BufferedInputStream(Channels.newInputStream(channel.position(0)), 64 * 1024));
+
+    if (input.readInt() != MAGIC || input.readByte() != VERSION) {
+      throw new IOException(String.format("%s is not a product cache log.", path));
+    }
+
+    long position = HEADER_LENGTH;
+    CRC32 crc = new CRC32();
+    while (true) {
+      int bodyLength;
+      int checksum;
+      byte[] body;
+      try {
+        bodyLength = input.readInt();
+        checksum = input.readInt();
+        if (bodyLength <= 0 || bodyLength > channel.size() - position) {
+          return position;
+        }
+        body = new byte[bodyLength];
+        input.readFully(body);
+      } catch (EOFException e) {
+        return position;
+      }
+
+      crc.reset();
+      crc.update(body, 0, body.length);
+      if ((int) crc.getValue() != checksum) {
+        LOGGER.debug("Record at {} of {} failed its checksum", position, path);
+        return position;
+      }
+
+      DataInputStream record = new DataInputStream(new ByteArrayInputStream(body));
+      byte type = record.readByte();
+      String key = record.readUTF();
+      int length = RECORD_HEADER_LENGTH + bodyLength;
+
+      Location previous =
+          type == PUT ? index.put(key, new Location(position, length)) : index.remove(key);
+      if (type == PUT) {
+        liveBytes += length;
+      }
+      if (previous != null) {
+        liveBytes -= previous.length;
+      }
+
+      position += length;
+    }
+  }
+
+  private int writeRecord(ByteArrayOutputStream output, byte type, String key, byte[] value)
+      throws IOException {
+    ByteArrayOutputStream bodyBytes = new ByteArrayOutputStream();
+    DataOutputStream body = new DataOutputStream(bodyBytes);
+    body.writeByte(type);
+    body.writeUTF(key);
+    if (value != null) {
+      body.write(value);
+    }
+    body.flush();
+
+    byte[] bodyArray = bodyBytes.toByteArray();
+    CRC32 crc = new CRC32();
+    crc.update(bodyArray, 0, bodyArray.length);
+
+    DataOutputStream record = new DataOutputStream(output);
+    record.writeInt(bodyArray.length);
+    record.writeInt((int) crc.getValue());
+    record.write(bodyArray);
+    record.flush();
+
+    return RECORD_HEADER_LENGTH + bodyArray.length;
+  }
+
+  private void append(byte[] records) throws IOException {
+    writeFully(channel, ByteBuffer.wrap(records), end);
+    end += records.length;
+  }
+
+  private ByteBuffer header() {
+    ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+    header.putInt(MAGIC).put(VERSION).flip();
+    return header;
+  }
+
+  private void readFully(ByteBuffer buffer, long position) throws IOException {
+    long offset = position;
+    while (buffer.hasRemaining()) {
+      int read = channel.read(buffer, offset);
+      if (read < 0) {
+        throw new EOFException(String.format("Unexpected end of %s at %d.", path, offset));
+      }
+      offset += read;
+    }
+    buffer.flip();
+  }
+
+  private static void writeFully(FileChannel target, ByteBuffer buffer, long position)
+      throws IOException {
+    long offset = position;
+    while (buffer.hasRemaining()) {
+      offset += target.write(buffer, offset);
+    }
+  }
+
+  private static class Location {
+
+    private final long position;
+
+    private final int length;
+
+    private Location(long position, int length) {
+      this.position = position;
+      this.length = length;
+    }
+  }
+}
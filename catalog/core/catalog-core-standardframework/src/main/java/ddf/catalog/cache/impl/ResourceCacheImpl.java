@@ -109,6 +109,32 @@ public void setCacheDirMaxSizeMegabytes(long cacheDirMaxSizeMegabytes) {
     cacheListener.setMaxDirSizeBytes(cacheDirMaxSizeMegabytes * BYTES_IN_MEGABYTES);
   }
 
+  public int getCacheProtectedPercentage() {
+    return cacheListener.getEvictionPolicy().getProtectedPercentage();
+  }
+
+  /**
+   * Sets the percentage of the cache directory that can be held by products that were served from
+   * the cache at least once. The remainder holds newly cached products, which are evicted first.
+   */
+  public void setCacheProtectedPercentage(int cacheProtectedPercentage) {
+    LOGGER.debug("Setting protected percentage of cache directory: {}", cacheProtectedPercentage);
+    cacheListener.getEvictionPolicy().setProtectedPercentage(cacheProtectedPercentage);
+  }
+
+  public boolean isCacheAdmissionFilterEnabled() {
+    return cacheListener.getEvictionPolicy().isAdmissionFilterEnabled();
+  }
+
+  /**
+   * Sets whether newly cached products are evicted instead of products that are requested more
+   * often than they are.
+   */
+  public void setCacheAdmissionFilterEnabled(boolean cacheAdmissionFilterEnabled) {
+    LOGGER.debug("Setting cache admission filter enabled: {}", cacheAdmissionFilterEnabled);
+    cacheListener.getEvictionPolicy().setAdmissionFilterEnabled(cacheAdmissionFilterEnabled);
+  }
+
   public String getProductCacheDirectory() {
     return productCacheDirectory;
   }
@@ -182,6 +208,18 @@ public Resource getValid(String key, Metacard latestMetacard) {
     }
     LOGGER.debug("key {}", key);
 
+    ProductCacheEvictionPolicy evictionPolicy = cacheListener.getEvictionPolicy();
+    evictionPolicy.recordRequest(key);
+    Resource validResource = getValidResource(key, latestMetacard);
+    if (validResource != null) {
+      evictionPolicy.recordHit(key, validResource.getSize());
+    } else {
+      evictionPolicy.recordMiss();
+    }
+    return validResource;
+  }
+
+  private Resource getValidResource(String key, Metacard latestMetacard) {
     ReliableResource cachedResource = (ReliableResource) cache.get(key);
 
     // Check that ReliableResource actually maps to a file (product) in the
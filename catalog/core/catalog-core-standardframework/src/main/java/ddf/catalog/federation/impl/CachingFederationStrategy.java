@@ -0,0 +1,525 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.federation.impl;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.hash.Hashing;
+import ddf.catalog.Constants;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.Result;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.data.impl.ResultImpl;
+import ddf.catalog.federation.FederationStrategy;
+import ddf.catalog.filter.FilterAdapter;
+import ddf.catalog.operation.CreateResponse;
+import ddf.catalog.operation.DeleteResponse;
+import ddf.catalog.operation.ProcessingDetails;
+import ddf.catalog.operation.Query;
+import ddf.catalog.operation.QueryRequest;
+import ddf.catalog.operation.QueryResponse;
+import ddf.catalog.operation.Request;
+import ddf.catalog.operation.UpdateResponse;
+import ddf.catalog.operation.impl.QueryResponseImpl;
+import ddf.catalog.plugin.PostIngestPlugin;
+import ddf.catalog.source.CatalogProvider;
+import ddf.catalog.source.Source;
+import ddf.catalog.source.UnsupportedQueryException;
+import ddf.catalog.util.impl.Requests;
+import ddf.security.SecurityConstants;
+import ddf.security.SubjectOperations;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.Validate;
+import org.apache.shiro.subject.Subject;
+import org.opengis.filter.sort.SortBy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@link FederationStrategy} that answers repeated queries from an in-memory cache of the
+ * responses of another federation strategy.
+ *
+ * <p>Responses are cached by the normalized filter, the paging and sorting of the query, the
+ * sources queried, the properties of the request and a digest of the attributes of the subject,
+ * which the sources use to authorize the query. Queries paged with a cursor are never cached,
+ * since each cursor is only used once. A response is fresh for the time to live of the sources it
+ * was returned from, the shortest one if there are several. Once it is no longer fresh, it is still
+ * returned for up to the maximum staleness while the query is run again in the background to
+ * refresh it.
+ *
+ * <p>Responses with source errors are not cached. Responses that include the local catalog are
+ * removed from the cache when metacards are created, updated or deleted locally.
+ */
+public class CachingFederationStrategy implements FederationStrategy, PostIngestPlugin {
+
+  /** The cache is disabled by default */
+  static final int DEFAULT_MAXIMUM_RESULTS = 0;
+
+  static final int DEFAULT_TIME_TO_LIVE_SECONDS = 60;
+
+  static final int DEFAULT_MAXIMUM_STALE_SECONDS = 60;
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(CachingFederationStrategy.class);
+
+  private static final String CACHE_METRIC = "ddf.catalog.federation.cache";
+
+  private static final String RESULT_TAG = "result";
+
+  /** Request properties whose queries are not answered from the cache */
+  private static final Set<String> UNCACHED_PROPERTIES =
+      ImmutableSet.of(Constants.CURSOR_MARK_KEY, Constants.SUGGESTION_BUILD_KEY);
+
+  /** Request properties that are part of the cache key in another form */
+  private static final Set<String> KEYED_PROPERTIES =
+      ImmutableSet.of(SecurityConstants.SECURITY_SUBJECT, Constants.ADDITIONAL_SORT_BYS);
+
+  private final FederationStrategy delegate;
+
+  private final FilterAdapter filterAdapter;
+
+  private final SubjectOperations subjectOperations;
+
+  private final ExecutorService refreshExecutor;
+
+  private final LongSupplier currentTimeMillis;
+
+  private final Counter hits = Metrics.counter(CACHE_METRIC, RESULT_TAG, "hit");
+
+  private final Counter staleHits = Metrics.counter(CACHE_METRIC, RESULT_TAG, "stale");
+
+  private final Counter misses = Metrics.counter(CACHE_METRIC, RESULT_TAG, "miss");
+
+  /** Incremented whenever cached responses are invalidated */
+  private final AtomicLong invalidations = new AtomicLong();
+
+  private volatile Cache<List<Object>, CachedResponse> cache;
+
+  private volatile int maximumResults = DEFAULT_MAXIMUM_RESULTS;
+
+  private volatile long timeToLiveMillis = TimeUnit.SECONDS.toMillis(DEFAULT_TIME_TO_LIVE_SECONDS);
+
+  private volatile long maximumStaleMillis =
+      TimeUnit.SECONDS.toMillis(DEFAULT_MAXIMUM_STALE_SECONDS);
+
+  private volatile Map<String, Long> sourceTimeToLiveMillis = Collections.emptyMap();
+
+  public CachingFederationStrategy(
+      FederationStrategy delegate,
+      FilterAdapter filterAdapter,
+      SubjectOperations subjectOperations,
+      ExecutorService refreshExecutor) {
+    this(delegate, filterAdapter, subjectOperations, refreshExecutor, System::currentTimeMillis);
+  }
+
+  @VisibleForTesting
+  CachingFederationStrategy(
+      FederationStrategy delegate,
+      FilterAdapter filterAdapter,
+      SubjectOperations subjectOperations,
+      ExecutorService refreshExecutor,
+      LongSupplier currentTimeMillis) {
+    Validate.notNull(delegate, "Valid FederationStrategy required.");
+    Validate.notNull(filterAdapter, "Valid FilterAdapter required.");
+    Validate.notNull(subjectOperations, "Valid SubjectOperations required.");
+    Validate.notNull(refreshExecutor, "Valid ExecutorService required.");
+
+    this.delegate = delegate;
+    this.filterAdapter = filterAdapter;
+    this.subjectOperations = subjectOperations;
+    this.refreshExecutor = refreshExecutor;
+    this.currentTimeMillis = currentTimeMillis;
+    this.cache = newCache(DEFAULT_MAXIMUM_RESULTS);
+  }
+
+  @Override
+  public QueryResponse federate(List<Source> sources, QueryRequest queryRequest) {
+    long timeToLive = maximumResults > 0 ? getTimeToLive(sources) : 0;
+    List<Object> key = timeToLive > 0 ? getKey(sources, queryRequest) : null;
+    if (key == null) {
+      return delegate.federate(sources, queryRequest);
+    }
+
+    long now = currentTimeMillis.getAsLong();
+    CachedResponse cachedResponse = cache.getIfPresent(key);
+    if (cachedResponse != null && now < cachedResponse.staleUntil) {
+      if (now < cachedResponse.freshUntil) {
+        hits.increment();
+      } else {
+        staleHits.increment();
+        refresh(key, sources, queryRequest, cachedResponse);
+      }
+      LOGGER.debug("Returning cached federated query response");
+      return cachedResponse.toResponse(queryRequest);
+    }
+
+    misses.increment();
+    long generation = invalidations.get();
+    QueryResponse queryResponse = delegate.federate(sources, queryRequest);
+    cacheResponse(key, sources, queryResponse, timeToLive, generation);
+    return queryResponse;
+  }
+
+  @Override
+  public CreateResponse process(CreateResponse input) {
+    invalidateLocal(input.getRequest());
+    return input;
+  }
+
+  @Override
+  public UpdateResponse process(UpdateResponse input) {
+    invalidateLocal(input.getRequest());
+    return input;
+  }
+
+  @Override
+  public DeleteResponse process(DeleteResponse input) {
+    invalidateLocal(input.getRequest());
+    return input;
+  }
+
+  /**
+   * To be set via Blueprint
+   *
+   * @param maximumResults the maximum number of results held by the cache, 0 to disable the cache
+   */
+  public void setMaximumResults(int maximumResults) {
+    LOGGER.debug("Setting maximum cached federated results to {}", maximumResults);
+    this.maximumResults = Math.max(0, maximumResults);
+    cache = newCache(this.maximumResults);
+  }
+
+  /**
+   * To be set via Blueprint
+   *
+   * @param timeToLiveSeconds the number of seconds responses are fresh, unless the sources have
+   *     their own time to live, 0 to not cache responses
+   */
+  public void setTimeToLiveSeconds(int timeToLiveSeconds) {
+    timeToLiveMillis = TimeUnit.SECONDS.toMillis(Math.max(0, timeToLiveSeconds));
+  }
+
+  /**
+   * To be set via Blueprint
+   *
+   * @param maximumStaleSeconds the number of seconds responses are still returned, while they are
+   *     refreshed, once they are no longer fresh
+   */
+  public void setMaximumStaleSeconds(int maximumStaleSeconds) {
+    maximumStaleMillis = TimeUnit.SECONDS.toMillis(Math.max(0, maximumStaleSeconds));
+  }
+
+  /**
+   * To be set via Blueprint
+   *
+   * @param sourceTimeToLiveSeconds the time to live of the responses of specific sources, as
+   *     {@code sourceId=seconds} entries
+   */
+  public void setSourceTimeToLiveSeconds(List<String> sourceTimeToLiveSeconds) {
+    Map<String, Long> timesToLive = new HashMap<>();
+    if (sourceTimeToLiveSeconds != null) {
+      for (String entry : sourceTimeToLiveSeconds) {
+        if (StringUtils.isBlank(entry)) {
+          continue;
+        }
+        String sourceId = StringUtils.substringBefore(entry, "=").trim();
+        String seconds = StringUtils.substringAfter(entry, "=").trim();
+        try {
+          timesToLive.put(
+              sourceId, TimeUnit.SECONDS.toMillis(Math.max(0, Long.parseLong(seconds))));
+        } catch (NumberFormatException e) {
+          LOGGER.warn(
+              "Ignoring source time to live [{}]. Expected an entry of the form sourceId=seconds.",
+              entry);
+        }
+      }
+    }
+    sourceTimeToLiveMillis = timesToLive;
+  }
+
+  private void refresh(
+      List<Object> key, List<Source> sources, QueryRequest queryRequest, CachedResponse stale) {
+    if (!stale.refreshing.compareAndSet(false, true)) {
+      return;
+    }
+
+    Runnable refresh =
+        () -> {
+          try {
+            long generation = invalidations.get();
+            QueryResponse queryResponse = delegate.federate(sources, queryRequest);
+            cacheResponse(key, sources, queryResponse, getTimeToLive(sources), generation);
+          } catch (RuntimeException e) {
+            LOGGER.debug("Unable to refresh cached federated query response", e);
+          } finally {
+            stale.refreshing.set(false);
+          }
+        };
+
+    // Sources and plugins may look for the subject of the query on the current thread
+    Object subject = queryRequest.getPropertyValue(SecurityConstants.SECURITY_SUBJECT);
+    refreshExecutor.submit(
+        subject instanceof Subject ? ((Subject) subject).associateWith(refresh) : refresh);
+  }
+
+  private void cacheResponse(
+      List<Object> key,
+      List<Source> sources,
+      QueryResponse queryResponse,
+      long timeToLive,
+      long generation) {
+    // Waits for all of the sources to respond
+    List<Result> results = queryResponse.getResults();
+
+    Set<ProcessingDetails> processingDetails = queryResponse.getProcessingDetails();
+    if (timeToLive <= 0
+        || (processingDetails != null
+            && processingDetails.stream().anyMatch(ProcessingDetails::hasException))) {
+      return;
+    }
+
+    long now = currentTimeMillis.getAsLong();
+    CachedResponse cachedResponse =
+        new CachedResponse(
+            copy(results),
+            queryResponse.getHits(),
+            queryResponse.getProperties() == null
+                ? new HashMap<>()
+                : new HashMap<>(queryResponse.getProperties()),
+            processingDetails == null ? Collections.emptySet() : new HashSet<>(processingDetails),
+            now + timeToLive,
+            now + timeToLive + maximumStaleMillis,
+            sources.stream().anyMatch(CatalogProvider.class::isInstance));
+
+    // Do not cache a response that was running while the cache was invalidated
+    synchronized (invalidations) {
+      if (generation == invalidations.get()) {
+        cache.put(key, cachedResponse);
+      }
+    }
+  }
+
+  private void invalidateLocal(Request request) {
+    if (!Requests.isLocal(request)) {
+      return;
+    }
+
+    synchronized (invalidations) {
+      invalidations.incrementAndGet();
+      cache.asMap().values().removeIf(cachedResponse -> cachedResponse.includesLocal);
+    }
+  }
+
+  private long getTimeToLive(List<Source> sources) {
+    Map<String, Long> timesToLive = sourceTimeToLiveMillis;
+    return sources.stream()
+        .filter(Objects::nonNull)
+        .mapToLong(source -> timesToLive.getOrDefault(source.getId(), timeToLiveMillis))
+        .min()
+        .orElse(0);
+  }
+
+  private List<Object> getKey(List<Source> sources, QueryRequest queryRequest) {
+    Query query = queryRequest.getQuery();
+    Map<String, Serializable> properties = queryRequest.getProperties();
+    if (query == null
+        || (properties != null
+            && UNCACHED_PROPERTIES.stream().anyMatch(properties::containsKey))) {
+      return null;
+    }
+
+    String filter;
+    try {
+      filter = filterAdapter.adapt(query, new CanonicalFilterDelegate());
+    } catch (UnsupportedQueryException | RuntimeException e) {
+      LOGGER.debug("Not caching the response of a query whose filter cannot be normalized", e);
+      return null;
+    }
+
+    List<String> sourceIds =
+        sources.stream()
+            .filter(Objects::nonNull)
+            .map(Source::getId)
+            .sorted()
+            .collect(Collectors.toList());
+
+    return Arrays.asList(
+        filter,
+        getSortKey(query, queryRequest),
+        query.getStartIndex(),
+        query.getPageSize(),
+        query.requestsTotalResultsCount(),
+        sourceIds,
+        getSubjectDigest(queryRequest),
+        getPropertiesKey(properties));
+  }
+
+  /**
+   * Facets, highlighting, suggestions, the cache mode and other request properties change the
+   * response, so all of them are part of the key
+   */
+  private Map<String, Object> getPropertiesKey(Map<String, Serializable> properties) {
+    Map<String, Object> key = new TreeMap<>();
+    if (properties != null) {
+      properties.forEach(
+          (name, value) -> {
+            if (!KEYED_PROPERTIES.contains(name)) {
+              key.put(name, canonicalize(value));
+            }
+          });
+    }
+    return key;
+  }
+
+  /** @return a value that is equal for equal values, whatever the order of their sets and maps */
+  private static Object canonicalize(Object value) {
+    if (value instanceof Map) {
+      Map<String, Object> map = new TreeMap<>();
+      ((Map<?, ?>) value).forEach((k, v) -> map.put(String.valueOf(k), canonicalize(v)));
+      return map;
+    } else if (value instanceof Set) {
+      return ((Set<?>) value)
+          .stream()
+          .map(CachingFederationStrategy::canonicalize)
+          .map(String::valueOf)
+          .sorted()
+          .collect(Collectors.toList());
+    } else if (value instanceof Collection) {
+      return ((Collection<?>) value)
+          .stream()
+          .map(CachingFederationStrategy::canonicalize)
+          .collect(Collectors.toList());
+    } else if (value != null && value.getClass().isArray()) {
+      String array = Arrays.deepToString(new Object[] {value});
+      return array.substring(1, array.length() - 1);
+    }
+    return value == null ? null : value.toString();
+  }
+
+  private List<String> getSortKey(Query query, QueryRequest queryRequest) {
+    List<SortBy> sortBys = new ArrayList<>();
+    sortBys.add(query.getSortBy());
+    Serializable additionalSortBys = queryRequest.getPropertyValue(Constants.ADDITIONAL_SORT_BYS);
+    if (additionalSortBys instanceof SortBy[]) {
+      sortBys.addAll(Arrays.asList((SortBy[]) additionalSortBys));
+    }
+    return sortBys.stream()
+        .map(
+            sortBy ->
+                sortBy == null || sortBy.getPropertyName() == null
+                    ? String.valueOf(sortBy)
+                    : sortBy.getPropertyName().getPropertyName() + " " + sortBy.getSortOrder())
+        .collect(Collectors.toList());
+  }
+
+  private String getSubjectDigest(QueryRequest queryRequest) {
+    Object subject = queryRequest.getPropertyValue(SecurityConstants.SECURITY_SUBJECT);
+    Map<String, ?> attributes =
+        subject instanceof Subject
+            ? new TreeMap<>(subjectOperations.getSubjectAttributes((Subject) subject))
+            : Collections.emptyMap();
+    return Hashing.sha256().hashString(attributes.toString(), UTF_8).toString();
+  }
+
+  private static Cache<List<Object>, CachedResponse> newCache(int maximumResults) {
+    return CacheBuilder.newBuilder()
+        .maximumWeight(maximumResults)
+        .weigher(
+            (List<Object> key, CachedResponse cachedResponse) ->
+                cachedResponse.results.size() + 1)
+        .build();
+  }
+
+  /** Copies the results so that they are not changed by the processing of a query response */
+  private static List<Result> copy(List<Result> results) {
+    return results.stream().map(CachingFederationStrategy::copy).collect(Collectors.toList());
+  }
+
+  private static Result copy(Result result) {
+    Metacard metacard = result.getMetacard();
+    ResultImpl copy = new ResultImpl(new MetacardImpl(metacard, metacard.getMetacardType()));
+    copy.setRelevanceScore(result.getRelevanceScore());
+    copy.setDistanceInMeters(result.getDistanceInMeters());
+    return copy;
+  }
+
+  private static class CachedResponse {
+
+    private final List<Result> results;
+
+    private final long hits;
+
+    private final Map<String, Serializable> properties;
+
+    private final Set<ProcessingDetails> processingDetails;
+
+    private final long freshUntil;
+
+    private final long staleUntil;
+
+    private final boolean includesLocal;
+
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    private CachedResponse(
+        List<Result> results,
+        long hits,
+        Map<String, Serializable> properties,
+        Set<ProcessingDetails> processingDetails,
+        long freshUntil,
+        long staleUntil,
+        boolean includesLocal) {
+      this.results = results;
+      this.hits = hits;
+      this.properties = properties;
+      this.processingDetails = processingDetails;
+      this.freshUntil = freshUntil;
+      this.staleUntil = staleUntil;
+      this.includesLocal = includesLocal;
+    }
+
+    private QueryResponse toResponse(QueryRequest queryRequest) {
+      return new QueryResponseImpl(
+          queryRequest,
+          copy(results),
+          true,
+          hits,
+          new HashMap<>(properties),
+          new HashSet<>(processingDetails));
+    }
+  }
+}
@@ -0,0 +1,132 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.federation.impl;
+
+import ddf.catalog.filter.delegate.FilterToTextDelegate;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Writes a filter as text that is the same for filters that select the same metacards, so it can
+ * be used as a cache key: the operands of {@code and} and {@code or} are sorted, case sensitive
+ * comparisons are told apart from case insensitive ones, and dates keep their milliseconds.
+ */
+class CanonicalFilterDelegate extends FilterToTextDelegate {
+
+  @Override
+  public String and(List<String> operands) {
+    return super.and(sort(operands));
+  }
+
+  @Override
+  public String or(List<String> operands) {
+    return super.or(sort(operands));
+  }
+
+  @Override
+  public String propertyIsLike(String propertyName, String pattern, boolean isCaseSensitive) {
+    return caseSensitive(
+        super.propertyIsLike(propertyName, pattern, isCaseSensitive), isCaseSensitive);
+  }
+
+  @Override
+  public String propertyIsEqualTo(String propertyName, String literal, boolean isCaseSensitive) {
+    return caseSensitive(
+        super.propertyIsEqualTo(propertyName, literal, isCaseSensitive), isCaseSensitive);
+  }
+
+  @Override
+  public String propertyIsNotEqualTo(String propertyName, String literal, boolean isCaseSensitive) {
+    return caseSensitive(
+        super.propertyIsNotEqualTo(propertyName, literal, isCaseSensitive), isCaseSensitive);
+  }
+
+  @Override
+  public String xpathIsLike(String xpath, String pattern, boolean isCaseSensitive) {
+    return caseSensitive(super.xpathIsLike(xpath, pattern, isCaseSensitive), isCaseSensitive);
+  }
+
+  @Override
+  public String propertyIsEqualTo(String propertyName, Date literal) {
+    return propertyName + "=" + toText(literal);
+  }
+
+  @Override
+  public String propertyIsEqualTo(String propertyName, Date startDate, Date endDate) {
+    return propertyName + "=" + toText(startDate) + " to " + toText(endDate);
+  }
+
+  @Override
+  public String propertyIsNotEqualTo(String propertyName, Date literal) {
+    return propertyName + "!=" + toText(literal);
+  }
+
+  @Override
+  public String propertyIsNotEqualTo(String propertyName, Date startDate, Date endDate) {
+    return propertyName + "!=" + toText(startDate) + " to " + toText(endDate);
+  }
+
+  @Override
+  public String propertyIsGreaterThan(String propertyName, Date literal) {
+    return propertyName + ">" + toText(literal);
+  }
+
+  @Override
+  public String propertyIsGreaterThanOrEqualTo(String propertyName, Date literal) {
+    return propertyName + ">=" + toText(literal);
+  }
+
+  @Override
+  public String propertyIsLessThan(String propertyName, Date literal) {
+    return propertyName + "<" + toText(literal);
+  }
+
+  @Override
+  public String propertyIsLessThanOrEqualTo(String propertyName, Date literal) {
+    return propertyName + "<=" + toText(literal);
+  }
+
+  @Override
+  public String propertyIsBetween(String propertyName, Date lowerBoundary, Date upperBoundary) {
+    return toText(lowerBoundary) + "<=" + propertyName + "<=" + toText(upperBoundary);
+  }
+
+  @Override
+  public String after(String propertyName, Date date) {
+    return "after(" + propertyName + "," + toText(date) + ")";
+  }
+
+  @Override
+  public String before(String propertyName, Date date) {
+    return "before(" + propertyName + "," + toText(date) + ")";
+  }
+
+  @Override
+  public String during(String propertyName, Date startDate, Date endDate) {
+    return "during(" + propertyName + "," + toText(startDate) + "," + toText(endDate) + ")";
+  }
+
+  private static List<String> sort(List<String> operands) {
+    return operands.stream().sorted().collect(Collectors.toList());
+  }
+
+  private static String caseSensitive(String text, boolean isCaseSensitive) {
+    return isCaseSensitive ? "case(" + text + ")" : text;
+  }
+
+  private static String toText(Date date) {
+    return date == null ? "null" : date.toInstant().toString();
+  }
+}
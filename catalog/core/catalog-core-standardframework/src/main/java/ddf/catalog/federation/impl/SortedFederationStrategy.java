@@ -296,6 +296,22 @@ public void setMaxStartIndex(int maxStartIndex) {
     }
   }
 
+  boolean isStreamingMerge() {
+    return sortedQueryMonitorFactory.isStreamingMerge();
+  }
+
+  /**
+   * To be set via Spring/Blueprint
+   *
+   * @param streamingMerge {@code true} to merge each source's results into a page bounded by the
+   *     page size as the source responds, {@code false} to collect every source's results and sort
+   *     them once all sources have responded
+   */
+  public void setStreamingMerge(boolean streamingMerge) {
+    LOGGER.debug("Setting streaming merge to {}", streamingMerge);
+    sortedQueryMonitorFactory.setStreamingMerge(streamingMerge);
+  }
+
   static class OffsetResultHandler implements Runnable {
 
     private QueryResponseImpl originalResults = null;
@@ -77,12 +77,30 @@ class SortedQueryMonitor implements Runnable {
 
   private final long deadline;
 
+  private final boolean streamingMerge;
+
   public SortedQueryMonitor(
       CompletionService<SourceResponse> completionService,
       Map<Future<SourceResponse>, QueryRequest> futures,
       QueryResponseImpl returnResults,
       QueryRequest request,
       List<PostFederatedQueryPlugin> postQuery) {
+    this(completionService, futures, returnResults, request, postQuery, false);
+  }
+
+  /**
+   * @param streamingMerge when {@code true}, each source's results are merged into a bounded page
+   *     as soon as the source responds instead of being collected and sorted once every source has
+   *     responded
+   */
+  public SortedQueryMonitor(
+      CompletionService<SourceResponse> completionService,
+      Map<Future<SourceResponse>, QueryRequest> futures,
+      QueryResponseImpl returnResults,
+      QueryRequest request,
+      List<PostFederatedQueryPlugin> postQuery,
+      boolean streamingMerge) {
+    this.streamingMerge = streamingMerge;
     this.completionService = completionService;
     this.returnResults = returnResults;
     this.request = request;
@@ -144,6 +162,8 @@ public void run() {
     }
 
     List<Result> resultList = new ArrayList<>();
+    SortedResultMerger resultMerger =
+        streamingMerge ? new SortedResultMerger(resultComparator, query.getPageSize()) : null;
     long totalHits = 0;
     Set<ProcessingDetails> detailsOfReturnResults = returnResults.getProcessingDetails();
 
@@ -201,7 +221,11 @@ public void run() {
         sourceResponse =
             executePostFederationQueryPluginsWithSourceError(queryRequest, sourceId, e);
       }
-      resultList.addAll(sourceResponse.getResults());
+      if (resultMerger != null) {
+        resultMerger.merge(sourceResponse.getResults());
+      } else {
+        resultList.addAll(sourceResponse.getResults());
+      }
       long hits = sourceResponse.getHits();
       totalHits += hits;
       hitsPerSource.merge(sourceId, hits, (l1, l2) -> l1 + l2);
@@ -212,10 +236,15 @@ public void run() {
           sourceProcessingDetailsToProcessingDetails(sourceId, sourceResponse));
     }
     returnProperties.put("hitsPerSource", hitsPerSource);
-    LOGGER.debug("All sources finished returning results: {}", resultList.size());
 
     returnResults.setHits(totalHits);
-    returnResults.addResults(sortedResults(resultList, resultComparator), true);
+    if (resultMerger != null) {
+      LOGGER.debug("All sources finished returning results: {}", resultMerger.size());
+      returnResults.addResults(resultMerger.getResults(), true);
+    } else {
+      LOGGER.debug("All sources finished returning results: {}", resultList.size());
+      returnResults.addResults(sortedResults(resultList, resultComparator), true);
+    }
   }
 
   private Set<ProcessingDetails> sourceProcessingDetailsToProcessingDetails(
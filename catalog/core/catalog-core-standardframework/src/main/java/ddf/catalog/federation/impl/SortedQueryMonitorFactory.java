@@ -24,6 +24,8 @@
 
 class SortedQueryMonitorFactory {
 
+  private boolean streamingMerge = false;
+
   public Runnable createMonitor(
       final CompletionService<SourceResponse> completionService,
       final Map<Future<SourceResponse>, QueryRequest> futures,
@@ -31,6 +33,15 @@ public Runnable createMonitor(
       final QueryRequest request,
       List<PostFederatedQueryPlugin> postQuery) {
 
-    return new SortedQueryMonitor(completionService, futures, returnResults, request, postQuery);
+    return new SortedQueryMonitor(
+        completionService, futures, returnResults, request, postQuery, streamingMerge);
+  }
+
+  boolean isStreamingMerge() {
+    return streamingMerge;
+  }
+
+  void setStreamingMerge(boolean streamingMerge) {
+    this.streamingMerge = streamingMerge;
   }
 }
@@ -0,0 +1,120 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.federation.impl;
+
+import ddf.catalog.data.Result;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Merges the results of several sources into a single page of at most {@code maxResults} results
+ * without holding every source's results at the same time.
+ *
+ * <p>The merger keeps a bounded heap whose head is the worst result currently on the page. Each
+ * source's results are merged as soon as the source responds, and when a source's results are
+ * already ordered by the comparator, merging stops at the first result that cannot make the page.
+ * Results that compare as equal keep their arrival order, which matches a stable sort of all the
+ * results followed by a truncation to the page size.
+ */
+class SortedResultMerger {
+
+  private final Comparator<? super Result> comparator;
+
+  private final int maxResults;
+
+  private final PriorityQueue<Entry> worstFirst;
+
+  private long sequence = 0;
+
+  SortedResultMerger(Comparator<? super Result> comparator, int maxResults) {
+    this.comparator = comparator;
+    this.maxResults = maxResults > 0 ? maxResults : Integer.MAX_VALUE;
+    this.worstFirst = new PriorityQueue<>(this::compareWorstFirst);
+  }
+
+  /**
+   * Merges the results of one source into the page.
+   *
+   * @param sourceResults the results returned by a single source
+   */
+  void merge(List<Result> sourceResults) {
+    if (sourceResults == null || sourceResults.isEmpty()) {
+      return;
+    }
+
+    boolean sorted = isSorted(sourceResults);
+    for (Result result : sourceResults) {
+      if (worstFirst.size() < maxResults) {
+        worstFirst.offer(new Entry(result, sequence++));
+      } else if (comparator.compare(result, worstFirst.peek().result) < 0) {
+        worstFirst.poll();
+        worstFirst.offer(new Entry(result, sequence++));
+      } else if (sorted) {
+        // every remaining result of this source sorts after the current page
+        break;
+      }
+    }
+  }
+
+  /** @return the number of results currently held for the page */
+  int size() {
+    return worstFirst.size();
+  }
+
+  /** @return the merged page, in comparator order */
+  List<Result> getResults() {
+    List<Entry> entries = new ArrayList<>(worstFirst);
+    entries.sort(this::compareBestFirst);
+
+    List<Result> results = new ArrayList<>(entries.size());
+    for (Entry entry : entries) {
+      results.add(entry.result);
+    }
+    return results;
+  }
+
+  private boolean isSorted(List<Result> results) {
+    Result previous = null;
+    for (Result result : results) {
+      if (previous != null && comparator.compare(previous, result) > 0) {
+        return false;
+      }
+      previous = result;
+    }
+    return true;
+  }
+
+  private int compareBestFirst(Entry left, Entry right) {
+    int order = comparator.compare(left.result, right.result);
+    return order != 0 ? order : Long.compare(left.sequence, right.sequence);
+  }
+
+  private int compareWorstFirst(Entry left, Entry right) {
+    return compareBestFirst(right, left);
+  }
+
+  private static class Entry {
+
+    private final Result result;
+
+    private final long sequence;
+
+    private Entry(Result result, long sequence) {
+      this.result = result;
+      this.sequence = sequence;
+    }
+  }
+}
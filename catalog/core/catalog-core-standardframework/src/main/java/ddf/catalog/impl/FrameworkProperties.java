@@ -86,6 +86,8 @@ public class FrameworkProperties {
 
   private FederationStrategy federationStrategy;
 
+  private FederationStrategy lookupFederationStrategy;
+
   private QueryResponsePostProcessor queryResponsePostProcessor;
 
   private ExecutorService pool;
@@ -236,6 +238,18 @@ public void setFederationStrategy(FederationStrategy federationStrategy) {
     this.federationStrategy = federationStrategy;
   }
 
+  /**
+   * @return the strategy used to look up the existing metacards of updates and deletes, which must
+   *     not be answered from a cache, or the federation strategy if none is set
+   */
+  public FederationStrategy getLookupFederationStrategy() {
+    return lookupFederationStrategy != null ? lookupFederationStrategy : federationStrategy;
+  }
+
+  public void setLookupFederationStrategy(FederationStrategy lookupFederationStrategy) {
+    this.lookupFederationStrategy = lookupFederationStrategy;
+  }
+
   public QueryResponsePostProcessor getQueryResponsePostProcessor() {
     return queryResponsePostProcessor;
   }
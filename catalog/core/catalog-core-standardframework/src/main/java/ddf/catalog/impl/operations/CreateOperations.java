@@ -41,13 +41,13 @@
 import ddf.catalog.plugin.PolicyResponse;
 import ddf.catalog.plugin.PostIngestPlugin;
 import ddf.catalog.plugin.PreAuthorizationPlugin;
-import ddf.catalog.plugin.PreIngestPlugin;
 import ddf.catalog.plugin.StopProcessingException;
 import ddf.catalog.source.CatalogStore;
 import ddf.catalog.source.IngestException;
 import ddf.catalog.source.InternalIngestException;
 import ddf.catalog.source.SourceUnavailableException;
 import ddf.catalog.util.impl.Requests;
+import io.micrometer.core.instrument.Timer;
 import java.io.IOException;
 import java.io.Serializable;
 import java.nio.file.Path;
@@ -95,6 +95,8 @@ public class CreateOperations {
 
   private final OperationsStorageSupport opsStorageSupport;
 
+  private final PreIngestPluginRunner preIngestPluginRunner = new PreIngestPluginRunner();
+
   public CreateOperations(
       FrameworkProperties frameworkProperties,
       QueryOperations queryOperations,
@@ -485,10 +487,13 @@ private CreateResponse validateFixCreateResponse(
 
   private CreateResponse processPostIngestPlugins(CreateResponse createResponse) {
     for (final PostIngestPlugin plugin : frameworkProperties.getPostIngest()) {
+      Timer.Sample sample = Timer.start();
       try {
         createResponse = plugin.process(createResponse);
       } catch (PluginExecutionException e) {
         LOGGER.info("Plugin processing failed. This is allowable. Skipping to next plugin.", e);
+      } finally {
+        sample.stop(PluginMetrics.timer(PluginMetrics.POST_INGEST, plugin));
       }
     }
     return createResponse;
@@ -522,20 +527,18 @@ private CreateResponse getCreateResponse(CreateRequest createRequest) throws Ing
 
   private CreateRequest processPreIngestPlugins(CreateRequest createRequest)
       throws StopProcessingException {
-    for (PreIngestPlugin plugin : frameworkProperties.getPreIngest()) {
-      try {
-        createRequest = plugin.process(createRequest);
-      } catch (PluginExecutionException e) {
-        LOGGER.info("Plugin processing failed. This is allowable. Skipping to next plugin.", e);
-      }
-    }
-    return createRequest;
+    return preIngestPluginRunner.process(createRequest, frameworkProperties.getPreIngest());
   }
 
   private CreateRequest processPrecreateAccessPlugins(CreateRequest createRequest)
       throws StopProcessingException {
     for (AccessPlugin plugin : frameworkProperties.getAccessPlugins()) {
-      createRequest = plugin.processPreCreate(createRequest);
+      Timer.Sample sample = Timer.start();
+      try {
+        createRequest = plugin.processPreCreate(createRequest);
+      } finally {
+        sample.stop(PluginMetrics.timer(PluginMetrics.ACCESS, plugin));
+      }
     }
     return createRequest;
   }
@@ -543,7 +546,12 @@ private CreateRequest processPrecreateAccessPlugins(CreateRequest createRequest)
   private CreateRequest processPreAuthorizationPlugins(CreateRequest createRequest)
       throws StopProcessingException {
     for (PreAuthorizationPlugin plugin : frameworkProperties.getPreAuthorizationPlugins()) {
-      createRequest = plugin.processPreCreate(createRequest);
+      Timer.Sample sample = Timer.start();
+      try {
+        createRequest = plugin.processPreCreate(createRequest);
+      } finally {
+        sample.stop(PluginMetrics.timer(PluginMetrics.PRE_AUTHORIZATION, plugin));
+      }
     }
     return createRequest;
   }
@@ -556,8 +564,13 @@ private CreateRequest updateCreateRequestPolicyMap(CreateRequest createRequest)
     for (Metacard metacard : createRequest.getMetacards()) {
       HashMap<String, Set<String>> itemPolicyMap = new HashMap<>();
       for (PolicyPlugin plugin : frameworkProperties.getPolicyPlugins()) {
-        PolicyResponse policyResponse =
-            plugin.processPreCreate(metacard, unmodifiablePropertiesMap);
+        Timer.Sample sample = Timer.start();
+        PolicyResponse policyResponse;
+        try {
+          policyResponse = plugin.processPreCreate(metacard, unmodifiablePropertiesMap);
+        } finally {
+          sample.stop(PluginMetrics.timer(PluginMetrics.POLICY, plugin));
+        }
         opsSecuritySupport.buildPolicyMap(itemPolicyMap, policyResponse.itemPolicy().entrySet());
         opsSecuritySupport.buildPolicyMap(
             requestPolicyMap, policyResponse.operationPolicy().entrySet());
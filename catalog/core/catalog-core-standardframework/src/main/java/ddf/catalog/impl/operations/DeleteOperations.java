@@ -398,7 +398,8 @@ private DeleteRequest populateMetacards(
     QueryRequestImpl queryRequest = createQueryRequest(deleteRequest);
     QueryResponse query;
     try {
-      query = queryOperations.doQuery(queryRequest, frameworkProperties.getFederationStrategy());
+      query =
+          queryOperations.doQuery(queryRequest, frameworkProperties.getLookupFederationStrategy());
     } catch (FederationException e) {
       LOGGER.debug("Unable to complete query for updated metacards.", e);
       throw new IngestException("Exception during runtime while performing delete");
@@ -0,0 +1,43 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.impl.operations;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+
+/** Times the invocations of the catalog plugins, by the stage of the operation and plugin. */
+final class PluginMetrics {
+
+  static final String PRE_AUTHORIZATION = "preauthorization";
+
+  static final String POLICY = "policy";
+
+  static final String ACCESS = "access";
+
+  static final String PRE_INGEST = "preingest";
+
+  static final String POST_INGEST = "postingest";
+
+  private static final String LATENCY_METRIC = "ddf.catalog.ingest.plugin.latency";
+
+  private static final String STAGE_TAG = "stage";
+
+  private static final String PLUGIN_TAG = "plugin";
+
+  private PluginMetrics() {}
+
+  static Timer timer(String stage, Object plugin) {
+    return Metrics.timer(LATENCY_METRIC, STAGE_TAG, stage, PLUGIN_TAG, plugin.getClass().getName());
+  }
+}
@@ -0,0 +1,168 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.impl.operations;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Lists;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.operation.CreateRequest;
+import ddf.catalog.operation.impl.CreateRequestImpl;
+import ddf.catalog.plugin.PartitionablePreIngestPlugin;
+import ddf.catalog.plugin.PluginExecutionException;
+import ddf.catalog.plugin.PreIngestPlugin;
+import ddf.catalog.plugin.StopProcessingException;
+import io.micrometer.core.instrument.Timer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.apache.shiro.subject.Subject;
+import org.apache.shiro.util.ThreadContext;
+import org.codice.ddf.platform.util.StandardThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs the {@link PreIngestPlugin}s on a {@link CreateRequest}.
+ *
+ * <p>Consecutive {@link PartitionablePreIngestPlugin}s form a stage. When a request has more
+ * metacards than the partition size, its metacards are split into partitions that go through all
+ * of the plugins of a stage concurrently, so the latencies of expensive plugins such as validation
+ * and geocoding are spread over several threads. Other plugins run on the whole request, one at a
+ * time, in between stages.
+ */
+class PreIngestPluginRunner {
+
+  /** Requests with more metacards than this are split into partitions of this size */
+  static final int DEFAULT_PARTITION_SIZE = 100;
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(PreIngestPluginRunner.class);
+
+  private static final ExecutorService EXECUTOR =
+      Executors.newFixedThreadPool(
+          Runtime.getRuntime().availableProcessors(),
+          StandardThreadFactoryBuilder.newThreadFactory("preIngestPluginThread"));
+
+  private final ExecutorService executor;
+
+  private final int partitionSize;
+
+  PreIngestPluginRunner() {
+    this(EXECUTOR, DEFAULT_PARTITION_SIZE);
+  }
+
+  @VisibleForTesting
+  PreIngestPluginRunner(ExecutorService executor, int partitionSize) {
+    this.executor = executor;
+    this.partitionSize = partitionSize;
+  }
+
+  CreateRequest process(CreateRequest createRequest, List<PreIngestPlugin> plugins)
+      throws StopProcessingException {
+    List<PreIngestPlugin> stage = new ArrayList<>();
+    for (PreIngestPlugin plugin : plugins) {
+      if (plugin instanceof PartitionablePreIngestPlugin) {
+        stage.add(plugin);
+      } else {
+        createRequest = processStage(createRequest, stage);
+        stage = new ArrayList<>();
+        createRequest = process(createRequest, plugin);
+      }
+    }
+    return processStage(createRequest, stage);
+  }
+
+  private CreateRequest processStage(CreateRequest createRequest, List<PreIngestPlugin> stage)
+      throws StopProcessingException {
+    List<Metacard> metacards = createRequest.getMetacards();
+    if (stage.isEmpty() || metacards == null || metacards.size() <= partitionSize) {
+      return processAll(createRequest, stage);
+    }
+
+    LOGGER.debug(
+        "Running {} pre-ingest plugins on {} metacards in partitions of {}.",
+        stage.size(),
+        metacards.size(),
+        partitionSize);
+
+    // Plugins may look for the subject of the request on the current thread
+    Subject subject = ThreadContext.getSubject();
+    List<Future<CreateRequest>> partitions = new ArrayList<>();
+    for (List<Metacard> partition : Lists.partition(metacards, partitionSize)) {
+      CreateRequest partitionRequest =
+          new CreateRequestImpl(
+              new ArrayList<>(partition),
+              createRequest.getProperties(),
+              createRequest.getStoreIds());
+      Callable<CreateRequest> task = () -> processAll(partitionRequest, stage);
+      partitions.add(executor.submit(subject == null ? task : subject.associateWith(task)));
+    }
+
+    List<Metacard> processed = new ArrayList<>(metacards.size());
+    try {
+      for (Future<CreateRequest> partition : partitions) {
+        processed.addAll(getPartition(partition).getMetacards());
+      }
+    } finally {
+      partitions.forEach(partition -> partition.cancel(true));
+    }
+
+    return new CreateRequestImpl(
+        processed, createRequest.getProperties(), createRequest.getStoreIds());
+  }
+
+  private CreateRequest getPartition(Future<CreateRequest> partition)
+      throws StopProcessingException {
+    try {
+      return partition.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new StopProcessingException("Interrupted while running pre-ingest plugins.");
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof StopProcessingException) {
+        throw (StopProcessingException) cause;
+      } else if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      } else if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new IllegalStateException("Unexpected exception from pre-ingest plugins", cause);
+    }
+  }
+
+  private CreateRequest processAll(CreateRequest createRequest, List<PreIngestPlugin> plugins)
+      throws StopProcessingException {
+    for (PreIngestPlugin plugin : plugins) {
+      createRequest = process(createRequest, plugin);
+    }
+    return createRequest;
+  }
+
+  private CreateRequest process(CreateRequest createRequest, PreIngestPlugin plugin)
+      throws StopProcessingException {
+    Timer.Sample sample = Timer.start();
+    try {
+      return plugin.process(createRequest);
+    } catch (PluginExecutionException e) {
+      LOGGER.info("Plugin processing failed. This is allowable. Skipping to next plugin.", e);
+      return createRequest;
+    } finally {
+      sample.stop(PluginMetrics.timer(PluginMetrics.PRE_INGEST, plugin));
+    }
+  }
+}
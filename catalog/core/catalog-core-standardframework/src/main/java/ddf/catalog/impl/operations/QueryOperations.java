@@ -303,11 +303,38 @@ QueryResponse doQuery(QueryRequest queryRequest, FederationStrategy strategy)
               queryRequest.getProperties());
     }
 
+    queryRequest = removeCursorFromFederatedQuery(queryRequest, querySources.sourcesToQuery);
+
     QueryResponse response = strategy.federate(querySources.sourcesToQuery, queryRequest);
     frameworkProperties.getQueryResponsePostProcessor().processResponse(response);
     return addProcessingDetails(querySources.exceptions, response);
   }
 
+  /**
+   * Removes the {@link Constants#CURSOR_MARK_KEY} property from a query that goes to more than one
+   * source. The federation strategy merges and truncates the results of all the sources, so a
+   * source's cursor would move past results that were dropped from the merged page. Without the
+   * property, the sources page by start index and no next cursor is returned, which makes {@link
+   * ddf.catalog.util.impl.ResultIterable} fall back to start index paging.
+   */
+  private QueryRequest removeCursorFromFederatedQuery(
+      QueryRequest queryRequest, List<Source> sourcesToQuery) {
+    if (sourcesToQuery.size() <= 1
+        || !queryRequest.hasProperties()
+        || !queryRequest.getProperties().containsKey(Constants.CURSOR_MARK_KEY)) {
+      return queryRequest;
+    }
+
+    LOGGER.debug("Querying {} sources, so not paging with a cursor", sourcesToQuery.size());
+    Map<String, Serializable> properties = new HashMap<>(queryRequest.getProperties());
+    properties.remove(Constants.CURSOR_MARK_KEY);
+    return new QueryRequestImpl(
+        queryRequest.getQuery(),
+        queryRequest.isEnterprise(),
+        queryRequest.getSourceIds(),
+        properties);
+  }
+
   <T extends Request> T setFlagsOnRequest(T request) {
     if (request != null) {
       Set<String> ids = getCombinedIdSet(request);
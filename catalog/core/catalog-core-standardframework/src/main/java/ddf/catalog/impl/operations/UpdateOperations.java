@@ -28,14 +28,17 @@
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.Result;
 import ddf.catalog.data.impl.AttributeImpl;
+import ddf.catalog.data.impl.MetacardImpl;
 import ddf.catalog.data.types.Core;
 import ddf.catalog.federation.FederationException;
+import ddf.catalog.filter.FilterBuilder;
 import ddf.catalog.history.Historian;
 import ddf.catalog.impl.FrameworkProperties;
 import ddf.catalog.operation.Operation;
 import ddf.catalog.operation.OperationTransaction;
 import ddf.catalog.operation.ProcessingDetails;
 import ddf.catalog.operation.QueryResponse;
+import ddf.catalog.operation.SourceResponse;
 import ddf.catalog.operation.Update;
 import ddf.catalog.operation.UpdateRequest;
 import ddf.catalog.operation.UpdateResponse;
@@ -57,12 +60,14 @@
 import ddf.catalog.source.IngestException;
 import ddf.catalog.source.InternalIngestException;
 import ddf.catalog.source.SourceUnavailableException;
+import ddf.catalog.source.UnsupportedQueryException;
 import ddf.catalog.util.impl.Requests;
 import ddf.security.SecurityConstants;
 import java.io.Serializable;
 import java.nio.file.Path;
 import java.util.AbstractMap;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -246,12 +251,22 @@ private UpdateResponse doUpdate(UpdateRequest updateRequest)
     updateRequest = queryOperations.setFlagsOnRequest(updateRequest);
     updateRequest = validateUpdateRequest(updateRequest);
     updateRequest = validateLocalSource(updateRequest);
+    Set<String> partialUpdateAttributes = getPartialUpdateAttributes(updateRequest);
 
     try {
-      updateRequest = injectAttributes(updateRequest);
-      updateRequest = setDefaultValues(updateRequest);
+      if (partialUpdateAttributes == null) {
+        updateRequest = injectAttributes(updateRequest);
+        updateRequest = setDefaultValues(updateRequest);
+      }
 
       updateRequest = populateMetacards(updateRequest);
+
+      if (partialUpdateAttributes != null) {
+        updateRequest = applyPartialUpdates(updateRequest, partialUpdateAttributes);
+        updateRequest = injectAttributes(updateRequest);
+        updateRequest = setDefaultValues(updateRequest);
+      }
+
       updateRequest = processPreAuthorizationPlugins(updateRequest);
 
       updateRequest = populateUpdateRequestPolicyMap(updateRequest);
@@ -412,6 +427,100 @@ private UpdateRequest validateUpdateRequest(UpdateRequest updateRequest) throws
     return updateRequest;
   }
 
+  /**
+   * @return the names of the attributes changed by a partial {@link UpdateRequest}, or {@code
+   *     null} if it updates whole metacards
+   * @throws IngestException if the partial update does not identify the metacards by ID
+   */
+  private Set<String> getPartialUpdateAttributes(UpdateRequest updateRequest)
+      throws IngestException {
+    Serializable attributeNames =
+        updateRequest.getPropertyValue(Constants.PARTIAL_UPDATE_ATTRIBUTES_KEY);
+    if (attributeNames == null) {
+      return null;
+    }
+
+    if (!(attributeNames instanceof Collection)) {
+      throw new IngestException(
+          "The attributes of a partial update must be a collection of attribute names.");
+    }
+    if (!Metacard.ID.equals(updateRequest.getAttributeName())) {
+      throw new IngestException("Partial updates must identify the metacards by ID.");
+    }
+    if (!Requests.isLocal(updateRequest)) {
+      throw new IngestException("Partial updates are only supported by the local catalog.");
+    }
+
+    Collection<?> names = (Collection<?>) attributeNames;
+    return names.stream().map(Object::toString).collect(Collectors.toSet());
+  }
+
+  /**
+   * Replaces the metacards of a partial {@link UpdateRequest} by copies of the stored metacards
+   * with the changed attributes applied, so the rest of the update works on complete metacards.
+   */
+  private UpdateRequest applyPartialUpdates(
+      UpdateRequest updateRequest, Set<String> attributeNames) throws IngestException {
+    Map<String, Metacard> metacardMap = getStoredMetacards(updateRequest);
+    for (Map.Entry<Serializable, Metacard> update : updateRequest.getUpdates()) {
+      Metacard storedMetacard = metacardMap.get(update.getKey().toString());
+      if (storedMetacard == null) {
+        throw new IngestException("Could not find all metacards specified in request");
+      }
+      Metacard changes = update.getValue();
+
+      MetacardImpl metacard = new MetacardImpl(storedMetacard, storedMetacard.getMetacardType());
+      for (String attributeName : attributeNames) {
+        Attribute attribute = changes != null ? changes.getAttribute(attributeName) : null;
+        metacard.setAttribute(
+            attribute != null ? attribute : new AttributeImpl(attributeName, (Serializable) null));
+      }
+      update.setValue(metacard);
+    }
+
+    return updateRequest;
+  }
+
+  /**
+   * Looks up the metacards of a partial {@link UpdateRequest} in the local catalog provider. The
+   * metacards looked up by {@link #populateMetacards(UpdateRequest)} can't be used, because the
+   * query plugins may have changed or redacted them and their security attribute is replaced by the
+   * framework's policy.
+   */
+  private Map<String, Metacard> getStoredMetacards(UpdateRequest updateRequest)
+      throws IngestException {
+    FilterBuilder filterBuilder = frameworkProperties.getFilterBuilder();
+    List<Filter> idFilters =
+        updateRequest.getUpdates().stream()
+            .map(update -> update.getKey().toString())
+            .map(id -> filterBuilder.attribute(Core.ID).is().equalTo().text(id))
+            .collect(Collectors.toList());
+
+    QueryImpl query =
+        new QueryImpl(
+            filterBuilder.anyOf(idFilters),
+            1, /* start index */
+            idFilters.size(), /* page size */
+            null,
+            false, /* total result count */
+            0 /* timeout */);
+    SourceResponse response;
+    try {
+      response = sourceOperations.getCatalog().query(new QueryRequestImpl(query));
+    } catch (UnsupportedQueryException e) {
+      throw new IngestException("Unable to look up the metacards of the partial update.", e);
+    }
+
+    return response.getResults().stream()
+        .map(Result::getMetacard)
+        .filter(Objects::nonNull)
+        .collect(
+            Collectors.toMap(
+                metacard -> getAttributeStringValue(metacard, Core.ID),
+                Function.identity(),
+                (first, second) -> first));
+  }
+
   private UpdateResponse doRemoteUpdate(UpdateRequest updateRequest) {
     HashSet<ProcessingDetails> exceptions = new HashSet<>();
     Map<String, Serializable> properties = new HashMap<>();
@@ -569,7 +678,7 @@ private UpdateRequest populateMetacards(UpdateRequest updateRequest) throws Inge
     QueryResponse queryResponse;
     try {
       queryResponse =
-          queryOperations.doQuery(queryRequest, frameworkProperties.getFederationStrategy());
+          queryOperations.doQuery(queryRequest, frameworkProperties.getLookupFederationStrategy());
     } catch (FederationException e) {
       LOGGER.debug("Unable to complete query for updated metacards.", e);
       throw new IngestException("Exception during runtime while performing update");
@@ -175,6 +175,10 @@ public void setChunkSize(int chunkSize) {
     downloaderConfig.setChunkSize(chunkSize);
   }
 
+  public void setParallelDownloadSegments(int parallelDownloadSegments) {
+    downloaderConfig.setParallelDownloadSegments(parallelDownloadSegments);
+  }
+
   public boolean isCacheEnabled() {
     return downloaderConfig.isCacheEnabled();
   }
@@ -183,6 +187,16 @@ public void setProductCacheDirectory(String productCacheDirectory) {
     this.downloaderConfig.getResourceCache().setProductCacheDirectory(productCacheDirectory);
   }
 
+  public void setCacheProtectedPercentage(int cacheProtectedPercentage) {
+    this.downloaderConfig.getResourceCache().setCacheProtectedPercentage(cacheProtectedPercentage);
+  }
+
+  public void setCacheAdmissionFilterEnabled(boolean cacheAdmissionFilterEnabled) {
+    this.downloaderConfig
+        .getResourceCache()
+        .setCacheAdmissionFilterEnabled(cacheAdmissionFilterEnabled);
+  }
+
   public List<DownloadInfo> getDownloadsInProgress() {
     List<DownloadInfo> downloadsInProgress = new ArrayList<>();
     for (String downloadIdentifier : downloadStatusInfo.getAllDownloads()) {
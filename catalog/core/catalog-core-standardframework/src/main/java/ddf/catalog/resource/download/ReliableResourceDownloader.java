@@ -37,6 +37,9 @@
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.Timer;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
@@ -48,6 +51,7 @@
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.math.NumberUtils;
 import org.codice.ddf.platform.util.StandardThreadFactoryBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -77,6 +81,8 @@ public class ReliableResourceDownloader implements Runnable {
 
   private FileOutputStream fos;
 
+  private FileChannel cacheFileChannel;
+
   private FileBackedOutputStream fbos;
 
   private CountingOutputStream countingFbos;
@@ -103,6 +109,10 @@ public class ReliableResourceDownloader implements Runnable {
 
   private ResourceRetriever retriever;
 
+  private long resourceSize = -1;
+
+  private boolean segmentedDownload;
+
   /**
    * Only set to true if cacheEnabled is true *AND* product being downloaded is not already pending
    * caching, e.g., another client has already started downloading and caching it.
@@ -157,6 +167,10 @@ public ResourceResponse setupDownload(Metacard metacard, DownloadStatusInfo down
 
     // Get handle to retrieved product's InputStream
     resourceInputStream = resource.getInputStream();
+    resourceSize =
+        resource.getSize() > 0
+            ? resource.getSize()
+            : NumberUtils.toLong(metacard.getResourceSize(), -1);
 
     eventListener.setDownloadMap(downloadIdentifier, resourceResponse);
     downloadStatusInfo.addDownloadInfo(downloadIdentifier, this, resourceResponse);
@@ -223,9 +237,26 @@ public void run() {
             downloadIdentifier);
 
     try {
-      reliableResourceCallable =
-          constructReliableResourceCallable(
-              resourceInputStream, countingFbos, fos, downloaderConfig.getChunkSize(), lock);
+      reliableResourceCallable = null;
+      if (isSegmentedDownloadPossible()) {
+        LOGGER.debug(
+            "Downloading {} bytes in {} segments",
+            resourceSize,
+            downloaderConfig.getParallelDownloadSegments());
+        reliableResourceCallable =
+            constructSegmentedResourceCallable(resourceInputStream, countingFbos, resourceSize);
+      }
+      if (reliableResourceCallable != null) {
+        segmentedDownload = true;
+
+        // The segmented download reads the first segment from the source InputStream and closes
+        // it, so it cannot be used to resume the download
+        resourceInputStream = null;
+      } else {
+        reliableResourceCallable =
+            constructReliableResourceCallable(
+                resourceInputStream, countingFbos, fos, downloaderConfig.getChunkSize(), lock);
+      }
       downloadFuture = null;
       ResourceRetrievalMonitor resourceRetrievalMonitor = null;
       this.downloadState.setDownloadState(DownloadManagerState.DownloadState.IN_PROGRESS);
@@ -323,6 +354,11 @@ public void run() {
                 true);
           }
           if (doCaching) {
+            if (segmentedDownload) {
+              // Segments that were still being written when falling back to a single stream
+              // may have written past the end of the product
+              fos.getChannel().truncate(reliableResourceStatus.getBytesRead());
+            }
             LOGGER.debug("Setting reliableResource size");
             reliableResource.setSize(reliableResourceStatus.getBytesRead());
             LOGGER.debug("Adding caching key = {} to cache map", reliableResource.getKey());
@@ -334,6 +370,11 @@ public void run() {
           LOGGER.debug("Download not complete, only read {} bytes", bytesRead);
           if (fos != null) {
             fos.flush();
+            if (reliableResourceCallable instanceof SegmentedResourceCallable) {
+              // Segments are written at their offsets without moving the cache file's position,
+              // so move it to where a single stream resumes writing
+              fos.getChannel().position(bytesRead);
+            }
           }
 
           // Synchronized so that the Callable is not shutdown while in the middle of
@@ -394,10 +435,7 @@ public void run() {
               downloadState.setCacheEnabled(downloaderConfig.isCacheEnabled());
               downloadState.setContinueCaching(doCaching);
             }
-            reliableResourceCallable =
-                constructReliableResourceCallable(
-                    resourceInputStream, countingFbos, null, downloaderConfig.getChunkSize(), lock);
-            reliableResourceCallable.setBytesRead(bytesRead);
+            reliableResourceCallable = resumeDownload(countingFbos, null, bytesRead);
 
           } else if (DownloadStatus.CLIENT_OUTPUT_STREAM_EXCEPTION.equals(
               reliableResourceStatus.getDownloadStatus())) {
@@ -418,10 +456,7 @@ public void run() {
             IOUtils.closeQuietly(countingFbos);
             LOGGER.debug("Cancelling resourceRetrievalMonitor");
             resourceRetrievalMonitor.cancel();
-            reliableResourceCallable =
-                constructReliableResourceCallable(
-                    resourceInputStream, null, fos, downloaderConfig.getChunkSize(), lock);
-            reliableResourceCallable.setBytesRead(bytesRead);
+            reliableResourceCallable = resumeDownload(null, fos, bytesRead);
 
           } else if (DownloadStatus.RESOURCE_DOWNLOAD_CANCELED.equals(
               reliableResourceStatus.getDownloadStatus())) {
@@ -440,10 +475,7 @@ public void run() {
                 downloadIdentifier);
             if (doCaching && downloaderConfig.isCacheWhenCanceled()) {
               LOGGER.debug("Continuing to cache product");
-              reliableResourceCallable =
-                  constructReliableResourceCallable(
-                      resourceInputStream, null, fos, downloaderConfig.getChunkSize(), lock);
-              reliableResourceCallable.setBytesRead(bytesRead);
+              reliableResourceCallable = resumeDownload(null, fos, bytesRead);
             } else {
               break;
             }
@@ -509,7 +541,38 @@ public void run() {
     }
   }
 
+  private boolean isSegmentedDownloadPossible() {
+    int segments = downloaderConfig.getParallelDownloadSegments();
+    // Segments are reassembled in the cache file, so caching is required
+    return segments > 1
+        && doCaching
+        && fos != null
+        && resourceSize >= (long) segments * downloaderConfig.getChunkSize();
+  }
+
+  /**
+   * Continues the download after a failed attempt with the source InputStream left by that attempt,
+   * or re-retrieves the product if there is none, e.g., after a segmented download.
+   */
+  private ReliableResourceCallable resumeDownload(
+      CountingOutputStream countingFbos, FileOutputStream fos, long bytesRead) {
+    if (resourceInputStream == null) {
+      return retrieveResource(bytesRead, countingFbos, fos);
+    }
+
+    ReliableResourceCallable callable =
+        constructReliableResourceCallable(
+            resourceInputStream, countingFbos, fos, downloaderConfig.getChunkSize(), lock);
+    callable.setBytesRead(bytesRead);
+    return callable;
+  }
+
   private ReliableResourceCallable retrieveResource(long bytesRead) {
+    return retrieveResource(bytesRead, countingFbos, fos);
+  }
+
+  private ReliableResourceCallable retrieveResource(
+      long bytesRead, CountingOutputStream countingFbos, FileOutputStream fos) {
 
     ReliableResourceCallable reliableResourceCallable = null;
 
@@ -541,6 +604,7 @@ private ReliableResourceCallable retrieveResource(long bytesRead) {
   private void deleteCacheFile(FileOutputStream fos) {
     LOGGER.debug("Deleting partially cached file {}", filePath);
     IOUtils.closeQuietly(fos);
+    IOUtils.closeQuietly(cacheFileChannel);
 
     // Delete the cache file since it will no longer be written to and it currently has
     // incomplete or corrupted data in it
@@ -588,6 +652,7 @@ private void cleanupAfterDownload(ReliableResourceStatus reliableResourceStatus)
     if (doCaching) {
       IOUtils.closeQuietly(fos);
     }
+    IOUtils.closeQuietly(cacheFileChannel);
     LOGGER.debug("Closing source InputStream");
     IOUtils.closeQuietly(resourceInputStream);
     LOGGER.debug("Closed source InputStream");
@@ -648,6 +713,30 @@ ReliableResourceCallable constructReliableResourceCallable(
     return new ReliableResourceCallable(input, countingFbos, fos, chunkSize, lock);
   }
 
+  /** @return the Callable downloading the product in segments, or null if it cannot be created */
+  @VisibleForTesting
+  ReliableResourceCallable constructSegmentedResourceCallable(
+      InputStream input, CountingOutputStream countingFbos, long size) {
+    try {
+      // The segments are read back from the cache file to be delivered to the client in order,
+      // which the write-only channel of the cache file's FileOutputStream does not allow
+      cacheFileChannel =
+          FileChannel.open(Paths.get(filePath), StandardOpenOption.READ, StandardOpenOption.WRITE);
+    } catch (IOException e) {
+      LOGGER.info("Unable to open cache file {} - downloading it over a single stream", filePath);
+      return null;
+    }
+    return new SegmentedResourceCallable(
+        input,
+        retriever,
+        countingFbos,
+        cacheFileChannel,
+        size,
+        downloaderConfig.getParallelDownloadSegments(),
+        downloaderConfig,
+        lock);
+  }
+
   @VisibleForTesting
   ResourceRetrievalMonitor constructResourceRetrievalMonitor() {
     return new ResourceRetrievalMonitor(
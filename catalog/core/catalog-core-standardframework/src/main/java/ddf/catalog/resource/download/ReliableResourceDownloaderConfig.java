@@ -45,6 +45,8 @@ public class ReliableResourceDownloaderConfig {
 
   private int chunkSize = DEFAULT_CHUNK_SIZE;
 
+  private int parallelDownloadSegments = 1;
+
   public int getChunkSize() {
     return chunkSize;
   }
@@ -53,6 +55,14 @@ public void setChunkSize(int chunkSize) {
     this.chunkSize = chunkSize;
   }
 
+  public int getParallelDownloadSegments() {
+    return parallelDownloadSegments;
+  }
+
+  public void setParallelDownloadSegments(int parallelDownloadSegments) {
+    this.parallelDownloadSegments = parallelDownloadSegments;
+  }
+
   public int getMonitorInitialDelayMS() {
     return monitorInitialDelayMS;
   }
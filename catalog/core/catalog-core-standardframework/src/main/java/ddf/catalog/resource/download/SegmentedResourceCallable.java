@@ -0,0 +1,435 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.resource.download;
+
+import com.google.common.io.CountingOutputStream;
+import ddf.catalog.operation.ResourceResponse;
+import ddf.catalog.resource.ResourceNotFoundException;
+import ddf.catalog.resource.ResourceNotSupportedException;
+import ddf.catalog.resource.download.ReliableResourceStatus.DownloadStatus;
+import ddf.catalog.resourceretriever.ResourceRetriever;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import org.apache.commons.io.IOUtils;
+import org.codice.ddf.platform.util.StandardThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * SegmentedResourceCallable downloads a product of known size over several concurrent byte range
+ * requests instead of a single stream. Each segment is written straight into the cache file at its
+ * offset, and the calling thread copies the cache file to the @FileBackedOutputStream read by the
+ * client in order, as soon as the bytes at the client's position have been downloaded.
+ *
+ * <p>Each segment is retried on its own, resuming from the last byte it wrote, up to the configured
+ * number of attempts. If a segment still fails, or the source does not honor byte ranges, this
+ * Callable returns a @ReliableResourceStatus whose bytes read is the number of bytes delivered to
+ * the client, so that the @ReliableResourceDownloader can resume the download from there over a
+ * single stream.
+ *
+ * <p>The last segment is read until the end of the product's @InputStream, so that a product larger
+ * than its advertised size is not truncated.
+ */
+class SegmentedResourceCallable extends ReliableResourceCallable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(SegmentedResourceCallable.class);
+
+  private static final long PROGRESS_WAIT_MS = 100;
+
+  private final Object lock;
+
+  private final Object progress = new Object();
+
+  private final ResourceRetriever retriever;
+
+  private final CountingOutputStream countingFbos;
+
+  private final FileChannel cacheFileChannel;
+
+  private final List<Segment> segments;
+
+  private final int chunkSize;
+
+  private final int maxRetryAttempts;
+
+  private final long delayBetweenAttemptsMS;
+
+  private volatile boolean stopped = false;
+
+  private ExecutorService segmentExecutor;
+
+  /**
+   * @param input the product @InputStream positioned at the start of the product, used to read the
+   *     first segment and closed once the first segment is read or the download stops
+   * @param retriever the @ResourceRetriever used to request the other segments
+   * @param countingFbos the FileBackedOutputStream read by the client, or null if no client is
+   *     reading the product
+   * @param cacheFileChannel the channel of the cache file the segments are written to
+   * @param size the advertised size of the product
+   * @param segmentCount the number of concurrent range requests
+   * @param downloaderConfig the configuration providing the chunk size and retry settings
+   * @param lock the lock held while writing to the @FileBackedOutputStream
+   */
+  SegmentedResourceCallable(
+      InputStream input,
+      ResourceRetriever retriever,
+      CountingOutputStream countingFbos,
+      FileChannel cacheFileChannel,
+      long size,
+      int segmentCount,
+      ReliableResourceDownloaderConfig downloaderConfig,
+      Object lock) {
+    super(input, countingFbos, null, downloaderConfig.getChunkSize(), lock);
+    this.retriever = retriever;
+    this.countingFbos = countingFbos;
+    this.cacheFileChannel = cacheFileChannel;
+    this.chunkSize = downloaderConfig.getChunkSize();
+    this.maxRetryAttempts = downloaderConfig.getMaxRetryAttempts();
+    this.delayBetweenAttemptsMS = downloaderConfig.getDelayBetweenAttemptsMS();
+    this.lock = lock;
+    this.segments = createSegments(input, size, segmentCount);
+  }
+
+  @Override
+  public void setInterruptDownload(boolean interruptDownload) {
+    super.setInterruptDownload(interruptDownload);
+    if (interruptDownload) {
+      stop();
+    }
+  }
+
+  @Override
+  public void setCancelDownload(boolean cancelDownload) {
+    super.setCancelDownload(cancelDownload);
+    if (cancelDownload) {
+      stop();
+    }
+  }
+
+  @Override
+  public ReliableResourceStatus call() {
+    segmentExecutor =
+        Executors.newFixedThreadPool(
+            segments.size(),
+            StandardThreadFactoryBuilder.newThreadFactory("reliableResourceSegmentThread"));
+    try {
+      for (Segment segment : segments) {
+        segmentExecutor.submit(() -> downloadSegment(segment));
+      }
+      return deliverInOrder();
+    } finally {
+      stop();
+      // The first segment did not start before the download stopped
+      IOUtils.closeQuietly(segments.get(0).takeInitialInput());
+    }
+  }
+
+  private ReliableResourceStatus deliverInOrder() {
+    ByteBuffer buffer = ByteBuffer.allocate(chunkSize);
+    long delivered = getBytesRead();
+
+    for (Segment segment : segments) {
+      while (delivered < segment.getEnd()) {
+        if (stopped || Thread.currentThread().isInterrupted()) {
+          return stoppedStatus(delivered);
+        }
+
+        long available = segment.getPosition() - delivered;
+        if (available <= 0) {
+          if (segment.isComplete()) {
+            break;
+          }
+          if (segment.isFailed()) {
+            LOGGER.debug("Segment starting at byte {} failed", segment.getStart());
+            return failed(DownloadStatus.PRODUCT_INPUT_STREAM_EXCEPTION, delivered);
+          }
+          if (!awaitProgress()) {
+            return stoppedStatus(delivered);
+          }
+          continue;
+        }
+
+        buffer.clear();
+        buffer.limit((int) Math.min(available, chunkSize));
+        try {
+          while (buffer.hasRemaining()) {
+            cacheFileChannel.read(buffer, delivered + buffer.position());
+          }
+        } catch (IOException e) {
+          LOGGER.info("IOException during read of cached file - bytesRead = {}", delivered, e);
+          return failed(DownloadStatus.CACHED_FILE_OUTPUT_STREAM_EXCEPTION, delivered);
+        }
+
+        // Synchronized to prevent being interrupted in the middle of writing to the
+        // FileBackedOutputStream, which would get the bytes read count out of sync with it
+        synchronized (lock) {
+          if (stopped || Thread.currentThread().isInterrupted()) {
+            return stoppedStatus(delivered);
+          }
+          if (countingFbos != null) {
+            try {
+              countingFbos.write(buffer.array(), 0, buffer.position());
+              countingFbos.flush();
+            } catch (IOException e) {
+              LOGGER.info(
+                  "IOException during write to FileBackedOutputStream for client to read", e);
+              return failed(DownloadStatus.CLIENT_OUTPUT_STREAM_EXCEPTION, delivered);
+            }
+          }
+          delivered += buffer.position();
+          setBytesRead(delivered);
+        }
+      }
+    }
+
+    LOGGER.debug("Entire file downloaded successfully in {} segments", segments.size());
+    ReliableResourceStatus status =
+        new ReliableResourceStatus(DownloadStatus.RESOURCE_DOWNLOAD_COMPLETE, delivered);
+    status.setMessage("Download completed successfully");
+    return status;
+  }
+
+  private void downloadSegment(Segment segment) {
+    byte[] buffer = new byte[chunkSize];
+    int attempts = 0;
+    InputStream input = segment.takeInitialInput();
+
+    while (!stopped) {
+      try {
+        if (input == null) {
+          input = openSegment(segment);
+        }
+        readSegment(segment, input, buffer);
+        segment.setComplete();
+        return;
+      } catch (RangeNotSupportedException e) {
+        LOGGER.info("Source did not honor the byte range request for segment {}", segment, e);
+        segment.setFailed();
+        return;
+      } catch (IOException | ResourceNotFoundException | ResourceNotSupportedException e) {
+        if (stopped) {
+          return;
+        }
+        attempts++;
+        LOGGER.debug("Attempt {} to download segment {} failed", attempts, segment, e);
+        if (attempts >= maxRetryAttempts) {
+          segment.setFailed();
+          return;
+        }
+      } finally {
+        // Every InputStream is closed, including the source's initial one, so that the
+        // connection to the source is released
+        IOUtils.closeQuietly(input);
+        input = null;
+        signalProgress();
+      }
+
+      try {
+        Thread.sleep(delayBetweenAttemptsMS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+  }
+
+  private InputStream openSegment(Segment segment)
+      throws IOException, ResourceNotFoundException, ResourceNotSupportedException {
+    long position = segment.getPosition();
+    LOGGER.debug("Requesting segment {} from byte {}", segment, position);
+
+    ResourceResponse response =
+        segment.isLast()
+            ? retriever.retrieveResource(position)
+            : retriever.retrieveResource(position, segment.getEnd() - position);
+    InputStream input = response.getResource().getInputStream();
+    if (position > 0
+        && !Boolean.TRUE.equals(
+            response.getPropertyValue(ReliableResourceDownloader.BYTES_SKIPPED))) {
+      IOUtils.closeQuietly(input);
+      throw new RangeNotSupportedException(
+          "Source did not report skipping to byte " + position + " of the product");
+    }
+    return input;
+  }
+
+  private void readSegment(Segment segment, InputStream input, byte[] buffer) throws IOException {
+    while (!stopped) {
+      long remaining = segment.getEnd() - segment.getPosition();
+      if (remaining <= 0) {
+        return;
+      }
+
+      int n = input.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+      if (n == -1) {
+        if (segment.isLast()) {
+          segment.setEnd(segment.getPosition());
+          return;
+        }
+        throw new IOException("Unexpected end of product's InputStream in segment " + segment);
+      }
+
+      ByteBuffer data = ByteBuffer.wrap(buffer, 0, n);
+      long position = segment.getPosition();
+      while (data.hasRemaining()) {
+        position += cacheFileChannel.write(data, position);
+      }
+      segment.advance(n);
+      signalProgress();
+    }
+  }
+
+  private ReliableResourceStatus failed(DownloadStatus downloadStatus, long delivered) {
+    ReliableResourceStatus status = new ReliableResourceStatus(downloadStatus, delivered);
+    status.setMessage("Segmented download failed - returning " + delivered + " bytes read");
+    return status;
+  }
+
+  /** @return the status set when the download was canceled or interrupted */
+  private ReliableResourceStatus stoppedStatus(long delivered) {
+    ReliableResourceStatus status = getReliableResourceStatus();
+    if (status == null) {
+      status = failed(DownloadStatus.RESOURCE_DOWNLOAD_INTERRUPTED, delivered);
+    }
+    return status;
+  }
+
+  private boolean awaitProgress() {
+    synchronized (progress) {
+      try {
+        progress.wait(PROGRESS_WAIT_MS);
+        return true;
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return false;
+      }
+    }
+  }
+
+  private void signalProgress() {
+    synchronized (progress) {
+      progress.notifyAll();
+    }
+  }
+
+  private void stop() {
+    stopped = true;
+    if (segmentExecutor != null) {
+      segmentExecutor.shutdownNow();
+    }
+    signalProgress();
+  }
+
+  private static List<Segment> createSegments(InputStream input, long size, int segmentCount) {
+    List<Segment> segments = new ArrayList<>(segmentCount);
+    long segmentSize = size / segmentCount;
+    for (int i = 0; i < segmentCount; i++) {
+      long start = i * segmentSize;
+      boolean last = i == segmentCount - 1;
+      long end = last ? Long.MAX_VALUE : start + segmentSize;
+      segments.add(new Segment(start, end, last, i == 0 ? input : null));
+    }
+    return segments;
+  }
+
+  /** A byte range of the product, downloaded by a single thread. */
+  private static class Segment {
+
+    private final long start;
+
+    private final boolean last;
+
+    private final AtomicLong downloaded = new AtomicLong(0);
+
+    private volatile long end;
+
+    private volatile boolean complete = false;
+
+    private volatile boolean failed = false;
+
+    private final AtomicReference<InputStream> initialInput;
+
+    Segment(long start, long end, boolean last, InputStream initialInput) {
+      this.start = start;
+      this.end = end;
+      this.last = last;
+      this.initialInput = new AtomicReference<>(initialInput);
+    }
+
+    long getStart() {
+      return start;
+    }
+
+    long getEnd() {
+      return end;
+    }
+
+    void setEnd(long end) {
+      this.end = end;
+    }
+
+    boolean isLast() {
+      return last;
+    }
+
+    /** @return the offset in the product of the next byte to download */
+    long getPosition() {
+      return start + downloaded.get();
+    }
+
+    void advance(long bytes) {
+      downloaded.addAndGet(bytes);
+    }
+
+    boolean isComplete() {
+      return complete;
+    }
+
+    void setComplete() {
+      complete = true;
+    }
+
+    boolean isFailed() {
+      return failed;
+    }
+
+    void setFailed() {
+      failed = true;
+    }
+
+    InputStream takeInitialInput() {
+      return initialInput.getAndSet(null);
+    }
+
+    @Override
+    public String toString() {
+      return start + "-" + (last ? "" : String.valueOf(end - 1));
+    }
+  }
+
+  private static class RangeNotSupportedException extends IOException {
+
+    RangeNotSupportedException(String message) {
+      super(message);
+    }
+  }
+}
@@ -62,6 +62,12 @@ public ResourceResponse retrieveResource() throws ResourceNotFoundException {
 
   @Override
   public ResourceResponse retrieveResource(long bytesToSkip) throws ResourceNotFoundException {
+    return retrieveResource(bytesToSkip, 0);
+  }
+
+  @Override
+  public ResourceResponse retrieveResource(long bytesToSkip, long bytesToRead)
+      throws ResourceNotFoundException {
     final String methodName = "retrieveResource";
     LOGGER.trace("ENTERING: {}", methodName);
     ResourceResponse resource = null;
@@ -75,6 +81,9 @@ public ResourceResponse retrieveResource(long bytesToSkip) throws ResourceNotFou
     if (bytesToSkip > 0) {
       props.put(BYTES_TO_SKIP, bytesToSkip);
     }
+    if (bytesToRead > 0) {
+      props.put(BYTES_TO_READ, bytesToRead);
+    }
 
     URI derivedUri = null;
     Serializable serializable = props.get(ContentItem.QUALIFIER_KEYWORD);
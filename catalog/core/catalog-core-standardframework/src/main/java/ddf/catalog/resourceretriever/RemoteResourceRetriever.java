@@ -51,6 +51,12 @@ public ResourceResponse retrieveResource()
   @Override
   public ResourceResponse retrieveResource(long bytesToSkip)
       throws ResourceNotFoundException, IOException, ResourceNotSupportedException {
+    return retrieveResource(bytesToSkip, 0);
+  }
+
+  @Override
+  public ResourceResponse retrieveResource(long bytesToSkip, long bytesToRead)
+      throws ResourceNotFoundException, IOException, ResourceNotSupportedException {
 
     if (resourceUri == null) {
       throw new ResourceNotFoundException("Cannot retrieve resource because resourceUri is null.");
@@ -62,6 +68,9 @@ public ResourceResponse retrieveResource(long bytesToSkip)
     if (bytesToSkip > 0) {
       props.put(BYTES_TO_SKIP, bytesToSkip);
     }
+    if (bytesToRead > 0) {
+      props.put(BYTES_TO_READ, bytesToRead);
+    }
 
     return source.retrieveResource(resourceUri, props);
   }
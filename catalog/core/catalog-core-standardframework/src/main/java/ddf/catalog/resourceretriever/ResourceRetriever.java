@@ -22,9 +22,24 @@ public interface ResourceRetriever {
 
   static final String BYTES_TO_SKIP = "BytesToSkip";
 
+  static final String BYTES_TO_READ = "BytesToRead";
+
   public ResourceResponse retrieveResource()
       throws ResourceNotFoundException, ResourceNotSupportedException, IOException;
 
   public ResourceResponse retrieveResource(long bytesToSkip)
       throws ResourceNotFoundException, ResourceNotSupportedException, IOException;
+
+  /**
+   * Retrieves a byte range of the resource. Retrievers that cannot request a byte range return the
+   * resource from {@code bytesToSkip} on, so callers must stop reading after {@code bytesToRead}
+   * bytes.
+   *
+   * @param bytesToSkip the offset of the first byte to retrieve
+   * @param bytesToRead the number of bytes to retrieve
+   */
+  default ResourceResponse retrieveResource(long bytesToSkip, long bytesToRead)
+      throws ResourceNotFoundException, ResourceNotSupportedException, IOException {
+    return retrieveResource(bytesToSkip);
+  }
 }
@@ -30,6 +30,8 @@ import ddf.catalog.operation.Query
 import ddf.catalog.operation.QueryRequest
 import ddf.catalog.operation.QueryResponse
 import ddf.catalog.operation.impl.QueryImpl
+import ddf.catalog.operation.impl.QueryRequestImpl
+import ddf.catalog.operation.impl.QueryResponseImpl
 import ddf.catalog.plugin.PolicyPlugin
 import ddf.catalog.plugin.PolicyResponse
 import ddf.catalog.source.CatalogProvider
@@ -825,6 +827,51 @@ class QueryOperationsSpec extends Specification {
 
     }
 
+    def 'cursor is removed when a local query also goes to connected sources'() {
+        setup:
+        sourceOperations.isSourceAvailable(_) >> true
+        def strategy = Mock(FederationStrategy)
+        def federatedSources
+        def federatedRequest
+        strategy.federate(_, _) >> { sources, queryRequest ->
+            federatedSources = sources
+            federatedRequest = queryRequest
+            new QueryResponseImpl(queryRequest)
+        }
+        def request = new QueryRequestImpl(new QueryImpl(
+                new GeotoolsFilterBuilder().attribute("anyText").is().like().text("*")),
+                false, null, [(Constants.CURSOR_MARK_KEY): Constants.INITIAL_CURSOR_MARK])
+
+        when:
+        queryOperations.doQuery(request, strategy)
+
+        then:
+        federatedSources.size() == 3
+        !federatedRequest.containsPropertyName(Constants.CURSOR_MARK_KEY)
+        request.containsPropertyName(Constants.CURSOR_MARK_KEY)
+    }
+
+    def 'cursor is kept when a local query only goes to the catalog provider'() {
+        setup:
+        frameworkProperties.connectedSources = []
+        sourceOperations.isSourceAvailable(_) >> true
+        def strategy = Mock(FederationStrategy)
+        def federatedRequest
+        strategy.federate(_, _) >> { sources, queryRequest ->
+            federatedRequest = queryRequest
+            new QueryResponseImpl(queryRequest)
+        }
+        def request = new QueryRequestImpl(new QueryImpl(
+                new GeotoolsFilterBuilder().attribute("anyText").is().like().text("*")),
+                false, null, [(Constants.CURSOR_MARK_KEY): Constants.INITIAL_CURSOR_MARK])
+
+        when:
+        queryOperations.doQuery(request, strategy)
+
+        then:
+        federatedRequest.getPropertyValue(Constants.CURSOR_MARK_KEY) == Constants.INITIAL_CURSOR_MARK
+    }
+
     private def mockCatalogProvider(def id) {
         def catProv = Mock(CatalogProvider)
         catProv.getId() >> { return id }
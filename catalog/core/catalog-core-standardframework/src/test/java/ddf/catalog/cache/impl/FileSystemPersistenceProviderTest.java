@@ -0,0 +1,205 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.cache.impl;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.impl.AttributeImpl;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.resource.data.ReliableResource;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.ObjectOutputStream;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import javax.activation.MimeType;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class FileSystemPersistenceProviderTest {
+
+  private static final String MAP_NAME = "Product_Cache";
+
+  @Rule public TemporaryFolder testFolder = new TemporaryFolder();
+
+  private String persistencePath;
+
+  @Before
+  public void setUp() throws Exception {
+    persistencePath = testFolder.newFolder("Product_Cache").getAbsolutePath();
+  }
+
+  @Test
+  public void testStoreAndLoadReliableResource() throws Exception {
+    FileSystemPersistenceProvider provider = newProvider();
+    ReliableResource resource = createResource("key1");
+    resource.setSize(15L);
+    resource.setLastTouchedMillis(12345L);
+    provider.store("key1", resource);
+    provider.destroy();
+
+    provider = newProvider();
+    assertThat(provider.loadAllKeys(), containsInAnyOrder("key1"));
+
+    ReliableResource loaded = (ReliableResource) provider.load("key1");
+    assertThat(loaded.getKey(), is("key1"));
+    assertThat(loaded.getFilePath(), is(resource.getFilePath()));
+    assertThat(loaded.getMimeTypeValue(), is("text/plain"));
+    assertThat(loaded.getName(), is("key1.txt"));
+    assertThat(loaded.getSize(), is(15L));
+    assertThat(loaded.getLastTouchedMillis(), is(12345L));
+    assertThat(loaded.getMetacard().getId(), is("key1"));
+  }
+
+  @Test
+  public void testStoreAllAndDeleteAll() throws Exception {
+    FileSystemPersistenceProvider provider = newProvider();
+    Map<String, Object> values = new HashMap<>();
+    values.put("key1", createResource("key1"));
+    values.put("key2", createResource("key2"));
+    values.put("key3", "not a resource");
+    provider.storeAll(values);
+
+    provider.deleteAll(Arrays.asList("key1", "key3", "unknown"));
+    provider.destroy();
+
+    provider = newProvider();
+    assertThat(provider.loadAllKeys(), containsInAnyOrder("key2"));
+    assertThat(provider.load("key1"), is(nullValue()));
+    assertThat(
+        provider.loadAll(provider.loadAllKeys()).get("key2"), instanceOf(ReliableResource.class));
+  }
+
+  @Test
+  public void testLoadNonResourceValue() throws Exception {
+    FileSystemPersistenceProvider provider = newProvider();
+    provider.store("key1", "value");
+
+    assertThat(provider.load("key1"), is("value"));
+  }
+
+  @Test
+  public void testClear() throws Exception {
+    FileSystemPersistenceProvider provider = newProvider();
+    provider.store("key1", createResource("key1"));
+
+    provider.clear();
+    provider.destroy();
+
+    assertThat(newProvider().loadAllKeys(), is(empty()));
+  }
+
+  @Test
+  public void testMigratesSerializedFiles() throws Exception {
+    File serializedFile = new File(persistencePath, "key1.ser");
+    try (ObjectOutputStream output = new ObjectOutputStream(new FileOutputStream(serializedFile))) {
+      output.writeObject(createResource("key1"));
+    }
+
+    FileSystemPersistenceProvider provider = newProvider();
+
+    assertThat(serializedFile.exists(), is(false));
+    assertThat(provider.loadAllKeys(), containsInAnyOrder("key1"));
+    assertThat(((ReliableResource) provider.load("key1")).getName(), is("key1.txt"));
+  }
+
+  @Test
+  public void testCompactsStaleEntriesOnStartup() throws Exception {
+    FileSystemPersistenceProvider provider = newProvider();
+    for (int i = 0; i < 10; i++) {
+      provider.store("key1", createResource("key1"));
+    }
+    provider.store("key2", createResource("key2"));
+    provider.destroy();
+
+    File log = new File(persistencePath, FileSystemPersistenceProvider.LOG_FILE_NAME);
+    long uncompactedLength = log.length();
+
+    provider = newProvider();
+
+    assertThat(log.length(), is(lessThan(uncompactedLength / 3)));
+    assertThat(provider.loadAllKeys(), containsInAnyOrder("key1", "key2"));
+    assertThat(((ReliableResource) provider.load("key2")).getName(), is("key2.txt"));
+  }
+
+  @Test
+  public void testCompactsStaleEntriesWhileWriting() throws Exception {
+    FileSystemPersistenceProvider provider = newProvider();
+    File log = new File(persistencePath, FileSystemPersistenceProvider.LOG_FILE_NAME);
+    long emptyLength = log.length();
+    provider.store("key1", createResource("key1"));
+    long recordLength = log.length() - emptyLength;
+
+    long written = recordLength;
+    while (written < 3 * ProductCacheLog.MINIMUM_COMPACTION_GARBAGE_BYTES) {
+      provider.store("key1", createResource("key1"));
+      provider.store("key2", createResource("key2"));
+      provider.delete("key2");
+      written += 3 * recordLength;
+    }
+
+    long maximumLength =
+        emptyLength + ProductCacheLog.MINIMUM_COMPACTION_GARBAGE_BYTES + 4 * recordLength;
+    assertThat(log.length(), is(lessThan(maximumLength)));
+    assertThat(provider.loadAllKeys(), containsInAnyOrder("key1"));
+    assertThat(((ReliableResource) provider.load("key1")).getName(), is("key1.txt"));
+  }
+
+  @Test
+  public void testDiscardsIncompleteRecord() throws Exception {
+    FileSystemPersistenceProvider provider = newProvider();
+    provider.store("key1", createResource("key1"));
+    provider.store("key2", createResource("key2"));
+    provider.destroy();
+
+    File log = new File(persistencePath, FileSystemPersistenceProvider.LOG_FILE_NAME);
+    try (RandomAccessFile file = new RandomAccessFile(log, "rw")) {
+      file.setLength(file.length() - 10);
+    }
+
+    provider = newProvider();
+    assertThat(provider.loadAllKeys(), containsInAnyOrder("key1"));
+
+    provider.store("key3", createResource("key3"));
+    provider.destroy();
+
+    assertThat(newProvider().loadAllKeys(), containsInAnyOrder("key1", "key3"));
+  }
+
+  private FileSystemPersistenceProvider newProvider() {
+    return new FileSystemPersistenceProvider(MAP_NAME, persistencePath);
+  }
+
+  private ReliableResource createResource(String key) throws Exception {
+    Metacard metacard = new MetacardImpl();
+    metacard.setAttribute(new AttributeImpl(Metacard.ID, key));
+    return new ReliableResource(
+        key,
+        new File(persistencePath, key).getAbsolutePath(),
+        new MimeType("text/plain"),
+        key + ".txt",
+        metacard);
+  }
+}
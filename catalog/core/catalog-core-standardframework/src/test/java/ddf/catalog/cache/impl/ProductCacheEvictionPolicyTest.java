@@ -0,0 +1,171 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.cache.impl;
+
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ProductCacheEvictionPolicyTest {
+
+  private static final long MAX_SIZE = 100;
+
+  private ProductCacheEvictionPolicy policy;
+
+  @Before
+  public void setUp() {
+    policy = new ProductCacheEvictionPolicy(MAX_SIZE);
+  }
+
+  @Test
+  public void testEvictsLeastRecentlyAddedFirst() {
+    add("one", 40);
+    add("two", 40);
+    add("three", 40);
+
+    assertThat(policy.selectVictims("three", 20), contains("one"));
+    assertThat(policy.selectVictims("three", 50), contains("one", "two"));
+  }
+
+  @Test
+  public void testEvictsProbationBeforeProtected() {
+    add("popular", 40);
+    hit("popular", 40);
+    add("oneOff", 40);
+    add("candidate", 40);
+    request("candidate", 2);
+
+    assertThat(policy.selectVictims("candidate", 20), contains("oneOff"));
+    assertThat(policy.selectVictims("candidate", 60), contains("oneOff", "popular"));
+  }
+
+  @Test
+  public void testRejectsCandidateRequestedLessOftenThanVictim() {
+    policy.setAdmissionFilterEnabled(true);
+    add("popular", 60);
+    hit("popular", 60);
+    hit("popular", 60);
+    add("candidate", 60);
+
+    List<String> victims = policy.selectVictims("candidate", 20);
+
+    assertThat(victims, contains("popular"));
+    assertThat(policy.admits("candidate", 60, victims), is(false));
+  }
+
+  @Test
+  public void testAdmissionFilterIsDisabledByDefault() {
+    add("popular", 60);
+    hit("popular", 60);
+    hit("popular", 60);
+    add("candidate", 60);
+
+    List<String> victims = policy.selectVictims("candidate", 20);
+
+    assertThat(policy.isAdmissionFilterEnabled(), is(false));
+    assertThat(victims, contains("popular"));
+    assertThat(policy.admits("candidate", 60, victims), is(true));
+  }
+
+  @Test
+  public void testAdmitsCandidateRequestedAsOftenAsVictims() {
+    policy.setAdmissionFilterEnabled(true);
+    add("oneOff", 60);
+    add("candidate", 60);
+
+    assertThat(policy.admits("candidate", 60, policy.selectVictims("candidate", 20)), is(true));
+  }
+
+  @Test
+  public void testRejectsCandidateLargerThanCache() {
+    policy.setAdmissionFilterEnabled(true);
+    add("small", 10);
+    add("huge", 150);
+
+    assertThat(policy.admits("huge", 150, policy.selectVictims("huge", 60)), is(false));
+  }
+
+  @Test
+  public void testEvictsCandidateWhenNothingElseFreesEnough() {
+    add("small", 10);
+    add("huge", 150);
+
+    assertThat(policy.selectVictims("huge", 60), contains("small", "huge"));
+  }
+
+  @Test
+  public void testNothingToFree() {
+    add("one", 40);
+
+    assertThat(policy.selectVictims("one", 0), is(empty()));
+  }
+
+  @Test
+  public void testProtectedOverflowIsDemoted() {
+    policy.setProtectedPercentage(50);
+    add("first", 40);
+    hit("first", 40);
+    add("second", 40);
+    hit("second", 40);
+    add("candidate", 40);
+    request("candidate", 2);
+
+    // promoting "second" pushed the protected segment over 50 bytes, demoting "first"
+    assertThat(policy.selectVictims("candidate", 20), contains("first"));
+  }
+
+  @Test
+  public void testRemovedEntryIsNotSelected() {
+    add("one", 40);
+    add("two", 40);
+    policy.remove("one");
+    request("three", 1);
+
+    assertThat(policy.selectVictims("three", 20), contains("two"));
+  }
+
+  @Test
+  public void testHitRatio() {
+    assertThat(policy.getHitRatio(), is(closeTo(0, 0.001)));
+
+    policy.recordHit("one", 10);
+    policy.recordMiss();
+    policy.recordMiss();
+    policy.recordMiss();
+
+    assertThat(policy.getHitRatio(), is(closeTo(0.25, 0.001)));
+  }
+
+  private void add(String key, long size) {
+    policy.recordRequest(key);
+    policy.add(key, size);
+  }
+
+  private void request(String key, int times) {
+    for (int i = 0; i < times; i++) {
+      policy.recordRequest(key);
+    }
+  }
+
+  private void hit(String key, long size) {
+    policy.recordRequest(key);
+    policy.recordHit(key, size);
+  }
+}
@@ -0,0 +1,336 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.federation.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.util.concurrent.MoreExecutors;
+import ddf.catalog.Constants;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.Result;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.data.impl.ResultImpl;
+import ddf.catalog.federation.FederationStrategy;
+import ddf.catalog.filter.FilterBuilder;
+import ddf.catalog.filter.proxy.adapter.GeotoolsFilterAdapterImpl;
+import ddf.catalog.filter.proxy.builder.GeotoolsFilterBuilder;
+import ddf.catalog.operation.CreateRequest;
+import ddf.catalog.operation.QueryRequest;
+import ddf.catalog.operation.QueryResponse;
+import ddf.catalog.operation.impl.CreateResponseImpl;
+import ddf.catalog.operation.impl.ProcessingDetailsImpl;
+import ddf.catalog.operation.impl.QueryImpl;
+import ddf.catalog.operation.impl.QueryRequestImpl;
+import ddf.catalog.operation.impl.QueryResponseImpl;
+import ddf.catalog.source.CatalogProvider;
+import ddf.catalog.source.Source;
+import ddf.catalog.util.impl.ResultIterable;
+import ddf.security.SecurityConstants;
+import ddf.security.Subject;
+import ddf.security.SubjectOperations;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import org.junit.Before;
+import org.junit.Test;
+import org.opengis.filter.Filter;
+
+public class CachingFederationStrategyTest {
+
+  private static final int MAXIMUM_RESULTS = 1000;
+
+  private static final long TIME_TO_LIVE_MILLIS =
+      TimeUnit.SECONDS.toMillis(CachingFederationStrategy.DEFAULT_TIME_TO_LIVE_SECONDS);
+
+  private static final long MAXIMUM_STALE_MILLIS =
+      TimeUnit.SECONDS.toMillis(CachingFederationStrategy.DEFAULT_MAXIMUM_STALE_SECONDS);
+
+  private final FilterBuilder filterBuilder = new GeotoolsFilterBuilder();
+
+  private final AtomicLong currentTimeMillis = new AtomicLong();
+
+  private FederationStrategy delegate;
+
+  private SubjectOperations subjectOperations;
+
+  private Source remoteSource;
+
+  private CatalogProvider localProvider;
+
+  private CachingFederationStrategy strategy;
+
+  @Before
+  public void setUp() {
+    delegate = mock(FederationStrategy.class);
+    when(delegate.federate(any(), any()))
+        .thenAnswer(invocation -> response(invocation.getArgument(1), "id"));
+
+    subjectOperations = mock(SubjectOperations.class);
+
+    remoteSource = mock(Source.class);
+    when(remoteSource.getId()).thenReturn("remote");
+    localProvider = mock(CatalogProvider.class);
+    when(localProvider.getId()).thenReturn("local");
+
+    strategy =
+        new CachingFederationStrategy(
+            delegate,
+            new GeotoolsFilterAdapterImpl(),
+            subjectOperations,
+            MoreExecutors.newDirectExecutorService(),
+            currentTimeMillis::get);
+    strategy.setMaximumResults(MAXIMUM_RESULTS);
+  }
+
+  @Test
+  public void testRepeatedQueryIsAnsweredFromCache() {
+    QueryResponse first = strategy.federate(sources(remoteSource), request(titleAndType()));
+    QueryResponse second = strategy.federate(sources(remoteSource), request(titleAndType()));
+
+    verify(delegate, times(1)).federate(any(), any());
+    assertThat(second, not(sameInstance(first)));
+    assertThat(second.getHits(), is(1L));
+    assertThat(second.getResults().get(0).getMetacard().getId(), is("id"));
+  }
+
+  @Test
+  public void testFilterIsNormalized() {
+    Filter title = filterBuilder.attribute("title").is().like().text("foo");
+    Filter type = filterBuilder.attribute("type").is().equalTo().text("bar");
+
+    strategy.federate(sources(remoteSource), request(filterBuilder.allOf(title, type)));
+    strategy.federate(sources(remoteSource), request(filterBuilder.allOf(type, title)));
+
+    verify(delegate, times(1)).federate(any(), any());
+  }
+
+  @Test
+  public void testCaseSensitiveFilterIsNotAnsweredFromCaseInsensitiveQuery() {
+    strategy.federate(
+        sources(remoteSource),
+        request(filterBuilder.attribute("title").is().like().text("foo")));
+    strategy.federate(
+        sources(remoteSource),
+        request(filterBuilder.attribute("title").is().like().caseSensitiveText("foo")));
+
+    verify(delegate, times(2)).federate(any(), any());
+  }
+
+  @Test
+  public void testSubjectsWithDifferentAttributesDoNotShareResponses() {
+    Subject admin = mock(Subject.class);
+    Subject guest = mock(Subject.class);
+    when(subjectOperations.getSubjectAttributes(admin))
+        .thenReturn(ImmutableMap.of("role", ImmutableSortedSet.of("admin")));
+    when(subjectOperations.getSubjectAttributes(guest))
+        .thenReturn(ImmutableMap.of("role", ImmutableSortedSet.of("guest")));
+
+    strategy.federate(sources(remoteSource), request(titleAndType(), admin));
+    strategy.federate(sources(remoteSource), request(titleAndType(), admin));
+    strategy.federate(sources(remoteSource), request(titleAndType(), guest));
+
+    verify(delegate, times(2)).federate(any(), any());
+  }
+
+  @Test
+  public void testStaleResponseIsReturnedWhileRefreshed() {
+    strategy.federate(sources(remoteSource), request(titleAndType()));
+    currentTimeMillis.set(TIME_TO_LIVE_MILLIS);
+
+    QueryResponse stale = strategy.federate(sources(remoteSource), request(titleAndType()));
+
+    assertThat(stale.getResults().get(0).getMetacard().getId(), is("id"));
+    verify(delegate, times(2)).federate(any(), any());
+
+    strategy.federate(sources(remoteSource), request(titleAndType()));
+    verify(delegate, times(2)).federate(any(), any());
+  }
+
+  @Test
+  public void testExpiredResponseIsNotReturned() {
+    strategy.federate(sources(remoteSource), request(titleAndType()));
+    currentTimeMillis.set(TIME_TO_LIVE_MILLIS + MAXIMUM_STALE_MILLIS);
+
+    strategy.federate(sources(remoteSource), request(titleAndType()));
+
+    verify(delegate, times(2)).federate(any(), any());
+  }
+
+  @Test
+  public void testSourceTimeToLive() {
+    strategy.setSourceTimeToLiveSeconds(Collections.singletonList("remote=0"));
+
+    strategy.federate(sources(remoteSource), request(titleAndType()));
+    strategy.federate(sources(remoteSource), request(titleAndType()));
+
+    verify(delegate, times(2)).federate(any(), any());
+  }
+
+  @Test
+  public void testResponseWithSourceErrorIsNotCached() {
+    when(delegate.federate(any(), any()))
+        .thenAnswer(
+            invocation -> {
+              QueryResponseImpl response = response(invocation.getArgument(1), "id");
+              response
+                  .getProcessingDetails()
+                  .add(new ProcessingDetailsImpl("remote", new Exception("timeout")));
+              return response;
+            });
+
+    strategy.federate(sources(remoteSource), request(titleAndType()));
+    strategy.federate(sources(remoteSource), request(titleAndType()));
+
+    verify(delegate, times(2)).federate(any(), any());
+  }
+
+  @Test
+  public void testLocalIngestInvalidatesResponsesIncludingLocalCatalog() {
+    strategy.federate(sources(remoteSource), request(titleAndType()));
+    strategy.federate(sources(localProvider, remoteSource), request(titleAndType()));
+
+    strategy.process(
+        new CreateResponseImpl(
+            mock(CreateRequest.class), new HashMap<>(), Collections.emptyList()));
+
+    strategy.federate(sources(remoteSource), request(titleAndType()));
+    verify(delegate, times(2)).federate(any(), any());
+    strategy.federate(sources(localProvider, remoteSource), request(titleAndType()));
+    verify(delegate, times(3)).federate(any(), any());
+  }
+
+  @Test
+  public void testCacheIsDisabledByDefault() {
+    strategy =
+        new CachingFederationStrategy(
+            delegate,
+            new GeotoolsFilterAdapterImpl(),
+            subjectOperations,
+            MoreExecutors.newDirectExecutorService());
+
+    strategy.federate(sources(remoteSource), request(titleAndType()));
+    strategy.federate(sources(remoteSource), request(titleAndType()));
+
+    verify(delegate, times(2)).federate(any(), any());
+  }
+
+  @Test
+  public void testCacheCanBeDisabled() {
+    strategy.setMaximumResults(0);
+
+    strategy.federate(sources(remoteSource), request(titleAndType()));
+    strategy.federate(sources(remoteSource), request(titleAndType()));
+
+    verify(delegate, times(2)).federate(any(), any());
+  }
+
+  @Test
+  public void testCursorPagesAreNotAnsweredFromCache() {
+    Map<String, List<String>> pages =
+        ImmutableMap.of(
+            Constants.INITIAL_CURSOR_MARK, Arrays.asList("1", "2"),
+            "a", Arrays.asList("3", "4"),
+            "b", Collections.singletonList("5"));
+    Map<String, String> nextCursorMarks =
+        ImmutableMap.of(Constants.INITIAL_CURSOR_MARK, "a", "a", "b", "b", "b");
+    when(delegate.federate(any(), any()))
+        .thenAnswer(
+            invocation -> {
+              QueryRequest request = invocation.getArgument(1);
+              String cursorMark = (String) request.getPropertyValue(Constants.CURSOR_MARK_KEY);
+              List<Result> results =
+                  pages.get(cursorMark).stream().map(this::result).collect(Collectors.toList());
+              QueryResponseImpl response = new QueryResponseImpl(request, results, 5);
+              response
+                  .getProperties()
+                  .put(Constants.NEXT_CURSOR_MARK_KEY, nextCursorMarks.get(cursorMark));
+              return response;
+            });
+
+    QueryRequest request = new QueryRequestImpl(new QueryImpl(titleAndType(), 1, 2, null, true, 0));
+    List<String> ids =
+        ResultIterable.resultIterable(
+                queryRequest -> strategy.federate(sources(localProvider), queryRequest), request)
+            .stream()
+            .map(Result::getMetacard)
+            .map(Metacard::getId)
+            .collect(Collectors.toList());
+
+    assertThat(ids, contains("1", "2", "3", "4", "5"));
+  }
+
+  @Test
+  public void testRequestsWithDifferentPropertiesDoNotShareResponses() {
+    Map<String, Serializable> properties = new HashMap<>();
+    properties.put(Constants.QUERY_HIGHLIGHT_KEY, true);
+
+    strategy.federate(sources(remoteSource), request(titleAndType()));
+    strategy.federate(
+        sources(remoteSource),
+        new QueryRequestImpl(new QueryImpl(titleAndType()), true, null, properties));
+    strategy.federate(
+        sources(remoteSource),
+        new QueryRequestImpl(new QueryImpl(titleAndType()), true, null, properties));
+
+    verify(delegate, times(2)).federate(any(), any());
+  }
+
+  private Filter titleAndType() {
+    return filterBuilder.allOf(
+        filterBuilder.attribute("title").is().like().text("foo"),
+        filterBuilder.attribute("type").is().equalTo().text("bar"));
+  }
+
+  private List<Source> sources(Source... sources) {
+    return Arrays.asList(sources);
+  }
+
+  private QueryRequest request(Filter filter) {
+    return new QueryRequestImpl(new QueryImpl(filter), true);
+  }
+
+  private QueryRequest request(Filter filter, Subject subject) {
+    Map<String, Serializable> properties = new HashMap<>();
+    properties.put(SecurityConstants.SECURITY_SUBJECT, subject);
+    return new QueryRequestImpl(new QueryImpl(filter), true, null, properties);
+  }
+
+  private QueryResponseImpl response(QueryRequest request, String id) {
+    List<Result> results = Collections.singletonList(result(id));
+    return new QueryResponseImpl(request, results, results.size());
+  }
+
+  private Result result(String id) {
+    MetacardImpl metacard = new MetacardImpl();
+    metacard.setId(id);
+    return new ResultImpl(metacard);
+  }
+}
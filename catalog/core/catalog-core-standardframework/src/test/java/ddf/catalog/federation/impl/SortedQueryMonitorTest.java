@@ -291,6 +291,46 @@ public void testPersistenceOfProcessingDetails() throws InterruptedException, Ex
         .contains(exception);
   }
 
+  @Test
+  public void testStreamingMergeLimitsResultsToPageSize() throws Exception {
+    PropertyName propertyName = mock(PropertyName.class);
+    when(propertyName.getPropertyName()).thenReturn(TEST_PROPERTY);
+    SortBy sortBy = mock(SortBy.class);
+    when(sortBy.getSortOrder()).thenReturn(SortOrder.ASCENDING);
+    when(sortBy.getPropertyName()).thenReturn(propertyName);
+
+    Map<Future<SourceResponse>, QueryRequest> futures = new LinkedHashMap<>();
+    List<List<Result>> sourceResults =
+        Lists.newArrayList(
+            getResults(TEST_PROPERTY, "b", "d", "f"), getResults(TEST_PROPERTY, "a", "c"));
+    for (List<Result> results : sourceResults) {
+      Future futureMock = mock(Future.class);
+      SourceResponse sourceResponseMock = getMockedResponse(results);
+      when(futureMock.get()).thenReturn(sourceResponseMock);
+      QueryRequest sourceRequest = mock(QueryRequest.class);
+      when(sourceRequest.getSourceIds())
+          .thenReturn(Collections.singleton("Source-" + futures.size()));
+      futures.put(futureMock, sourceRequest);
+    }
+
+    when(query.getSortBy()).thenReturn(sortBy);
+    when(query.getPageSize()).thenReturn(3);
+    when(query.getTimeoutMillis()).thenReturn(0L);
+    when(queryRequest.getQuery()).thenReturn(query);
+
+    SortedQueryMonitor queryMonitor =
+        new SortedQueryMonitor(
+            completionService, futures, queryResponse, queryRequest, new ArrayList<>(), true);
+
+    final Iterator<Future<SourceResponse>> futureIter =
+        new ArrayList<>(futures.keySet()).iterator();
+    when(completionService.take()).thenAnswer((invocationOnMock -> futureIter.next()));
+    queryMonitor.run();
+
+    assertThat(queryResponse.getHits()).isEqualTo(5);
+    assertResults(queryResponse.getResults(), TEST_PROPERTY, new String[] {"a", "b", "c"});
+  }
+
   @Test
   public void testCaseInsensitiveAscendingSortNoNulls() throws Exception {
     testSorting(new String[] {"C", "b", "a"}, new String[] {"a", "b", "C"}, SortOrder.ASCENDING);
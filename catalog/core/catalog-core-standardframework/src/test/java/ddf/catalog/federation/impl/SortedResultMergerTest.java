@@ -0,0 +1,122 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.federation.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import ddf.catalog.data.Result;
+import ddf.catalog.data.impl.ResultImpl;
+import ddf.catalog.util.impl.RelevanceResultComparator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.Test;
+import org.opengis.filter.sort.SortOrder;
+
+public class SortedResultMergerTest {
+
+  private static final RelevanceResultComparator DESCENDING =
+      new RelevanceResultComparator(SortOrder.DESCENDING);
+
+  @Test
+  public void testMergeSortedSources() {
+    SortedResultMerger merger = new SortedResultMerger(DESCENDING, 4);
+
+    merger.merge(results(9.0, 5.0, 1.0));
+    merger.merge(results(8.0, 7.0, 2.0));
+    merger.merge(results(6.0, 0.5));
+
+    assertThat(scores(merger.getResults())).containsExactly(9.0, 8.0, 7.0, 6.0);
+    assertThat(merger.size()).isEqualTo(4);
+  }
+
+  @Test
+  public void testMergeUnsortedSource() {
+    SortedResultMerger merger = new SortedResultMerger(DESCENDING, 3);
+
+    merger.merge(results(1.0, 4.0, 2.0, 9.0, 3.0));
+
+    assertThat(scores(merger.getResults())).containsExactly(9.0, 4.0, 3.0);
+  }
+
+  @Test
+  public void testUnboundedPageSize() {
+    SortedResultMerger merger = new SortedResultMerger(DESCENDING, 0);
+
+    merger.merge(results(1.0, 3.0));
+    merger.merge(results(2.0));
+
+    assertThat(scores(merger.getResults())).containsExactly(3.0, 2.0, 1.0);
+  }
+
+  @Test
+  public void testEqualResultsKeepArrivalOrder() {
+    SortedResultMerger merger = new SortedResultMerger(DESCENDING, 2);
+
+    List<Result> first = results(5.0);
+    List<Result> second = results(5.0);
+    List<Result> third = results(5.0);
+    merger.merge(first);
+    merger.merge(second);
+    merger.merge(third);
+
+    assertThat(merger.getResults()).containsExactly(first.get(0), second.get(0));
+  }
+
+  @Test
+  public void testSortedSourceStopsAtFirstResultOffThePage() {
+    SortedResultMerger merger = new SortedResultMerger(DESCENDING, 2);
+    merger.merge(results(9.0, 8.0));
+
+    ResultImpl offPage = new ResultImpl();
+    offPage.setRelevanceScore(3.0);
+    ResultImpl neverMerged = spy(new ResultImpl());
+    neverMerged.setRelevanceScore(1.0);
+
+    merger.merge(Arrays.asList(offPage, neverMerged));
+
+    assertThat(scores(merger.getResults())).containsExactly(9.0, 8.0);
+    // once while checking the order, never while merging
+    verify(neverMerged, times(1)).getRelevanceScore();
+  }
+
+  @Test
+  public void testNullAndEmptySources() {
+    SortedResultMerger merger = new SortedResultMerger(DESCENDING, 2);
+
+    merger.merge(null);
+    merger.merge(Collections.emptyList());
+
+    assertThat(merger.getResults()).isEmpty();
+  }
+
+  private List<Result> results(Double... scores) {
+    List<Result> results = new ArrayList<>();
+    for (Double score : scores) {
+      ResultImpl result = new ResultImpl();
+      result.setRelevanceScore(score);
+      results.add(result);
+    }
+    return results;
+  }
+
+  private List<Double> scores(List<Result> results) {
+    return results.stream().map(Result::getRelevanceScore).collect(Collectors.toList());
+  }
+}
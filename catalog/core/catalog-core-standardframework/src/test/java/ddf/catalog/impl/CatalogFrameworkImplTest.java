@@ -874,6 +874,104 @@ public void testUpdate() throws Exception {
         returnedCards.get(returnedCards.size() - 1).getOldMetacard().getId());
   }
 
+  /** Tests that a partial update only changes the given attributes of the stored metacard. */
+  @Test
+  public void testPartialUpdate() throws Exception {
+    MetacardImpl storedCard = new MetacardImpl();
+    storedCard.setTitle("stored title");
+    storedCard.setAttribute(Core.DESCRIPTION, "stored description");
+    storedCard.setContentTypeName("stored type");
+
+    CreateResponse response =
+        provider.create(new CreateRequestImpl(Collections.singletonList(storedCard), null));
+    Metacard insertedCard = response.getCreatedMetacards().get(0);
+
+    Result mockFederationResult = mock(Result.class);
+    when(mockFederationResult.getMetacard()).thenReturn(insertedCard);
+    QueryResponseImpl queryResponse =
+        new QueryResponseImpl(
+            mock(QueryRequest.class), Collections.singletonList(mockFederationResult), 1);
+    when(mockFederationStrategy.federate(anyList(), any())).thenReturn(queryResponse);
+
+    MetacardImpl changes = new MetacardImpl();
+    changes.setTitle("new title");
+    Map<String, Serializable> properties = new HashMap<>();
+    properties.put(
+        Constants.PARTIAL_UPDATE_ATTRIBUTES_KEY,
+        new HashSet<>(Arrays.asList(Core.TITLE, Core.DESCRIPTION)));
+    List<Entry<Serializable, Metacard>> updates =
+        Collections.singletonList(new SimpleEntry<>(insertedCard.getId(), changes));
+
+    List<Update> updatedCards =
+        framework
+            .update(new UpdateRequestImpl(updates, Metacard.ID, properties))
+            .getUpdatedMetacards();
+
+    assertThat(updatedCards, hasSize(1));
+    Metacard updatedCard = updatedCards.get(0).getNewMetacard();
+    assertThat(updatedCard.getId(), is(insertedCard.getId()));
+    assertThat(updatedCard.getTitle(), is("new title"));
+    assertThat(updatedCard.getAttribute(Core.DESCRIPTION), nullValue());
+    assertThat(updatedCard.getContentTypeName(), is("stored type"));
+  }
+
+  @Test
+  public void testPartialUpdateIgnoresQueryPluginChanges() throws Exception {
+    MetacardImpl storedCard = new MetacardImpl();
+    storedCard.setTitle("stored title");
+    storedCard.setAttribute(Core.DESCRIPTION, "stored description");
+
+    CreateResponse response =
+        provider.create(new CreateRequestImpl(Collections.singletonList(storedCard), null));
+    Metacard insertedCard = response.getCreatedMetacards().get(0);
+
+    // a post-query plugin that redacts the description of the metacards it returns
+    PostQueryPlugin redactingPlugin =
+        input -> {
+          Metacard resultCard = input.getResults().get(0).getMetacard();
+          MetacardImpl redactedCard = new MetacardImpl(resultCard, resultCard.getMetacardType());
+          redactedCard.setAttribute(Core.DESCRIPTION, "redacted");
+          return new QueryResponseImpl(
+              input.getRequest(), Collections.singletonList(new ResultImpl(redactedCard)), 1);
+        };
+    QueryResponseImpl queryResponse =
+        new QueryResponseImpl(
+            mock(QueryRequest.class), Collections.singletonList(new ResultImpl(insertedCard)), 1);
+    when(mockFederationStrategy.federate(anyList(), any()))
+        .thenReturn(redactingPlugin.process(queryResponse));
+
+    MetacardImpl changes = new MetacardImpl();
+    changes.setTitle("new title");
+    Map<String, Serializable> properties = new HashMap<>();
+    properties.put(
+        Constants.PARTIAL_UPDATE_ATTRIBUTES_KEY, new HashSet<>(Collections.singleton(Core.TITLE)));
+    List<Entry<Serializable, Metacard>> updates =
+        Collections.singletonList(new SimpleEntry<>(insertedCard.getId(), changes));
+
+    framework.update(new UpdateRequestImpl(updates, Metacard.ID, properties));
+
+    Metacard persistedCard =
+        provider
+            .query(new QueryRequestImpl(new QueryImpl(Filter.INCLUDE)))
+            .getResults()
+            .get(0)
+            .getMetacard();
+    assertThat(persistedCard.getTitle(), is("new title"));
+    assertThat(persistedCard.getAttribute(Core.DESCRIPTION).getValue(), is("stored description"));
+  }
+
+  @Test(expected = IngestException.class)
+  public void testPartialUpdateByProductUri() throws Exception {
+    Map<String, Serializable> properties = new HashMap<>();
+    properties.put(
+        Constants.PARTIAL_UPDATE_ATTRIBUTES_KEY, new HashSet<>(Collections.singleton(Core.TITLE)));
+    List<Entry<Serializable, Metacard>> updates =
+        Collections.singletonList(new SimpleEntry<>(new URI("DDF:///12345"), new MetacardImpl()));
+
+    framework.update(
+        new UpdateRequestImpl(updates, UpdateRequest.UPDATE_BY_PRODUCT_URI, properties));
+  }
+
   @Test
   public void testUpdateWithDefaults() throws Exception {
     final String title = "some title";
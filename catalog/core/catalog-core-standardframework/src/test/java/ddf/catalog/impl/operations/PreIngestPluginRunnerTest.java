@@ -0,0 +1,187 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.impl.operations;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.sameInstance;
+
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.operation.CreateRequest;
+import ddf.catalog.operation.DeleteRequest;
+import ddf.catalog.operation.UpdateRequest;
+import ddf.catalog.operation.impl.CreateRequestImpl;
+import ddf.catalog.plugin.PartitionablePreIngestPlugin;
+import ddf.catalog.plugin.PluginExecutionException;
+import ddf.catalog.plugin.PreIngestPlugin;
+import ddf.catalog.plugin.StopProcessingException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PreIngestPluginRunnerTest {
+
+  private static final int PARTITION_SIZE = 2;
+
+  private ExecutorService executor;
+
+  private PreIngestPluginRunner runner;
+
+  @Before
+  public void setUp() {
+    executor = Executors.newFixedThreadPool(4);
+    runner = new PreIngestPluginRunner(executor, PARTITION_SIZE);
+  }
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testPartitionablePluginsRunOnPartitions() throws Exception {
+    PartitionableRecordingPlugin first = new PartitionableRecordingPlugin("a");
+    PartitionableRecordingPlugin second = new PartitionableRecordingPlugin("b");
+
+    CreateRequest result = runner.process(request(5), Arrays.asList(first, second));
+
+    assertThat(titles(result), contains("0ab", "1ab", "2ab", "3ab", "4ab"));
+    assertThat(first.requestSizes, everyItem(lessThanOrEqualTo(PARTITION_SIZE)));
+    assertThat(first.requestSizes.stream().mapToInt(Integer::intValue).sum(), is(5));
+    assertThat(second.requestSizes.size(), is(3));
+  }
+
+  @Test
+  public void testOtherPluginsRunOnWholeRequestBetweenStages() throws Exception {
+    PartitionableRecordingPlugin first = new PartitionableRecordingPlugin("a");
+    RecordingPlugin whole = new RecordingPlugin("b");
+    PartitionableRecordingPlugin last = new PartitionableRecordingPlugin("c");
+
+    CreateRequest result = runner.process(request(5), Arrays.asList(first, whole, last));
+
+    assertThat(titles(result), contains("0abc", "1abc", "2abc", "3abc", "4abc"));
+    assertThat(whole.requestSizes, contains(5));
+  }
+
+  @Test
+  public void testSmallRequestIsNotPartitioned() throws Exception {
+    CreateRequest request = request(PARTITION_SIZE);
+
+    CreateRequest result =
+        runner.process(request, Collections.singletonList(new PartitionableRecordingPlugin("a")));
+
+    assertThat(result, is(sameInstance(request)));
+    assertThat(titles(result), contains("0a", "1a"));
+  }
+
+  @Test
+  public void testFailedPluginIsSkippedForItsPartition() throws Exception {
+    PartitionableRecordingPlugin failing = new PartitionableRecordingPlugin("a");
+    failing.failOn = "2";
+    PartitionableRecordingPlugin next = new PartitionableRecordingPlugin("b");
+
+    CreateRequest result = runner.process(request(5), Arrays.asList(failing, next));
+
+    assertThat(titles(result), contains("0ab", "1ab", "2b", "3b", "4ab"));
+  }
+
+  @Test(expected = StopProcessingException.class)
+  public void testStopProcessingInPartitionStopsRequest() throws Exception {
+    PartitionableRecordingPlugin stopping = new PartitionableRecordingPlugin("a");
+    stopping.stopOn = "4";
+
+    runner.process(request(5), Collections.singletonList(stopping));
+  }
+
+  private CreateRequest request(int size) {
+    List<Metacard> metacards =
+        IntStream.range(0, size)
+            .mapToObj(
+                i -> {
+                  MetacardImpl metacard = new MetacardImpl();
+                  metacard.setTitle(String.valueOf(i));
+                  return metacard;
+                })
+            .collect(Collectors.toList());
+    return new CreateRequestImpl(metacards);
+  }
+
+  private List<String> titles(CreateRequest request) {
+    return request.getMetacards().stream().map(Metacard::getTitle).collect(Collectors.toList());
+  }
+
+  /** Appends its suffix to the titles of the metacards it processes */
+  private static class RecordingPlugin implements PreIngestPlugin {
+
+    private final String suffix;
+
+    private final List<Integer> requestSizes = Collections.synchronizedList(new ArrayList<>());
+
+    private String failOn;
+
+    private String stopOn;
+
+    private RecordingPlugin(String suffix) {
+      this.suffix = suffix;
+    }
+
+    @Override
+    public CreateRequest process(CreateRequest input)
+        throws PluginExecutionException, StopProcessingException {
+      requestSizes.add(input.getMetacards().size());
+      for (Metacard metacard : input.getMetacards()) {
+        if (metacard.getTitle().equals(stopOn)) {
+          throw new StopProcessingException("stop");
+        }
+        if (metacard.getTitle().equals(failOn)) {
+          throw new PluginExecutionException("fail");
+        }
+      }
+      input
+          .getMetacards()
+          .forEach(metacard -> ((MetacardImpl) metacard).setTitle(metacard.getTitle() + suffix));
+      return input;
+    }
+
+    @Override
+    public UpdateRequest process(UpdateRequest input) {
+      return input;
+    }
+
+    @Override
+    public DeleteRequest process(DeleteRequest input) {
+      return input;
+    }
+  }
+
+  private static class PartitionableRecordingPlugin extends RecordingPlugin
+      implements PartitionablePreIngestPlugin {
+
+    private PartitionableRecordingPlugin(String suffix) {
+      super(suffix);
+    }
+  }
+}
@@ -20,6 +20,7 @@
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
@@ -40,20 +41,27 @@
 import ddf.catalog.event.retrievestatus.DownloadsStatusEventPublisher.ProductRetrievalStatus;
 import ddf.catalog.operation.ResourceRequest;
 import ddf.catalog.operation.ResourceResponse;
+import ddf.catalog.operation.impl.ResourceResponseImpl;
 import ddf.catalog.resource.Resource;
 import ddf.catalog.resource.ResourceNotFoundException;
 import ddf.catalog.resource.ResourceNotSupportedException;
 import ddf.catalog.resource.data.ReliableResource;
 import ddf.catalog.resource.download.ReliableResourceStatus.DownloadStatus;
+import ddf.catalog.resource.impl.ResourceImpl;
 import ddf.catalog.resourceretriever.ResourceRetriever;
 import ddf.security.service.impl.SubjectUtils;
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Serializable;
+import java.nio.file.Files;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Random;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import javax.activation.MimeType;
@@ -61,7 +69,9 @@
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Ignore;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 public class ReliableResourceDownloaderTest {
   private static final String DOWNLOAD_ID = "123";
@@ -84,6 +94,8 @@ public class ReliableResourceDownloaderTest {
 
   private Metacard mockMetacard;
 
+  @Rule public TemporaryFolder testFolder = new TemporaryFolder();
+
   @BeforeClass
   public static void oneTimeSetup() {
     String workingDir = System.getProperty("user.dir");
@@ -278,6 +290,55 @@ public void testNullReliableResourceCallableAndStatus() throws Exception {
             eq(DOWNLOAD_ID));
   }
 
+  @Test
+  public void testSegmentedDownloadIsCached() throws Exception {
+    int size = 10_000;
+    byte[] product = new byte[size];
+    new Random(0).nextBytes(product);
+
+    downloaderConfig.setCacheEnabled(true);
+    downloaderConfig.setChunkSize(256);
+    downloaderConfig.setParallelDownloadSegments(4);
+
+    File cacheDirectory = testFolder.newFolder("product-cache");
+    ResourceCacheImpl mockCache = mock(ResourceCacheImpl.class);
+    when(mockCache.isPending(anyString())).thenReturn(false);
+    when(mockCache.getProductCacheDirectory()).thenReturn(cacheDirectory.getAbsolutePath());
+    downloaderConfig.setResourceCache(mockCache);
+
+    InputStream initialStream = spy(new ByteArrayInputStream(product));
+    ResourceResponse mockResponse = getMockResourceResponse(initialStream);
+    when(mockResource.getSize()).thenReturn((long) size);
+
+    ResourceRetriever retriever = mock(ResourceRetriever.class);
+    when(retriever.retrieveResource(anyLong()))
+        .thenAnswer(invocation -> rangeResponse(product, invocation.getArgument(0)));
+    when(retriever.retrieveResource(anyLong(), anyLong()))
+        .thenAnswer(invocation -> rangeResponse(product, invocation.getArgument(0)));
+
+    ReliableResourceDownloader downloader =
+        new ReliableResourceDownloader(
+            downloaderConfig, new AtomicBoolean(), DOWNLOAD_ID, mockResponse, retriever);
+    DownloadStatusInfoImpl downloadStatusInfo = new DownloadStatusInfoImpl();
+    downloadStatusInfo.setSubjectOperations(new SubjectUtils());
+    downloader.setupDownload(mockMetacard, downloadStatusInfo);
+    downloader.run();
+
+    verify(mockCache).put(any(ReliableResource.class));
+    File[] cacheFiles = cacheDirectory.listFiles();
+    assertThat(cacheFiles.length, is(1));
+    assertThat(Arrays.equals(Files.readAllBytes(cacheFiles[0].toPath()), product), is(true));
+    verify(initialStream, atLeastOnce()).close();
+  }
+
+  private ResourceResponse rangeResponse(byte[] product, long bytesToSkip) {
+    InputStream input =
+        new ByteArrayInputStream(product, (int) bytesToSkip, product.length - (int) bytesToSkip);
+    ResourceResponse response = new ResourceResponseImpl(new ResourceImpl(input, "product"));
+    response.getProperties().put(ReliableResourceDownloader.BYTES_SKIPPED, true);
+    return response;
+  }
+
   private Metacard getMockMetacard(String id, String source) {
 
     Metacard metacard = mock(Metacard.class);
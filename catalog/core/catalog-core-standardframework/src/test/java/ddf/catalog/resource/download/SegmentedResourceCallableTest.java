@@ -0,0 +1,162 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.resource.download;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.google.common.io.CountingOutputStream;
+import ddf.catalog.operation.ResourceResponse;
+import ddf.catalog.operation.impl.ResourceResponseImpl;
+import ddf.catalog.resource.download.ReliableResourceStatus.DownloadStatus;
+import ddf.catalog.resource.impl.ResourceImpl;
+import ddf.catalog.resourceretriever.ResourceRetriever;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class SegmentedResourceCallableTest {
+
+  private static final int SIZE = 10_000;
+
+  private static final int SEGMENTS = 4;
+
+  @Rule public TemporaryFolder testFolder = new TemporaryFolder();
+
+  private final byte[] product = new byte[SIZE];
+
+  private final Object lock = new Object();
+
+  private ReliableResourceDownloaderConfig downloaderConfig;
+
+  private ResourceRetriever retriever;
+
+  private ByteArrayOutputStream clientStream;
+
+  private File cacheFile;
+
+  private RandomAccessFile cacheFileAccess;
+
+  @Before
+  public void setUp() throws Exception {
+    new Random(0).nextBytes(product);
+
+    downloaderConfig = new ReliableResourceDownloaderConfig();
+    downloaderConfig.setChunkSize(256);
+    downloaderConfig.setMaxRetryAttempts(2);
+    downloaderConfig.setDelayBetweenAttemptsMS(0);
+
+    retriever = mock(ResourceRetriever.class);
+    clientStream = new ByteArrayOutputStream();
+    cacheFile = testFolder.newFile("product");
+    cacheFileAccess = new RandomAccessFile(cacheFile, "rw");
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    cacheFileAccess.close();
+  }
+
+  @Test
+  public void testDownloadsSegmentsInOrder() throws Exception {
+    when(retriever.retrieveResource(anyLong(), anyLong()))
+        .thenAnswer(invocation -> rangeResponse(invocation.getArgument(0), true));
+    when(retriever.retrieveResource(anyLong()))
+        .thenAnswer(invocation -> rangeResponse(invocation.getArgument(0), true));
+
+    ReliableResourceStatus status = newCallable(SIZE).call();
+
+    assertThat(status.getDownloadStatus(), is(DownloadStatus.RESOURCE_DOWNLOAD_COMPLETE));
+    assertThat(status.getBytesRead(), is((long) SIZE));
+    assertThat(Arrays.equals(clientStream.toByteArray(), product), is(true));
+    assertThat(Arrays.equals(Files.readAllBytes(cacheFile.toPath()), product), is(true));
+  }
+
+  @Test
+  public void testReadsLastSegmentPastAdvertisedSize() throws Exception {
+    when(retriever.retrieveResource(anyLong(), anyLong()))
+        .thenAnswer(invocation -> rangeResponse(invocation.getArgument(0), true));
+    when(retriever.retrieveResource(anyLong()))
+        .thenAnswer(invocation -> rangeResponse(invocation.getArgument(0), true));
+
+    ReliableResourceStatus status = newCallable(SIZE - 1000).call();
+
+    assertThat(status.getDownloadStatus(), is(DownloadStatus.RESOURCE_DOWNLOAD_COMPLETE));
+    assertThat(Arrays.equals(clientStream.toByteArray(), product), is(true));
+  }
+
+  @Test
+  public void testRetriesFailedSegment() throws Exception {
+    when(retriever.retrieveResource(anyLong(), anyLong()))
+        .thenThrow(new IOException("connection reset"))
+        .thenAnswer(invocation -> rangeResponse(invocation.getArgument(0), true));
+    when(retriever.retrieveResource(anyLong()))
+        .thenAnswer(invocation -> rangeResponse(invocation.getArgument(0), true));
+
+    ReliableResourceStatus status = newCallable(SIZE).call();
+
+    assertThat(status.getDownloadStatus(), is(DownloadStatus.RESOURCE_DOWNLOAD_COMPLETE));
+    assertThat(Arrays.equals(clientStream.toByteArray(), product), is(true));
+  }
+
+  @Test
+  public void testStopsAtFirstSegmentWhenRangesAreNotSupported() throws Exception {
+    when(retriever.retrieveResource(anyLong(), anyLong()))
+        .thenAnswer(invocation -> rangeResponse(invocation.getArgument(0), false));
+    when(retriever.retrieveResource(anyLong()))
+        .thenAnswer(invocation -> rangeResponse(invocation.getArgument(0), false));
+
+    ReliableResourceStatus status = newCallable(SIZE).call();
+
+    assertThat(status.getDownloadStatus(), is(DownloadStatus.PRODUCT_INPUT_STREAM_EXCEPTION));
+    assertThat(status.getBytesRead(), is((long) SIZE / SEGMENTS));
+    assertThat(clientStream.size(), is(SIZE / SEGMENTS));
+  }
+
+  private SegmentedResourceCallable newCallable(long size) {
+    return new SegmentedResourceCallable(
+        new ByteArrayInputStream(product),
+        retriever,
+        new CountingOutputStream(clientStream),
+        cacheFileAccess.getChannel(),
+        size,
+        SEGMENTS,
+        downloaderConfig,
+        lock);
+  }
+
+  private ResourceResponse rangeResponse(long bytesToSkip, boolean rangeSupported) {
+    InputStream input =
+        new ByteArrayInputStream(product, (int) bytesToSkip, product.length - (int) bytesToSkip);
+    ResourceResponse response = new ResourceResponseImpl(new ResourceImpl(input, "product"));
+    if (rangeSupported) {
+      response.getProperties().put(ReliableResourceDownloader.BYTES_SKIPPED, true);
+    }
+    return response;
+  }
+}
@@ -88,6 +88,10 @@ public class URLResourceReader implements ResourceReader {
 
   private static final String BYTES_TO_SKIP = "BytesToSkip";
 
+  private static final String BYTES_TO_READ = "BytesToRead";
+
+  private static final String BYTES_SKIPPED = "BytesSkipped";
+
   private static final String USERNAME = "username";
 
   @SuppressWarnings("squid:S2068" /* Password property key */)
@@ -370,6 +374,12 @@ private ResourceResponse retrieveHttpProduct(
 
       WebClient client = getWebClient(resourceURI, properties);
 
+      String range = getRangeHeader(Long.parseLong(bytesToSkip), properties.get(BYTES_TO_READ));
+      if (range != null) {
+        LOGGER.debug("Requesting range {}", range);
+        client.header(HttpHeaders.RANGE, range);
+      }
+
       Response response = client.get();
 
       MultivaluedMap<String, Object> headers = response.getHeaders();
@@ -410,9 +420,15 @@ private ResourceResponse retrieveHttpProduct(
       }
       alignStream(is, Long.parseLong(bytesToSkip), responseBytesSkipped);
 
-      return new ResourceResponseImpl(
-          new ResourceImpl(
-              new BufferedInputStream(is), mimeType, FilenameUtils.getName(productName)));
+      ResourceResponse resourceResponse =
+          new ResourceResponseImpl(
+              new ResourceImpl(
+                  new BufferedInputStream(is), mimeType, FilenameUtils.getName(productName)));
+      if (responseBytesSkipped > 0 && responseBytesSkipped == Long.parseLong(bytesToSkip)) {
+        // Lets the caller know the server honored the range instead of the bytes being skipped
+        resourceResponse.getProperties().put(BYTES_SKIPPED, true);
+      }
+      return resourceResponse;
     } catch (MimeTypeResolutionException | IOException | WebApplicationException e) {
       LOGGER.info("Error retrieving resource", e);
       throw new ResourceNotFoundException(
@@ -500,6 +516,19 @@ private String handleContentDispositionHeader(String contentDispositionHeader) {
     return "";
   }
 
+  /**
+   * @return the value of the Range header requesting the bytes after {@code bytesToSkip}, limited
+   *     to {@code bytesToRead} if provided, or null if the whole resource is requested
+   */
+  private String getRangeHeader(long bytesToSkip, Serializable bytesToRead) {
+    long length = bytesToRead == null ? 0 : Long.parseLong(bytesToRead.toString());
+    if (bytesToSkip <= 0 && length <= 0) {
+      return null;
+    }
+    String lastByte = length > 0 ? String.valueOf(bytesToSkip + length - 1) : "";
+    return "bytes=" + bytesToSkip + "-" + lastByte;
+  }
+
   private void skipBytes(InputStream is, String bytesToSkip) throws IOException {
     if (bytesToSkip != null) {
       LOGGER.debug("Skipping {} bytes", bytesToSkip);
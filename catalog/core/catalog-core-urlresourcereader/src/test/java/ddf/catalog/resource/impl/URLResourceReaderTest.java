@@ -514,6 +514,36 @@ public void testServerSupportsPartialContentResponseTooMuchOffset() throws Excep
         uri, JPEG_FILE_NAME_1, JPEG_MIME_TYPE, bytesToSkip, null, 2135, uri);
   }
 
+  /**
+   * Tests that a byte range is requested when the number of bytes to read is provided, and that
+   * the response reports the bytes were skipped by the server.
+   *
+   * @throws Exception
+   */
+  @Test
+  public void testRequestsByteRange() throws Exception {
+    URI uri = new URI(HTTP_SCHEME_PLUS_SEP + HOST + "/src/test/resources/data/" + BAD_FILE_NAME);
+
+    Response mockResponse = mock(Response.class);
+    when(mockWebClient.get()).thenReturn(mockResponse);
+    MultivaluedMap<String, Object> map = new MultivaluedHashMap<>();
+    map.put(HttpHeaders.CONTENT_RANGE, Arrays.asList("bytes 2-3/5"));
+    when(mockResponse.getHeaders()).thenReturn(map);
+    when(mockResponse.getStatus()).thenReturn(Response.Status.PARTIAL_CONTENT.getStatusCode());
+    when(mockResponse.getEntity()).thenReturn(getBinaryDataWithOffset(2));
+
+    Map<String, Serializable> arguments = new HashMap<>();
+    arguments.put(BYTES_TO_SKIP, 2L);
+    arguments.put("BytesToRead", 2L);
+
+    TestURLResourceReader resourceReader =
+        new TestURLResourceReader(mimeTypeMapper, clientBuilderFactory);
+    ResourceResponse resourceResponse = resourceReader.retrieveResource(uri, arguments);
+
+    verify(mockWebClient).header(HttpHeaders.RANGE, "bytes=2-3");
+    assertThat(resourceResponse.getPropertyValue("BytesSkipped"), is(true));
+  }
+
   /**
    * Tests that if the server does not support range-header requests and responds with the entire
    * product's contents (no Content-Range header and a 200 response), an input is still returned
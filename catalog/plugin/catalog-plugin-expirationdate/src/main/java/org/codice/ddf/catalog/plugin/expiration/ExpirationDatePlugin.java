@@ -20,8 +20,8 @@
 import ddf.catalog.operation.CreateRequest;
 import ddf.catalog.operation.DeleteRequest;
 import ddf.catalog.operation.UpdateRequest;
+import ddf.catalog.plugin.PartitionablePreIngestPlugin;
 import ddf.catalog.plugin.PluginExecutionException;
-import ddf.catalog.plugin.PreIngestPlugin;
 import ddf.catalog.plugin.StopProcessingException;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
@@ -31,7 +31,7 @@
 import org.slf4j.LoggerFactory;
 
 /** Pre-Ingest Plugin to overwrite Metacard expiration dates. */
-public class ExpirationDatePlugin implements PreIngestPlugin {
+public class ExpirationDatePlugin implements PartitionablePreIngestPlugin {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(ExpirationDatePlugin.class);
 
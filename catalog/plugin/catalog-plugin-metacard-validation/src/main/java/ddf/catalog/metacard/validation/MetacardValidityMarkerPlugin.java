@@ -23,10 +23,11 @@
 import ddf.catalog.operation.UpdateRequest;
 import ddf.catalog.operation.impl.CreateRequestImpl;
 import ddf.catalog.operation.impl.UpdateRequestImpl;
+import ddf.catalog.plugin.PartitionablePreIngestPlugin;
 import ddf.catalog.plugin.PluginExecutionException;
-import ddf.catalog.plugin.PreIngestPlugin;
 import ddf.catalog.plugin.StopProcessingException;
 import ddf.catalog.util.Describable;
+import ddf.catalog.validation.BatchMetacardValidator;
 import ddf.catalog.validation.MetacardValidator;
 import ddf.catalog.validation.ValidationException;
 import java.io.Serializable;
@@ -44,7 +45,7 @@
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-public class MetacardValidityMarkerPlugin implements PreIngestPlugin {
+public class MetacardValidityMarkerPlugin implements PartitionablePreIngestPlugin {
   private static final Logger LOGGER = LoggerFactory.getLogger(MetacardValidityMarkerPlugin.class);
 
   private static final Logger INGEST_LOGGER = LoggerFactory.getLogger(Constants.INGEST_LOGGER_NAME);
@@ -81,18 +82,56 @@ public UpdateRequest process(UpdateRequest input)
 
   private <T> List<T> validateList(List<T> requestItems, Function<T, Metacard> itemToMetacard) {
     Map<String, Integer> counter = new HashMap<>();
+    Map<MetacardValidator, MetacardValidator> batchValidators =
+        prepareBatchValidators(requestItems, itemToMetacard);
 
     List<T> validated =
         requestItems.stream()
-            .map(item -> validate(item, itemToMetacard, counter))
+            .map(item -> validate(item, itemToMetacard, counter, batchValidators))
             .filter(didNotFailEnforcedValidator)
             .collect(Collectors.toList());
 
     return validated;
   }
 
+  /**
+   * Lets every {@link BatchMetacardValidator} prepare the validation of all the metacards of the
+   * request at once.
+   *
+   * @return the validators to validate the metacards of the request with, keyed by the configured
+   *     validator they replace
+   */
+  private <T> Map<MetacardValidator, MetacardValidator> prepareBatchValidators(
+      List<T> requestItems, Function<T, Metacard> itemToMetacard) {
+    Map<MetacardValidator, MetacardValidator> batchValidators = new HashMap<>();
+    List<Metacard> metacards = null;
+
+    for (MetacardValidator validator : metacardValidators) {
+      if (validator instanceof BatchMetacardValidator) {
+        if (metacards == null) {
+          metacards = requestItems.stream().map(itemToMetacard).collect(Collectors.toList());
+        }
+        try {
+          batchValidators.put(
+              validator, ((BatchMetacardValidator) validator).forMetacards(metacards));
+        } catch (RuntimeException e) {
+          LOGGER.debug(
+              "Metacard validator {} failed to prepare the validation of {} metacards. The metacards will be validated one at a time.",
+              getValidatorName(validator),
+              metacards.size(),
+              e);
+        }
+      }
+    }
+
+    return batchValidators;
+  }
+
   private <T> T validate(
-      T item, Function<T, Metacard> itemToMetacard, Map<String, Integer> counter) {
+      T item,
+      Function<T, Metacard> itemToMetacard,
+      Map<String, Integer> counter,
+      Map<MetacardValidator, MetacardValidator> batchValidators) {
     Set<Serializable> newErrors = new HashSet<>();
     Set<Serializable> newWarnings = new HashSet<>();
     Set<Serializable> errorValidators = new HashSet<>();
@@ -107,7 +146,7 @@ private <T> T validate(
 
     for (MetacardValidator validator : metacardValidators) {
       try {
-        validator.validate(metacard);
+        batchValidators.getOrDefault(validator, validator).validate(metacard);
       } catch (ValidationException e) {
         String validatorName = getValidatorName(validator);
         boolean validationErrorsExist = CollectionUtils.isNotEmpty(e.getErrors());
@@ -26,6 +26,9 @@
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.withSettings;
 
@@ -46,6 +49,7 @@
 import ddf.catalog.plugin.PluginExecutionException;
 import ddf.catalog.plugin.StopProcessingException;
 import ddf.catalog.util.Describable;
+import ddf.catalog.validation.BatchMetacardValidator;
 import ddf.catalog.validation.MetacardValidator;
 import ddf.catalog.validation.ValidationException;
 import java.io.Serializable;
@@ -340,6 +344,26 @@ public void testMetacardFailsEnforcedValidator()
     verifyEnforcedUpdate(updateRequest, updatedMetacards.subList(1, updatedMetacards.size()));
   }
 
+  @Test
+  public void testBatchValidatorIsPreparedOncePerRequest()
+      throws ValidationException, StopProcessingException, PluginExecutionException {
+    BatchMetacardValidator batchValidator =
+        mock(BatchMetacardValidator.class, withSettings().extraInterfaces(Describable.class));
+    when(((Describable) batchValidator).getId()).thenReturn(ID);
+    MetacardValidator preparedValidator = getMockFailingValidatorNoDescribable();
+    when(batchValidator.forMetacards(any())).thenReturn(preparedValidator);
+    metacardValidators.add(batchValidator);
+    enforcedMetacardValidators.add(ID);
+
+    CreateRequest createRequest = getMockCreateRequest();
+    List<Metacard> createdMetacards = createRequest.getMetacards();
+    verifyEnforcedCreate(createRequest, createdMetacards.subList(1, createdMetacards.size()));
+
+    verify(batchValidator).forMetacards(createdMetacards);
+    verify(batchValidator, never()).validate(any(Metacard.class));
+    verify(preparedValidator, times(2)).validate(any(Metacard.class));
+  }
+
   @Test
   public void testMetacardPassesEnforcedValidatorsNoDescribable()
       throws StopProcessingException, PluginExecutionException {
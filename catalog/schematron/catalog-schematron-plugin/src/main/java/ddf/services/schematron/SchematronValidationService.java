@@ -48,10 +48,13 @@
 import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.dom.DOMResult;
 import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.sax.SAXResult;
 import javax.xml.transform.sax.SAXSource;
 import javax.xml.transform.stream.StreamSource;
 import net.sf.saxon.Configuration;
 import net.sf.saxon.TransformerFactoryImpl;
+import net.sf.saxon.om.DocumentInfo;
+import net.sf.saxon.trans.XPathException;
 import org.apache.commons.lang.StringUtils;
 import org.codice.ddf.platform.util.StandardThreadFactoryBuilder;
 import org.codice.ddf.platform.util.XMLUtils;
@@ -83,7 +86,11 @@
  * the XML document, validating it against the "compiled" Schematron schema file.
  *
  * <p>This service is using the SVRL script, hence the output of the validation will be an
- * SVRL-formatted XML document.
+ * SVRL-formatted XML document. The document is not kept: only the messages of its failed
+ * assertions are collected while it is written.
+ *
+ * <p>The metadata of a metacard is parsed once into an immutable tree that is shared by all of the
+ * compiled Schematron schemas, which validate it concurrently.
  *
  * @author rodgersh
  * @see <a href="http://www.schematron.com">Schematron</a>
@@ -104,8 +111,6 @@
 
   private int priority = 10;
 
-  private SchematronReport schematronReport;
-
   private List<String> schematronFileNames;
 
   private boolean suppressWarnings = false;
@@ -116,7 +121,7 @@
 
   private ExecutorService pool = getThreadPool();
 
-  private List<Future<Templates>> validators = new ArrayList<>();
+  private volatile List<Future<Templates>> validators = new ArrayList<>();
 
   private static ExecutorService getThreadPool() throws NumberFormatException {
     Integer threadPoolSize =
@@ -153,17 +158,23 @@ public void init() throws SchematronInitializationException {
     updateValidators();
   }
 
+  public void destroy() {
+    pool.shutdownNow();
+  }
+
   private void updateValidators() throws SchematronInitializationException {
-    validators.clear();
+    // Validations in progress keep using the list they started with
+    List<Future<Templates>> newValidators = new ArrayList<>();
     for (String schematronFileName : schematronFileNames) {
       FutureTask<Templates> task =
           new FutureTask<Templates>(
               () -> {
                 return compileSchematronRules(schematronFileName);
               });
-      validators.add(task);
+      newValidators.add(task);
       pool.submit(task);
     }
+    validators = newValidators;
   }
 
   private Templates compileSchematronRules(String schematronFileName)
@@ -306,16 +317,27 @@ private MetacardValidationReport generateReport(Metacard metacard)
             || (namespace != null && !namespace.equals(XML_UTILS.getRootNamespace(metadata))));
     if (canBeValidated) {
       try {
+        List<Templates> templates = new ArrayList<>();
         for (Future<Templates> validator : validators) {
-          schematronReport = generateReport(metadata, validator.get(10, TimeUnit.MINUTES));
-          schematronReport
+          templates.add(validator.get(10, TimeUnit.MINUTES));
+        }
+
+        DocumentInfo document = parseMetadata(metadata);
+        List<Future<SvrlFailureHandler>> results = new ArrayList<>();
+        for (Templates template : templates) {
+          results.add(pool.submit(() -> runValidator(document, template)));
+        }
+
+        for (Future<SvrlFailureHandler> result : results) {
+          SvrlFailureHandler failures = getResult(result);
+          failures
               .getErrors()
               .forEach(
                   errorMsg ->
                       report.addMetacardViolation(
                           new ValidationViolationImpl(
                               attributes, sanitize(errorMsg), ValidationViolation.Severity.ERROR)));
-          schematronReport
+          failures
               .getWarnings()
               .forEach(
                   warningMsg ->
@@ -336,9 +358,24 @@ private MetacardValidationReport generateReport(Metacard metacard)
     return report;
   }
 
-  private SchematronReport generateReport(String metadata, Templates validator)
-      throws SchematronValidationException {
+  private SvrlFailureHandler getResult(Future<SvrlFailureHandler> result)
+      throws InterruptedException, ExecutionException, SchematronValidationException {
+    try {
+      return result.get();
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof SchematronValidationException) {
+        throw (SchematronValidationException) e.getCause();
+      }
+      throw e;
+    }
+  }
 
+  /**
+   * Parses the metadata into a Saxon tree. The tree is immutable, so it can be read by several
+   * transformations at once, and it is built with the configuration of the {@link
+   * #transformerFactory} so that every compiled Schematron schema can read it.
+   */
+  private DocumentInfo parseMetadata(String metadata) throws SchematronValidationException {
     XMLReader xmlReader = null;
     try {
       XMLReader xmlParser = XML_UTILS.getSecureXmlParser();
@@ -347,18 +384,26 @@ private SchematronReport generateReport(String metadata, Templates validator)
       throw new SchematronValidationException(e);
     }
 
-    SchematronReport report;
+    try {
+      return ((TransformerFactoryImpl) transformerFactory)
+          .getConfiguration()
+          .buildDocument(new SAXSource(xmlReader, new InputSource(new StringReader(metadata))));
+    } catch (XPathException e) {
+      throw new SchematronValidationException("Could not parse metadata to perform validation.", e);
+    }
+  }
+
+  private SvrlFailureHandler runValidator(DocumentInfo document, Templates validator)
+      throws SchematronValidationException {
+    SvrlFailureHandler failures = new SvrlFailureHandler();
     try {
       Transformer transformer = validator.newTransformer();
-      DOMResult schematronResult = new DOMResult();
-      transformer.transform(
-          new SAXSource(xmlReader, new InputSource(new StringReader(metadata))), schematronResult);
-      report = new SvrlReport(schematronResult);
+      transformer.transform(document, new SAXResult(failures));
     } catch (TransformerException e) {
       throw new SchematronValidationException(
           "Could not setup validator to perform validation.", e);
     }
-    return report;
+    return failures;
   }
 
   @Override
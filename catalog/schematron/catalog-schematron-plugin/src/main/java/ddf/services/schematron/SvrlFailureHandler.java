@@ -0,0 +1,111 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.services.schematron;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.xml.sax.Attributes;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * Collects the messages of the failed assertions and failed reports of an SVRL report while it is
+ * being written, so the report does not have to be built as a DOM and searched afterwards.
+ *
+ * <p>The message of a failure is the text of its first child element, its {@code svrl:text}. The
+ * {@code flag} attribute of the failure tells whether it is an error or a warning; failures without
+ * a known flag are ignored, as {@link SvrlReport} does.
+ */
+class SvrlFailureHandler extends DefaultHandler {
+
+  private static final String SVRL_NAMESPACE = "http://purl.oclc.org/dsdl/svrl";
+
+  private static final String ASSERT_FAIL_ELEMENT = "failed-assert";
+
+  private static final String REPORT_FAIL_ELEMENT = "failed-report";
+
+  private static final String FLAG_ATTR = "flag";
+
+  private static final String WARNING_FLAG_ATTR_TEXT = "warning";
+
+  private static final String ERROR_FLAG_ATTR_TEXT = "error";
+
+  private final List<String> errors = new ArrayList<>();
+
+  private final List<String> warnings = new ArrayList<>();
+
+  /** Messages of the failure being read, or null when not inside an error or warning */
+  private List<String> messages;
+
+  /** Depth below the failure being read: 1 for the failure itself, 2 for its children */
+  private int depth;
+
+  private boolean messageRead;
+
+  private StringBuilder message;
+
+  @Override
+  public void startElement(String uri, String localName, String qName, Attributes attributes) {
+    if (messages != null) {
+      depth++;
+      if (depth == 2 && !messageRead) {
+        message = new StringBuilder();
+      }
+      return;
+    }
+
+    if (SVRL_NAMESPACE.equals(uri)
+        && (ASSERT_FAIL_ELEMENT.equals(localName) || REPORT_FAIL_ELEMENT.equals(localName))) {
+      String flag = attributes.getValue(FLAG_ATTR);
+      if (ERROR_FLAG_ATTR_TEXT.equals(flag)) {
+        messages = errors;
+      } else if (WARNING_FLAG_ATTR_TEXT.equals(flag)) {
+        messages = warnings;
+      }
+      depth = 1;
+      messageRead = false;
+    }
+  }
+
+  @Override
+  public void characters(char[] ch, int start, int length) {
+    if (message != null) {
+      message.append(ch, start, length);
+    }
+  }
+
+  @Override
+  public void endElement(String uri, String localName, String qName) {
+    if (messages == null) {
+      return;
+    }
+
+    if (depth == 2 && message != null) {
+      messages.add(message.toString());
+      message = null;
+      messageRead = true;
+    }
+    depth--;
+    if (depth == 0) {
+      messages = null;
+    }
+  }
+
+  List<String> getErrors() {
+    return errors;
+  }
+
+  List<String> getWarnings() {
+    return warnings;
+  }
+}
@@ -14,6 +14,7 @@
 package ddf.services.schematron;
 
 import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.fail;
@@ -24,6 +25,7 @@
 import ddf.catalog.data.impl.MetacardImpl;
 import ddf.catalog.validation.ValidationException;
 import ddf.catalog.validation.report.MetacardValidationReport;
+import ddf.catalog.validation.violation.ValidationViolation;
 import java.io.File;
 import java.io.IOException;
 import java.net.URL;
@@ -125,6 +127,30 @@ public void testWithIncorrectNamespace()
     assertThat(report.get().getMetacardValidationViolations(), is(empty()));
   }
 
+  @Test
+  public void testReportContainsFailedAssertsOfEverySchematron()
+      throws IOException, SchematronInitializationException {
+    SchematronValidationService service = getService("dog_legs.sch", "dog_paws.sch");
+
+    Optional<MetacardValidationReport> errorReport =
+        service.validateMetacard(getMetacard("dog_3leg_3paw.xml"));
+    assertThat(errorReport.isPresent(), is(true));
+    assertThat(errorReport.get().getMetacardValidationViolations(), hasSize(1));
+    ValidationViolation error =
+        errorReport.get().getMetacardValidationViolations().iterator().next();
+    assertThat(error.getSeverity(), is(ValidationViolation.Severity.ERROR));
+    assertThat(error.getMessage(), is("Oh no! Your dog doesn't have all 4 limbs!"));
+
+    Optional<MetacardValidationReport> warningReport =
+        service.validateMetacard(getMetacard("dog_4leg_3paw.xml"));
+    assertThat(warningReport.isPresent(), is(true));
+    assertThat(warningReport.get().getMetacardValidationViolations(), hasSize(1));
+    ValidationViolation warning =
+        warningReport.get().getMetacardValidationViolations().iterator().next();
+    assertThat(warning.getSeverity(), is(ValidationViolation.Severity.WARNING));
+    assertThat(warning.getMessage(), is("Oh my! Your dog is missing a paw!"));
+  }
+
   @Test(expected = ValidationException.class)
   public void testSchematronFileNotFound()
       throws ValidationException, IOException, SchematronInitializationException {
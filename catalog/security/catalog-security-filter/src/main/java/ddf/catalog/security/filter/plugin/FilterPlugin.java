@@ -43,11 +43,15 @@
 import java.security.PrivilegedAction;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.StringJoiner;
 import java.util.TreeMap;
+import java.util.stream.Collectors;
+import org.apache.shiro.authz.Permission;
 import org.apache.shiro.subject.Subject;
 import org.codice.ddf.security.Security;
 import org.osgi.framework.Bundle;
@@ -208,10 +212,11 @@ public DeleteResponse processPostDelete(DeleteResponse input) throws StopProcess
     List<Metacard> newResults = new ArrayList<>(results.size());
     KeyValueCollectionPermission securityPermission =
         permissions.buildKeyValueCollectionPermission(CollectionPermission.READ_ACTION);
+    Map<Map<String, Set<String>>, Boolean> decisions =
+        checkPermissions(results, securityPermission, subject, CollectionPermission.READ_ACTION);
     int filteredMetacards = 0;
     for (Metacard metacard : results) {
-      Attribute attr = metacard.getAttribute(Metacard.SECURITY);
-      if (!checkPermissions(attr, securityPermission, subject, CollectionPermission.READ_ACTION)) {
+      if (!decisions.get(getSecurityMarkings(metacard.getAttribute(Metacard.SECURITY)))) {
         for (FilterStrategy filterStrategy : filterStrategies.values()) {
           FilterResult filterResult = filterStrategy.process(input, metacard);
           if (filterResult.processed()) {
@@ -257,11 +262,16 @@ public QueryResponse processPostQuery(QueryResponse input) throws StopProcessing
     Metacard metacard;
     KeyValueCollectionPermission securityPermission =
         permissions.buildKeyValueCollectionPermission(CollectionPermission.READ_ACTION);
+    Map<Map<String, Set<String>>, Boolean> decisions =
+        checkPermissions(
+            results.stream().map(Result::getMetacard).collect(Collectors.toList()),
+            securityPermission,
+            subject,
+            CollectionPermission.READ_ACTION);
     int filteredMetacards = 0;
     for (Result result : results) {
       metacard = result.getMetacard();
-      Attribute attr = metacard.getAttribute(Metacard.SECURITY);
-      if (!checkPermissions(attr, securityPermission, subject, CollectionPermission.READ_ACTION)) {
+      if (!decisions.get(getSecurityMarkings(metacard.getAttribute(Metacard.SECURITY)))) {
         for (FilterStrategy filterStrategy : filterStrategies.values()) {
           FilterResult filterResult = filterStrategy.process(input, metacard);
           if (filterResult.processed()) {
@@ -353,15 +363,58 @@ private boolean checkPermissions(
       KeyValueCollectionPermission securityPermission,
       Subject subject,
       String action) {
-    Map<String, Set<String>> map = null;
+    return subject.isPermitted(
+        getPermission(getSecurityMarkings(attr), securityPermission, action));
+  }
+
+  /**
+   * Checks the permissions of all the metacards at once. Metacards usually share their security
+   * markings, so each distinct set of markings is only checked once.
+   *
+   * @return whether the subject is permitted, by the security markings of the metacards
+   */
+  private Map<Map<String, Set<String>>, Boolean> checkPermissions(
+      List<Metacard> metacards,
+      KeyValueCollectionPermission securityPermission,
+      Subject subject,
+      String action) {
+    List<Map<String, Set<String>>> securityMarkings = new ArrayList<>();
+    List<Permission> resultPermissions = new ArrayList<>();
+    Set<Map<String, Set<String>>> checkedMarkings = new HashSet<>();
+    for (Metacard metacard : metacards) {
+      Map<String, Set<String>> markings =
+          getSecurityMarkings(metacard.getAttribute(Metacard.SECURITY));
+      if (checkedMarkings.add(markings)) {
+        securityMarkings.add(markings);
+        resultPermissions.add(getPermission(markings, securityPermission, action));
+      }
+    }
+
+    Map<Map<String, Set<String>>, Boolean> decisions = new HashMap<>();
+    if (!resultPermissions.isEmpty()) {
+      boolean[] permitted = subject.isPermitted(resultPermissions);
+      for (int i = 0; i < permitted.length; i++) {
+        decisions.put(securityMarkings.get(i), permitted[i]);
+      }
+    }
+    return decisions;
+  }
 
+  private Map<String, Set<String>> getSecurityMarkings(Attribute attr) {
     if (attr != null) {
-      map = (Map<String, Set<String>>) attr.getValue();
+      return (Map<String, Set<String>>) attr.getValue();
     }
-    if (map != null) {
-      securityPermission = permissions.buildKeyValueCollectionPermission(action, map);
+    return null;
+  }
+
+  private KeyValueCollectionPermission getPermission(
+      Map<String, Set<String>> securityMarkings,
+      KeyValueCollectionPermission securityPermission,
+      String action) {
+    if (securityMarkings != null) {
+      return permissions.buildKeyValueCollectionPermission(action, securityMarkings);
     }
-    return subject.isPermitted(securityPermission);
+    return securityPermission;
   }
 
   public void setSubjectOperations(SubjectOperations subjectOperations) {
@@ -18,11 +18,15 @@
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.clearInvocations;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.MetacardType;
+import ddf.catalog.data.Result;
 import ddf.catalog.data.impl.MetacardImpl;
 import ddf.catalog.data.impl.MetacardTypeImpl;
 import ddf.catalog.data.impl.ResultImpl;
@@ -85,6 +89,8 @@ public class FilterPluginTest {
 
   FilterPlugin plugin;
 
+  AuthorizingRealm realm;
+
   QueryResponseImpl incomingResponse;
 
   ResourceResponseImpl resourceResponse;
@@ -101,7 +107,7 @@ public class FilterPluginTest {
 
   @Before
   public void setup() {
-    AuthorizingRealm realm = mock(AuthorizingRealm.class);
+    realm = mock(AuthorizingRealm.class);
 
     when(realm.getName()).thenReturn("mockRealm");
     when(realm.isPermitted(any(PrincipalCollection.class), any(Permission.class)))
@@ -209,6 +215,31 @@ public void testPluginFilter() {
     }
   }
 
+  @Test
+  public void testPluginFilterChecksEachSecurityMarkingOnce() throws Exception {
+    QueryResponseImpl response = new QueryResponseImpl(incomingResponse.getRequest());
+    response.addResult(new ResultImpl(getExactRolesMetacard()), false);
+    response.addResult(new ResultImpl(getMoreRolesMetacard()), false);
+    response.addResult(new ResultImpl(getExactRolesMetacard()), false);
+    response.addResult(new ResultImpl(getNoSecurityAttributeMetacard()), false);
+    response.addResult(new ResultImpl(getMoreRolesMetacard()), false);
+    response.addResult(new ResultImpl(getNoSecurityAttributeMetacard()), true);
+    clearInvocations(realm);
+
+    QueryResponse filtered = plugin.processPostQuery(response);
+
+    verify(realm, times(3)).isPermitted(any(PrincipalCollection.class), any(Permission.class));
+    assertThat(filtered.getResults().size(), is(4));
+    assertThat(
+        filtered
+            .getResults()
+            .stream()
+            .map(Result::getMetacard)
+            .filter(metacard -> "exactroles".equals(metacard.getId()))
+            .count(),
+        is(2L));
+  }
+
   @Test
   public void testPluginFilterNoStrategies() {
     plugin = new FilterPlugin(new Security());
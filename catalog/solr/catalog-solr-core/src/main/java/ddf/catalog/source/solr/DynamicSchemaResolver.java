@@ -13,8 +13,6 @@
  */
 package ddf.catalog.source.solr;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
@@ -27,12 +25,7 @@
 import ddf.catalog.data.impl.AttributeDescriptorImpl;
 import ddf.catalog.data.impl.MetacardTypeImpl;
 import ddf.catalog.data.types.experimental.Extracted;
-import ddf.catalog.source.solr.json.MetacardTypeMapperFactory;
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.io.StringReader;
 import java.security.AccessController;
@@ -47,6 +40,7 @@
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import javax.xml.stream.XMLInputFactory;
@@ -126,9 +120,6 @@ public class DynamicSchemaResolver {
 
   private static int metadataMaximumBytes;
 
-  private static final ObjectMapper METACARD_TYPE_MAPPER =
-      MetacardTypeMapperFactory.newObjectMapper();
-
   static {
     ClassLoader tccl = Thread.currentThread().getContextClassLoader();
     try {
@@ -147,7 +138,7 @@ public class DynamicSchemaResolver {
     }
   }
 
-  Set<String> fieldsCache = new HashSet<>();
+  Set<String> fieldsCache = ConcurrentHashMap.newKeySet();
 
   private Set<String> anyTextFields = new HashSet<>();
 
@@ -299,14 +290,11 @@ void addFields(Metacard metacard, SolrInputDocument solrInputDocument)
                     + getSpecialIndexSuffix(AttributeFormat.STRING),
                 attributeValues);
           } else if (AttributeFormat.OBJECT.equals(format)) {
-            ByteArrayOutputStream byteArrayOS = new ByteArrayOutputStream();
             List<Serializable> byteArrays = new ArrayList<>();
 
-            try (ObjectOutputStream out = new ObjectOutputStream(byteArrayOS)) {
+            try {
               for (Serializable serializable : attributeValues) {
-                out.writeObject(serializable);
-                byteArrays.add(byteArrayOS.toByteArray());
-                out.reset();
+                byteArrays.add(MetacardCodec.writeObject(serializable));
               }
             } catch (IOException e) {
               throw new MetacardCreationException(COULD_NOT_SERIALIZE_OBJECT_MESSAGE, e);
@@ -493,8 +481,6 @@ List<Serializable> getDocValues(String solrFieldName, Collection<Object> docValu
     return values;
   }
 
-  @SuppressWarnings(
-      "squid:S2093" /* try-with-resource will throw IOException with InputStream and we do not care to get that exception */)
   private Serializable getDocValue(String solrFieldName, Object docValue) {
 
     AttributeFormat format = getType(solrFieldName);
@@ -507,22 +493,13 @@ private Serializable getDocValue(String solrFieldName, Object docValue) {
        */
       return Short.parseShort(docValue.toString());
     } else if (AttributeFormat.OBJECT.equals(format)) {
-
-      ByteArrayInputStream bais = null;
-      ObjectInputStream in = null;
-
       try {
-        bais = new ByteArrayInputStream((byte[]) docValue);
-        in = new ObjectInputStream(bais);
-        return (Serializable) in.readObject();
+        return MetacardCodec.readObject((byte[]) docValue);
       } catch (IOException e) {
         LOGGER.info("IO exception loading input document", e);
       } catch (ClassNotFoundException e) {
         LOGGER.info("Could not create object to return.", e);
         // TODO which exception to throw?
-      } finally {
-        IOUtils.closeQuietly(bais);
-        IOUtils.closeQuietly(in);
       }
 
       return null;
@@ -628,8 +605,6 @@ private String getFieldSuffix(AttributeFormat format) {
     return schemaFields.getFieldSuffix(format);
   }
 
-  @SuppressWarnings(
-      "squid:S2093" /* try-with-resource will throw IOException with InputStream and we do not care to get that exception */)
   public MetacardType getMetacardType(SolrDocument doc) throws MetacardCreationException {
     String mTypeFieldName = doc.getFirstValue(SchemaFields.METACARD_TYPE_FIELD_NAME).toString();
 
@@ -641,12 +616,17 @@ public MetacardType getMetacardType(SolrDocument doc) throws MetacardCreationExc
 
     byte[] bytes = (byte[]) doc.getFirstValue(SchemaFields.METACARD_TYPE_OBJECT_FIELD_NAME);
     try {
-      cachedMetacardType = METACARD_TYPE_MAPPER.readValue(bytes, MetacardType.class);
+      cachedMetacardType = MetacardCodec.readMetacardType(bytes);
     } catch (IOException e) {
       LOGGER.info("IO exception loading cached metacard type", e);
       throw new MetacardCreationException(COULD_NOT_READ_METACARD_TYPE_MESSAGE);
     }
 
+    // Documents indexed before the binary encoding hold the metacard type as JSON
+    if (!MetacardCodec.isEncoded(bytes)) {
+      bytes = serialize(cachedMetacardType);
+    }
+
     metacardTypeNameToSerialCache.put(mTypeFieldName, bytes);
     metacardTypesCache.put(mTypeFieldName, cachedMetacardType);
     addToFieldsCache(cachedMetacardType.getAttributeDescriptors());
@@ -741,8 +721,8 @@ private void addToFieldsCache(AttributeDescriptor descriptor) {
 
   private byte[] serialize(MetacardType anywhereMType) throws MetacardCreationException {
     try {
-      return METACARD_TYPE_MAPPER.writeValueAsBytes(anywhereMType);
-    } catch (JsonProcessingException e) {
+      return MetacardCodec.writeMetacardType(anywhereMType);
+    } catch (IOException e) {
       throw new MetacardCreationException(COULD_NOT_READ_METACARD_TYPE_MESSAGE, e);
     }
   }
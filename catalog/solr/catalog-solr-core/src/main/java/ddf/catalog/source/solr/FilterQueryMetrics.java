@@ -0,0 +1,55 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.source.solr;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.micrometer.core.instrument.Metrics;
+import java.util.Map;
+
+/**
+ * Counts the filter queries sent to Solr by the kind of filter they apply, and by whether the same
+ * filter query was sent recently. Solr answers recently used filter queries from its filter cache,
+ * so the share of repeated filter queries of a kind approximates its filter cache hit ratio.
+ */
+class FilterQueryMetrics {
+
+  private static final String FILTER_QUERIES_METRIC = "ddf.catalog.solr.filterqueries";
+
+  private static final String FILTER_TAG = "filter";
+
+  private static final String REPEATED_TAG = "repeated";
+
+  // Default size of the Solr filter cache
+  private static final int RECENT_FILTER_QUERIES = 512;
+
+  private final Cache<String, Boolean> recentFilterQueries =
+      CacheBuilder.newBuilder().maximumSize(RECENT_FILTER_QUERIES).build();
+
+  /** @param filterQueries filter queries sent to Solr, with the kind of filter they apply */
+  void record(Map<String, String> filterQueries) {
+    filterQueries.forEach(
+        (filterQuery, filterKind) -> {
+          boolean repeated =
+              recentFilterQueries.asMap().putIfAbsent(filterQuery, Boolean.TRUE) != null;
+          Metrics.counter(
+                  FILTER_QUERIES_METRIC,
+                  FILTER_TAG,
+                  filterKind,
+                  REPEATED_TAG,
+                  String.valueOf(repeated))
+              .increment();
+        });
+  }
+}
@@ -0,0 +1,285 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.source.solr;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ddf.catalog.data.AttributeDescriptor;
+import ddf.catalog.data.MetacardType;
+import ddf.catalog.data.impl.AttributeDescriptorImpl;
+import ddf.catalog.data.impl.BasicTypes;
+import ddf.catalog.data.impl.MetacardTypeImpl;
+import ddf.catalog.source.solr.json.MetacardTypeMapperFactory;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Versioned binary encoding of the metacard types and the {@link
+ * ddf.catalog.data.AttributeType.AttributeFormat#OBJECT} attribute values stored in Solr.
+ *
+ * <p>Encoded values start with a two byte magic number followed by the version of the encoding.
+ * Values that do not start with the magic number were written before this encoding was introduced
+ * and are read with the legacy format: JSON for metacard types and Java serialization for object
+ * values. Object values of a type this encoding does not know are still written with Java
+ * serialization.
+ */
+final class MetacardCodec {
+
+  private static final byte MAGIC_0 = (byte) 0xDD;
+
+  private static final byte MAGIC_1 = (byte) 0xFC;
+
+  private static final byte VERSION = 1;
+
+  private static final int HEADER_LENGTH = 3;
+
+  private static final int INDEXED = 1;
+
+  private static final int STORED = 1 << 1;
+
+  private static final int TOKENIZED = 1 << 2;
+
+  private static final int MULTI_VALUED = 1 << 3;
+
+  private static final byte NULL_TAG = 0;
+
+  private static final byte STRING_TAG = 1;
+
+  private static final byte BOOLEAN_TAG = 2;
+
+  private static final byte SHORT_TAG = 3;
+
+  private static final byte INTEGER_TAG = 4;
+
+  private static final byte LONG_TAG = 5;
+
+  private static final byte FLOAT_TAG = 6;
+
+  private static final byte DOUBLE_TAG = 7;
+
+  private static final byte DATE_TAG = 8;
+
+  private static final byte BINARY_TAG = 9;
+
+  private static final ObjectMapper METACARD_TYPE_MAPPER =
+      MetacardTypeMapperFactory.newObjectMapper();
+
+  private MetacardCodec() {}
+
+  static byte[] writeMetacardType(MetacardType metacardType) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = newOutput(bytes)) {
+      out.writeUTF(metacardType.getName());
+      Set<AttributeDescriptor> descriptors = metacardType.getAttributeDescriptors();
+      out.writeInt(descriptors.size());
+      for (AttributeDescriptor descriptor : descriptors) {
+        out.writeUTF(descriptor.getName());
+        out.writeByte(getFlags(descriptor));
+        out.writeUTF(descriptor.getType().getAttributeFormat().name());
+      }
+    }
+    return bytes.toByteArray();
+  }
+
+  static MetacardType readMetacardType(byte[] bytes) throws IOException {
+    if (!isEncoded(bytes)) {
+      return METACARD_TYPE_MAPPER.readValue(bytes, MetacardType.class);
+    }
+
+    try (DataInputStream in = newInput(bytes)) {
+      String name = in.readUTF();
+      int size = in.readInt();
+      Set<AttributeDescriptor> descriptors = new HashSet<>();
+      for (int i = 0; i < size; i++) {
+        String attributeName = in.readUTF();
+        int flags = in.readUnsignedByte();
+        descriptors.add(
+            new AttributeDescriptorImpl(
+                attributeName,
+                (flags & INDEXED) != 0,
+                (flags & STORED) != 0,
+                (flags & TOKENIZED) != 0,
+                (flags & MULTI_VALUED) != 0,
+                BasicTypes.getAttributeType(in.readUTF())));
+      }
+      return new MetacardTypeImpl(name, descriptors);
+    }
+  }
+
+  static byte[] writeObject(Serializable value) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    if (!isSupported(value)) {
+      try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+        out.writeObject(value);
+      }
+      return bytes.toByteArray();
+    }
+
+    try (DataOutputStream out = newOutput(bytes)) {
+      if (value == null) {
+        out.writeByte(NULL_TAG);
+      } else if (value instanceof String) {
+        writeString(out, (String) value);
+      } else if (value instanceof Boolean) {
+        out.writeByte(BOOLEAN_TAG);
+        out.writeBoolean((Boolean) value);
+      } else if (value instanceof Short) {
+        out.writeByte(SHORT_TAG);
+        out.writeShort((Short) value);
+      } else if (value instanceof Integer) {
+        out.writeByte(INTEGER_TAG);
+        out.writeInt((Integer) value);
+      } else if (value instanceof Long) {
+        out.writeByte(LONG_TAG);
+        out.writeLong((Long) value);
+      } else if (value instanceof Float) {
+        out.writeByte(FLOAT_TAG);
+        out.writeFloat((Float) value);
+      } else if (value instanceof Double) {
+        out.writeByte(DOUBLE_TAG);
+        out.writeDouble((Double) value);
+      } else if (value instanceof Date) {
+        out.writeByte(DATE_TAG);
+        out.writeLong(((Date) value).getTime());
+      } else {
+        byte[] binary = (byte[]) value;
+        out.writeByte(BINARY_TAG);
+        out.writeInt(binary.length);
+        out.write(binary);
+      }
+    }
+    return bytes.toByteArray();
+  }
+
+  static Serializable readObject(byte[] bytes) throws IOException, ClassNotFoundException {
+    if (!isEncoded(bytes)) {
+      try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+        return (Serializable) in.readObject();
+      }
+    }
+
+    try (DataInputStream in = newInput(bytes)) {
+      byte tag = in.readByte();
+      switch (tag) {
+        case NULL_TAG:
+          return null;
+        case STRING_TAG:
+          return readString(in);
+        case BOOLEAN_TAG:
+          return in.readBoolean();
+        case SHORT_TAG:
+          return in.readShort();
+        case INTEGER_TAG:
+          return in.readInt();
+        case LONG_TAG:
+          return in.readLong();
+        case FLOAT_TAG:
+          return in.readFloat();
+        case DOUBLE_TAG:
+          return in.readDouble();
+        case DATE_TAG:
+          return new Date(in.readLong());
+        case BINARY_TAG:
+          byte[] binary = new byte[in.readInt()];
+          in.readFully(binary);
+          return binary;
+        default:
+          throw new IOException("Unknown object value tag " + tag);
+      }
+    }
+  }
+
+  static boolean isEncoded(byte[] bytes) {
+    return bytes.length >= HEADER_LENGTH && bytes[0] == MAGIC_0 && bytes[1] == MAGIC_1;
+  }
+
+  /*
+   * Only exact classes are encoded so that values always come back with the class they were
+   * written with, e.g., a java.sql.Timestamp is not read back as a java.util.Date.
+   */
+  private static boolean isSupported(Serializable value) {
+    if (value == null) {
+      return true;
+    }
+    Class<?> type = value.getClass();
+    return type == String.class
+        || type == Boolean.class
+        || type == Short.class
+        || type == Integer.class
+        || type == Long.class
+        || type == Float.class
+        || type == Double.class
+        || type == Date.class
+        || type == byte[].class;
+  }
+
+  private static DataOutputStream newOutput(ByteArrayOutputStream bytes) throws IOException {
+    DataOutputStream out = new DataOutputStream(bytes);
+    out.writeByte(MAGIC_0);
+    out.writeByte(MAGIC_1);
+    out.writeByte(VERSION);
+    return out;
+  }
+
+  private static DataInputStream newInput(byte[] bytes) throws IOException {
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+    in.skipBytes(2);
+    byte version = in.readByte();
+    if (version > VERSION) {
+      throw new IOException("Unsupported encoding version " + version);
+    }
+    return in;
+  }
+
+  // writeUTF is limited to 65535 bytes, which object values are not
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    byte[] utf8 = value.getBytes(UTF_8);
+    out.writeByte(STRING_TAG);
+    out.writeInt(utf8.length);
+    out.write(utf8);
+  }
+
+  private static String readString(DataInputStream in) throws IOException {
+    byte[] utf8 = new byte[in.readInt()];
+    in.readFully(utf8);
+    return new String(utf8, UTF_8);
+  }
+
+  private static int getFlags(AttributeDescriptor descriptor) {
+    int flags = 0;
+    if (descriptor.isIndexed()) {
+      flags |= INDEXED;
+    }
+    if (descriptor.isStored()) {
+      flags |= STORED;
+    }
+    if (descriptor.isTokenized()) {
+      flags |= TOKENIZED;
+    }
+    if (descriptor.isMultiValued()) {
+      flags |= MULTI_VALUED;
+    }
+    return flags;
+  }
+}
@@ -14,9 +14,11 @@
 package ddf.catalog.source.solr;
 
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import ddf.catalog.data.AttributeType.AttributeFormat;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.Result;
+import ddf.catalog.data.types.Core;
 import ddf.catalog.filter.FilterDelegate;
 import ddf.catalog.impl.filter.DivisibleByFunction;
 import ddf.catalog.impl.filter.ProximityFunction;
@@ -31,10 +33,14 @@
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.apache.commons.lang.StringUtils;
@@ -116,8 +122,6 @@ public class SolrFilterDelegate extends FilterDelegate<SolrQuery> {
 
   private static final String QUOTE = "\"";
 
-  private static final String FILTER_QUERY_PARAM_NAME = "fq";
-
   private static final String SOLR_WILDCARD_CHAR = "*";
 
   private static final String SOLR_SINGLE_WILDCARD_CHAR = "?";
@@ -136,6 +140,27 @@ public class SolrFilterDelegate extends FilterDelegate<SolrQuery> {
 
   private static final TimeZone UTC_TIME_ZONE = TimeZone.getTimeZone("UTC");
 
+  private static final String MATCH_ALL_QUERY = "*:*";
+
+  static final String TAGS_FILTER = "tags";
+
+  static final String SECURITY_FILTER = "security";
+
+  static final String TYPE_FILTER = "type";
+
+  static final String DATE_FILTER = "date";
+
+  static final String COMBINED_FILTER = "combined";
+
+  private static final String SECURITY_ATTRIBUTE_PREFIX = "security.";
+
+  private static final Set<String> TYPE_ATTRIBUTES =
+      ImmutableSet.of(Metacard.CONTENT_TYPE, Core.DATATYPE);
+
+  // Relative time ranges are widened to whole minutes, so that the same range is sent to Solr
+  // within a minute and its filter query can be answered from the filter cache
+  private static final long RELATIVE_TIME_PRECISION_MS = TimeUnit.MINUTES.toMillis(1);
+
   private final DateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
 
   private final DynamicSchemaResolver resolver;
@@ -152,6 +177,13 @@ public class SolrFilterDelegate extends FilterDelegate<SolrQuery> {
 
   private Map<String, Serializable> enabledFeatures;
 
+  // Clauses that only restrict the results without affecting their relevance, by filter kind
+  private final Map<SolrQuery, String> filterKinds = new IdentityHashMap<>();
+
+  private final Map<SolrQuery, List<Clause>> conjunctionClauses = new IdentityHashMap<>();
+
+  private final Map<String, String> filterQueries = new LinkedHashMap<>();
+
   public SolrFilterDelegate(
       DynamicSchemaResolver resolver, Map<String, Serializable> enabledFeatures) {
     this.resolver = resolver;
@@ -192,19 +224,36 @@ public SolrQuery propertyIsEqualTo(String functionName, List<Object> arguments,
 
   @Override
   public SolrQuery and(List<SolrQuery> operands) {
+    List<Clause> clauses = new ArrayList<>();
+    if (operands != null) {
+      operands.stream().filter(Objects::nonNull).map(this::getClauses).forEach(clauses::addAll);
+    }
+    String filterKind =
+        getFilterKind(
+            clauses.stream().map(clause -> clause.filterKind).collect(Collectors.toList()));
+
     SolrQuery query = logicalOperator(operands, AND);
-    return query;
+    conjunctionClauses.put(query, clauses);
+    return withFilterKind(query, filterKind);
   }
 
   @Override
   public SolrQuery or(List<SolrQuery> operands) {
+    String filterKind = null;
+    if (operands != null) {
+      filterKind =
+          getFilterKind(operands.stream().map(filterKinds::get).collect(Collectors.toList()));
+    }
+
     SolrQuery query = logicalOperator(operands, OR);
-    return query;
+    conjunctionClauses.remove(query);
+    return withFilterKind(query, filterKind);
   }
 
   @Override
   public SolrQuery not(SolrQuery operand) {
-    return new SolrQuery("(*:* NOT " + operand.getQuery() + ")");
+    return withFilterKind(
+        new SolrQuery("(*:* NOT " + operand.getQuery() + ")"), filterKinds.get(operand));
   }
 
   @Override
@@ -230,6 +279,11 @@ public SolrQuery propertyIsFuzzy(String propertyName, String searchPhrase) {
 
   @Override
   public SolrQuery propertyIsLike(String propertyName, String pattern, boolean isCaseSensitive) {
+    return withFilterKind(
+        likeQuery(propertyName, pattern, isCaseSensitive), getFilterKind(propertyName));
+  }
+
+  private SolrQuery likeQuery(String propertyName, String pattern, boolean isCaseSensitive) {
     verifyInputData(propertyName, pattern);
     String mappedPropertyName = getMappedPropertyName(propertyName, AttributeFormat.STRING, false);
 
@@ -279,6 +333,11 @@ public SolrQuery propertyIsLike(String propertyName, String pattern, boolean isC
 
   @Override
   public SolrQuery propertyIsEqualTo(String propertyName, String literal, boolean isCaseSensitive) {
+    return withFilterKind(
+        equalToQuery(propertyName, literal, isCaseSensitive), getFilterKind(propertyName));
+  }
+
+  private SolrQuery equalToQuery(String propertyName, String literal, boolean isCaseSensitive) {
     if (!isCaseSensitive) {
       throw new UnsupportedOperationException("Case insensitive exact searches are not supported.");
     }
@@ -346,7 +405,7 @@ public SolrQuery propertyIsEqualTo(String propertyName, Date exactDate) {
     String mappedPropertyName = getMappedPropertyName(propertyName, AttributeFormat.DATE, true);
     SolrQuery query = new SolrQuery();
     query.setQuery(" " + mappedPropertyName + ":" + QUOTE + dateFormat.format(exactDate) + QUOTE);
-    return query;
+    return withFilterKind(query, DATE_FILTER);
   }
 
   @Override
@@ -636,8 +695,8 @@ public SolrQuery propertyIsBetween(String propertyName, Date lowerBoundary, Date
   @Override
   public SolrQuery relative(String propertyName, long duration) {
     DateTime now = new DateTime();
-    Date start = now.minus(duration).toDate();
-    Date end = now.toDate();
+    Date start = roundDown(now.minus(duration).getMillis());
+    Date end = roundUp(now.getMillis());
 
     String formattedStartDate = formatDate(start);
     String formattedEndDate = formatDate(end);
@@ -665,7 +724,16 @@ private SolrQuery buildDateQuery(
             + TO
             + endDate
             + endCondition);
-    return query;
+    return withFilterKind(query, DATE_FILTER);
+  }
+
+  private static Date roundDown(long millis) {
+    return new Date(millis - Math.floorMod(millis, RELATIVE_TIME_PRECISION_MS));
+  }
+
+  private static Date roundUp(long millis) {
+    long remainder = Math.floorMod(millis, RELATIVE_TIME_PRECISION_MS);
+    return new Date(remainder == 0 ? millis : millis + RELATIVE_TIME_PRECISION_MS - remainder);
   }
 
   private String formatDate(Date date) {
@@ -1005,6 +1073,44 @@ private SolrQuery logicalOperator(List<SolrQuery> operands, String operator) {
     return query;
   }
 
+  private List<Clause> getClauses(SolrQuery query) {
+    return conjunctionClauses.getOrDefault(
+        query, Collections.singletonList(new Clause(query.getQuery(), filterKinds.get(query))));
+  }
+
+  private SolrQuery withFilterKind(SolrQuery query, String filterKind) {
+    if (filterKind == null) {
+      filterKinds.remove(query);
+    } else {
+      filterKinds.put(query, filterKind);
+    }
+    return query;
+  }
+
+  private String getFilterKind(String propertyName) {
+    if (Metacard.TAGS.equals(propertyName)) {
+      return TAGS_FILTER;
+    } else if (TYPE_ATTRIBUTES.contains(propertyName)) {
+      return TYPE_FILTER;
+    } else if (propertyName != null && propertyName.startsWith(SECURITY_ATTRIBUTE_PREFIX)) {
+      return SECURITY_FILTER;
+    }
+    return null;
+  }
+
+  /**
+   * @return the kind of filter the clauses apply when combined, or {@code null} if any of them
+   *     affects relevance
+   */
+  private String getFilterKind(List<String> clauseFilterKinds) {
+    if (clauseFilterKinds.isEmpty() || clauseFilterKinds.contains(null)) {
+      return null;
+    }
+    return clauseFilterKinds.stream().distinct().count() == 1
+        ? clauseFilterKinds.get(0)
+        : COMBINED_FILTER;
+  }
+
   private void verifyInputData(String propertyName, String pattern) {
     if (propertyName == null || propertyName.isEmpty()) {
       throw new UnsupportedOperationException("PropertyName is required for search.");
@@ -1064,4 +1170,64 @@ public boolean isIdQuery() {
   public Set<String> getIds() {
     return Collections.unmodifiableSet(ids);
   }
+
+  /**
+   * Moves the clauses of a query built by this delegate that only restrict its results, like
+   * metacard tags, security attributes, content types and date ranges, to separate filter queries.
+   * Solr caches the results of each filter query independently of the main query and does not
+   * score them, so the same restrictions can be reused by queries for different search terms.
+   *
+   * <p>Only the clauses that affect relevance are left in the main query of the {@code query}.
+   *
+   * @param query query built by this delegate
+   */
+  public void splitFilterQueries(SolrQuery query) {
+    if (query == null) {
+      return;
+    }
+
+    List<String> scoringClauses = new ArrayList<>();
+    boolean hasFilterClauses = false;
+    for (Clause clause : getClauses(query)) {
+      if (clause.filterKind == null) {
+        scoringClauses.add(clause.query);
+      } else {
+        hasFilterClauses = true;
+        String filterQuery = clause.query.trim();
+        if (filterQueries.putIfAbsent(filterQuery, clause.filterKind) == null) {
+          query.addFilterQuery(filterQuery);
+        }
+      }
+    }
+
+    if (hasFilterClauses) {
+      if (scoringClauses.isEmpty()) {
+        query.setQuery(MATCH_ALL_QUERY);
+      } else if (scoringClauses.size() == 1) {
+        query.setQuery(scoringClauses.get(0));
+      } else {
+        query.setQuery(START_PAREN + String.join(AND, scoringClauses) + END_PAREN);
+      }
+    }
+  }
+
+  /**
+   * @return the filter queries added by {@link #splitFilterQueries(SolrQuery)}, with the kind of
+   *     filter each of them applies
+   */
+  public Map<String, String> getFilterQueries() {
+    return Collections.unmodifiableMap(filterQueries);
+  }
+
+  private static class Clause {
+
+    private final String query;
+
+    private final String filterKind;
+
+    private Clause(String query, String filterKind) {
+      this.query = query;
+      this.filterKind = filterKind;
+    }
+  }
 }
@@ -14,8 +14,10 @@
 package ddf.catalog.source.solr;
 
 import static ddf.catalog.Constants.ADDITIONAL_SORT_BYS;
+import static ddf.catalog.Constants.CURSOR_MARK_KEY;
 import static ddf.catalog.Constants.EXPERIMENTAL_FACET_PROPERTIES_KEY;
 import static ddf.catalog.Constants.EXPERIMENTAL_FACET_RESULTS_KEY;
+import static ddf.catalog.Constants.NEXT_CURSOR_MARK_KEY;
 import static ddf.catalog.Constants.SUGGESTION_BUILD_KEY;
 import static ddf.catalog.Constants.SUGGESTION_CONTEXT_KEY;
 import static ddf.catalog.Constants.SUGGESTION_DICT_KEY;
@@ -29,6 +31,7 @@
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import ddf.catalog.data.Attribute;
 import ddf.catalog.data.AttributeType;
 import ddf.catalog.data.ContentType;
@@ -50,6 +53,7 @@
 import ddf.catalog.operation.impl.SourceResponseImpl;
 import ddf.catalog.source.UnsupportedQueryException;
 import ddf.measure.Distance;
+import io.micrometer.core.instrument.Metrics;
 import java.io.IOException;
 import java.io.Serializable;
 import java.security.AccessController;
@@ -65,6 +69,12 @@
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import org.apache.commons.collections.CollectionUtils;
@@ -84,6 +94,7 @@
 import org.apache.solr.common.SolrException;
 import org.apache.solr.common.SolrInputDocument;
 import org.apache.solr.common.params.CommonParams;
+import org.apache.solr.common.params.CursorMarkParams;
 import org.apache.solr.common.util.SimpleOrderedMap;
 import org.codice.solr.client.solrj.SolrClient;
 import org.opengis.filter.sort.SortBy;
@@ -110,6 +121,8 @@ public class SolrMetacardClientImpl implements SolrMetacardClient {
 
   private static final String GET_QUERY_HANDLER = "/get";
 
+  private static final String UNIQUE_KEY_FIELD = Metacard.ID + SchemaFields.TEXT_SUFFIX;
+
   private static final String IDS_KEY = "ids";
 
   public static final String SORT_FIELD_KEY = "sfield";
@@ -154,6 +167,21 @@ public class SolrMetacardClientImpl implements SolrMetacardClient {
   private final int queryTimeAllowedMs =
       Math.max(NumberUtils.toInt(accessProperty(SOLR_QUERY_TIMEALLOWEDMS, "0")), 0);
 
+  private static final String SOLR_QUERY_FILTERQUERIES = "solr.query.filterQueries";
+
+  private final boolean splitFilterQueries =
+      BooleanUtils.toBoolean(accessProperty(SOLR_QUERY_FILTERQUERIES, "true"));
+
+  private final FilterQueryMetrics filterQueryMetrics = new FilterQueryMetrics();
+
+  private static final String SOLR_ADD_THREADS = "solr.add.threads";
+
+  // Converts metacards to Solr documents for all the clients. Idle threads time out, so none are
+  // left behind when the bundle is stopped.
+  private static final ExecutorService DOCUMENT_CONVERTER = createDocumentConverter();
+
+  private static final String ADD_METRICS_PREFIX = "ddf.catalog.solr.add.";
+
   protected ResultHighlighter highlighter;
 
   public SolrMetacardClientImpl(
@@ -218,8 +246,14 @@ public SourceResponse query(QueryRequest request) throws UnsupportedQueryExcepti
       handlePartialResults(solrResponse, responseProps);
 
       SolrDocumentList docs = solrResponse.getResults();
+      SolrDocumentList originalDocs = docs;
       docs =
           handleSpellcheck(request, solrResponse, responseProps, query, docs, userSpellcheckIsOn);
+
+      // the cursor only applies to the results of the original query
+      if (docs == originalDocs && solrResponse.getNextCursorMark() != null) {
+        responseProps.put(NEXT_CURSOR_MARK_KEY, solrResponse.getNextCursorMark());
+      }
       if (docs != null) {
         addDocsToResults(docs, results);
         totalHits = docs.getNumFound();
@@ -604,6 +638,11 @@ protected SolrQuery getSolrQuery(QueryRequest request, SolrFilterDelegate solrFi
 
     SolrQuery query = filterAdapter.adapt(request.getQuery(), solrFilterDelegate);
 
+    if (splitFilterQueries) {
+      solrFilterDelegate.splitFilterQueries(query);
+      filterQueryMetrics.record(solrFilterDelegate.getFilterQueries());
+    }
+
     return postAdapt(request, solrFilterDelegate, query);
   }
 
@@ -613,8 +652,8 @@ protected SolrQuery getRealTimeQuery(SolrQuery originalQuery, Collection<String>
     }
     SolrQuery realTimeQuery = new SolrQuery();
     for (Map.Entry<String, String[]> entry : originalQuery.getMap().entrySet()) {
-      if (CommonParams.Q.equals(entry.getKey())) {
-        realTimeQuery.set(CommonParams.FQ, entry.getValue());
+      if (CommonParams.Q.equals(entry.getKey()) || CommonParams.FQ.equals(entry.getKey())) {
+        realTimeQuery.add(CommonParams.FQ, entry.getValue());
       } else {
         realTimeQuery.set(entry.getKey(), entry.getValue());
       }
@@ -654,8 +693,10 @@ protected SolrQuery postAdapt(
       throw new UnsupportedQueryException("Start index must be greater than 0");
     }
 
-    // Solr is 0-based
-    query.setStart(request.getQuery().getStartIndex() - 1);
+    String cursorMark = getCursorMark(request);
+
+    // Solr is 0-based, and cursors replace the start index
+    query.setStart(cursorMark == null ? request.getQuery().getStartIndex() - 1 : 0);
 
     if (queryingForAllRecords(request)) {
       try {
@@ -669,13 +710,25 @@ protected SolrQuery postAdapt(
 
     setSortProperty(request, query, filterDelegate);
 
-    if (queryTimeAllowedMs > 0) {
+    if (cursorMark != null) {
+      // Cursors need a total order, so ties are broken by the unique key. Solr does not allow
+      // limiting the time of cursor queries.
+      if (query.getSorts().stream().noneMatch(sort -> UNIQUE_KEY_FIELD.equals(sort.getItem()))) {
+        query.addSort(UNIQUE_KEY_FIELD, SolrQuery.ORDER.asc);
+      }
+      query.set(CursorMarkParams.CURSOR_MARK_PARAM, cursorMark);
+    } else if (queryTimeAllowedMs > 0) {
       query.setTimeAllowed(queryTimeAllowedMs);
     }
 
     return query;
   }
 
+  private String getCursorMark(QueryRequest request) {
+    Serializable cursorMark = request.getPropertyValue(CURSOR_MARK_KEY);
+    return cursorMark instanceof String ? (String) cursorMark : null;
+  }
+
   private boolean queryingForAllRecords(QueryRequest request) {
     if (ZERO_PAGESIZE_COMPATIBILTY.get()) {
       return request.getQuery().getPageSize() < 1;
@@ -814,28 +867,96 @@ public List<SolrInputDocument> add(List<Metacard> metacards, boolean forceAutoCo
       return Collections.emptyList();
     }
 
-    boolean isNrtCommit = false;
-    List<SolrInputDocument> docs = new ArrayList<>();
-    for (Metacard metacard : metacards) {
-      docs.add(getSolrInputDocument(metacard));
-      if (commitNrtMetacardType.contains(metacard.getMetacardType().getName())) {
-        isNrtCommit = true;
-      }
+    boolean isNrtCommit =
+        metacards.stream()
+            .map(Metacard::getMetacardType)
+            .anyMatch(type -> commitNrtMetacardType.contains(type.getName()));
+
+    // The documents are converted in parallel, but sent in a single request so that a failed
+    // request does not leave part of the metacards indexed
+    List<Future<SolrInputDocument>> convertedDocs = convert(metacards);
+    List<SolrInputDocument> docs;
+    try {
+      docs = getDocuments(convertedDocs);
+    } finally {
+      convertedDocs.forEach(document -> document.cancel(true));
     }
 
-    if (!forceAutoCommit) {
-      if (isNrtCommit) {
-        client.add(docs, commitNrtCommitWithinMs);
-      } else {
-        client.add(docs);
-      }
-    } else {
+    long start = System.nanoTime();
+    if (forceAutoCommit) {
       softCommit(docs);
+    } else if (isNrtCommit) {
+      client.add(docs, commitNrtCommitWithinMs);
+    } else {
+      client.add(docs);
     }
+    recordTime("send", start);
 
     return docs;
   }
 
+  private List<Future<SolrInputDocument>> convert(List<Metacard> metacards) {
+    List<Future<SolrInputDocument>> documents = new ArrayList<>(metacards.size());
+    for (Metacard metacard : metacards) {
+      documents.add(
+          DOCUMENT_CONVERTER.submit(
+              () -> {
+                long start = System.nanoTime();
+                SolrInputDocument document = getSolrInputDocument(metacard);
+                recordTime("convert", start);
+                return document;
+              }));
+    }
+    return documents;
+  }
+
+  private List<SolrInputDocument> getDocuments(List<Future<SolrInputDocument>> documents)
+      throws MetacardCreationException, IOException {
+    long start = System.nanoTime();
+    List<SolrInputDocument> docs = new ArrayList<>(documents.size());
+    try {
+      for (Future<SolrInputDocument> document : documents) {
+        docs.add(document.get());
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while converting metacards to Solr documents.", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof MetacardCreationException) {
+        throw (MetacardCreationException) e.getCause();
+      } else if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new MetacardCreationException(e.getCause());
+    }
+    // time the sender waited for the conversion of the documents
+    recordTime("wait", start);
+    return docs;
+  }
+
+  private static void recordTime(String stage, long start) {
+    Metrics.timer(ADD_METRICS_PREFIX + stage)
+        .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+  }
+
+  private static ExecutorService createDocumentConverter() {
+    String processors = String.valueOf(Runtime.getRuntime().availableProcessors());
+    int threads = Math.max(NumberUtils.toInt(accessProperty(SOLR_ADD_THREADS, processors)), 1);
+    ThreadPoolExecutor executor =
+        new ThreadPoolExecutor(
+            threads,
+            threads,
+            1,
+            TimeUnit.MINUTES,
+            new LinkedBlockingQueue<>(),
+            new ThreadFactoryBuilder()
+                .setNameFormat("solrDocumentConverter-%d")
+                .setDaemon(true)
+                .build());
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+
   protected SolrInputDocument getSolrInputDocument(Metacard metacard)
       throws MetacardCreationException {
     SolrInputDocument solrInputDocument = new SolrInputDocument();
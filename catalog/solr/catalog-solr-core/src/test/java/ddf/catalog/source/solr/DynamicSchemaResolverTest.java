@@ -26,7 +26,6 @@
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.truth.Truth;
 import ddf.catalog.data.Attribute;
 import ddf.catalog.data.AttributeDescriptor;
@@ -36,7 +35,6 @@
 import ddf.catalog.data.impl.AttributeDescriptorImpl;
 import ddf.catalog.data.impl.BasicTypes;
 import ddf.catalog.data.impl.MetacardImpl;
-import ddf.catalog.source.solr.json.MetacardTypeMapperFactory;
 import java.io.IOException;
 import java.io.Serializable;
 import java.util.ArrayList;
@@ -56,9 +54,6 @@ public class DynamicSchemaResolverTest {
 
   private static final int INITIAL_FIELDS_CACHE_COUNT = 5;
 
-  private static final ObjectMapper METACARD_TYPE_MAPPER =
-      MetacardTypeMapperFactory.newObjectMapper();
-
   private DynamicSchemaResolver dynamicSchemaResolver;
 
   @Before
@@ -223,7 +218,7 @@ public void testAdditionalFieldConstructor() {
   }
 
   private MetacardType deserializeMetacardType(byte[] serializedMetacardType) throws IOException {
-    return METACARD_TYPE_MAPPER.readValue(serializedMetacardType, MetacardType.class);
+    return MetacardCodec.readMetacardType(serializedMetacardType);
   }
 
   @Test
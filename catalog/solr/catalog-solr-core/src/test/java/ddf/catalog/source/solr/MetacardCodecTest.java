@@ -0,0 +1,152 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.source.solr;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.nullValue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ddf.catalog.data.AttributeDescriptor;
+import ddf.catalog.data.MetacardType;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.source.solr.json.MetacardTypeMapperFactory;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import org.junit.Test;
+
+public class MetacardCodecTest {
+
+  private static final ObjectMapper METACARD_TYPE_MAPPER =
+      MetacardTypeMapperFactory.newObjectMapper();
+
+  @Test
+  public void testMetacardTypeRoundTrip() throws Exception {
+    MetacardType metacardType = MetacardImpl.BASIC_METACARD;
+
+    byte[] bytes = MetacardCodec.writeMetacardType(metacardType);
+
+    assertThat(MetacardCodec.isEncoded(bytes), is(true));
+    assertSameMetacardType(MetacardCodec.readMetacardType(bytes), metacardType);
+  }
+
+  @Test
+  public void testMetacardTypeIsSmallerThanJson() throws Exception {
+    MetacardType metacardType = MetacardImpl.BASIC_METACARD;
+
+    assertThat(
+        MetacardCodec.writeMetacardType(metacardType).length,
+        lessThan(METACARD_TYPE_MAPPER.writeValueAsBytes(metacardType).length));
+  }
+
+  @Test
+  public void testReadsLegacyJsonMetacardType() throws Exception {
+    MetacardType metacardType = MetacardImpl.BASIC_METACARD;
+
+    byte[] json = METACARD_TYPE_MAPPER.writeValueAsBytes(metacardType);
+
+    assertThat(MetacardCodec.isEncoded(json), is(false));
+    assertSameMetacardType(MetacardCodec.readMetacardType(json), metacardType);
+  }
+
+  @Test
+  public void testObjectRoundTrip() throws Exception {
+    assertRoundTrip("title");
+    assertRoundTrip(Boolean.TRUE);
+    assertRoundTrip((short) 7);
+    assertRoundTrip(42);
+    assertRoundTrip(Long.MAX_VALUE);
+    assertRoundTrip(1.5f);
+    assertRoundTrip(2.5d);
+    assertRoundTrip(new Date(1234567890L));
+    assertThat(
+        (byte[]) MetacardCodec.readObject(MetacardCodec.writeObject(new byte[] {1, 2, 3})),
+        equalTo(new byte[] {1, 2, 3}));
+    assertThat(MetacardCodec.readObject(MetacardCodec.writeObject(null)), is(nullValue()));
+  }
+
+  @Test
+  public void testUnknownObjectsUseJavaSerialization() throws Exception {
+    ArrayList<String> list = new ArrayList<>();
+    list.add("value");
+    Timestamp timestamp = new Timestamp(1234567890L);
+
+    byte[] listBytes = MetacardCodec.writeObject(list);
+    byte[] timestampBytes = MetacardCodec.writeObject(timestamp);
+
+    assertThat(MetacardCodec.isEncoded(listBytes), is(false));
+    assertThat(MetacardCodec.readObject(listBytes), equalTo(list));
+    assertThat(MetacardCodec.readObject(timestampBytes), instanceOf(Timestamp.class));
+    assertThat(MetacardCodec.readObject(timestampBytes), equalTo(timestamp));
+  }
+
+  @Test
+  public void testReadsLegacySerializedObject() throws Exception {
+    assertThat(MetacardCodec.readObject(javaSerialize("title")), equalTo("title"));
+    assertThat(MetacardCodec.readObject(javaSerialize(42L)), equalTo(42L));
+  }
+
+  @Test
+  public void testEncodedObjectIsSmallerThanJavaSerialization() throws Exception {
+    assertThat(
+        MetacardCodec.writeObject(new Date()).length, lessThan(javaSerialize(new Date()).length));
+  }
+
+  @Test(expected = IOException.class)
+  public void testNewerVersionIsRejected() throws Exception {
+    byte[] bytes = MetacardCodec.writeObject("title");
+    bytes[2]++;
+
+    MetacardCodec.readObject(bytes);
+  }
+
+  private void assertRoundTrip(Serializable value) throws Exception {
+    byte[] bytes = MetacardCodec.writeObject(value);
+
+    assertThat(MetacardCodec.isEncoded(bytes), is(true));
+    assertThat(MetacardCodec.readObject(bytes), equalTo(value));
+  }
+
+  private void assertSameMetacardType(MetacardType actual, MetacardType expected) {
+    assertThat(actual.getName(), is(expected.getName()));
+    assertThat(
+        actual.getAttributeDescriptors().size(), is(expected.getAttributeDescriptors().size()));
+    for (AttributeDescriptor descriptor : expected.getAttributeDescriptors()) {
+      AttributeDescriptor actualDescriptor = actual.getAttributeDescriptor(descriptor.getName());
+      assertThat(actualDescriptor.isIndexed(), is(descriptor.isIndexed()));
+      assertThat(actualDescriptor.isStored(), is(descriptor.isStored()));
+      assertThat(actualDescriptor.isTokenized(), is(descriptor.isTokenized()));
+      assertThat(actualDescriptor.isMultiValued(), is(descriptor.isMultiValued()));
+      assertThat(
+          actualDescriptor.getType().getAttributeFormat(),
+          is(descriptor.getType().getAttributeFormat()));
+    }
+  }
+
+  private byte[] javaSerialize(Serializable value) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(value);
+    }
+    return bytes.toByteArray();
+  }
+}
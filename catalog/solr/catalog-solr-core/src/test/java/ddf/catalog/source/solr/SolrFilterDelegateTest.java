@@ -15,6 +15,9 @@
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.startsWith;
+import static org.hamcrest.Matchers.arrayContaining;
+import static org.hamcrest.Matchers.hasEntry;
+import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -22,6 +25,7 @@
 import ddf.catalog.data.AttributeType.AttributeFormat;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.types.Core;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Collections;
 import java.util.Date;
@@ -673,6 +677,100 @@ public void testPropertyIsDivisibleBy() {
     assertThat(isLikeQuery.getQuery(), is(expectedQuery));
   }
 
+  @Test
+  public void testSplitFilterQueries() {
+    mockFilterQueryFields();
+    SolrQuery query =
+        toTest.and(
+            Arrays.asList(
+                toTest.and(
+                    Arrays.asList(
+                        toTest.propertyIsLike(Core.TITLE, "dog", false),
+                        toTest.propertyIsEqualTo(Core.METACARD_TAGS, "resource", true))),
+                toTest.before(Core.CREATED, getCannedTime())));
+
+    toTest.splitFilterQueries(query);
+
+    assertThat(query.getQuery(), is("title_txt:\"dog\""));
+    assertThat(
+        query.getFilterQueries(),
+        arrayContaining(
+            "metacard-tags_txt:\"resource\"", "created_date:[ * TO 1995-11-24T23:59:56.765Z }"));
+    assertThat(
+        toTest.getFilterQueries(),
+        hasEntry("metacard-tags_txt:\"resource\"", SolrFilterDelegate.TAGS_FILTER));
+    assertThat(
+        toTest.getFilterQueries(),
+        hasEntry("created_date:[ * TO 1995-11-24T23:59:56.765Z }", SolrFilterDelegate.DATE_FILTER));
+  }
+
+  @Test
+  public void testSplitFilterQueriesWithoutScoringClauses() {
+    mockFilterQueryFields();
+    SolrQuery query =
+        toTest.and(
+            Arrays.asList(
+                toTest.propertyIsEqualTo(Core.METACARD_TAGS, "resource", true),
+                toTest.before(Core.CREATED, getCannedTime())));
+
+    toTest.splitFilterQueries(query);
+
+    assertThat(query.getQuery(), is("*:*"));
+    assertThat(query.getFilterQueries().length, is(2));
+  }
+
+  @Test
+  public void testDisjunctionWithScoringClauseIsNotSplit() {
+    mockFilterQueryFields();
+    SolrQuery query =
+        toTest.and(
+            Arrays.asList(
+                toTest.or(
+                    Arrays.asList(
+                        toTest.propertyIsLike(Core.TITLE, "dog", false),
+                        toTest.propertyIsEqualTo(Core.METACARD_TAGS, "resource", true))),
+                toTest.before(Core.CREATED, getCannedTime())));
+
+    toTest.splitFilterQueries(query);
+
+    assertThat(
+        query.getQuery(), is(" ( title_txt:\"dog\" OR metacard-tags_txt:\"resource\" ) "));
+    assertThat(
+        query.getFilterQueries(), arrayContaining("created_date:[ * TO 1995-11-24T23:59:56.765Z }"));
+  }
+
+  @Test
+  public void testScoringQueryIsNotSplit() {
+    mockFilterQueryFields();
+    SolrQuery query = toTest.propertyIsLike(Core.TITLE, "dog", false);
+
+    toTest.splitFilterQueries(query);
+
+    assertThat(query.getQuery(), is("title_txt:\"dog\""));
+    assertThat(query.getFilterQueries(), is(nullValue()));
+  }
+
+  @Test
+  public void testRelativeIsRoundedToMinutes() {
+    mockFilterQueryFields();
+    String minute = "\\S+:00\\.000Z";
+    SolrQuery query = toTest.relative(Core.CREATED, 300000L);
+
+    assertThat(
+        query.getQuery().matches(" created_date:\\[ " + minute + " TO " + minute + " \\] "),
+        is(true));
+  }
+
+  private void mockFilterQueryFields() {
+    when(mockResolver.getField(Core.TITLE, AttributeFormat.STRING, false, Collections.emptyMap()))
+        .thenReturn("title_txt");
+    when(mockResolver.getField(
+            Core.METACARD_TAGS, AttributeFormat.STRING, true, Collections.emptyMap()))
+        .thenReturn("metacard-tags_txt");
+    when(mockResolver.getField(Core.CREATED, AttributeFormat.DATE, false, Collections.emptyMap()))
+        .thenReturn("created_date");
+  }
+
   private Date getCannedTime() {
     return getCannedTime(1995, Calendar.NOVEMBER, 24, 23);
   }
@@ -13,6 +13,9 @@
  */
 package ddf.catalog.source.solr;
 
+import static ddf.catalog.Constants.CURSOR_MARK_KEY;
+import static ddf.catalog.Constants.INITIAL_CURSOR_MARK;
+import static ddf.catalog.Constants.NEXT_CURSOR_MARK_KEY;
 import static ddf.catalog.Constants.QUERY_HIGHLIGHT_KEY;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsInAnyOrder;
@@ -21,6 +24,8 @@
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -33,6 +38,7 @@
 import ddf.catalog.data.Result;
 import ddf.catalog.data.impl.AttributeDescriptorImpl;
 import ddf.catalog.data.impl.BasicTypes;
+import ddf.catalog.data.impl.MetacardImpl;
 import ddf.catalog.data.impl.MetacardTypeImpl;
 import ddf.catalog.filter.FilterAdapter;
 import ddf.catalog.filter.FilterBuilder;
@@ -69,10 +75,13 @@
 import org.apache.solr.client.solrj.response.UpdateResponse;
 import org.apache.solr.common.SolrDocument;
 import org.apache.solr.common.SolrDocumentList;
+import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.common.params.CursorMarkParams;
 import org.apache.solr.common.util.NamedList;
 import org.codice.solr.client.solrj.SolrClient;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 import org.opengis.filter.Filter;
@@ -294,6 +303,70 @@ public void testPartialResults() throws Exception {
     assertThat(response.getPropertyValue("partial-results"), is(Boolean.TRUE));
   }
 
+  @Test
+  public void testCursorQuery() throws Exception {
+    QueryRequest request = createQuery(builder.attribute("anyText").is().like().text("normal"));
+    request.getProperties().put(CURSOR_MARK_KEY, INITIAL_CURSOR_MARK);
+    when(solrFilterDelegateFactory.newInstance(
+            dynamicSchemaResolver, Collections.singletonMap(CURSOR_MARK_KEY, INITIAL_CURSOR_MARK)))
+        .thenReturn(mock(SolrFilterDelegate.class));
+
+    List<String> names = Collections.singletonList("title");
+    List<String> values = Collections.singletonList("normal");
+
+    Map<String, String> attributes = createAttributes(names, values);
+
+    when(queryResponse.getResults()).thenReturn(createSolrDocumentList(attributes));
+    when(queryResponse.getNextCursorMark()).thenReturn("nextCursorMark");
+    mockDynamicSchemsolverCalls(createAttributeDescriptor(names), attributes);
+
+    SourceResponse response = clientImpl.query(request);
+    assertThat(response.getResults().size(), is(1));
+    assertThat(response.getPropertyValue(NEXT_CURSOR_MARK_KEY), is("nextCursorMark"));
+    verify(solrQuery).setStart(0);
+    verify(solrQuery).addSort(Metacard.ID + SchemaFields.TEXT_SUFFIX, SolrQuery.ORDER.asc);
+    verify(solrQuery).set(CursorMarkParams.CURSOR_MARK_PARAM, INITIAL_CURSOR_MARK);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testAddSendsAllDocumentsInOneRequest() throws Exception {
+    doAnswer(
+            invocation -> {
+              Metacard metacard = invocation.getArgument(0);
+              SolrInputDocument document = invocation.getArgument(1);
+              document.addField(Metacard.ID, metacard.getId());
+              return null;
+            })
+        .when(dynamicSchemaResolver)
+        .addFields(any(), any());
+
+    List<Metacard> metacards = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      MetacardImpl metacard = new MetacardImpl();
+      metacard.setId(String.valueOf(i));
+      metacards.add(metacard);
+    }
+
+    List<SolrInputDocument> docs = clientImpl.add(metacards, false);
+
+    ArgumentCaptor<List<SolrInputDocument>> sent = ArgumentCaptor.forClass(List.class);
+    verify(client, times(1)).add(sent.capture());
+    assertThat(sent.getValue().size(), is(5));
+    assertThat(
+        docs.stream().map(doc -> doc.getFieldValue(Metacard.ID)).collect(Collectors.toList()),
+        is(Arrays.asList("0", "1", "2", "3", "4")));
+  }
+
+  @Test(expected = MetacardCreationException.class)
+  public void testAddFailsWhenConversionFails() throws Exception {
+    doThrow(new MetacardCreationException("cannot convert"))
+        .when(dynamicSchemaResolver)
+        .addFields(any(), any());
+
+    clientImpl.add(Collections.singletonList(new MetacardImpl()), false);
+  }
+
   @Test
   public void testHighlightOn() throws Exception {
     System.setProperty(ResultHighlighter.HIGHLIGHT_ENABLE_PROPERTY, "true");
@@ -28,6 +28,7 @@
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import ddf.catalog.Constants;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.Result;
 import ddf.catalog.data.impl.MetacardImpl;
@@ -50,7 +51,9 @@
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -118,6 +121,41 @@ public void testUpdatePartial() throws IngestException, UnsupportedQueryExceptio
     assertEquals(1, response.getUpdatedMetacards().size());
   }
 
+  /**
+   * Tests that the old metacards are read from Solr rather than from the copies the catalog
+   * framework looked up, which may have been changed by plugins.
+   */
+  @Test
+  public void testUpdateReadsStoredMetacards() throws IngestException, UnsupportedQueryException {
+
+    deleteAll(provider);
+
+    MockMetacard metacard = new MockMetacard(Library.getFlagstaffRecord());
+
+    String id = create(metacard, provider).getCreatedMetacards().get(0).getId();
+
+    String storedContentType = metacard.getContentTypeName();
+    MetacardImpl storedMetacard = new MetacardImpl(metacard);
+    storedMetacard.setContentTypeName("frameworkContentType");
+    HashMap<String, Metacard> storedMetacards = new HashMap<>();
+    storedMetacards.put(id, storedMetacard);
+
+    Map<String, Serializable> properties = new HashMap<>();
+    properties.put(Constants.ATTRIBUTE_UPDATE_MAP_KEY, storedMetacards);
+
+    metacard.setContentTypeName("newContentType");
+    List<Map.Entry<Serializable, Metacard>> updates =
+        Collections.singletonList(new AbstractMap.SimpleEntry<>(id, metacard));
+    UpdateRequest request = new UpdateRequestImpl(updates, Metacard.ID, properties);
+
+    UpdateResponse response = provider.update(request);
+
+    assertEquals(1, response.getUpdatedMetacards().size());
+    Update update = response.getUpdatedMetacards().get(0);
+    assertEquals("newContentType", update.getNewMetacard().getContentTypeName());
+    assertEquals(storedContentType, update.getOldMetacard().getContentTypeName());
+  }
+
   /** Tests what happens when the whole request is null. */
   @Test(expected = IngestException.class)
   public void testUpdateNull() throws IngestException, UnsupportedQueryException {
@@ -67,6 +67,7 @@
 import org.codice.ddf.spatial.ogc.csw.catalog.common.transformer.TransformerManager;
 import org.codice.ddf.spatial.ogc.csw.catalog.endpoint.event.CswSubscription;
 import org.codice.ddf.spatial.ogc.csw.catalog.endpoint.event.CswSubscriptionConfigFactory;
+import org.codice.ddf.spatial.ogc.csw.catalog.endpoint.event.SendEvent;
 import org.osgi.framework.BundleContext;
 import org.osgi.framework.FrameworkUtil;
 import org.osgi.framework.InvalidSyntaxException;
@@ -309,8 +310,9 @@ public Response createOrUpdateSubscription(
   @Produces({MediaType.TEXT_XML, MediaType.APPLICATION_XML})
   public Response createEvent(GetRecordsResponseType recordsResponse) throws CswException {
     validateResponseSchema(recordsResponse);
-    List<Metacard> metacards = getMetacards(recordsResponse);
-    eventProcessor.notifyCreated(metacards.get(0));
+    for (Metacard metacard : getMetacards(recordsResponse)) {
+      eventProcessor.notifyCreated(metacard);
+    }
     return Response.ok().build();
   }
 
@@ -333,8 +335,9 @@ public Response updateEvent(GetRecordsResponseType recordsResponse) throws CswEx
   @Produces({MediaType.TEXT_XML, MediaType.APPLICATION_XML})
   public Response deleteEvent(GetRecordsResponseType recordsResponse) throws CswException {
     validateResponseSchema(recordsResponse);
-    List<Metacard> metacards = getMetacards(recordsResponse);
-    eventProcessor.notifyDeleted(metacards.get(0));
+    for (Metacard metacard : getMetacards(recordsResponse)) {
+      eventProcessor.notifyDeleted(metacard);
+    }
     return Response.ok().build();
   }
 
@@ -508,6 +511,9 @@ private synchronized CswSubscription deleteCswSubscription(String subscriptionId
       } else {
         LOGGER.debug("No ServiceRegistration found for subscription: {}", logSanitizedId);
       }
+      if (subscription != null && subscription.getDeliveryMethod() instanceof SendEvent) {
+        ((SendEvent) subscription.getDeliveryMethod()).close();
+      }
 
       Configuration subscriptionConfig = getSubscriptionConfiguration(subscriptionId);
       try {
@@ -535,6 +541,27 @@ private synchronized CswSubscription deleteCswSubscription(String subscriptionId
     return subscription;
   }
 
+  /**
+   * Unregisters the subscriptions without deleting them. The events that were not sent yet are kept
+   * and sent once the persisted subscriptions are restored.
+   */
+  public synchronized void destroy() {
+    registeredSubscriptions.forEach(
+        (subscriptionId, sr) -> {
+          try {
+            CswSubscription subscription = getSubscription(subscriptionId);
+            sr.unregister();
+            if (subscription != null && subscription.getDeliveryMethod() instanceof SendEvent) {
+              ((SendEvent) subscription.getDeliveryMethod()).suspend();
+            }
+          } catch (IllegalStateException e) {
+            LOGGER.debug(
+                "Subscription {} was already unregistered", LogSanitizer.sanitize(subscriptionId));
+          }
+        });
+    registeredSubscriptions.clear();
+  }
+
   /**
    * Persist the subscription to the OSGi ConfigAdmin service. Persisted registeredSubscriptions can
    * then be restored if DDF is restarted after a DDF outage or DDF is shutdown. Pass in
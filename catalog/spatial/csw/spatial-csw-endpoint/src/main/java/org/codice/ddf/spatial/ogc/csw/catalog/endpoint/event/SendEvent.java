@@ -14,8 +14,10 @@
 package org.codice.ddf.spatial.ogc.csw.catalog.endpoint.event;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.Result;
+import ddf.catalog.data.impl.MetacardImpl;
 import ddf.catalog.data.impl.ResultImpl;
 import ddf.catalog.event.DeliveryMethod;
 import ddf.catalog.operation.Pingable;
@@ -26,15 +28,39 @@
 import ddf.catalog.plugin.StopProcessingException;
 import ddf.security.SecurityConstants;
 import ddf.security.Subject;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.net.InetAddress;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import javax.ws.rs.HttpMethod;
@@ -44,10 +70,12 @@
 import net.opengis.cat.csw.v_2_0_2.GetRecordsType;
 import net.opengis.cat.csw.v_2_0_2.QueryType;
 import net.opengis.cat.csw.v_2_0_2.ResultType;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.cxf.jaxrs.client.WebClient;
 import org.codice.ddf.cxf.client.ClientBuilder;
 import org.codice.ddf.cxf.client.ClientBuilderFactory;
 import org.codice.ddf.cxf.client.SecureCxfClientFactory;
+import org.codice.ddf.platform.util.StandardThreadFactoryBuilder;
 import org.codice.ddf.security.Security;
 import org.codice.ddf.spatial.ogc.csw.catalog.common.CswException;
 import org.codice.ddf.spatial.ogc.csw.catalog.common.CswRecordCollection;
@@ -64,13 +92,49 @@
 /**
  * SendEvent provides a implementation of {@link DeliveryMethod} for sending events to a CSW
  * subscription event endpoint
+ *
+ * <p>Events are queued and sent by a delivery thread, one record per message. Subscribers that read
+ * every record of a message can opt in to batches of created or deleted records by adding {@value
+ * #BATCH_EVENTS_PARAMETER}=true to the query of their ResponseHandler URL. When the subscription
+ * is suspended, the events that were not sent yet are written to an outbox file under {@code
+ * ddf.home/data/csw-events}, and are queued again when the subscription is restored. Events that
+ * were queued when the process was killed are lost.
  */
 public class SendEvent implements DeliveryMethod, Pingable {
 
+  /** ResponseHandler URL parameter with which a subscriber accepts several records per event. */
+  public static final String BATCH_EVENTS_PARAMETER = "batchEvents";
+
   private static final Logger LOGGER = LoggerFactory.getLogger(SendEvent.class);
 
   private static final int MAX_RETRY_COUNT = 16;
 
+  private static final int MAX_BATCH_SIZE = 100;
+
+  private static final long BATCH_WINDOW_MILLIS = 500L;
+
+  private static final int MAX_QUEUED_EVENTS = 10_000;
+
+  private static final long ENQUEUE_TIMEOUT_SECONDS = 30L;
+
+  // Only events of a single metacard are sent together, an update event holds two
+  private static final Set<String> BATCHED_OPERATIONS =
+      ImmutableSet.of(HttpMethod.POST, HttpMethod.DELETE);
+
+  private static final String METRICS_PREFIX = "ddf.catalog.csw.events.";
+
+  private static final String SUBSCRIBER_TAG = "subscriber";
+
+  private static final String SUBSCRIPTION_TAG = "subscription";
+
+  // Only the classes of the metacards written by MetacardImpl may be read back from an outbox
+  private static final ObjectInputFilter OUTBOX_FILTER =
+      ObjectInputFilter.Config.createFilter("ddf.catalog.data.**;java.**;!*");
+
+  private static ScheduledExecutorService deliveryExecutor;
+
+  private static int deliveryExecutorUsers;
+
   public static final double JITTER_PERCENT = 0.25;
 
   public static final long DEFAULT_PING_PERIOD = TimeUnit.MINUTES.toMillis(30L);
@@ -91,6 +155,8 @@ public class SendEvent implements DeliveryMethod, Pingable {
 
   private final QueryRequest query;
 
+  private final int maxBatchSize;
+
   private String ip;
 
   private volatile long lastPing = System.currentTimeMillis() - DEFAULT_PING_PERIOD;
@@ -99,6 +165,22 @@ public class SendEvent implements DeliveryMethod, Pingable {
 
   private final Random random = new Random();
 
+  private final BlockingQueue<Event> events = new LinkedBlockingQueue<>(MAX_QUEUED_EVENTS);
+
+  private final AtomicBoolean deliveryScheduled = new AtomicBoolean();
+
+  private final AtomicBoolean closed = new AtomicBoolean();
+
+  private final List<Meter> meters = new ArrayList<>();
+
+  private Timer deliveryLag;
+
+  private Counter droppedEvents;
+
+  private Path outbox;
+
+  ScheduledExecutorService executor;
+
   Security security;
 
   volatile Subject subject;
@@ -160,7 +242,11 @@ public SendEvent(
     } catch (UnknownHostException e) {
       LOGGER.debug("Unable to resolve callback address", e);
     }
+    this.maxBatchSize = getMaxBatchSize(callbackUrl);
+    registerMetrics();
     ping();
+    executor = acquireDeliveryExecutor();
+    restoreEvents();
   }
 
   public SendEvent(
@@ -206,7 +292,241 @@ public SendEvent(
     } catch (UnknownHostException e) {
       LOGGER.debug("Unable to resolve callback address", e);
     }
+    this.maxBatchSize = getMaxBatchSize(callbackUrl);
+    registerMetrics();
     ping();
+    executor = acquireDeliveryExecutor();
+    restoreEvents();
+  }
+
+  private static int getMaxBatchSize(URL callbackUrl) {
+    if (callbackUrl.getQuery() != null) {
+      for (String parameter : callbackUrl.getQuery().split("&")) {
+        if (parameter.equalsIgnoreCase(BATCH_EVENTS_PARAMETER + "=true")) {
+          return MAX_BATCH_SIZE;
+        }
+      }
+    }
+    return 1;
+  }
+
+  static synchronized int getDeliveryExecutorUsers() {
+    return deliveryExecutorUsers;
+  }
+
+  private static synchronized ScheduledExecutorService acquireDeliveryExecutor() {
+    if (deliveryExecutorUsers++ == 0) {
+      deliveryExecutor =
+          Executors.newScheduledThreadPool(
+              Runtime.getRuntime().availableProcessors(),
+              StandardThreadFactoryBuilder.newThreadFactory("cswEventDeliveryThread"));
+    }
+    return deliveryExecutor;
+  }
+
+  private static synchronized void releaseDeliveryExecutor() {
+    if (--deliveryExecutorUsers == 0) {
+      deliveryExecutor.shutdown();
+      deliveryExecutor = null;
+    }
+  }
+
+  private void registerMetrics() {
+    Tags tags =
+        Tags.of(
+            SUBSCRIBER_TAG,
+            callbackUrl.toString(),
+            SUBSCRIPTION_TAG,
+            StringUtils.defaultString(request.getRequestId()));
+    meters.add(
+        Gauge.builder(METRICS_PREFIX + "queued", events, BlockingQueue::size)
+            .tags(tags)
+            .register(Metrics.globalRegistry));
+    deliveryLag = Metrics.timer(METRICS_PREFIX + "lag", tags);
+    meters.add(deliveryLag);
+    droppedEvents = Metrics.counter(METRICS_PREFIX + "dropped", tags);
+    meters.add(droppedEvents);
+  }
+
+  /**
+   * Stops delivering the events of a subscription that was deleted. The events that were not sent
+   * yet are dropped.
+   */
+  public void close() {
+    if (stop()) {
+      events.clear();
+      deleteOutbox();
+    }
+  }
+
+  /**
+   * Stops delivering the events of a subscription that is shut down but not deleted, such as when
+   * the endpoint is stopped. The events that were not sent yet are written to the outbox of the
+   * subscription, and are delivered once the subscription is restored.
+   */
+  public void suspend() {
+    if (stop()) {
+      List<Event> pending = new ArrayList<>();
+      events.drainTo(pending);
+      saveEvents(pending);
+    }
+  }
+
+  private boolean stop() {
+    if (!closed.compareAndSet(false, true)) {
+      return false;
+    }
+    meters.forEach(Metrics.globalRegistry::remove);
+    releaseDeliveryExecutor();
+    return true;
+  }
+
+  private Path getOutbox() {
+    if (outbox == null && StringUtils.isNotEmpty(request.getRequestId())) {
+      outbox =
+          Paths.get(System.getProperty("ddf.home", ""), "data", "csw-events")
+              .resolve(
+                  UUID.nameUUIDFromBytes(request.getRequestId().getBytes(StandardCharsets.UTF_8))
+                      + ".events");
+    }
+    return outbox;
+  }
+
+  private void saveEvents(List<Event> pending) {
+    Path file = getOutbox();
+    if (file == null || pending.isEmpty()) {
+      return;
+    }
+    try {
+      Files.createDirectories(file.getParent());
+      try (ObjectOutputStream output =
+          new ObjectOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+        output.writeInt(pending.size());
+        for (Event event : pending) {
+          output.writeUTF(event.operation);
+          output.writeLong(event.queuedAt);
+          // Metacards of other implementations may not be serializable on their own
+          output.writeObject(
+              Arrays.stream(event.metacards).map(MetacardImpl::new).toArray(Metacard[]::new));
+        }
+      }
+      LOGGER.debug("Saved {} events to be sent to {}", pending.size(), callbackUrl);
+    } catch (IOException e) {
+      LOGGER.info(
+          "Unable to save the {} events that were not sent to {}", pending.size(), callbackUrl);
+      LOGGER.debug("Unable to save the events.", e);
+      deleteOutbox();
+    }
+  }
+
+  private void restoreEvents() {
+    Path file = getOutbox();
+    if (file == null || !Files.exists(file)) {
+      return;
+    }
+    int restored = 0;
+    try (ObjectInputStream input =
+        new ObjectInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+      input.setObjectInputFilter(OUTBOX_FILTER);
+      int count = input.readInt();
+      for (int i = 0; i < count; i++) {
+        String operation = input.readUTF();
+        long queuedAt = input.readLong();
+        Event event = new Event(operation, (Metacard[]) input.readObject(), queuedAt);
+        if (!events.offer(event)) {
+          droppedEvents.increment();
+        }
+        restored++;
+      }
+    } catch (IOException | ClassNotFoundException | ClassCastException e) {
+      LOGGER.info("Unable to restore the events that were not sent to {}", callbackUrl);
+      LOGGER.debug("Unable to restore the events.", e);
+    } finally {
+      deleteOutbox();
+    }
+
+    LOGGER.debug("Restored {} events to be sent to {}", restored, callbackUrl);
+    if (!events.isEmpty() && deliveryScheduled.compareAndSet(false, true)) {
+      executor.schedule(this::deliverEvents, BATCH_WINDOW_MILLIS, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  private void deleteOutbox() {
+    Path file = getOutbox();
+    if (file != null) {
+      try {
+        Files.deleteIfExists(file);
+      } catch (IOException e) {
+        LOGGER.debug("Unable to delete the outbox {}", file, e);
+      }
+    }
+  }
+
+  /**
+   * Queues an event to be sent after {@link #BATCH_WINDOW_MILLIS}, together with the events that
+   * follow it within that time if the subscriber accepts batches. Blocks while too many events are
+   * waiting to be sent to this subscriber, and drops the event if they are not sent in time.
+   */
+  private void queueEvent(String operation, Metacard... metacards) {
+    if (closed.get()) {
+      return;
+    }
+    try {
+      if (!events.offer(
+          new Event(operation, metacards), ENQUEUE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+        LOGGER.debug("Too many events waiting to be sent to {}, dropping event", callbackUrl);
+        droppedEvents.increment();
+        return;
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return;
+    }
+
+    if (deliveryScheduled.compareAndSet(false, true)) {
+      executor.schedule(this::deliverEvents, BATCH_WINDOW_MILLIS, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  void deliverEvents() {
+    if (closed.get()) {
+      return;
+    }
+    try {
+      List<Event> pending = new ArrayList<>();
+      events.drainTo(pending);
+
+      List<Event> batch = new ArrayList<>();
+      for (Event event : pending) {
+        if (!batch.isEmpty() && !canBatch(batch, event)) {
+          deliverBatch(batch);
+          batch.clear();
+        }
+        batch.add(event);
+      }
+      if (!batch.isEmpty()) {
+        deliverBatch(batch);
+      }
+    } finally {
+      deliveryScheduled.set(false);
+      // Deliver events queued while this delivery was running
+      if (!events.isEmpty() && deliveryScheduled.compareAndSet(false, true)) {
+        executor.execute(this::deliverEvents);
+      }
+    }
+  }
+
+  private boolean canBatch(List<Event> batch, Event event) {
+    return batch.size() < maxBatchSize
+        && BATCHED_OPERATIONS.contains(event.operation)
+        && event.operation.equals(batch.get(0).operation);
+  }
+
+  private void deliverBatch(List<Event> batch) {
+    sendEvent(
+        batch.get(0).operation,
+        batch.stream().flatMap(event -> Arrays.stream(event.metacards)).toArray(Metacard[]::new));
+    deliveryLag.record(System.currentTimeMillis() - batch.get(0).queuedAt, TimeUnit.MILLISECONDS);
   }
 
   private void sendEvent(String operation, Metacard... metacards) {
@@ -274,25 +594,25 @@ private boolean send(String operation, CswRecordCollection recordCollection) {
   public void created(Metacard newMetacard) {
 
     LOGGER.debug("Created {}", newMetacard);
-    sendEvent(HttpMethod.POST, newMetacard);
+    queueEvent(HttpMethod.POST, newMetacard);
   }
 
   @Override
   public void updatedHit(Metacard newMetacard, Metacard oldMetacard) {
     LOGGER.debug("Updated Hit {} {}", newMetacard, oldMetacard);
-    sendEvent(HttpMethod.PUT, newMetacard, oldMetacard);
+    queueEvent(HttpMethod.PUT, newMetacard, oldMetacard);
   }
 
   @Override
   public void updatedMiss(Metacard newMetacard, Metacard oldMetacard) {
     LOGGER.debug("Updated Miss {} {}", newMetacard, oldMetacard);
-    sendEvent(HttpMethod.PUT, newMetacard, oldMetacard);
+    queueEvent(HttpMethod.PUT, newMetacard, oldMetacard);
   }
 
   @Override
   public void deleted(Metacard oldMetacard) {
     LOGGER.debug("Deleted {}", oldMetacard);
-    sendEvent(HttpMethod.DELETE, oldMetacard);
+    queueEvent(HttpMethod.DELETE, oldMetacard);
   }
 
   private long introduceJitter(long value, double percent) {
@@ -333,4 +653,23 @@ public long getLastPing() {
   public int getRetryCount() {
     return retryCount.get();
   }
+
+  private static class Event {
+
+    private final String operation;
+
+    private final Metacard[] metacards;
+
+    private final long queuedAt;
+
+    Event(String operation, Metacard[] metacards) {
+      this(operation, metacards, System.currentTimeMillis());
+    }
+
+    Event(String operation, Metacard[] metacards, long queuedAt) {
+      this.operation = operation;
+      this.metacards = metacards;
+      this.queuedAt = queuedAt;
+    }
+  }
 }
@@ -22,6 +22,7 @@
 import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -251,6 +252,15 @@ public void testDeleteRecordsSubscription() throws Exception {
     verify(config).delete();
   }
 
+  @Test
+  public void testDestroyKeepsPersistedSubscriptions() throws Exception {
+    cswSubscriptionEndpoint.addOrUpdateSubscription(defaultRequest.get202RecordsType(), true);
+    cswSubscriptionEndpoint.destroy();
+    verify(serviceRegistration).unregister();
+    verify(config, never()).delete();
+    assertThat(cswSubscriptionEndpoint.hasSubscription(subscriptionId), is(false));
+  }
+
   @Test
   public void testDeleteRecordsSubscriptionNoSubscription() throws Exception {
     String requestId = "requestId";
@@ -416,6 +426,18 @@ public void testCreateEvent() throws Exception {
     verify(eventProcessor).notifyCreated(any(Metacard.class));
   }
 
+  @Test
+  public void testCreateEventWithSeveralRecords() throws Exception {
+    cswSubscriptionEndpoint.createEvent(getRecordsResponse(3));
+    verify(eventProcessor, times(3)).notifyCreated(any(Metacard.class));
+  }
+
+  @Test
+  public void testDeleteEventWithSeveralRecords() throws Exception {
+    cswSubscriptionEndpoint.deleteEvent(getRecordsResponse(3));
+    verify(eventProcessor, times(3)).notifyDeleted(any(Metacard.class));
+  }
+
   @Test
   public void testUpdateEvent() throws Exception {
 
@@ -14,29 +14,43 @@
 package org.codice.ddf.spatial.ogc.csw.catalog.endpoint.event;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.emptyArray;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import ddf.catalog.data.BinaryContent;
 import ddf.catalog.data.Metacard;
+import ddf.catalog.data.Result;
+import ddf.catalog.data.impl.MetacardImpl;
 import ddf.catalog.operation.QueryRequest;
 import ddf.catalog.operation.QueryResponse;
 import ddf.catalog.operation.SourceResponse;
 import ddf.catalog.plugin.AccessPlugin;
 import ddf.catalog.transform.QueryResponseTransformer;
 import ddf.security.Subject;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.ws.rs.HttpMethod;
 import javax.ws.rs.core.MultivaluedHashMap;
 import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.core.Response;
@@ -51,15 +65,21 @@
 import org.codice.ddf.security.Security;
 import org.codice.ddf.spatial.ogc.csw.catalog.common.CswConstants;
 import org.codice.ddf.spatial.ogc.csw.catalog.common.CswException;
+import org.codice.ddf.spatial.ogc.csw.catalog.common.CswRecordCollection;
 import org.codice.ddf.spatial.ogc.csw.catalog.common.CswSubscribe;
 import org.codice.ddf.spatial.ogc.csw.catalog.common.transformer.TransformerManager;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentCaptor;
 import org.mockito.ArgumentMatchers;
 import org.osgi.framework.InvalidSyntaxException;
 
 public class SendEventTest {
 
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
   private Security mockSecurity;
 
   private URL callbackURI;
@@ -136,6 +156,13 @@ public void setUp() throws Exception {
 
     sendEvent = new SendEventExtension(request, query, mockCxfClientFactory);
     sendEvent.setSubject(subject);
+    sendEvent.executor = mock(ScheduledExecutorService.class);
+    when(sendEvent.executor.schedule(any(Runnable.class), anyLong(), any(TimeUnit.class)))
+        .thenAnswer(
+            invocation -> {
+              ((Runnable) invocation.getArgument(0)).run();
+              return null;
+            });
   }
 
   public void verifyResults() throws Exception {
@@ -166,6 +193,117 @@ public void testDeleted() throws Exception {
     verifyResults();
   }
 
+  @Test
+  public void testEventsAreSentOneRecordPerMessageByDefault() throws Exception {
+    ScheduledExecutorService executor = mock(ScheduledExecutorService.class);
+    sendEvent.executor = executor;
+    Metacard otherMetacard = mock(Metacard.class);
+
+    sendEvent.created(metacard);
+    sendEvent.created(otherMetacard);
+    sendEvent.deleted(metacard);
+    sendEvent.deleted(otherMetacard);
+
+    verify(executor, times(1)).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+    sendEvent.deliverEvents();
+
+    ArgumentCaptor<CswRecordCollection> records =
+        ArgumentCaptor.forClass(CswRecordCollection.class);
+    verify(webclient, times(2)).invoke(eq(HttpMethod.POST), records.capture());
+    verify(webclient, times(2)).invoke(eq(HttpMethod.DELETE), any());
+    for (CswRecordCollection recordCollection : records.getAllValues()) {
+      assertThat(recordCollection.getSourceResponse().getResults().size(), is(1));
+    }
+  }
+
+  @Test
+  public void testEventsAreBatchedWhenSubscriberOptsIn() throws Exception {
+    request
+        .getResponseHandler()
+        .set(0, callbackURI + "?" + SendEvent.BATCH_EVENTS_PARAMETER + "=true");
+    SendEventExtension batchingSendEvent =
+        new SendEventExtension(request, query, mockCxfClientFactory);
+    batchingSendEvent.setSubject(subject);
+    ScheduledExecutorService executor = mock(ScheduledExecutorService.class);
+    batchingSendEvent.executor = executor;
+    Metacard otherMetacard = mock(Metacard.class);
+
+    batchingSendEvent.created(metacard);
+    batchingSendEvent.created(otherMetacard);
+    batchingSendEvent.updatedHit(metacard, metacard);
+    batchingSendEvent.updatedHit(otherMetacard, otherMetacard);
+    batchingSendEvent.deleted(metacard);
+
+    verify(executor, times(1)).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+    batchingSendEvent.deliverEvents();
+
+    ArgumentCaptor<CswRecordCollection> records =
+        ArgumentCaptor.forClass(CswRecordCollection.class);
+    verify(webclient).invoke(eq(HttpMethod.POST), records.capture());
+    verify(webclient, times(2)).invoke(eq(HttpMethod.PUT), any());
+    verify(webclient).invoke(eq(HttpMethod.DELETE), any());
+    assertThat(records.getValue().getSourceResponse().getResults().size(), is(2));
+    batchingSendEvent.close();
+  }
+
+  @Test
+  public void testRejectedSubscriptionDoesNotHoldDeliveryExecutor() throws Exception {
+    int executorUsers = SendEvent.getDeliveryExecutorUsers();
+    request.getResponseHandler().set(0, "http://localhost:12345/services/csw/subscription/event");
+
+    try {
+      new SendEventExtension(request, query, mockCxfClientFactory);
+      fail("Subscriptions with an http ResponseHandler should be rejected");
+    } catch (CswException e) {
+      assertThat(SendEvent.getDeliveryExecutorUsers(), is(executorUsers));
+    }
+  }
+
+  @Test
+  public void testCloseRemovesMetrics() throws Exception {
+    request.setRequestId("urn:uuid:closed");
+    SendEvent closedSendEvent = new SendEventExtension(request, query, mockCxfClientFactory);
+    assertThat(findQueuedGauge("urn:uuid:closed"), is(notNullValue()));
+
+    closedSendEvent.close();
+
+    assertThat(findQueuedGauge("urn:uuid:closed"), is(nullValue()));
+  }
+
+  @Test
+  public void testUnsentEventsAreRestored() throws Exception {
+    System.setProperty("ddf.home", temporaryFolder.getRoot().getAbsolutePath());
+    request.setRequestId("urn:uuid:restored");
+    SendEventExtension suspendedSendEvent =
+        new SendEventExtension(request, query, mockCxfClientFactory);
+    suspendedSendEvent.executor = mock(ScheduledExecutorService.class);
+    MetacardImpl unsentMetacard = new MetacardImpl();
+    unsentMetacard.setId("unsent");
+    suspendedSendEvent.created(unsentMetacard);
+
+    suspendedSendEvent.suspend();
+    verify(webclient, never()).invoke(eq(HttpMethod.POST), any());
+
+    new SendEventExtension(request, query, mockCxfClientFactory);
+
+    ArgumentCaptor<CswRecordCollection> records =
+        ArgumentCaptor.forClass(CswRecordCollection.class);
+    verify(webclient, timeout(5000)).invoke(eq(HttpMethod.POST), records.capture());
+    List<Result> results = records.getValue().getSourceResponse().getResults();
+    assertThat(results.size(), is(1));
+    assertThat(results.get(0).getMetacard().getId(), is("unsent"));
+    assertThat(
+        temporaryFolder.getRoot().toPath().resolve("data").resolve("csw-events").toFile().list(),
+        is(emptyArray()));
+  }
+
+  private Gauge findQueuedGauge(String subscriptionId) {
+    return Metrics.globalRegistry
+        .find("ddf.catalog.csw.events.queued")
+        .tag("subscription", subscriptionId)
+        .gauge();
+  }
+
   @Test
   public void testIsAvailableNoExpiration() throws Exception {
     long lastPing = sendEvent.getLastPing();
@@ -23,6 +23,7 @@
 import com.thoughtworks.xstream.io.xml.XppReader;
 import ddf.catalog.data.types.Core;
 import ddf.catalog.resource.impl.ResourceImpl;
+import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -61,6 +62,9 @@ public class GetRecordsMessageBodyReader implements MessageBodyReader<CswRecordC
 
   public static final String BYTES_SKIPPED = "bytes-skipped";
 
+  // Bytes kept from the start of a response to return an ExceptionReport sent in its place
+  private static final int EXCEPTION_REPORT_LIMIT = 64 * 1024;
+
   private XStream xstream;
 
   private DataHolder argumentHolder;
@@ -129,20 +133,24 @@ public CswRecordCollection readFrom(
       return cswRecords;
     }
 
-    // Save original input stream for any exception message that might need to be
-    // created
-    String originalInputStream = IOUtils.toString(inStream, "UTF-8");
-    LOGGER.debug(
-        "Converting to CswRecordCollection: \n {}", LogSanitizer.sanitize(originalInputStream));
-
-    // Re-create the input stream (since it has already been read for potential
-    // exception message creation)
-    inStream = new ByteArrayInputStream(originalInputStream.getBytes("UTF-8"));
+    // Parse the records as they are read instead of reading the whole response first. Only the
+    // start of the response is kept, for any exception message that might need to be created.
+    InputStream recordsStream;
+    if (LOGGER.isDebugEnabled()) {
+      String originalInputStream = IOUtils.toString(inStream, StandardCharsets.UTF_8);
+      LOGGER.debug(
+          "Converting to CswRecordCollection: \n {}", LogSanitizer.sanitize(originalInputStream));
+      recordsStream =
+          new ByteArrayInputStream(originalInputStream.getBytes(StandardCharsets.UTF_8));
+    } else {
+      recordsStream = new BufferedInputStream(inStream);
+    }
+    recordsStream.mark(EXCEPTION_REPORT_LIMIT);
 
     try {
       HierarchicalStreamReader reader =
           new XppReader(
-              new InputStreamReader(inStream, StandardCharsets.UTF_8),
+              new InputStreamReader(recordsStream, StandardCharsets.UTF_8),
               XmlPullParserFactory.newInstance().newPullParser());
       cswRecords = (CswRecordCollection) xstream.unmarshal(reader, null, argumentHolder);
     } catch (XmlPullParserException e) {
@@ -157,18 +165,34 @@ public CswRecordCollection readFrom(
       // (with the ExceptionReport) and rethrowing it as a WebApplicatioNException,
       // which CXF will wrap as a ClientException that the CswSource catches, converts
       // to a CswException, and logs.
-      ByteArrayInputStream bis =
-          new ByteArrayInputStream(originalInputStream.getBytes(StandardCharsets.UTF_8));
+      ByteArrayInputStream bis = new ByteArrayInputStream(readExceptionReport(recordsStream));
       ResponseBuilder responseBuilder = Response.ok(bis);
       responseBuilder.type("text/xml");
       Response response = responseBuilder.build();
       throw new WebApplicationException(e, response);
     } finally {
-      IOUtils.closeQuietly(inStream);
+      IOUtils.closeQuietly(recordsStream);
     }
     return cswRecords;
   }
 
+  /**
+   * Re-reads the response from its start. An ExceptionReport fails to unmarshal at its root
+   * element, so it is always within the part of the response that was kept.
+   *
+   * @param recordsStream the response stream, marked at its start
+   * @return the response, or nothing if its start is no longer available
+   */
+  private byte[] readExceptionReport(InputStream recordsStream) {
+    try {
+      recordsStream.reset();
+      return IOUtils.toByteArray(recordsStream);
+    } catch (IOException e) {
+      LOGGER.debug("Unable to read the start of the CSW Response again.", e);
+      return new byte[0];
+    }
+  }
+
   /**
    * Check Content-Disposition header for filename and return it
    *
@@ -19,6 +19,7 @@
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
@@ -26,6 +27,7 @@
 import static org.mockito.Mockito.when;
 
 import com.google.common.net.HttpHeaders;
+import com.thoughtworks.xstream.converters.ConversionException;
 import com.thoughtworks.xstream.converters.Converter;
 import com.thoughtworks.xstream.converters.UnmarshallingContext;
 import com.thoughtworks.xstream.io.HierarchicalStreamReader;
@@ -38,13 +40,16 @@
 import ddf.security.permission.impl.PermissionsImpl;
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.MultivaluedHashMap;
 import javax.ws.rs.core.MultivaluedMap;
+import org.apache.commons.io.IOUtils;
 import org.codice.ddf.spatial.ogc.csw.catalog.common.CswAxisOrder;
 import org.codice.ddf.spatial.ogc.csw.catalog.common.CswConstants;
 import org.codice.ddf.spatial.ogc.csw.catalog.common.CswRecordCollection;
@@ -175,6 +180,30 @@ public void testGetMultipleMetacardsWithForeignText() throws Exception {
     assertThat(metacards, contains(metacard));
   }
 
+  @Test
+  public void testExceptionReportIsReturned() throws Exception {
+    when(mockProvider.unmarshal(any(), any()))
+        .thenThrow(new ConversionException("Unable to unmarshal ExceptionReport"));
+    CswSourceConfiguration config = new CswSourceConfiguration(encryptionService, permissions);
+    config.setMetacardCswMappings(DefaultCswRecordMap.getCswToMetacardAttributeNames());
+    config.setOutputSchema(CswConstants.CSW_OUTPUT_SCHEMA);
+    GetRecordsMessageBodyReader reader = new GetRecordsMessageBodyReader(mockProvider, config);
+
+    String exceptionReport =
+        "<ows:ExceptionReport xmlns:ows=\"http://www.opengis.net/ows\" version=\"1.2.0\">"
+            + "<ows:Exception exceptionCode=\"NoApplicableCode\"/></ows:ExceptionReport>";
+    InputStream is = new ByteArrayInputStream(exceptionReport.getBytes(StandardCharsets.UTF_8));
+    MultivaluedMap<String, String> httpHeaders = new MultivaluedHashMap<>();
+
+    try {
+      reader.readFrom(CswRecordCollection.class, null, null, null, httpHeaders, is);
+      fail("Expected a WebApplicationException");
+    } catch (WebApplicationException e) {
+      InputStream entity = (InputStream) e.getResponse().getEntity();
+      assertThat(IOUtils.toString(entity, StandardCharsets.UTF_8), is(exceptionReport));
+    }
+  }
+
   @Test
   public void testReadProductData() throws Exception {
     CswSourceConfiguration config = new CswSourceConfiguration(encryptionService, permissions);
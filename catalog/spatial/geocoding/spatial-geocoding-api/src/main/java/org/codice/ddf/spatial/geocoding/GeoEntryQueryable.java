@@ -14,9 +14,14 @@
 package org.codice.ddf.spatial.geocoding;
 
 import java.text.ParseException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import org.codice.ddf.spatial.geocoding.context.NearbyLocation;
+import org.slf4j.LoggerFactory;
 
 /**
  * A {@code GeoEntryQueryable} provides methods for querying a resource containing GeoNames data.
@@ -88,4 +93,29 @@ List<NearbyLocation> getNearestCities(String location, int radiusInKm, int maxRe
    */
   Optional<String> getCountryCode(String wktLocation, int radius)
       throws GeoEntryQueryException, ParseException;
+
+  /**
+   * Retrieves the country codes of several areas at once, as if calling {@link
+   * #getCountryCode(String, int)} for each of them. Locations that cannot be parsed or looked up
+   * are skipped, so they do not prevent the country codes of the other locations from being found.
+   *
+   * @param wktLocations WKT locations
+   * @param radius the radius in kilometers to search from each of the given {@code wktLocations}
+   * @return the country code in ISO 3166-1 alpha-3 format of each of the {@code wktLocations} that
+   *     has one, keyed by location
+   */
+  default Map<String, String> getCountryCodes(Collection<String> wktLocations, int radius)
+      throws GeoEntryQueryException, ParseException {
+    Map<String, String> countryCodes = new HashMap<>();
+    for (String wktLocation : new HashSet<>(wktLocations)) {
+      try {
+        getCountryCode(wktLocation, radius)
+            .ifPresent(countryCode -> countryCodes.put(wktLocation, countryCode));
+      } catch (GeoEntryQueryException | ParseException e) {
+        LoggerFactory.getLogger(GeoEntryQueryable.class)
+            .debug("Unable to get the country code of {}, skipping it", wktLocation, e);
+      }
+    }
+    return countryCodes;
+  }
 }
@@ -14,7 +14,10 @@
 package org.codice.ddf.spatial.geocoder;
 
 import java.text.ParseException;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import javax.annotation.Nullable;
 import org.codice.ddf.log.sanitizer.LogSanitizer;
@@ -84,4 +87,16 @@ public Optional<String> getCountryCode(String locationWKT, int radius) {
     }
     return Optional.empty();
   }
+
+  @Override
+  public Map<String, String> getCountryCodes(Collection<String> locationWKTs, int radius) {
+    try {
+      return geoEntryQueryable.getCountryCodes(locationWKTs, radius);
+    } catch (GeoEntryQueryException e) {
+      LOGGER.debug("Error querying GeoNames", e);
+    } catch (ParseException e) {
+      LOGGER.debug("Error parsing WKT", e);
+    }
+    return Collections.emptyMap();
+  }
 }
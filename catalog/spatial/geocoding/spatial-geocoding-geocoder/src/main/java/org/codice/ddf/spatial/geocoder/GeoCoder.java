@@ -13,6 +13,10 @@
  */
 package org.codice.ddf.spatial.geocoder;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
 import java.util.Optional;
 import org.codice.ddf.spatial.geocoding.GeoEntryQueryException;
 import org.codice.ddf.spatial.geocoding.context.NearbyLocation;
@@ -44,4 +48,23 @@ public interface GeoCoder {
    *     location in the ocean)
    */
   Optional<String> getCountryCode(String locationWKT, int radius);
+
+  /**
+   * Retrieves the country codes for several locations at once, as if calling {@link
+   * #getCountryCode(String, int)} for each of them.
+   *
+   * @param locationWKTs WKT locations for which to get the country codes of
+   * @param radius Radius in kilometers to search from the center of each of the {@code
+   *     locationWKTs}
+   * @return the country code in ISO 3166-1 alpha-3 format of each of the {@code locationWKTs} that
+   *     has one, keyed by location
+   */
+  default Map<String, String> getCountryCodes(Collection<String> locationWKTs, int radius) {
+    Map<String, String> countryCodes = new HashMap<>();
+    for (String locationWKT : new HashSet<>(locationWKTs)) {
+      getCountryCode(locationWKT, radius)
+          .ifPresent(countryCode -> countryCodes.put(locationWKT, countryCode));
+    }
+    return countryCodes;
+  }
 }
@@ -26,6 +26,7 @@
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import org.codice.ddf.spatial.geocoding.GeoEntry;
 import org.codice.ddf.spatial.geocoding.GeoEntryQueryException;
@@ -179,4 +180,43 @@ public void testGetCountryCodeParseException() throws ParseException, GeoEntryQu
     countryCode = gazetteerGeoCoder.getCountryCode(TEST_POINT, 50);
     assertThat(countryCode.isPresent(), is(false));
   }
+
+  @Test
+  public void testGetCountryCodes() throws ParseException, GeoEntryQueryException {
+    List<String> locations = Collections.singletonList(TEST_POINT);
+    when(geoEntryQueryable.getCountryCodes(locations, 50))
+        .thenReturn(Collections.singletonMap(TEST_POINT, "USA"));
+
+    Map<String, String> countryCodes = gazetteerGeoCoder.getCountryCodes(locations, 50);
+    assertThat(countryCodes.get(TEST_POINT), is("USA"));
+  }
+
+  @Test
+  public void testGetCountryCodesGeoEntryQueryException()
+      throws ParseException, GeoEntryQueryException {
+    List<String> locations = Collections.singletonList(TEST_POINT);
+    when(geoEntryQueryable.getCountryCodes(locations, 50))
+        .thenThrow(new GeoEntryQueryException(""));
+
+    Map<String, String> countryCodes = gazetteerGeoCoder.getCountryCodes(locations, 50);
+    assertThat(countryCodes.isEmpty(), is(true));
+  }
+
+  @Test
+  public void testGetCountryCodesSkipsInvalidLocations()
+      throws ParseException, GeoEntryQueryException {
+    String otherPoint = "POINT (3.0 4.0)";
+    String invalidWkt = "POINT (1.0";
+    List<String> locations = Arrays.asList(TEST_POINT, invalidWkt, otherPoint);
+    when(geoEntryQueryable.getCountryCodes(locations, 50)).thenCallRealMethod();
+    when(geoEntryQueryable.getCountryCode(TEST_POINT, 50)).thenReturn(Optional.of("USA"));
+    when(geoEntryQueryable.getCountryCode(otherPoint, 50)).thenReturn(Optional.of("CAN"));
+    when(geoEntryQueryable.getCountryCode(invalidWkt, 50))
+        .thenThrow(new GeoEntryQueryException("Could not parse wkt"));
+
+    Map<String, String> countryCodes = gazetteerGeoCoder.getCountryCodes(locations, 50);
+    assertThat(countryCodes.size(), is(2));
+    assertThat(countryCodes.get(TEST_POINT), is("USA"));
+    assertThat(countryCodes.get(otherPoint), is("CAN"));
+  }
 }
@@ -0,0 +1,421 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.spatial.geocoding.query;
+
+import static org.codice.ddf.spatial.geocoding.GeoCodingConstants.GAZETTEER_METACARD_TAG;
+
+import ddf.catalog.CatalogFramework;
+import ddf.catalog.data.Attribute;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.Result;
+import ddf.catalog.data.types.Core;
+import ddf.catalog.data.types.Location;
+import ddf.catalog.federation.FederationException;
+import ddf.catalog.filter.FilterBuilder;
+import ddf.catalog.operation.CreateResponse;
+import ddf.catalog.operation.DeleteResponse;
+import ddf.catalog.operation.Query;
+import ddf.catalog.operation.UpdateResponse;
+import ddf.catalog.operation.impl.QueryImpl;
+import ddf.catalog.operation.impl.QueryRequestImpl;
+import ddf.catalog.plugin.PostIngestPlugin;
+import ddf.catalog.source.SourceUnavailableException;
+import ddf.catalog.source.UnsupportedQueryException;
+import ddf.security.service.SecurityServiceException;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.codice.ddf.security.Security;
+import org.codice.ddf.spatial.geocoding.GeoCodingConstants;
+import org.codice.ddf.spatial.geocoding.GeoEntryAttributes;
+import org.codice.ddf.spatial.geocoding.context.NearbyLocation;
+import org.codice.ddf.spatial.geocoding.context.impl.NearbyLocationImpl;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.index.strtree.STRtree;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKTReader;
+import org.locationtech.spatial4j.context.SpatialContext;
+import org.locationtech.spatial4j.distance.DistanceUtils;
+import org.locationtech.spatial4j.shape.impl.PointImpl;
+import org.opengis.filter.Filter;
+import org.opengis.filter.sort.SortBy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Memory-resident spatial index of the gazetteer metacards of the catalog, i.e., the country shapes
+ * and the GeoNames entries, used to look up country codes and nearby cities without querying the
+ * catalog.
+ *
+ * <p>When enabled, the index is loaded in the background and reloaded shortly after gazetteer
+ * metacards are created, updated or deleted, for example when the GeoNames index is updated.
+ * Lookups must go to the catalog while {@link #isLoaded()} is false.
+ */
+public class GazetteerIndex implements PostIngestPlugin {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(GazetteerIndex.class);
+
+  private static final SpatialContext SPATIAL_CONTEXT = SpatialContext.GEO;
+
+  private static final ThreadLocal<WKTReader> WKT_READER_THREAD_LOCAL =
+      ThreadLocal.withInitial(WKTReader::new);
+
+  private static final int PAGE_SIZE = 1000;
+
+  private static final long TIMEOUT = TimeUnit.SECONDS.toMillis(90);
+
+  private static final long RELOAD_DELAY_SECONDS = 30;
+
+  private final CatalogFramework catalogFramework;
+
+  private final Security security;
+
+  private final ScheduledExecutorService executor;
+
+  private final Filter gazetteerFilter;
+
+  private final AtomicBoolean loadPending = new AtomicBoolean(false);
+
+  private volatile boolean enabled = false;
+
+  private volatile Snapshot snapshot;
+
+  public GazetteerIndex(
+      CatalogFramework catalogFramework,
+      FilterBuilder filterBuilder,
+      Security security,
+      ScheduledExecutorService executor) {
+    this.catalogFramework = catalogFramework;
+    this.security = security;
+    this.executor = executor;
+    this.gazetteerFilter =
+        filterBuilder.attribute(Core.METACARD_TAGS).is().like().text(GAZETTEER_METACARD_TAG);
+  }
+
+  public void destroy() {
+    executor.shutdownNow();
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+    if (enabled) {
+      scheduleLoad(0);
+    } else {
+      snapshot = null;
+    }
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public boolean isLoaded() {
+    return snapshot != null;
+  }
+
+  /**
+   * Retrieves the country code of the gazetteer entry closest to {@code center}, giving precedence
+   * to the country shapes that contain it.
+   *
+   * @param center the point to search from
+   * @param radiusInKm the radius in kilometers to search from {@code center}
+   * @return the country code in ISO 3166-1 alpha-3 format, or empty if no entry is in range or the
+   *     index is not loaded
+   */
+  public Optional<String> getCountryCode(Point center, int radiusInKm) {
+    Snapshot current = snapshot;
+    if (current == null) {
+      return Optional.empty();
+    }
+
+    double radiusInDegrees = radiusInKm * DistanceUtils.KM_TO_DEG;
+    GazetteerEntry closest = null;
+    double closestDistance = Double.MAX_VALUE;
+
+    for (Object item : current.countryCodes.query(searchEnvelope(center, radiusInDegrees))) {
+      GazetteerEntry entry = (GazetteerEntry) item;
+      double distance = entry.distanceInDegrees(center);
+      if (distance <= radiusInDegrees && distance < closestDistance) {
+        closest = entry;
+        closestDistance = distance;
+      }
+    }
+
+    return Optional.ofNullable(closest).map(entry -> entry.countryCode);
+  }
+
+  /**
+   * Retrieves the cities within {@code radiusInKm} kilometers of {@code center}, sorted by
+   * population in descending order.
+   *
+   * @param center the point to search from
+   * @param radiusInKm the search radius, in kilometers
+   * @param maxResults the maximum number of results to return
+   * @return the position of {@code center} relative to each of the nearest cities, or an empty
+   *     {@code List} if none is in range or the index is not loaded
+   */
+  @SuppressWarnings("unchecked")
+  public List<NearbyLocation> getNearestCities(Point center, int radiusInKm, int maxResults) {
+    Snapshot current = snapshot;
+    if (current == null) {
+      return Collections.emptyList();
+    }
+
+    double radiusInDegrees = radiusInKm * DistanceUtils.KM_TO_DEG;
+    PointImpl centerPoint = new PointImpl(center.getY(), center.getX(), SPATIAL_CONTEXT);
+
+    List<GazetteerEntry> candidates =
+        current.cities.query(searchEnvelope(center, radiusInDegrees));
+    return candidates.stream()
+        .filter(city -> city.distanceInDegrees(center) <= radiusInDegrees)
+        .sorted(Comparator.comparingLong((GazetteerEntry city) -> city.population).reversed())
+        .limit(maxResults)
+        .map(city -> toNearbyLocation(centerPoint, city))
+        .collect(Collectors.toList());
+  }
+
+  private NearbyLocation toNearbyLocation(PointImpl centerPoint, GazetteerEntry city) {
+    // same axis order as the catalog query so both return the same distances and directions
+    Point cityLocation = city.geometry.getCentroid();
+    return new NearbyLocationImpl(
+        centerPoint,
+        new PointImpl(cityLocation.getY(), cityLocation.getX(), SPATIAL_CONTEXT),
+        city.name);
+  }
+
+  @Override
+  public CreateResponse process(CreateResponse input) {
+    reloadIfChanged(input.getCreatedMetacards());
+    return input;
+  }
+
+  @Override
+  public UpdateResponse process(UpdateResponse input) {
+    if (CollectionUtils.isNotEmpty(input.getUpdatedMetacards())) {
+      reloadIfChanged(
+          input.getUpdatedMetacards().stream()
+              .flatMap(update -> Stream.of(update.getNewMetacard(), update.getOldMetacard()))
+              .collect(Collectors.toList()));
+    }
+    return input;
+  }
+
+  @Override
+  public DeleteResponse process(DeleteResponse input) {
+    reloadIfChanged(input.getDeletedMetacards());
+    return input;
+  }
+
+  private void reloadIfChanged(Collection<Metacard> metacards) {
+    if (enabled
+        && CollectionUtils.isNotEmpty(metacards)
+        && metacards.stream()
+            .filter(Objects::nonNull)
+            .anyMatch(metacard -> metacard.getTags().contains(GAZETTEER_METACARD_TAG))) {
+      LOGGER.trace("Gazetteer metacards changed, reloading the gazetteer index");
+      scheduleLoad(RELOAD_DELAY_SECONDS);
+    }
+  }
+
+  /**
+   * Schedules a load of the index unless one is already scheduled, so that a burst of gazetteer
+   * changes only causes one reload.
+   */
+  private void scheduleLoad(long delayInSeconds) {
+    if (loadPending.compareAndSet(false, true)) {
+      try {
+        executor.schedule(this::load, delayInSeconds, TimeUnit.SECONDS);
+      } catch (RejectedExecutionException e) {
+        loadPending.set(false);
+        LOGGER.debug("Unable to schedule the load of the gazetteer index.", e);
+      }
+    }
+  }
+
+  private void load() {
+    loadPending.set(false);
+    if (!enabled) {
+      return;
+    }
+
+    security.runAsAdmin(
+        () -> {
+          try {
+            Snapshot loaded = security.runWithSubjectOrElevate(this::loadSnapshot);
+            if (enabled) {
+              snapshot = loaded;
+              LOGGER.debug("Loaded {} gazetteer entries into the gazetteer index", loaded.size);
+            }
+          } catch (SecurityServiceException | InvocationTargetException e) {
+            LOGGER.debug(
+                "Unable to load the gazetteer index. Gazetteer lookups will query the catalog.", e);
+          }
+          return null;
+        });
+  }
+
+  private Snapshot loadSnapshot()
+      throws UnsupportedQueryException, SourceUnavailableException, FederationException {
+    STRtree countryCodes = new STRtree();
+    STRtree cities = new STRtree();
+    int size = 0;
+
+    int startIndex = 1;
+    List<Result> results;
+    do {
+      Query query =
+          new QueryImpl(
+              gazetteerFilter, startIndex, PAGE_SIZE, SortBy.NATURAL_ORDER, false, TIMEOUT);
+      results = catalogFramework.query(new QueryRequestImpl(query)).getResults();
+
+      for (Result result : results) {
+        GazetteerEntry entry = toGazetteerEntry(result.getMetacard());
+        if (entry == null) {
+          continue;
+        }
+
+        Envelope envelope = entry.geometry.getEnvelopeInternal();
+        if (entry.countryCode != null) {
+          countryCodes.insert(envelope, entry);
+        }
+        if (entry.isCity()) {
+          cities.insert(envelope, entry);
+        }
+        size++;
+      }
+      startIndex += PAGE_SIZE;
+    } while (results.size() == PAGE_SIZE);
+
+    countryCodes.build();
+    cities.build();
+    return new Snapshot(countryCodes, cities, size);
+  }
+
+  private GazetteerEntry toGazetteerEntry(Metacard metacard) {
+    String location = getString(metacard, Core.LOCATION);
+    if (StringUtils.isBlank(location)) {
+      return null;
+    }
+
+    Geometry geometry;
+    try {
+      geometry = WKT_READER_THREAD_LOCAL.get().read(location);
+    } catch (ParseException e) {
+      LOGGER.debug("Gazetteer metacard {} has an invalid location.", metacard.getId());
+      return null;
+    }
+
+    Attribute population = metacard.getAttribute(GeoEntryAttributes.POPULATION_ATTRIBUTE_NAME);
+    return new GazetteerEntry(
+        geometry,
+        StringUtils.trimToNull(getString(metacard, Location.COUNTRY_CODE)),
+        getString(metacard, Core.TITLE),
+        getString(metacard, GeoEntryAttributes.FEATURE_CODE_ATTRIBUTE_NAME),
+        population != null && population.getValue() instanceof Long
+            ? (Long) population.getValue()
+            : 0);
+  }
+
+  private static String getString(Metacard metacard, String attributeName) {
+    Attribute attribute = metacard.getAttribute(attributeName);
+    if (attribute != null && attribute.getValue() instanceof String) {
+      return (String) attribute.getValue();
+    }
+    return null;
+  }
+
+  /**
+   * Returns the envelope of the area within {@code radiusInDegrees} of great-circle distance from
+   * {@code center}, widening the longitude range towards the poles.
+   */
+  private static Envelope searchEnvelope(Point center, double radiusInDegrees) {
+    double longitudeRadius =
+        Math.min(180, radiusInDegrees / Math.max(Math.cos(Math.toRadians(center.getY())), 0.01));
+    return new Envelope(
+        center.getX() - longitudeRadius,
+        center.getX() + longitudeRadius,
+        center.getY() - radiusInDegrees,
+        center.getY() + radiusInDegrees);
+  }
+
+  private static class Snapshot {
+
+    private final STRtree countryCodes;
+
+    private final STRtree cities;
+
+    private final int size;
+
+    private Snapshot(STRtree countryCodes, STRtree cities, int size) {
+      this.countryCodes = countryCodes;
+      this.cities = cities;
+      this.size = size;
+    }
+  }
+
+  private static class GazetteerEntry {
+
+    private final Geometry geometry;
+
+    private final String countryCode;
+
+    private final String name;
+
+    private final String featureCode;
+
+    private final long population;
+
+    private GazetteerEntry(
+        Geometry geometry, String countryCode, String name, String featureCode, long population) {
+      this.geometry = geometry;
+      this.countryCode = countryCode;
+      this.name = name;
+      this.featureCode = featureCode;
+      this.population = population;
+    }
+
+    private boolean isCity() {
+      return StringUtils.isNotEmpty(name)
+          && GeoCodingConstants.CITY_FEATURE_CODES.contains(featureCode);
+    }
+
+    /**
+     * Returns the great-circle distance to a point entry, or the planar distance to the boundary
+     * of a shape, which is 0 when the shape contains {@code point}.
+     */
+    private double distanceInDegrees(Point point) {
+      if (geometry instanceof Point) {
+        return SPATIAL_CONTEXT.calcDistance(
+            new PointImpl(point.getX(), point.getY(), SPATIAL_CONTEXT),
+            new PointImpl(
+                ((Point) geometry).getX(), ((Point) geometry).getY(), SPATIAL_CONTEXT));
+      }
+      return geometry.distance(point);
+    }
+  }
+}
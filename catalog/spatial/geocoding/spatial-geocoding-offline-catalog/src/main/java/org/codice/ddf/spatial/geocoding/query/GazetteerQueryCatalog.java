@@ -99,8 +99,22 @@ public class GazetteerQueryCatalog implements GeoEntryQueryable {
 
   private List<Filter> featureCodeFilters;
 
+  private GazetteerIndex gazetteerIndex;
+
   public GazetteerQueryCatalog(CatalogFramework catalogFramework, FilterBuilder filterBuilder) {
+    this(catalogFramework, filterBuilder, null);
+  }
+
+  /**
+   * @param gazetteerIndex the in-memory index used to answer country code and nearest city
+   *     lookups once it is loaded, or null to always query the catalog
+   */
+  public GazetteerQueryCatalog(
+      CatalogFramework catalogFramework,
+      FilterBuilder filterBuilder,
+      GazetteerIndex gazetteerIndex) {
     this.catalogFramework = catalogFramework;
+    this.gazetteerIndex = gazetteerIndex;
     this.filterBuilder = filterBuilder;
     this.featureCodeFilters = new ArrayList<>();
 
@@ -266,6 +280,15 @@ private String getStringAttributeFromMetacard(Metacard metacard, String attribut
   @Override
   public List<NearbyLocation> getNearestCities(String location, int radiusInKm, int maxResults)
       throws ParseException, GeoEntryQueryException {
+    if (isIndexLoaded()) {
+      try {
+        Point center = WKT_READER_THREAD_LOCAL.get().read(location).getCentroid();
+        return gazetteerIndex.getNearestCities(center, radiusInKm, maxResults);
+      } catch (org.locationtech.jts.io.ParseException e) {
+        throw new ParseException(e.getMessage(), 0);
+      }
+    }
+
     Filter featureCodeFilter = filterBuilder.anyOf(featureCodeFilters);
     int radiusInMeters = radiusInKm * KM_TO_M;
 
@@ -326,6 +349,9 @@ public Optional<String> getCountryCode(String wktLocation, int radius)
 
     try {
       Point center = WKT_READER_THREAD_LOCAL.get().read(wktLocation).getCentroid();
+      if (isIndexLoaded()) {
+        return gazetteerIndex.getCountryCode(center, radius);
+      }
       Geometry geometry = GEOMETRY_FACTORY.createPoint(center.getCoordinate());
       wkt = WKT_WRITER_THREAD_LOCAL.get().write(geometry);
     } catch (org.locationtech.jts.io.ParseException e) {
@@ -353,4 +379,8 @@ public Optional<String> getCountryCode(String wktLocation, int radius)
     }
     return Optional.empty();
   }
+
+  private boolean isIndexLoaded() {
+    return gazetteerIndex != null && gazetteerIndex.isLoaded();
+  }
 }
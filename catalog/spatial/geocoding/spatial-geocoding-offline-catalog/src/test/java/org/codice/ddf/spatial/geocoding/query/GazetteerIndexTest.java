@@ -0,0 +1,212 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.spatial.geocoding.query;
+
+import static org.codice.ddf.spatial.geocoding.GeoCodingConstants.GAZETTEER_METACARD_TAG;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import ddf.catalog.CatalogFramework;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.Result;
+import ddf.catalog.data.impl.AttributeImpl;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.data.impl.ResultImpl;
+import ddf.catalog.data.types.Core;
+import ddf.catalog.data.types.Location;
+import ddf.catalog.filter.proxy.builder.GeotoolsFilterBuilder;
+import ddf.catalog.operation.CreateRequest;
+import ddf.catalog.operation.QueryRequest;
+import ddf.catalog.operation.impl.CreateResponseImpl;
+import ddf.catalog.operation.impl.QueryResponseImpl;
+import java.security.PrivilegedAction;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.codice.ddf.security.Security;
+import org.codice.ddf.spatial.geocoding.GeoCodingConstants;
+import org.codice.ddf.spatial.geocoding.GeoEntryAttributes;
+import org.codice.ddf.spatial.geocoding.context.NearbyLocation;
+import org.junit.Before;
+import org.junit.Test;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.io.WKTReader;
+
+public class GazetteerIndexTest {
+
+  private static final int RADIUS_IN_KM = 100;
+
+  private static final int MAX_RESULTS = 10;
+
+  private static final String BOSTON_WKT = "POINT (-71.0595703125 42.35771940022451)";
+
+  private static final String NEAR_BOSTON_WKT = "POINT(-71.07124328613281 42.353671973455704)";
+
+  private static final String COUNTRY_WKT = "POLYGON ((10 10, 20 10, 20 20, 10 20, 10 10))";
+
+  private static final String BOSTON = "Boston";
+
+  private static final String USA_COUNTRY_CODE = "USA";
+
+  private static final String COUNTRY_CODE = "ABC";
+
+  private CatalogFramework catalogFramework;
+
+  private GazetteerIndex gazetteerIndex;
+
+  @Before
+  @SuppressWarnings("unchecked")
+  public void setUp() throws Exception {
+    catalogFramework = mock(CatalogFramework.class);
+    List<Result> results =
+        Arrays.asList(
+            new ResultImpl(generateGeoNamesMetacard()), new ResultImpl(generateCountryMetacard()));
+    when(catalogFramework.query(any(QueryRequest.class)))
+        .thenReturn(new QueryResponseImpl(mock(QueryRequest.class), results, results.size()));
+
+    Security security = mock(Security.class);
+    when(security.runAsAdmin(any()))
+        .thenAnswer(invocation -> ((PrivilegedAction) invocation.getArgument(0)).run());
+    when(security.runWithSubjectOrElevate(any()))
+        .thenAnswer(invocation -> ((Callable) invocation.getArgument(0)).call());
+
+    ScheduledExecutorService executor = mock(ScheduledExecutorService.class);
+    when(executor.schedule(any(Runnable.class), anyLong(), any(TimeUnit.class)))
+        .thenAnswer(
+            invocation -> {
+              ((Runnable) invocation.getArgument(0)).run();
+              return null;
+            });
+
+    gazetteerIndex =
+        new GazetteerIndex(catalogFramework, new GeotoolsFilterBuilder(), security, executor);
+  }
+
+  @Test
+  public void testNotLoadedUntilEnabled() throws Exception {
+    assertThat(gazetteerIndex.isLoaded(), is(false));
+    assertThat(
+        gazetteerIndex.getCountryCode(point(BOSTON_WKT), RADIUS_IN_KM).isPresent(), is(false));
+    verify(catalogFramework, never()).query(any(QueryRequest.class));
+
+    gazetteerIndex.setEnabled(true);
+
+    assertThat(gazetteerIndex.isLoaded(), is(true));
+  }
+
+  @Test
+  public void testDisablingUnloadsIndex() throws Exception {
+    gazetteerIndex.setEnabled(true);
+    gazetteerIndex.setEnabled(false);
+
+    assertThat(gazetteerIndex.isLoaded(), is(false));
+  }
+
+  @Test
+  public void testGetCountryCodeNearGeoNamesEntry() throws Exception {
+    gazetteerIndex.setEnabled(true);
+
+    assertThat(
+        gazetteerIndex.getCountryCode(point(NEAR_BOSTON_WKT), RADIUS_IN_KM).get(),
+        is(USA_COUNTRY_CODE));
+  }
+
+  @Test
+  public void testGetCountryCodeInsideCountryShape() throws Exception {
+    gazetteerIndex.setEnabled(true);
+
+    assertThat(gazetteerIndex.getCountryCode(point("POINT (15 15)"), 1).get(), is(COUNTRY_CODE));
+  }
+
+  @Test
+  public void testGetCountryCodeOutOfRange() throws Exception {
+    gazetteerIndex.setEnabled(true);
+
+    assertThat(
+        gazetteerIndex.getCountryCode(point("POINT (50 50)"), RADIUS_IN_KM).isPresent(),
+        is(false));
+  }
+
+  @Test
+  public void testGetNearestCities() throws Exception {
+    gazetteerIndex.setEnabled(true);
+
+    List<NearbyLocation> nearbyLocations =
+        gazetteerIndex.getNearestCities(point(NEAR_BOSTON_WKT), RADIUS_IN_KM, MAX_RESULTS);
+    assertThat(nearbyLocations.size(), is(1));
+    NearbyLocation nearbyLocation = nearbyLocations.get(0);
+    assertThat(nearbyLocation.getCardinalDirection(), is("S"));
+    assertThat(nearbyLocation.getDistance(), is(closeTo(1.3, .01)));
+    assertThat(nearbyLocation.getName(), is(BOSTON));
+  }
+
+  @Test
+  public void testReloadsWhenGazetteerMetacardsChange() throws Exception {
+    gazetteerIndex.setEnabled(true);
+    verify(catalogFramework, times(1)).query(any(QueryRequest.class));
+
+    gazetteerIndex.process(createResponse(new MetacardImpl()));
+    verify(catalogFramework, times(1)).query(any(QueryRequest.class));
+
+    gazetteerIndex.process(createResponse(generateGeoNamesMetacard()));
+    verify(catalogFramework, times(2)).query(any(QueryRequest.class));
+  }
+
+  private CreateResponseImpl createResponse(Metacard metacard) {
+    return new CreateResponseImpl(
+        mock(CreateRequest.class), Collections.emptyMap(), Collections.singletonList(metacard));
+  }
+
+  private Point point(String wkt) throws Exception {
+    return new WKTReader().read(wkt).getCentroid();
+  }
+
+  private Metacard generateGeoNamesMetacard() {
+    Metacard metacard = new MetacardImpl();
+    metacard.setAttribute(new AttributeImpl(Core.TITLE, BOSTON));
+    metacard.setAttribute(new AttributeImpl(Location.COUNTRY_CODE, USA_COUNTRY_CODE));
+    metacard.setAttribute(new AttributeImpl(GeoEntryAttributes.FEATURE_CODE_ATTRIBUTE_NAME, "PPL"));
+    metacard.setAttribute(
+        new AttributeImpl(GeoEntryAttributes.POPULATION_ATTRIBUTE_NAME, 123456789L));
+    metacard.setAttribute(new AttributeImpl(Core.LOCATION, BOSTON_WKT));
+    metacard.setAttribute(
+        new AttributeImpl(
+            Core.METACARD_TAGS,
+            Arrays.asList(GAZETTEER_METACARD_TAG, GeoCodingConstants.GEONAMES_TAG)));
+    return metacard;
+  }
+
+  private Metacard generateCountryMetacard() {
+    Metacard metacard = new MetacardImpl();
+    metacard.setAttribute(new AttributeImpl(Core.TITLE, "Country"));
+    metacard.setAttribute(new AttributeImpl(Location.COUNTRY_CODE, COUNTRY_CODE));
+    metacard.setAttribute(new AttributeImpl(Core.LOCATION, COUNTRY_WKT));
+    metacard.setAttribute(
+        new AttributeImpl(
+            Core.METACARD_TAGS,
+            Arrays.asList(GAZETTEER_METACARD_TAG, GeoCodingConstants.COUNTRY_TAG)));
+    return metacard;
+  }
+}
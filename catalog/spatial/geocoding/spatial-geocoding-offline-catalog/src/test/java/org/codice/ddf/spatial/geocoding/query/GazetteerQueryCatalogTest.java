@@ -19,7 +19,10 @@
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.nullValue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import ddf.catalog.CatalogFramework;
@@ -51,6 +54,7 @@
 import org.codice.ddf.spatial.geocoding.context.NearbyLocation;
 import org.junit.Before;
 import org.junit.Test;
+import org.locationtech.jts.geom.Point;
 
 public class GazetteerQueryCatalogTest {
 
@@ -318,6 +322,19 @@ public void testGetCountryCodeSourceUnavailableException() throws Exception {
     queryCatalog.getCountryCode(NEAR_BOSTON_WKT, RADIUS_IN_KM);
   }
 
+  @Test
+  public void testGetCountryCodeFromLoadedIndex() throws Exception {
+    GazetteerIndex gazetteerIndex = mock(GazetteerIndex.class);
+    when(gazetteerIndex.isLoaded()).thenReturn(true);
+    when(gazetteerIndex.getCountryCode(any(Point.class), eq(RADIUS_IN_KM)))
+        .thenReturn(Optional.of(USA_COUNTRY_CODE));
+    queryCatalog = new GazetteerQueryCatalog(catalogFramework, FILTER_BUILDER, gazetteerIndex);
+
+    Optional<String> countryCode = queryCatalog.getCountryCode(NEAR_BOSTON_WKT, RADIUS_IN_KM);
+    assertThat(countryCode.get(), is(USA_COUNTRY_CODE));
+    verify(catalogFramework, never()).query(any(QueryRequest.class));
+  }
+
   private Metacard generateEmptyMetacard() {
     return new MetacardImpl(GEO_ENTRY_METACARD_TYPE);
   }
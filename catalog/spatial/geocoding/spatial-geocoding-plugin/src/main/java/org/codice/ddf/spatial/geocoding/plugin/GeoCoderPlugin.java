@@ -19,12 +19,15 @@
 import ddf.catalog.operation.CreateRequest;
 import ddf.catalog.operation.DeleteRequest;
 import ddf.catalog.operation.UpdateRequest;
+import ddf.catalog.plugin.PartitionablePreIngestPlugin;
 import ddf.catalog.plugin.PluginExecutionException;
-import ddf.catalog.plugin.PreIngestPlugin;
 import ddf.catalog.plugin.StopProcessingException;
 import ddf.catalog.util.impl.ServiceSelector;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.stream.Collectors;
 import org.codice.ddf.spatial.geocoder.GeoCoder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -33,7 +36,7 @@
  * The {@code GeoCoderPlugin} is responsible for adding a {@link Location#COUNTRY_CODE} in ISO
  * 3166-1 format to {@code Metacard}s that have the {@link Metacard#GEOGRAPHY} attribute.
  */
-public class GeoCoderPlugin implements PreIngestPlugin {
+public class GeoCoderPlugin implements PartitionablePreIngestPlugin {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(GeoCoderPlugin.class);
 
@@ -61,7 +64,7 @@ public CreateRequest process(CreateRequest input)
 
     try {
       GeoCoder geoCoder = geoCoderFactory.getService();
-      input.getMetacards().forEach(metacard -> setCountryCode(metacard, geoCoder));
+      setCountryCodes(input.getMetacards(), geoCoder);
     } catch (Exception e) {
       throw new PluginExecutionException("Unable to determine country code for data", e);
     }
@@ -78,9 +81,9 @@ public UpdateRequest process(UpdateRequest input)
 
     GeoCoder geoCoder = geoCoderFactory.getService();
     try {
-      input.getUpdates().stream()
-          .map(Map.Entry::getValue)
-          .forEach(metacard -> setCountryCode(metacard, geoCoder));
+      setCountryCodes(
+          input.getUpdates().stream().map(Map.Entry::getValue).collect(Collectors.toList()),
+          geoCoder);
     } catch (Exception e) {
       throw new PluginExecutionException("Unable to determine country code for data", e);
     }
@@ -113,27 +116,43 @@ public int getRadius() {
   }
 
   /**
-   * Sets the country code attribute of the {@param metacard} when the {@param metacard} has a
-   * location and there is not already a country code attribute. Does not update the country code if
-   * the country code attribute is already set.
+   * Sets the country code attribute of each of the {@param metacards} that has a location and does
+   * not already have a country code attribute. The country codes of all the locations are looked up
+   * at once. Does not update the country code if the country code attribute is already set.
    *
-   * @param metacard
+   * @param metacards
    */
-  private void setCountryCode(Metacard metacard, GeoCoder geoCoder) {
-    Optional<String> wktLocation = Optional.ofNullable(metacard.getLocation());
-
-    if (geoCoder != null && wktLocation.isPresent() && !hasCountryCode(metacard)) {
-      Optional<String> alpha3CountryCode = geoCoder.getCountryCode(wktLocation.get(), radiusInKm);
+  private void setCountryCodes(List<Metacard> metacards, GeoCoder geoCoder) {
+    if (geoCoder == null) {
+      return;
+    }
 
-      alpha3CountryCode.ifPresent(
-          countryCode -> {
-            LOGGER.trace(
-                "Setting metacard country code to {} for metacard with id {}",
-                countryCode,
-                metacard.getId());
+    List<Metacard> metacardsWithoutCountryCode =
+        metacards.stream()
+            .filter(Objects::nonNull)
+            .filter(metacard -> metacard.getLocation() != null && !hasCountryCode(metacard))
+            .collect(Collectors.toList());
+    if (metacardsWithoutCountryCode.isEmpty()) {
+      return;
+    }
 
-            metacard.setAttribute(new AttributeImpl(Location.COUNTRY_CODE, countryCode));
-          });
+    Map<String, String> alpha3CountryCodes =
+        geoCoder.getCountryCodes(
+            metacardsWithoutCountryCode.stream()
+                .map(Metacard::getLocation)
+                .collect(Collectors.toSet()),
+            radiusInKm);
+
+    for (Metacard metacard : metacardsWithoutCountryCode) {
+      String countryCode = alpha3CountryCodes.get(metacard.getLocation());
+      if (countryCode != null) {
+        LOGGER.trace(
+            "Setting metacard country code to {} for metacard with id {}",
+            countryCode,
+            metacard.getId());
+
+        metacard.setAttribute(new AttributeImpl(Location.COUNTRY_CODE, countryCode));
+      }
     }
   }
 
@@ -29,19 +29,30 @@
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
 import java.io.Serializable;
 import java.io.StringWriter;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import javax.activation.MimeType;
 import javax.activation.MimeTypeParseException;
 import javax.xml.bind.DataBindingException;
 import org.codice.ddf.parser.Parser;
 import org.codice.ddf.platform.util.ForkJoinPoolFactory;
+import org.codice.ddf.platform.util.StandardThreadFactoryBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.xmlpull.v1.XmlPullParserException;
@@ -55,6 +66,15 @@ public class XmlResponseQueueTransformer extends AbstractXmlTransformer
 
   public static final int BUFFER_SIZE = 1024;
 
+  private static final String XML_DECLARATION =
+      "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n";
+
+  private static final String METACARDS_PLACEHOLDER = "<!--metacards-->";
+
+  private static final int PIPE_BUFFER_SIZE = 64 * 1024;
+
+  private static final int MAX_PENDING_CHUNKS_PER_THREAD = 2;
+
   private static class MetacardForkTask extends RecursiveTask<StringWriter> {
     private static final long serialVersionUID = 1L;
 
@@ -164,8 +184,14 @@ private void readObject(ObjectInputStream stream) throws IOException, ClassNotFo
 
   private final MetacardMarshaller metacardMarshaller;
 
+  private final ExecutorService streamExecutor =
+      Executors.newCachedThreadPool(
+          StandardThreadFactoryBuilder.newThreadFactory("xmlResponseQueueTransformerThread"));
+
   private int threshold;
 
+  private boolean streaming = false;
+
   private static final Logger LOGGER = LoggerFactory.getLogger(XmlResponseQueueTransformer.class);
 
   private final MimeType mimeType;
@@ -220,18 +246,33 @@ public void setThreshold(int threshold) {
     this.threshold = threshold <= 1 ? 2 : threshold;
   }
 
+  /**
+   * @param streaming {@code true} to return the XML as it is marshalled instead of once the whole
+   *     response was marshalled. Marshalling errors then surface as an {@link IOException} while
+   *     reading the {@link BinaryContent} instead of as a {@link CatalogTransformerException}.
+   */
+  public void setStreaming(boolean streaming) {
+    this.streaming = streaming;
+  }
+
+  public void destroy() {
+    streamExecutor.shutdownNow();
+  }
+
   @Override
   public BinaryContent transform(SourceResponse response, Map<String, Serializable> args)
       throws CatalogTransformerException {
     try {
-      PrintWriter writer = printWriterProvider.build(Metacard.class);
-      writer.setRawValue("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n");
-
-      writer.startNode("metacards");
-      for (Map.Entry<String, String> nsRow : NAMESPACE_MAP.entrySet()) {
-        writer.addAttribute(nsRow.getKey(), nsRow.getValue());
+      if (streaming) {
+        ImmutableList<Result> results =
+            response.getResults() == null
+                ? ImmutableList.of()
+                : ImmutableList.copyOf(response.getResults());
+        return new BinaryContentImpl(new MetacardStream(results), mimeType);
       }
 
+      PrintWriter writer = startDocument();
+
       if (response.getResults() != null && !response.getResults().isEmpty()) {
         StringWriter metacardContent =
             fjp.invoke(
@@ -256,4 +297,122 @@ public BinaryContent transform(SourceResponse response, Map<String, Serializable
       throw new CatalogTransformerException("Failed Query response transformation");
     }
   }
+
+  /** Starts the document and its metacards node. */
+  private PrintWriter startDocument() {
+    PrintWriter writer = printWriterProvider.build(Metacard.class);
+    writer.setRawValue(XML_DECLARATION);
+
+    writer.startNode("metacards");
+    for (Map.Entry<String, String> nsRow : NAMESPACE_MAP.entrySet()) {
+      writer.addAttribute(nsRow.getKey(), nsRow.getValue());
+    }
+    return writer;
+  }
+
+  /**
+   * Marshals the results in threshold-sized chunks on the fork-join pool and writes the chunks, in
+   * order, to a pipe as soon as they are ready. Marshalling starts on the first read and stays a
+   * few chunks ahead of the reader, so only those chunks are held in memory.
+   */
+  private class MetacardStream extends PipedInputStream {
+
+    private final ImmutableList<Result> results;
+
+    private boolean started = false;
+
+    private volatile IOException failure;
+
+    MetacardStream(ImmutableList<Result> results) {
+      super(PIPE_BUFFER_SIZE);
+      this.results = results;
+    }
+
+    @Override
+    public synchronized int read() throws IOException {
+      start();
+      return checkFailure(super.read());
+    }
+
+    @Override
+    public synchronized int read(byte[] b, int off, int len) throws IOException {
+      start();
+      return checkFailure(super.read(b, off, len));
+    }
+
+    private void start() throws IOException {
+      if (started) {
+        return;
+      }
+      started = true;
+
+      PipedOutputStream output = new PipedOutputStream(this);
+      try {
+        streamExecutor.execute(() -> write(output));
+      } catch (RejectedExecutionException e) {
+        output.close();
+        throw new IOException("Unable to start the query response transformation", e);
+      }
+    }
+
+    private int checkFailure(int read) throws IOException {
+      if (read == -1 && failure != null) {
+        throw failure;
+      }
+      return read;
+    }
+
+    private void write(PipedOutputStream output) {
+      Writer writer = new OutputStreamWriter(output, StandardCharsets.UTF_8);
+      Deque<ForkJoinTask<StringWriter>> pendingChunks = new ArrayDeque<>();
+      int maxPendingChunks = fjp.getParallelism() * MAX_PENDING_CHUNKS_PER_THREAD;
+      int chunkSize = Math.max(threshold, 2);
+
+      try {
+        PrintWriter envelope = startDocument();
+        envelope.setRawValue(METACARDS_PLACEHOLDER);
+        envelope.endNode(); // metacards
+        String document = envelope.makeString();
+        int placeholderIndex = document.indexOf(METACARDS_PLACEHOLDER);
+
+        writer.write(document, 0, placeholderIndex);
+        writer.flush();
+
+        for (int start = 0; start < results.size(); start += chunkSize) {
+          pendingChunks.add(
+              fjp.submit(
+                  new MetacardForkTask(
+                      results.subList(start, Math.min(start + chunkSize, results.size())),
+                      fjp,
+                      geometryTransformer,
+                      threshold,
+                      metacardMarshaller)));
+          if (pendingChunks.size() >= maxPendingChunks) {
+            writeChunk(writer, pendingChunks.poll());
+          }
+        }
+        while (!pendingChunks.isEmpty()) {
+          writeChunk(writer, pendingChunks.poll());
+        }
+
+        writer.write(document.substring(placeholderIndex + METACARDS_PLACEHOLDER.length()));
+      } catch (IOException | RuntimeException e) {
+        LOGGER.info("Failed Query response transformation", e);
+        pendingChunks.forEach(chunk -> chunk.cancel(true));
+        failure = new IOException("Failed Query response transformation", e);
+      } finally {
+        try {
+          writer.close();
+        } catch (IOException e) {
+          LOGGER.debug("Unable to close the query response stream.", e);
+        }
+      }
+    }
+
+    private void writeChunk(Writer writer, ForkJoinTask<StringWriter> chunk) throws IOException {
+      StringWriter metacardContent = chunk.join();
+      writer.append(metacardContent.getBuffer());
+      writer.flush();
+    }
+  }
 }
@@ -391,6 +391,58 @@ public void testCompareSerialToFork()
     assertEquals(serialOutput.replaceAll("\\s", ""), forkOutput.replaceAll("\\s", ""));
   }
 
+  @Test
+  public void testCompareBufferedToStreaming() throws Exception {
+    List<Metacard> metacards = new ArrayList<>();
+    for (int i = 0; i < 25; i++) {
+      metacards.add(new MetacardStub("source" + i, "id" + i));
+    }
+    SourceResponse response = givenSourceResponse(metacards.toArray(new Metacard[0]));
+
+    transformer.setThreshold(2);
+    String bufferedOutput = new String(transformer.transform(response, null).getByteArray());
+
+    transformer.setStreaming(true);
+    BinaryContent streamingBc = transformer.transform(response, null);
+    assertThat(streamingBc.getMimeType(), is(mimeType));
+    String streamingOutput = new String(streamingBc.getByteArray());
+
+    assertEquals(bufferedOutput, streamingOutput);
+    assertXpathEvaluatesTo("25", "count(/mc:metacards/mc:metacard)", streamingOutput);
+    assertXpathEvaluatesTo("id24", "/mc:metacards/mc:metacard[25]/@gml:id", streamingOutput);
+  }
+
+  @Test
+  public void testStreamingEmptySourceResponse() throws Exception {
+    transformer.setThreshold(2);
+    transformer.setStreaming(true);
+
+    SourceResponse response = new SourceResponseImpl(null, Collections.<Result>emptyList());
+
+    String output = new String(transformer.transform(response, null).getByteArray());
+    assertXpathEvaluatesTo("", "/mc:metacards", output);
+  }
+
+  @Test(expected = IOException.class)
+  public void testStreamingMetacardMarshallThrowsXmlPullParserException() throws Exception {
+    SourceResponse response = givenSourceResponse(new MetacardStub("source1", "id1"));
+
+    PrintWriterProvider pwp = new PrintWriterProviderImpl();
+    MetacardMarshaller mockMetacardMarshaller = mock(MetacardMarshaller.class);
+
+    when(mockMetacardMarshaller.marshal(any(Metacard.class), any(Map.class)))
+        .thenThrow(new XmlPullParserException(""));
+
+    XmlResponseQueueTransformer xrqt =
+        new XmlResponseQueueTransformer(parser, pwp, mockMetacardMarshaller, getMimeType());
+    xrqt.setThreshold(2);
+    xrqt.setStreaming(true);
+
+    BinaryContent binaryContent = xrqt.transform(response, null);
+
+    binaryContent.getByteArray();
+  }
+
   @Test
   public void testXmlResponseQueueTransformer() throws Exception {
 
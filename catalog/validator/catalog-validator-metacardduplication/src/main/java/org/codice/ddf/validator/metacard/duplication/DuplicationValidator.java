@@ -13,11 +13,16 @@
  */
 package org.codice.ddf.validator.metacard.duplication;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
 import ddf.catalog.CatalogFramework;
 import ddf.catalog.data.Attribute;
 import ddf.catalog.data.Metacard;
+import ddf.catalog.data.Result;
+import ddf.catalog.data.types.Core;
 import ddf.catalog.federation.FederationException;
+import ddf.catalog.filter.impl.SortByImpl;
 import ddf.catalog.filter.FilterBuilder;
 import ddf.catalog.operation.QueryRequest;
 import ddf.catalog.operation.SourceResponse;
@@ -25,6 +30,9 @@
 import ddf.catalog.operation.impl.QueryRequestImpl;
 import ddf.catalog.source.SourceUnavailableException;
 import ddf.catalog.source.UnsupportedQueryException;
+import ddf.catalog.util.impl.CatalogQueryException;
+import ddf.catalog.util.impl.ResultIterable;
+import ddf.catalog.validation.BatchMetacardValidator;
 import ddf.catalog.validation.MetacardValidator;
 import ddf.catalog.validation.ReportingMetacardValidator;
 import ddf.catalog.validation.ValidationException;
@@ -33,25 +41,55 @@
 import ddf.catalog.validation.impl.violation.ValidationViolationImpl;
 import ddf.catalog.validation.report.MetacardValidationReport;
 import ddf.catalog.validation.violation.ValidationViolation;
+import ddf.security.service.SecurityServiceException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Serializable;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.BiFunction;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang.ArrayUtils;
+import org.codice.ddf.platform.util.StandardThreadFactoryBuilder;
+import org.codice.ddf.security.Security;
 import org.opengis.filter.Filter;
+import org.opengis.filter.sort.SortOrder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Checks metacards against the local catalog for duplicates based on configurable attributes.
+ *
+ * <p>The metacards of a request are checked together: the values of all of them are looked up
+ * with a few queries that each match up to {@link #MAX_VALUES_PER_QUERY} values, instead of one
+ * query per metacard.
+ *
+ * <p>When the Bloom filter is enabled, the values of the configured attributes are loaded from the
+ * catalog in the background the first time a metacard is validated, and the values of every
+ * validated metacard are added to it afterwards. Values the Bloom filter reports as new are not
+ * looked up in the catalog at all. Until the Bloom filter is loaded, every value is looked up.
+ * Since values ingested by other nodes into the same catalog are not added to the Bloom filter, it
+ * is disabled by default and must stay disabled when several nodes ingest into the same catalog.
+ */
 public class DuplicationValidator
-    implements MetacardValidator,
+    implements BatchMetacardValidator,
         ReportingMetacardValidator,
         ddf.catalog.util.Describable,
         org.codice.ddf.platform.services.common.Describable {
@@ -63,6 +101,10 @@
 
   private static final String VERSION = "version";
 
+  @VisibleForTesting static final int MAX_VALUES_PER_QUERY = 256;
+
+  private static final int LOAD_PAGE_SIZE = 1000;
+
   private static Properties describableProperties = new Properties();
 
   static {
@@ -78,13 +120,48 @@
 
   private final FilterBuilder filterBuilder;
 
+  private final Security security;
+
+  private final ExecutorService executor;
+
   private String[] errorOnDuplicateAttributes;
 
   private String[] warnOnDuplicateAttributes;
 
+  private boolean bloomFilterEnabled = false;
+
+  private KnownAttributeValues knownValues;
+
   public DuplicationValidator(CatalogFramework catalogFramework, FilterBuilder filterBuilder) {
+    this(catalogFramework, filterBuilder, null, null);
+  }
+
+  public DuplicationValidator(
+      CatalogFramework catalogFramework, FilterBuilder filterBuilder, Security security) {
+    this(
+        catalogFramework,
+        filterBuilder,
+        security,
+        Executors.newSingleThreadExecutor(
+            StandardThreadFactoryBuilder.newThreadFactory("duplicationValidatorThread")));
+  }
+
+  @VisibleForTesting
+  DuplicationValidator(
+      CatalogFramework catalogFramework,
+      FilterBuilder filterBuilder,
+      Security security,
+      ExecutorService executor) {
     this.catalogFramework = catalogFramework;
     this.filterBuilder = filterBuilder;
+    this.security = security;
+    this.executor = executor;
+  }
+
+  public void destroy() {
+    if (executor != null) {
+      executor.shutdownNow();
+    }
   }
 
   /**
@@ -97,6 +174,7 @@ public DuplicationValidator(CatalogFramework catalogFramework, FilterBuilder fil
   public void setErrorOnDuplicateAttributes(String[] attributeStrings) {
     if (attributeStrings != null) {
       this.errorOnDuplicateAttributes = Arrays.copyOf(attributeStrings, attributeStrings.length);
+      resetKnownValues();
     }
   }
 
@@ -110,20 +188,79 @@ public void setErrorOnDuplicateAttributes(String[] attributeStrings) {
   public void setWarnOnDuplicateAttributes(String[] attributeStrings) {
     if (attributeStrings != null) {
       this.warnOnDuplicateAttributes = Arrays.copyOf(attributeStrings, attributeStrings.length);
+      resetKnownValues();
     }
   }
 
+  /**
+   * Setter for whether a Bloom filter of the values in the local catalog is used to skip the
+   * duplication check of values that are definitely new.
+   *
+   * @param bloomFilterEnabled
+   */
+  public void setBloomFilterEnabled(boolean bloomFilterEnabled) {
+    this.bloomFilterEnabled = bloomFilterEnabled;
+    resetKnownValues();
+  }
+
   @Override
   public Optional<MetacardValidationReport> validateMetacard(Metacard metacard) {
     Preconditions.checkArgument(metacard != null, "The metacard cannot be null.");
 
-    return getReport(reportDuplicates(metacard));
+    return getReport(reportDuplicates(metacard, this::queryDuplicates));
   }
 
   @Override
   public void validate(Metacard metacard) throws ValidationException {
+    throwIfInvalid(metacard, validateMetacard(metacard));
+  }
 
-    final Optional<MetacardValidationReport> report = validateMetacard(metacard);
+  @Override
+  public MetacardValidator forMetacards(List<Metacard> metacards) {
+    Set<String> attributeNames = getAttributeNames();
+    if (metacards.size() < 2 || attributeNames.isEmpty()) {
+      return this;
+    }
+
+    KnownAttributeValues values = getKnownValues();
+    Map<String, Set<String>> valuesToCheck = new HashMap<>();
+    for (Metacard metacard : metacards) {
+      if (metacard == null) {
+        continue;
+      }
+      for (String attributeName : attributeNames) {
+        for (String value : getValues(metacard, attributeName)) {
+          if (values == null || !values.isNew(attributeName, value)) {
+            valuesToCheck.computeIfAbsent(attributeName, name -> new HashSet<>()).add(value);
+          }
+        }
+      }
+    }
+
+    Map<String, Map<String, Set<String>>> duplicates;
+    try {
+      duplicates = queryDuplicates(valuesToCheck);
+    } catch (CatalogQueryException e) {
+      LOGGER.debug(
+          "Query failed, checking the {} metacards for duplicates one at a time.",
+          metacards.size(),
+          e);
+      return this;
+    }
+
+    return metacard -> {
+      Preconditions.checkArgument(metacard != null, "The metacard cannot be null.");
+      throwIfInvalid(
+          metacard,
+          getReport(
+              reportDuplicates(
+                  metacard,
+                  (validated, attributes) -> lookUpDuplicates(duplicates, validated, attributes))));
+    };
+  }
+
+  private void throwIfInvalid(Metacard metacard, Optional<MetacardValidationReport> report)
+      throws ValidationException {
 
     if (report.isPresent()) {
       final List<String> errors =
@@ -152,14 +289,19 @@ public void validate(Metacard metacard) throws ValidationException {
     }
   }
 
-  private Set<ValidationViolation> reportDuplicates(final Metacard metacard) {
+  private Set<ValidationViolation> reportDuplicates(
+      final Metacard metacard,
+      BiFunction<Metacard, Set<Attribute>, Set<String>> duplicateFinder) {
 
     Set<ValidationViolation> violations = new HashSet<>();
 
     if (ArrayUtils.isNotEmpty(warnOnDuplicateAttributes)) {
       ValidationViolation warnValidation =
           reportDuplicates(
-              metacard, warnOnDuplicateAttributes, ValidationViolation.Severity.WARNING);
+              metacard,
+              warnOnDuplicateAttributes,
+              ValidationViolation.Severity.WARNING,
+              duplicateFinder);
       if (warnValidation != null) {
         violations.add(warnValidation);
       }
@@ -167,19 +309,26 @@ private Set<ValidationViolation> reportDuplicates(final Metacard metacard) {
     if (ArrayUtils.isNotEmpty(errorOnDuplicateAttributes)) {
       ValidationViolation errorViolation =
           reportDuplicates(
-              metacard, errorOnDuplicateAttributes, ValidationViolation.Severity.ERROR);
+              metacard,
+              errorOnDuplicateAttributes,
+              ValidationViolation.Severity.ERROR,
+              duplicateFinder);
       if (errorViolation != null) {
         violations.add(errorViolation);
       }
     }
 
+    rememberValues(metacard);
+
     return violations;
   }
 
   private ValidationViolation reportDuplicates(
-      final Metacard metacard, String[] attributeNames, ValidationViolation.Severity severity) {
+      final Metacard metacard,
+      String[] attributeNames,
+      ValidationViolation.Severity severity,
+      BiFunction<Metacard, Set<Attribute>, Set<String>> duplicateFinder) {
 
-    Set<String> duplicates = new HashSet<>();
     ValidationViolation violation = null;
 
     final Set<String> uniqueAttributeNames =
@@ -196,12 +345,7 @@ private ValidationViolation reportDuplicates(
             collectionToString(uniqueAttributeNames));
       }
 
-      SourceResponse response = query(uniqueAttributes);
-      if (response != null) {
-        response.getResults().stream()
-            .filter(result -> !result.getMetacard().getId().equals(metacard.getId()))
-            .forEach(result -> duplicates.add(result.getMetacard().getId()));
-      }
+      Set<String> duplicates = duplicateFinder.apply(metacard, uniqueAttributes);
       if (!duplicates.isEmpty()) {
         violation = createViolation(uniqueAttributeNames, duplicates, severity);
         LOGGER.debug(violation.getMessage());
@@ -210,6 +354,93 @@ private ValidationViolation reportDuplicates(
     return violation;
   }
 
+  /** Queries the catalog for the metacards that share a value of the attributes of a metacard. */
+  private Set<String> queryDuplicates(final Metacard metacard, Set<Attribute> attributes) {
+
+    KnownAttributeValues values = getKnownValues();
+    if (values != null
+        && attributes.stream()
+            .allMatch(
+                attribute ->
+                    getValues(attribute).stream()
+                        .allMatch(value -> values.isNew(attribute.getName(), value)))) {
+      LOGGER.trace(
+          "Skipping the duplicate query for id {} since its values are new", metacard.getId());
+      return Collections.emptySet();
+    }
+
+    Set<String> duplicates = new HashSet<>();
+    SourceResponse response = query(attributes);
+    if (response != null) {
+      response.getResults().stream()
+          .filter(result -> !result.getMetacard().getId().equals(metacard.getId()))
+          .forEach(result -> duplicates.add(result.getMetacard().getId()));
+    }
+    return duplicates;
+  }
+
+  /**
+   * Queries the catalog for the metacards that have any of the given values.
+   *
+   * @param valuesToCheck the values to look up, keyed by attribute name
+   * @return the ids of the metacards that have each value, keyed by attribute name and value
+   */
+  private Map<String, Map<String, Set<String>>> queryDuplicates(
+      Map<String, Set<String>> valuesToCheck) {
+
+    List<Filter> filters = new ArrayList<>();
+    valuesToCheck.forEach(
+        (attributeName, values) ->
+            values.forEach(
+                value ->
+                    filters.add(filterBuilder.attribute(attributeName).equalTo().text(value))));
+
+    Map<String, Map<String, Set<String>>> duplicates = new HashMap<>();
+    for (List<Filter> batch : Lists.partition(filters, MAX_VALUES_PER_QUERY)) {
+      final Filter filter = filterBuilder.anyOf(batch);
+
+      LOGGER.debug("Checking {} values for duplicates", batch.size());
+
+      QueryImpl query = new QueryImpl(filter);
+      query.setRequestsTotalResultsCount(false);
+
+      for (Result result :
+          ResultIterable.resultIterable(catalogFramework, new QueryRequestImpl(query))) {
+        Metacard match = result.getMetacard();
+        valuesToCheck.forEach(
+            (attributeName, values) ->
+                getValues(match, attributeName).stream()
+                    .filter(values::contains)
+                    .forEach(
+                        value ->
+                            duplicates
+                                .computeIfAbsent(attributeName, name -> new HashMap<>())
+                                .computeIfAbsent(value, v -> new HashSet<>())
+                                .add(match.getId())));
+      }
+    }
+    return duplicates;
+  }
+
+  private Set<String> lookUpDuplicates(
+      Map<String, Map<String, Set<String>>> duplicates,
+      final Metacard metacard,
+      Set<Attribute> attributes) {
+
+    return attributes.stream()
+        .flatMap(
+            attribute ->
+                getValues(attribute).stream()
+                    .map(
+                        value ->
+                            duplicates
+                                .getOrDefault(attribute.getName(), Collections.emptyMap())
+                                .getOrDefault(value, Collections.emptySet())))
+        .flatMap(Set::stream)
+        .filter(id -> !id.equals(metacard.getId()))
+        .collect(Collectors.toSet());
+  }
+
   private Filter[] buildFilters(Set<Attribute> attributes) {
 
     return attributes.stream()
@@ -244,6 +475,134 @@ private SourceResponse query(Set<Attribute> attributes) {
     return response;
   }
 
+  private Set<String> getAttributeNames() {
+    Set<String> attributeNames = new LinkedHashSet<>();
+    if (warnOnDuplicateAttributes != null) {
+      attributeNames.addAll(Arrays.asList(warnOnDuplicateAttributes));
+    }
+    if (errorOnDuplicateAttributes != null) {
+      attributeNames.addAll(Arrays.asList(errorOnDuplicateAttributes));
+    }
+    return attributeNames;
+  }
+
+  private static List<String> getValues(Metacard metacard, String attributeName) {
+    Attribute attribute = metacard.getAttribute(attributeName);
+    return attribute == null ? Collections.emptyList() : getValues(attribute);
+  }
+
+  private static List<String> getValues(Attribute attribute) {
+    List<Serializable> values = attribute.getValues();
+    if (values == null) {
+      return Collections.emptyList();
+    }
+    return values.stream()
+        .filter(Objects::nonNull)
+        .map(value -> value.toString().trim())
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Returns the Bloom filter of the values in the local catalog, and starts loading it when it is
+   * not created yet.
+   *
+   * @return the Bloom filter, or null when it is disabled
+   */
+  private synchronized KnownAttributeValues getKnownValues() {
+    if (!bloomFilterEnabled || security == null || executor == null) {
+      return null;
+    }
+
+    if (knownValues == null) {
+      knownValues = new KnownAttributeValues();
+      loadKnownValues(knownValues, getAttributeNames());
+    }
+    return knownValues;
+  }
+
+  private synchronized void resetKnownValues() {
+    knownValues = null;
+  }
+
+  private void rememberValues(Metacard metacard) {
+    KnownAttributeValues values = getKnownValues();
+    if (values != null) {
+      for (String attributeName : getAttributeNames()) {
+        getValues(metacard, attributeName).forEach(value -> values.add(attributeName, value));
+      }
+    }
+  }
+
+  private void loadKnownValues(KnownAttributeValues values, Set<String> attributeNames) {
+    if (attributeNames.isEmpty()) {
+      values.setLoaded();
+      return;
+    }
+
+    try {
+      executor.submit(
+          () ->
+              security.runAsAdmin(
+                  () -> {
+                    try {
+                      return security.runWithSubjectOrElevate(
+                          () -> addCatalogValues(values, attributeNames));
+                    } catch (SecurityServiceException | InvocationTargetException e) {
+                      LOGGER.info(
+                          "Unable to load the values of the attributes [{}] from the catalog. Every value will be checked for duplicates against the catalog.",
+                          collectionToString(attributeNames));
+                      LOGGER.debug("Unable to load the attribute values.", e);
+                      return null;
+                    }
+                  }));
+    } catch (RejectedExecutionException e) {
+      LOGGER.debug("Unable to start loading the attribute values.", e);
+    }
+  }
+
+  /**
+   * Adds the values of the attributes of every metacard in the local catalog. Every metacard is
+   * read, since a like query on the attributes themselves only matches string attributes, and
+   * metacards that only have non-string values would never be added. The metacards are paged in
+   * order of their ids, so no metacard is skipped when the catalog changes while they are read.
+   * The Bloom filter is only marked loaded when every page was read.
+   */
+  private Void addCatalogValues(KnownAttributeValues values, Set<String> attributeNames) {
+    QueryImpl query =
+        new QueryImpl(
+            filterBuilder.attribute(Core.ID).is().like().text("*"),
+            1,
+            LOAD_PAGE_SIZE,
+            new SortByImpl(Core.ID, SortOrder.ASCENDING),
+            false,
+            0);
+
+    long count = 0;
+    try {
+      for (Result result :
+          ResultIterable.resultIterable(catalogFramework, new QueryRequestImpl(query))) {
+        for (String attributeName : attributeNames) {
+          getValues(result.getMetacard(), attributeName)
+              .forEach(value -> values.add(attributeName, value));
+        }
+        count++;
+      }
+    } catch (CatalogQueryException e) {
+      LOGGER.info(
+          "Unable to load the values of the attributes [{}] from the catalog. Every value will be checked for duplicates against the catalog.",
+          collectionToString(attributeNames));
+      LOGGER.debug("Unable to load the attribute values.", e);
+      return null;
+    }
+
+    values.setLoaded();
+    LOGGER.debug(
+        "Loaded the values of the attributes [{}] of {} metacards",
+        collectionToString(attributeNames),
+        count);
+    return null;
+  }
+
   private ValidationViolation createViolation(
       final Set<String> attributes, Set<String> duplicates, ValidationViolation.Severity severity) {
 
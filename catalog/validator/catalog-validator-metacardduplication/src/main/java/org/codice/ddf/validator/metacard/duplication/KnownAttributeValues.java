@@ -0,0 +1,60 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.validator.metacard.duplication;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+
+/**
+ * Bloom filter of the attribute values known to the catalog.
+ *
+ * <p>Values are never removed, so a value that {@link #isNew(String, String)} reports as new is
+ * definitely not in the catalog, while a value that is not reported as new may or may not be.
+ * Nothing is reported as new until all the values of the catalog were added and {@link
+ * #setLoaded()} was called.
+ */
+class KnownAttributeValues {
+
+  private static final int EXPECTED_VALUES = 1_000_000;
+
+  private static final double FALSE_POSITIVE_PROBABILITY = 0.01;
+
+  private final BloomFilter<CharSequence> values =
+      BloomFilter.create(
+          Funnels.stringFunnel(UTF_8), EXPECTED_VALUES, FALSE_POSITIVE_PROBABILITY);
+
+  private volatile boolean loaded = false;
+
+  void add(String attributeName, String value) {
+    values.put(key(attributeName, value));
+  }
+
+  boolean isNew(String attributeName, String value) {
+    return loaded && !values.mightContain(key(attributeName, value));
+  }
+
+  boolean isLoaded() {
+    return loaded;
+  }
+
+  void setLoaded() {
+    loaded = true;
+  }
+
+  private static String key(String attributeName, String value) {
+    return attributeName + '=' + value;
+  }
+}
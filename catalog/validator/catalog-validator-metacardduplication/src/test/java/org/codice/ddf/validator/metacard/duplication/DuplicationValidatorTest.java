@@ -16,6 +16,7 @@
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.hamcrest.core.Is.is;
 import static org.hamcrest.core.IsCollectionContaining.hasItems;
 import static org.hamcrest.core.IsNot.not;
@@ -24,12 +25,15 @@
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.google.common.util.concurrent.MoreExecutors;
 import ddf.catalog.CatalogFramework;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.Result;
+import ddf.catalog.data.types.Core;
 import ddf.catalog.data.impl.AttributeImpl;
 import ddf.catalog.data.impl.MetacardImpl;
 import ddf.catalog.data.impl.ResultImpl;
@@ -41,15 +45,20 @@
 import ddf.catalog.plugin.StopProcessingException;
 import ddf.catalog.source.SourceUnavailableException;
 import ddf.catalog.source.UnsupportedQueryException;
+import ddf.catalog.validation.MetacardValidator;
 import ddf.catalog.validation.ValidationException;
 import ddf.catalog.validation.report.MetacardValidationReport;
 import ddf.catalog.validation.violation.ValidationViolation;
+import java.security.PrivilegedAction;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import org.junit.Before;
@@ -59,7 +68,10 @@
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.codice.ddf.security.Security;
 import org.opengis.filter.Filter;
+import org.opengis.filter.sort.SortBy;
+import org.opengis.filter.sort.SortOrder;
 
 @RunWith(MockitoJUnitRunner.class)
 public class DuplicationValidatorTest {
@@ -241,4 +253,139 @@ public void testValidateMetacardWithMultiValuedAttribute()
               assertThat(violation.getMessage(), containsString(Metacard.TAGS));
             });
   }
+
+  @Test
+  public void testBatchValidationQueriesOnce() throws Exception {
+    validator.setWarnOnDuplicateAttributes(new String[] {Metacard.CHECKSUM});
+    MetacardImpl newMetacard = metacardWithChecksum("new metacard ID", "new-checksum-value");
+
+    MetacardValidator batchValidator =
+        validator.forMetacards(Arrays.asList(testMetacard, newMetacard));
+
+    ValidationException expectedException = null;
+    try {
+      batchValidator.validate(testMetacard);
+    } catch (ValidationException e) {
+      expectedException = e;
+    }
+    batchValidator.validate(newMetacard);
+
+    assertThat(expectedException, is(not(nullValue())));
+    assertThat(expectedException.getWarnings(), hasSize(1));
+    assertThat(expectedException.getWarnings().get(0), containsString(ID));
+    verify(mockFramework, times(1)).query(any(QueryRequest.class));
+  }
+
+  @Test
+  public void testBatchValidationSplitsLargeBatches() throws Exception {
+    validator.setWarnOnDuplicateAttributes(new String[] {Metacard.CHECKSUM});
+    List<Metacard> metacards = new ArrayList<>();
+    for (int i = 0; i <= DuplicationValidator.MAX_VALUES_PER_QUERY; i++) {
+      metacards.add(metacardWithChecksum("id " + i, "checksum " + i));
+    }
+
+    validator.forMetacards(metacards);
+
+    verify(mockFramework, times(2)).query(any(QueryRequest.class));
+  }
+
+  @Test
+  public void testSingleMetacardIsNotValidatedAsBatch() {
+    validator.setWarnOnDuplicateAttributes(new String[] {Metacard.CHECKSUM});
+
+    assertThat(
+        validator.forMetacards(Collections.singletonList(testMetacard)),
+        is(sameInstance(validator)));
+  }
+
+  @Test
+  public void testBloomFilterIsDisabledByDefault() {
+    validator =
+        new DuplicationValidator(
+            mockFramework,
+            mockFilterBuilder,
+            mock(Security.class),
+            MoreExecutors.newDirectExecutorService());
+    validator.setWarnOnDuplicateAttributes(new String[] {Metacard.CHECKSUM});
+
+    assertThat(
+        isDuplicate(validator, metacardWithChecksum("new metacard ID", "new-value")), is(true));
+    verify(mockFramework, times(1)).query(any(QueryRequest.class));
+  }
+
+  @Test
+  public void testBloomFilterSkipsQueryForNewValues() throws Exception {
+    validator = bloomFilterValidator();
+    validator.setWarnOnDuplicateAttributes(new String[] {Metacard.CHECKSUM});
+
+    // loads the values of the catalog, then skips the query for the new value
+    assertThat(
+        isDuplicate(validator, metacardWithChecksum("new metacard ID", "new-value")), is(false));
+    verify(mockFramework, times(1)).query(any(QueryRequest.class));
+
+    // the value of the validated metacard is no longer new
+    isDuplicate(validator, metacardWithChecksum("other metacard ID", "new-value"));
+    verify(mockFramework, times(2)).query(any(QueryRequest.class));
+
+    assertThat(isDuplicate(validator, testMetacard), is(true));
+    verify(mockFramework, times(3)).query(any(QueryRequest.class));
+  }
+
+  @Test
+  public void testBloomFilterLoadsEveryMetacardInIdOrder() throws Exception {
+    validator = bloomFilterValidator();
+    validator.setWarnOnDuplicateAttributes(new String[] {Metacard.CHECKSUM});
+
+    isDuplicate(validator, metacardWithChecksum("new metacard ID", "new-value"));
+
+    ArgumentCaptor<QueryRequest> requestCaptor = ArgumentCaptor.forClass(QueryRequest.class);
+    verify(mockFramework).query(requestCaptor.capture());
+    verify(mockFilterBuilder).attribute(Core.ID);
+    SortBy sortBy = requestCaptor.getValue().getQuery().getSortBy();
+    assertThat(sortBy.getPropertyName().getPropertyName(), is(Core.ID));
+    assertThat(sortBy.getSortOrder(), is(SortOrder.ASCENDING));
+  }
+
+  @Test
+  public void testBloomFilterIsNotUsedWhenLoadingFails() throws Exception {
+    QueryResponse response = mockFramework.query(mock(QueryRequest.class));
+    when(mockFramework.query(any(QueryRequest.class)))
+        .thenThrow(new UnsupportedQueryException("unsupported"))
+        .thenReturn(response);
+    validator = bloomFilterValidator();
+    validator.setWarnOnDuplicateAttributes(new String[] {Metacard.CHECKSUM});
+
+    // the values are looked up in the catalog since the Bloom filter was not loaded
+    assertThat(
+        isDuplicate(validator, metacardWithChecksum("new metacard ID", "new-value")), is(true));
+  }
+
+  private DuplicationValidator bloomFilterValidator() throws Exception {
+    Security security = mock(Security.class);
+    when(security.runAsAdmin(any()))
+        .thenAnswer(invocation -> ((PrivilegedAction) invocation.getArgument(0)).run());
+    when(security.runWithSubjectOrElevate(any()))
+        .thenAnswer(invocation -> ((Callable) invocation.getArgument(0)).call());
+    DuplicationValidator bloomFilterValidator =
+        new DuplicationValidator(
+            mockFramework, mockFilterBuilder, security, MoreExecutors.newDirectExecutorService());
+    bloomFilterValidator.setBloomFilterEnabled(true);
+    return bloomFilterValidator;
+  }
+
+  private boolean isDuplicate(MetacardValidator metacardValidator, Metacard metacard) {
+    try {
+      metacardValidator.validate(metacard);
+      return false;
+    } catch (ValidationException e) {
+      return true;
+    }
+  }
+
+  private MetacardImpl metacardWithChecksum(String id, String checksum) {
+    MetacardImpl metacard = new MetacardImpl();
+    metacard.setId(id);
+    metacard.setAttribute(new AttributeImpl(Metacard.CHECKSUM, checksum));
+    return metacard;
+  }
 }
@@ -16,7 +16,7 @@
 import ddf.mime.MimeTypeMapper;
 import ddf.mime.MimeTypeResolutionException;
 import ddf.mime.MimeTypeResolver;
-import java.io.IOException;
+import java.io.BufferedInputStream;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -25,10 +25,9 @@
 import org.apache.commons.lang.StringUtils;
 import org.apache.tika.detect.DefaultDetector;
 import org.apache.tika.detect.Detector;
-import org.apache.tika.io.IOUtils;
+import org.apache.tika.io.LookaheadInputStream;
 import org.apache.tika.metadata.Metadata;
 import org.apache.tika.mime.MediaType;
-import org.codice.ddf.platform.util.TemporaryFileBackedOutputStream;
 import org.codice.ddf.platform.util.XMLUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -48,6 +47,13 @@ public class MimeTypeMapperImpl implements MimeTypeMapper {
 
   private static final XMLUtils XML_UTILS = XMLUtils.getInstance();
 
+  // same as the number of bytes the Tika mime type detector looks at by default
+  private static final int DETECTION_LIMIT = 64 * 1024;
+
+  // loading the detectors scans the class path, so they are loaded once and shared; they are
+  // stateless and thread-safe
+  private final Detector detector = new DefaultDetector();
+
   /**
    * The {@link List} of {@link MimeTypeResolver}s configured for this mapper and will be searched
    * on mime type/file extension mapping requests.
@@ -165,32 +171,26 @@ public String guessMimeType(InputStream is, String fileExtension)
     // from being used when a CustomMimeTypeResolver may be more appropriate.
     List<MimeTypeResolver> sortedResolvers = sortResolvers(mimeTypeResolvers);
 
+    // The detector only looks at the beginning of the content and the stream is reset
+    // afterwards, so the content does not have to be copied
+    InputStream inputStream = is.markSupported() ? is : new BufferedInputStream(is);
+
     if (StringUtils.isEmpty(fileExtension)) {
-      try (TemporaryFileBackedOutputStream tfbos = new TemporaryFileBackedOutputStream()) {
-        IOUtils.copy(is, tfbos);
-        try (InputStream inputStream = tfbos.asByteSource().openStream()) {
-          Detector detector = new DefaultDetector();
-          MediaType mediaType = detector.detect(inputStream, new Metadata());
-
-          fileExtension = getFileExtensionForMimeType(mediaType.toString()).replace(".", "");
-        } finally {
-          is = tfbos.asByteSource().openStream();
-        }
+      try (InputStream prefix = new LookaheadInputStream(inputStream, DETECTION_LIMIT)) {
+        MediaType mediaType = detector.detect(prefix, new Metadata());
 
+        fileExtension = getFileExtensionForMimeType(mediaType.toString()).replace(".", "");
       } catch (Exception e) {
         LOGGER.debug("Failed to guess mimeType for file without extension.");
       }
     }
 
     // If file has XML extension, then read root element namespace once so
-    // each MimeTypeResolver does not have to open the stream and read the namespace
+    // each MimeTypeResolver does not have to open the stream and read the namespace.
+    // Only the XML up to the root element is read.
     String namespace = null;
-    if (fileExtension.equals(XML_FILE_EXTENSION)) {
-      try {
-        namespace = XML_UTILS.getRootNamespace(IOUtils.toString(is));
-      } catch (IOException ioe) {
-        LOGGER.debug("Could not read namespace from input stream.", ioe);
-      }
+    if (XML_FILE_EXTENSION.equals(fileExtension)) {
+      namespace = XML_UTILS.getRootNamespace(inputStream);
       LOGGER.debug("namespace = {}", namespace);
     }
 
@@ -209,7 +209,7 @@ public String guessMimeType(InputStream is, String fileExtension)
         // Even if a MimeTypeResolver, such as the TikaMimeTypeResolver, were to handle
         // XML files that have no "known" schema it is highly unlikely there would be
         // an InputTransformer to create a metacard for that "generic" XML file.
-        if (fileExtension.equals(XML_FILE_EXTENSION)) {
+        if (XML_FILE_EXTENSION.equals(fileExtension)) {
           if (namespace != null && resolver.hasSchema()) {
             if (namespace.equals(resolver.getSchema())) {
               mimeType = resolver.getMimeTypeForFileExtension(fileExtension);
@@ -13,6 +13,8 @@
  */
 package ddf.mime.mapper;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThan;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 
@@ -22,6 +24,7 @@
 import ddf.mime.tika.TikaMimeTypeResolver;
 import java.io.File;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.List;
 import org.apache.commons.io.FileUtils;
@@ -143,6 +146,19 @@ public void testGuessMimeTypeForXmlIngestNoExtension() throws Exception {
     assertEquals("text/xml", mimeType);
   }
 
+  @Test
+  public void testGuessMimeTypeOnlyReadsBeginningOfLargeXml() throws Exception {
+    MimeTypeMapper mapper = new MimeTypeMapperImpl(MOCK_MIME_TYPE_RESOLVERS);
+
+    LargeXmlInputStream is = new LargeXmlInputStream();
+    assertEquals("text/xml;id=csw", mapper.guessMimeType(is, "xml"));
+    assertThat(is.bytesRead, lessThan(LargeXmlInputStream.SIZE / 10));
+
+    is = new LargeXmlInputStream();
+    assertEquals("text/xml;id=csw", mapper.guessMimeType(is, ""));
+    assertThat(is.bytesRead, lessThan(LargeXmlInputStream.SIZE / 10));
+  }
+
   @Test
   public void testGuessMimeTypeForFileExtension() throws Exception {
     MimeTypeMapper mapper = new MimeTypeMapperImpl(MOCK_MIME_TYPE_RESOLVERS);
@@ -155,4 +171,27 @@ public void testGuessMimeTypeForFileExtension() throws Exception {
     LOGGER.debug("mimeType = {}", mimeType);
     assertEquals("image/nitf", mimeType);
   }
+
+  /** A CSW record with 10 MB of whitespace after its root element. */
+  private static class LargeXmlInputStream extends InputStream {
+
+    private static final int SIZE = 10 * 1024 * 1024;
+
+    private static final byte[] ROOT =
+        ("<?xml version=\"1.0\"?>"
+                + "<csw:Record xmlns:csw=\"http://www.opengis.net/cat/csw/2.0.2\">")
+            .getBytes(StandardCharsets.UTF_8);
+
+    private int bytesRead;
+
+    @Override
+    public int read() {
+      if (bytesRead >= SIZE) {
+        return -1;
+      }
+      int b = bytesRead < ROOT.length ? ROOT[bytesRead] : ' ';
+      bytesRead++;
+      return b;
+    }
+  }
 }
@@ -36,6 +36,8 @@ public class LogEvent {
 
   private final String message;
 
+  private final String loggerName;
+
   private final String bundleName;
 
   private final String bundleVersion;
@@ -50,6 +52,7 @@ public class LogEvent {
     this.timestamp = paxLoggingEvent.getTimeStamp();
     this.level = getLevel(paxLoggingEvent.getLevel().toInt());
     this.message = paxLoggingEvent.getMessage();
+    this.loggerName = paxLoggingEvent.getLoggerName();
     this.bundleName = getBundleName(paxLoggingEvent);
     this.bundleVersion = getBundleVersion(paxLoggingEvent);
   }
@@ -76,6 +79,15 @@ public String getMessage() {
     return message;
   }
 
+  /**
+   * Returns the name of the logger that created this {@link LogEvent}
+   *
+   * @return the name of the logger that created this {@link LogEvent} (can be null)
+   */
+  public String getLoggerName() {
+    return loggerName;
+  }
+
   /**
    * Returns the name of the bundle that created this {@link LogEvent}
    *
@@ -108,6 +120,7 @@ public boolean equals(Object anotherLogEvent) {
         .append(timestamp, rhs.getTimestamp())
         .append(level.getLevel(), rhs.getLevel().getLevel())
         .append(message, rhs.getMessage())
+        .append(loggerName, rhs.getLoggerName())
         .append(bundleName, rhs.getBundleName())
         .append(bundleVersion, rhs.getBundleVersion())
         .isEquals();
@@ -119,6 +132,7 @@ public int hashCode() {
         .append(timestamp)
         .append(level)
         .append(message)
+        .append(loggerName)
         .append(bundleName)
         .append(bundleVersion)
         .toHashCode();
@@ -0,0 +1,116 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.platform.logging;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Predicate;
+
+/**
+ * Fixed-size ring buffer of the most recent {@link LogEvent}s.
+ *
+ * <p>Appending does not lock: each event claims the next sequence number and is stored in the slot
+ * of that sequence number, overwriting the oldest event once the buffer is full. Readers walk the
+ * slots without copying the buffer and skip the slots that are being written or that were
+ * overwritten while they read.
+ */
+class LogEventBuffer {
+
+  private final int capacity;
+
+  private final AtomicReferenceArray<Entry> slots;
+
+  private final AtomicLong nextSequence = new AtomicLong();
+
+  LogEventBuffer(int capacity) {
+    this.capacity = capacity;
+    this.slots = new AtomicReferenceArray<>(capacity);
+  }
+
+  int getCapacity() {
+    return capacity;
+  }
+
+  void add(LogEvent logEvent) {
+    long sequence = nextSequence.getAndIncrement();
+    slots.set(getSlot(sequence), new Entry(sequence, logEvent));
+  }
+
+  /** @return the number of events that were overwritten by newer events */
+  long getEvictedCount() {
+    return Math.max(0, nextSequence.get() - capacity);
+  }
+
+  /** @return the stored events, oldest first */
+  List<LogEvent> getLogEvents() {
+    long end = nextSequence.get();
+    List<LogEvent> logEvents = new ArrayList<>((int) Math.min(end, capacity));
+    for (long sequence = Math.max(0, end - capacity); sequence < end; sequence++) {
+      LogEvent logEvent = get(sequence);
+      if (logEvent != null) {
+        logEvents.add(logEvent);
+      }
+    }
+    return logEvents;
+  }
+
+  /**
+   * Returns a page of the stored events that match {@code filter}, most recent first.
+   *
+   * @param filter the events to return
+   * @param offset the number of matching events to skip
+   * @param limit the maximum number of events to return
+   */
+  List<LogEvent> getLogEvents(Predicate<LogEvent> filter, int offset, int limit) {
+    long end = nextSequence.get();
+    List<LogEvent> logEvents = new ArrayList<>(Math.min(limit, capacity));
+    int skipped = 0;
+    for (long sequence = end - 1;
+        sequence >= Math.max(0, end - capacity) && logEvents.size() < limit;
+        sequence--) {
+      LogEvent logEvent = get(sequence);
+      if (logEvent != null && filter.test(logEvent)) {
+        if (skipped < offset) {
+          skipped++;
+        } else {
+          logEvents.add(logEvent);
+        }
+      }
+    }
+    return logEvents;
+  }
+
+  private LogEvent get(long sequence) {
+    Entry entry = slots.get(getSlot(sequence));
+    return entry != null && entry.sequence == sequence ? entry.logEvent : null;
+  }
+
+  private int getSlot(long sequence) {
+    return (int) (sequence % capacity);
+  }
+
+  private static class Entry {
+
+    private final long sequence;
+
+    private final LogEvent logEvent;
+
+    private Entry(long sequence, LogEvent logEvent) {
+      this.sequence = sequence;
+      this.logEvent = logEvent;
+    }
+  }
+}
@@ -13,9 +13,8 @@
  */
 package org.codice.ddf.platform.logging;
 
-import com.google.common.collect.EvictingQueue;
-import com.google.common.collect.Lists;
 import java.util.List;
+import java.util.function.Predicate;
 import javax.management.InstanceAlreadyExistsException;
 import javax.management.InstanceNotFoundException;
 import javax.management.MBeanRegistrationException;
@@ -41,17 +40,18 @@ public class LoggingService implements PaxAppender, LoggingServiceMBean {
 
   private static final String MBEAN_OBJECT_NAME = CLASS_NAME + ":service=logging-service";
 
-  private static final int MAX_LOG_EVENTS_LIMIT = 5000;
+  private static final int MAX_LOG_EVENTS_LIMIT = 100000;
 
-  private static final int DEFAULT_LOG_EVENTS_LIMIT = 500;
+  private static final int DEFAULT_LOG_EVENTS_LIMIT = 5000;
 
   private final MBeanServer mBeanServer;
 
   private ObjectName objectName;
 
-  private EvictingQueue<LogEvent> logEvents;
+  private volatile LogEventBuffer logEvents = new LogEventBuffer(DEFAULT_LOG_EVENTS_LIMIT);
 
-  private int maxLogEvents = DEFAULT_LOG_EVENTS_LIMIT;
+  // events discarded by the buffers that were replaced when the maximum was changed
+  private long droppedLogEvents;
 
   /**
    * Constructor
@@ -66,9 +66,6 @@ public void init()
       throws MBeanRegistrationException, MalformedObjectNameException,
           InstanceAlreadyExistsException, InstanceNotFoundException, NotCompliantMBeanException {
     try {
-      if (logEvents == null) {
-        logEvents = EvictingQueue.create(DEFAULT_LOG_EVENTS_LIMIT);
-      }
       objectName = new ObjectName(MBEAN_OBJECT_NAME);
       mBeanServer.registerMBean(this, objectName);
       LOGGER.debug("Registered [{}] MBean under object name: [{}].", CLASS_NAME, objectName);
@@ -98,12 +95,44 @@ public void destroy() {
    */
   @Override
   public void doAppend(PaxLoggingEvent paxLoggingEvent) {
-    add(new LogEvent(paxLoggingEvent));
+    logEvents.add(new LogEvent(paxLoggingEvent));
   }
 
   @Override
-  public synchronized List<LogEvent> retrieveLogEvents() {
-    return Lists.newArrayList(logEvents);
+  public List<LogEvent> retrieveLogEvents() {
+    return logEvents.getLogEvents();
+  }
+
+  @Override
+  public List<LogEvent> searchLogEvents(
+      String level, String loggerName, Long startTime, Long endTime, int offset, int limit) {
+    if (offset < 0 || limit < 0) {
+      throw new IllegalArgumentException(
+          String.format(
+              "An invalid offset [%d] or limit [%d] was entered. Neither can be negative.",
+              offset, limit));
+    }
+
+    Predicate<LogEvent> filter = logEvent -> true;
+    if (level != null) {
+      LogEvent.Level minimumLevel = LogEvent.Level.valueOf(level.toUpperCase());
+      filter = filter.and(logEvent -> isAtLeast(logEvent.getLevel(), minimumLevel));
+    }
+    if (loggerName != null) {
+      filter = filter.and(logEvent -> isChildLogger(logEvent.getLoggerName(), loggerName));
+    }
+    if (startTime != null) {
+      filter = filter.and(logEvent -> logEvent.getTimestamp() >= startTime);
+    }
+    if (endTime != null) {
+      filter = filter.and(logEvent -> logEvent.getTimestamp() <= endTime);
+    }
+    return logEvents.getLogEvents(filter, offset, limit);
+  }
+
+  @Override
+  public synchronized long getDroppedLogEvents() {
+    return droppedLogEvents + logEvents.getEvictedCount();
   }
 
   /**
@@ -125,22 +154,27 @@ public synchronized void setMaxLogEvents(int newMaxLogEvents) {
       throw new IllegalArgumentException(message);
     }
 
-    EvictingQueue<LogEvent> evictingQueue = createNewEvictingQueue(newMaxLogEvents);
-    this.maxLogEvents = newMaxLogEvents;
-    logEvents = evictingQueue;
+    // events appended while the stored events are copied may be lost
+    LogEventBuffer oldLogEvents = logEvents;
+    LogEventBuffer newLogEvents = new LogEventBuffer(newMaxLogEvents);
+    oldLogEvents.getLogEvents().forEach(newLogEvents::add);
+    droppedLogEvents += oldLogEvents.getEvictedCount();
+    logEvents = newLogEvents;
   }
 
-  public synchronized int getMaxLogEvents() {
-    return maxLogEvents;
+  public int getMaxLogEvents() {
+    return logEvents.getCapacity();
   }
 
-  private synchronized void add(LogEvent logEvent) {
-    logEvents.add(logEvent);
+  private static boolean isAtLeast(LogEvent.Level level, LogEvent.Level minimumLevel) {
+    // UNKNOWN is the last level but is not more severe than the others
+    if (level == LogEvent.Level.UNKNOWN || minimumLevel == LogEvent.Level.UNKNOWN) {
+      return level == minimumLevel;
+    }
+    return level.ordinal() >= minimumLevel.ordinal();
   }
 
-  private EvictingQueue<LogEvent> createNewEvictingQueue(int newMaxLogEvents) {
-    EvictingQueue<LogEvent> evictingQueue = EvictingQueue.create(newMaxLogEvents);
-    evictingQueue.addAll(logEvents);
-    return evictingQueue;
+  private static boolean isChildLogger(String name, String parentName) {
+    return name != null && (name.equals(parentName) || name.startsWith(parentName + "."));
   }
 }
@@ -29,4 +29,29 @@ public interface LoggingServiceMBean {
    */
   @NotNull
   List<LogEvent> retrieveLogEvents();
+
+  /**
+   * Retrieves a page of the stored {@link LogEvent}s that match all of the given criteria
+   *
+   * @param level minimum level of the events to retrieve, or null for all levels
+   * @param loggerName name of the logger of the events to retrieve, including its child loggers,
+   *     or null for all loggers
+   * @param startTime earliest timestamp of the events to retrieve, in milliseconds since the epoch,
+   *     or null for no lower bound
+   * @param endTime latest timestamp of the events to retrieve, in milliseconds since the epoch, or
+   *     null for no upper bound
+   * @param offset number of matching events to skip
+   * @param limit maximum number of events to retrieve
+   * @return non-null list of {@link LogEvent}s in descending order
+   */
+  @NotNull
+  List<LogEvent> searchLogEvents(
+      String level, String loggerName, Long startTime, Long endTime, int offset, int limit);
+
+  /**
+   * Returns the number of {@link LogEvent}s that were discarded to make room for newer ones
+   *
+   * @return the number of discarded {@link LogEvent}s
+   */
+  long getDroppedLogEvents();
 }
@@ -15,13 +15,19 @@
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import javax.management.MBeanServer;
 import org.apache.log4j.Priority;
 import org.junit.Test;
@@ -38,7 +44,7 @@ public class LoggingServiceTest {
 
   private static final String BUNDLE_VERSION_KEY = "bundle.version";
 
-  private static final int MAX_LOG_EVENTS_LIMIT = 5000;
+  private static final int MAX_LOG_EVENTS_LIMIT = 100000;
 
   @Mock private MBeanServer mockMBeanServer;
 
@@ -117,6 +123,79 @@ public void testDoAppendWhenLoggingQueueIsFull() throws Exception {
         contains(expectedLogEvents.toArray(new LogEvent[expectedLogEvents.size()])));
   }
 
+  @Test
+  public void testDroppedLogEvents() throws Exception {
+    LoggingService loggingServiceBean = getLoggingService();
+    loggingServiceBean.setMaxLogEvents(3);
+    appendLogs(loggingServiceBean, getMockPaxLoggingEventsTimestampOrderSmallestToLargest(5));
+
+    assertThat(loggingServiceBean.getDroppedLogEvents(), is(2L));
+
+    loggingServiceBean.setMaxLogEvents(1);
+
+    assertThat(loggingServiceBean.getDroppedLogEvents(), is(4L));
+  }
+
+  @Test
+  public void testSearchLogEventsByLevelAndLogger() throws Exception {
+    PaxLoggingEvent debug = getMockPaxLoggingEvent(1, "DEBUG", "ddf.catalog.Foo");
+    PaxLoggingEvent info = getMockPaxLoggingEvent(2, "INFO", "ddf.catalog.Foo");
+    PaxLoggingEvent error = getMockPaxLoggingEvent(3, "ERROR", "ddf.catalogue.Bar");
+    PaxLoggingEvent warn = getMockPaxLoggingEvent(4, "WARN", "ddf.catalog");
+    LoggingService loggingServiceBean = getLoggingService();
+    appendLogs(loggingServiceBean, Arrays.asList(debug, info, error, warn));
+
+    assertThat(
+        loggingServiceBean.searchLogEvents("info", null, null, null, 0, 10),
+        contains(getExpectedLogEvents(Arrays.asList(warn, error, info)).toArray()));
+    assertThat(
+        loggingServiceBean.searchLogEvents(null, "ddf.catalog", null, null, 0, 10),
+        contains(getExpectedLogEvents(Arrays.asList(warn, info, debug)).toArray()));
+    assertThat(
+        loggingServiceBean.searchLogEvents("INFO", "ddf.catalog", null, null, 0, 10),
+        contains(getExpectedLogEvents(Arrays.asList(warn, info)).toArray()));
+  }
+
+  @Test
+  public void testSearchLogEventsByTimeWithPaging() throws Exception {
+    List<PaxLoggingEvent> mockPaxLoggingEvents =
+        getMockPaxLoggingEventsTimestampOrderSmallestToLargest(10);
+    List<LogEvent> expectedLogEvents = getExpectedLogEvents(mockPaxLoggingEvents);
+    LoggingService loggingServiceBean = getLoggingService();
+    appendLogs(loggingServiceBean, mockPaxLoggingEvents);
+
+    assertThat(
+        loggingServiceBean.searchLogEvents(null, null, 2L, 7L, 0, 3),
+        contains(expectedLogEvents.get(7), expectedLogEvents.get(6), expectedLogEvents.get(5)));
+    assertThat(
+        loggingServiceBean.searchLogEvents(null, null, 2L, 7L, 3, 3),
+        contains(expectedLogEvents.get(4), expectedLogEvents.get(3), expectedLogEvents.get(2)));
+    assertThat(loggingServiceBean.searchLogEvents(null, null, 2L, 7L, 6, 3), hasSize(0));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSearchLogEventsNegativeOffset() throws Exception {
+    getLoggingService().searchLogEvents(null, null, null, null, -1, 10);
+  }
+
+  @Test
+  public void testConcurrentDoAppend() throws Exception {
+    List<PaxLoggingEvent> mockPaxLoggingEvents =
+        getMockPaxLoggingEventsTimestampOrderSmallestToLargest(100);
+    LoggingService loggingServiceBean = getLoggingService();
+    loggingServiceBean.setMaxLogEvents(1000);
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    for (int i = 0; i < 20; i++) {
+      executor.execute(() -> appendLogs(loggingServiceBean, mockPaxLoggingEvents));
+    }
+    executor.shutdown();
+    assertThat(executor.awaitTermination(30, TimeUnit.SECONDS), is(true));
+
+    assertThat(loggingServiceBean.retrieveLogEvents(), hasSize(1000));
+    assertThat(loggingServiceBean.getDroppedLogEvents(), is(1000L));
+  }
+
   @Test
   public void testDestroy() throws Exception {
     LoggingService loggingServiceBean = getLoggingService();
@@ -211,6 +290,13 @@ private PaxLoggingEvent getMockPaxLoggingEvent(
     return mockPaxLoggingEvent;
   }
 
+  private PaxLoggingEvent getMockPaxLoggingEvent(long timestamp, String level, String loggerName) {
+    PaxLoggingEvent mockPaxLoggingEvent =
+        getMockPaxLoggingEvent(timestamp, level, "message " + timestamp, "my-bundle-name", "1.2.3");
+    when(mockPaxLoggingEvent.getLoggerName()).thenReturn(loggerName);
+    return mockPaxLoggingEvent;
+  }
+
   private void appendLogs(
       LoggingService loggingServiceBean, List<PaxLoggingEvent> mockPaxLoggingEvents) {
     for (PaxLoggingEvent mockPaxLoggingEvent : mockPaxLoggingEvents) {
@@ -16,8 +16,12 @@
 import static org.apache.commons.lang3.StringUtils.isBlank;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import ddf.security.SecurityConstants;
 import ddf.security.audit.SecurityLogger;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -33,6 +37,9 @@
 import java.security.cert.X509Certificate;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -41,6 +48,14 @@
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 import javax.ws.rs.ProcessingException;
@@ -74,6 +89,7 @@
 import org.codice.ddf.cxf.client.ClientBuilder;
 import org.codice.ddf.cxf.client.ClientBuilderFactory;
 import org.codice.ddf.cxf.client.SecureCxfClientFactory;
+import org.codice.ddf.platform.util.StandardThreadFactoryBuilder;
 import org.codice.ddf.security.OcspService;
 import org.codice.ddf.system.alerts.NoticePriority;
 import org.codice.ddf.system.alerts.SystemNotice;
@@ -87,11 +103,36 @@ public class OcspChecker implements OcspService {
   private static final String NOT_VERIFIED_MSG = " The certificate status could not be verified.";
   private static final String CONTINUING_MSG = " Continuing OCSP check.";
 
+  private static final String METRICS_PREFIX = "ddf.security.ocsp.";
+  private static final Counter CACHE_HITS = Metrics.counter(METRICS_PREFIX + "cache.hits");
+  private static final Counter CACHE_MISSES = Metrics.counter(METRICS_PREFIX + "cache.misses");
+
+  private static final int RESPONSE_CACHE_SIZE = 10000;
+  private static final int DEFAULT_RESPONSE_CACHE_SECONDS = 300;
+  private static final long CLOCK_SKEW_MILLIS = TimeUnit.MINUTES.toMillis(5);
+  private static final long MAX_REFRESH_WINDOW_MILLIS = TimeUnit.MINUTES.toMillis(1);
+  private static final long DEFAULT_RESPONDER_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(30);
+  private static final int SHUTDOWN_TIMEOUT_SECONDS = 10;
+
+  // Responders are queried in parallel, so a check takes as long as the slowest responder
+  private final ExecutorService responderExecutor =
+      Executors.newFixedThreadPool(
+          16, StandardThreadFactoryBuilder.newThreadFactory("ocspResponderThread"));
+
+  private final ExecutorService refreshExecutor =
+      Executors.newSingleThreadExecutor(
+          StandardThreadFactoryBuilder.newThreadFactory("ocspRefreshThread"));
+
   private final ClientBuilderFactory factory;
   private final EventAdmin eventAdmin;
 
   private boolean ocspEnabled; // metatype value
   private List<URI> ocspServerUrls = new ArrayList<>(); // metatype value
+  private int responseCacheSeconds = DEFAULT_RESPONSE_CACHE_SECONDS; // metatype value
+  private long responderTimeoutMillis = DEFAULT_RESPONDER_TIMEOUT_MILLIS;
+
+  private volatile Cache<List<Object>, CachedStatus> responseCache =
+      newResponseCache(DEFAULT_RESPONSE_CACHE_SECONDS);
 
   private SecurityLogger securityLogger;
 
@@ -118,10 +159,7 @@ public boolean passesOcspCheck(X509Certificate[] certs) {
     LOGGER.debug("OCSP check for {} certificate(s)", certs == null ? "0" : certs.length);
     for (X509Certificate cert : certs) {
       try {
-        Certificate certificate = convertToBouncyCastleCert(cert);
-        OCSPReq ocspRequest = generateOcspRequest(certificate);
-        Map<URI, CertificateStatus> ocspStatuses = sendOcspRequests(cert, ocspRequest);
-        URI revokedStatusUrl = getFirstRevokedStatusUrl(ocspStatuses);
+        URI revokedStatusUrl = getRevokedStatusUrl(cert);
         if (revokedStatusUrl != null) {
           securityLogger.audit(
               "Certificate {} has been revoked by the OCSP server at URL {}.",
@@ -143,6 +181,104 @@ public boolean passesOcspCheck(X509Certificate[] certs) {
     return true;
   }
 
+  /**
+   * Returns the URL of the OCSP server that revoked the given {@param cert}. The status is answered
+   * from the response cache while the cached OCSP responses are current. Cached statuses that are
+   * about to expire are refreshed in the background.
+   *
+   * @param cert - the {@link X509Certificate} to check.
+   * @return the URL of the first revoked status, or null if no revoked status was found.
+   * @throws OcspCheckerException if any error occurs.
+   */
+  private @Nullable URI getRevokedStatusUrl(X509Certificate cert) throws OcspCheckerException {
+    Cache<List<Object>, CachedStatus> cache = responseCache;
+    if (cache != null) {
+      CachedStatus cachedStatus = cache.getIfPresent(getCacheKey(cert));
+      long now = System.currentTimeMillis();
+      if (cachedStatus != null && now < cachedStatus.expires) {
+        CACHE_HITS.increment();
+        if (cachedStatus.isRefreshDue(now)) {
+          refreshInBackground(cert);
+        }
+        return cachedStatus.revokedStatusUrl;
+      }
+      CACHE_MISSES.increment();
+    }
+    return checkRevokedStatusUrl(cert);
+  }
+
+  private @Nullable URI checkRevokedStatusUrl(X509Certificate cert) throws OcspCheckerException {
+    Certificate certificate = convertToBouncyCastleCert(cert);
+    OCSPReq ocspRequest = generateOcspRequest(certificate);
+    Map<URI, ResponderStatus> responderStatuses = queryResponders(cert, ocspRequest);
+    URI revokedStatusUrl = getFirstRevokedStatusUrl(toCertificateStatuses(responderStatuses));
+    cacheStatus(cert, responderStatuses, revokedStatusUrl);
+    return revokedStatusUrl;
+  }
+
+  private void refreshInBackground(X509Certificate cert) {
+    try {
+      refreshExecutor.execute(
+          () -> {
+            try {
+              checkRevokedStatusUrl(cert);
+            } catch (OcspCheckerException e) {
+              LOGGER.debug("Unable to refresh the cached OCSP status of {}.", cert, e);
+            }
+          });
+    } catch (RejectedExecutionException e) {
+      LOGGER.debug("Unable to schedule the refresh of the cached OCSP status of {}.", cert, e);
+    }
+  }
+
+  /**
+   * Caches the status of the given {@param cert} until the earliest {@code nextUpdate} of the OCSP
+   * responses it was derived from, and for at most {@code responseCacheSeconds}. A good status is
+   * only cached when every OCSP server answered, since a server that could not be reached may know
+   * of a revocation. Responses with a {@code thisUpdate} in the future are not cached.
+   */
+  private void cacheStatus(
+      X509Certificate cert,
+      Map<URI, ResponderStatus> responderStatuses,
+      @Nullable URI revokedStatusUrl) {
+    Cache<List<Object>, CachedStatus> cache = responseCache;
+    if (cache == null || responderStatuses.isEmpty()) {
+      return;
+    }
+
+    Collection<ResponderStatus> answers =
+        revokedStatusUrl == null
+            ? responderStatuses.values()
+            : Collections.singleton(responderStatuses.get(revokedStatusUrl));
+    long now = System.currentTimeMillis();
+    long expires = now + TimeUnit.SECONDS.toMillis(responseCacheSeconds);
+    for (ResponderStatus answer : answers) {
+      if (answer.status instanceof UnknownStatus
+          || answer.thisUpdate == null
+          || answer.thisUpdate.getTime() > now + CLOCK_SKEW_MILLIS) {
+        return;
+      }
+      if (answer.nextUpdate != null) {
+        expires = Math.min(expires, answer.nextUpdate.getTime());
+      }
+    }
+
+    if (expires > now) {
+      cache.put(getCacheKey(cert), new CachedStatus(revokedStatusUrl, now, expires));
+    }
+  }
+
+  private static List<Object> getCacheKey(X509Certificate cert) {
+    return Arrays.asList(cert.getIssuerX500Principal(), cert.getSerialNumber());
+  }
+
+  private static Cache<List<Object>, CachedStatus> newResponseCache(int responseCacheSeconds) {
+    if (responseCacheSeconds <= 0) {
+      return null;
+    }
+    return CacheBuilder.newBuilder().maximumSize(RESPONSE_CACHE_SIZE).build();
+  }
+
   /**
    * Converts a {@link java.security.cert.X509Certificate} to a {@link Certificate}.
    *
@@ -287,6 +423,10 @@ private X509CertificateHolder getCertFromTruststoreWithX500Name(
    */
   @VisibleForTesting
   Map<URI, CertificateStatus> sendOcspRequests(X509Certificate cert, OCSPReq ocspRequest) {
+    return toCertificateStatuses(queryResponders(cert, ocspRequest));
+  }
+
+  private Map<URI, ResponderStatus> queryResponders(X509Certificate cert, OCSPReq ocspRequest) {
     Set<URI> urlsToCheck = new HashSet<>();
     if (ocspServerUrls != null) {
       urlsToCheck.addAll(ocspServerUrls);
@@ -299,41 +439,95 @@ Map<URI, CertificateStatus> sendOcspRequests(X509Certificate cert, OCSPReq ocspR
       logRequest(ocspRequest);
     }
 
-    Map<URI, CertificateStatus> ocspStatuses = new HashMap<>();
+    Map<URI, Future<ResponderStatus>> pendingStatuses = new HashMap<>();
+    Map<URI, ResponderStatus> ocspStatuses = new HashMap<>();
 
     for (URI ocspServerUrl : urlsToCheck) {
       try {
-        ClientBuilder<WebClient> clientBuilder = factory.getClientBuilder();
-        SecureCxfClientFactory<WebClient> cxfClientFactory =
-            clientBuilder
-                .endpoint(ocspServerUrl.toString())
-                .interfaceClass(WebClient.class)
-                .build();
-        WebClient client =
-            cxfClientFactory
-                .getWebClient()
-                .accept("application/ocsp-response")
-                .type("application/ocsp-request");
-
-        LOGGER.debug("Sending OCSP request to URL: {}", ocspServerUrl);
-        Response response = client.post(ocspRequest.getEncoded());
-        OCSPResp ocspResponse = createOcspResponse(response);
-        if (LOGGER.isTraceEnabled()) {
-          logResponse(ocspResponse);
-        }
-        ocspStatuses.put(ocspServerUrl, getStatusFromOcspResponse(ocspResponse, cert));
-        continue;
-      } catch (IOException | OcspCheckerException | ProcessingException e) {
+        // client builders are not thread-safe, so the clients are created on this thread
+        WebClient client = createWebClient(ocspServerUrl);
+        pendingStatuses.put(
+            ocspServerUrl,
+            responderExecutor.submit(
+                () -> sendOcspRequest(ocspServerUrl, client, ocspRequest, cert)));
+      } catch (ProcessingException | RejectedExecutionException e) {
+        LOGGER.debug(
+            "Problem sending the request to the OCSP Server at URL {}." + CONTINUING_MSG,
+            ocspServerUrl,
+            e);
+        ocspStatuses.put(ocspServerUrl, ResponderStatus.UNKNOWN);
+      }
+    }
+
+    // the responders are waited for in parallel, so they all share the same deadline
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(responderTimeoutMillis);
+    for (Entry<URI, Future<ResponderStatus>> pendingStatus : pendingStatuses.entrySet()) {
+      URI ocspServerUrl = pendingStatus.getKey();
+      try {
+        ocspStatuses.put(
+            ocspServerUrl,
+            pendingStatus.getValue().get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS));
+      } catch (TimeoutException e) {
+        LOGGER.debug(
+            "The OCSP Server at URL {} did not respond within {} ms." + CONTINUING_MSG,
+            ocspServerUrl,
+            responderTimeoutMillis);
+        pendingStatus.getValue().cancel(true);
+        ocspStatuses.put(ocspServerUrl, ResponderStatus.UNKNOWN);
+      } catch (ExecutionException e) {
         LOGGER.debug(
             "Problem with the response from the OCSP Server at URL {}." + CONTINUING_MSG,
             ocspServerUrl,
             e);
+        ocspStatuses.put(ocspServerUrl, ResponderStatus.UNKNOWN);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        ocspStatuses.put(ocspServerUrl, ResponderStatus.UNKNOWN);
       }
-      ocspStatuses.put(
+    }
+
+    return ocspStatuses;
+  }
+
+  private WebClient createWebClient(URI ocspServerUrl) {
+    ClientBuilder<WebClient> clientBuilder = factory.getClientBuilder();
+    SecureCxfClientFactory<WebClient> cxfClientFactory =
+        clientBuilder.endpoint(ocspServerUrl.toString()).interfaceClass(WebClient.class).build();
+    return cxfClientFactory
+        .getWebClient()
+        .accept("application/ocsp-response")
+        .type("application/ocsp-request");
+  }
+
+  private ResponderStatus sendOcspRequest(
+      URI ocspServerUrl, WebClient client, OCSPReq ocspRequest, X509Certificate cert) {
+    long start = System.nanoTime();
+    try {
+      LOGGER.debug("Sending OCSP request to URL: {}", ocspServerUrl);
+      Response response = client.post(ocspRequest.getEncoded());
+      OCSPResp ocspResponse = createOcspResponse(response);
+      if (LOGGER.isTraceEnabled()) {
+        logResponse(ocspResponse);
+      }
+      return getStatusFromOcspResponse(ocspResponse, cert);
+    } catch (IOException | OcspCheckerException | ProcessingException e) {
+      LOGGER.debug(
+          "Problem with the response from the OCSP Server at URL {}." + CONTINUING_MSG,
           ocspServerUrl,
-          new UnknownStatus()); // if ocspServerUrl is null or if there was an exception
+          e);
+      return ResponderStatus.UNKNOWN;
+    } finally {
+      Metrics.timer(METRICS_PREFIX + "responder.latency", "responder", ocspServerUrl.toString())
+          .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
     }
+  }
 
+  private static Map<URI, CertificateStatus> toCertificateStatuses(
+      Map<URI, ResponderStatus> responderStatuses) {
+    // a good status is null, which Collectors.toMap does not accept
+    Map<URI, CertificateStatus> ocspStatuses = new HashMap<>();
+    responderStatuses.forEach(
+        (url, responderStatus) -> ocspStatuses.put(url, responderStatus.status));
     return ocspStatuses;
   }
 
@@ -403,21 +597,22 @@ private OCSPResp createOcspResponse(Response response) throws OcspCheckerExcepti
    * Gets the {@link CertificateStatus} from the given {@param ocspResponse}.
    *
    * @param ocspResponse - the {@link OCSPResp} to get the {@link CertificateStatus} from.
-   * @return the {@link CertificateStatus} from the given {@param ocspResponse}. Returns an {@link
+   * @return the {@link CertificateStatus} from the given {@param ocspResponse}, with the time the
+   *     status was produced and the time newer information will be available. Returns an {@link
    *     UnknownStatus} if the status could not be found.
    */
-  private CertificateStatus getStatusFromOcspResponse(
+  private ResponderStatus getStatusFromOcspResponse(
       OCSPResp ocspResponse, X509Certificate certificate) {
     try {
       BasicOCSPResp basicResponse = (BasicOCSPResp) ocspResponse.getResponseObject();
 
       if (basicResponse == null) {
-        return new UnknownStatus();
+        return ResponderStatus.UNKNOWN;
       }
 
       SingleResp[] singleResps = basicResponse.getResponses();
       if (singleResps == null) {
-        return new UnknownStatus();
+        return ResponderStatus.UNKNOWN;
       }
       SingleResp response =
           Arrays.stream(singleResps)
@@ -432,15 +627,15 @@ private CertificateStatus getStatusFromOcspResponse(
               .orElse(null);
       if (response == null) {
         LOGGER.debug("Certificate status from OCSP response is unknown.");
-        return new UnknownStatus();
+        return ResponderStatus.UNKNOWN;
       }
       if (response.getCertStatus() == null) {
         LOGGER.debug("Certificate status from OCSP response is good.");
-        return CertificateStatus.GOOD;
       }
-      return response.getCertStatus();
+      return new ResponderStatus(
+          response.getCertStatus(), response.getThisUpdate(), response.getNextUpdate());
     } catch (OCSPException e) {
-      return new UnknownStatus();
+      return ResponderStatus.UNKNOWN;
     }
   }
 
@@ -671,6 +866,11 @@ public void setOcspEnabled(boolean ocspEnabled) {
     this.ocspEnabled = ocspEnabled;
   }
 
+  public void setResponseCacheSeconds(int responseCacheSeconds) {
+    this.responseCacheSeconds = responseCacheSeconds;
+    this.responseCache = newResponseCache(responseCacheSeconds);
+  }
+
   public void setOcspServerUrls(List<String> ocspServerUrls) {
     this.ocspServerUrls =
         ocspServerUrls.stream()
@@ -685,6 +885,11 @@ public void setOcspServerUrls(List<String> ocspServerUrls) {
                 })
             .filter(Objects::nonNull)
             .collect(Collectors.toList());
+    // statuses from other servers than the configured ones may be cached
+    Cache<List<Object>, CachedStatus> cache = responseCache;
+    if (cache != null) {
+      cache.invalidateAll();
+    }
   }
 
   /**
@@ -709,6 +914,44 @@ public OcspCheckerException(String msg, Exception cause) {
     }
   }
 
+  /** Status of a certificate as reported by one OCSP server. */
+  private static class ResponderStatus {
+    private static final ResponderStatus UNKNOWN =
+        new ResponderStatus(new UnknownStatus(), null, null);
+
+    private final CertificateStatus status;
+    private final Date thisUpdate;
+    private final Date nextUpdate;
+
+    private ResponderStatus(CertificateStatus status, Date thisUpdate, Date nextUpdate) {
+      this.status = status;
+      this.thisUpdate = thisUpdate;
+      this.nextUpdate = nextUpdate;
+    }
+  }
+
+  private static class CachedStatus {
+    private final URI revokedStatusUrl;
+    private final long cached;
+    private final long expires;
+    private final AtomicBoolean refreshing = new AtomicBoolean(false);
+
+    private CachedStatus(URI revokedStatusUrl, long cached, long expires) {
+      this.revokedStatusUrl = revokedStatusUrl;
+      this.cached = cached;
+      this.expires = expires;
+    }
+
+    /**
+     * Returns true once for a status that is used in the last tenth of its lifetime, or in its last
+     * minute, so that statuses still in use are refreshed before they expire.
+     */
+    private boolean isRefreshDue(long now) {
+      long refreshWindow = Math.min((expires - cached) / 10, MAX_REFRESH_WINDOW_MILLIS);
+      return now >= expires - refreshWindow && refreshing.compareAndSet(false, true);
+    }
+  }
+
   private static <T> T getValueOrDefault(T value, T defaultValue) {
     return value == null ? defaultValue : value;
   }
@@ -716,4 +959,26 @@ private static <T> T getValueOrDefault(T value, T defaultValue) {
   public void setSecurityLogger(SecurityLogger securityLogger) {
     this.securityLogger = securityLogger;
   }
+
+  @VisibleForTesting
+  void setResponderTimeoutMillis(long responderTimeoutMillis) {
+    this.responderTimeoutMillis = responderTimeoutMillis;
+  }
+
+  /** Destroy method to shut down the responder and refresh threads when the bundle is stopped. */
+  public void destroy() {
+    shutdown(responderExecutor);
+    shutdown(refreshExecutor);
+  }
+
+  private static void shutdown(ExecutorService executor) {
+    executor.shutdownNow();
+    try {
+      if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+        LOGGER.debug("OCSP threads did not terminate within {} seconds.", SHUTDOWN_TIMEOUT_SECONDS);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
 }
@@ -22,6 +22,8 @@
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import ddf.security.SecurityConstants;
@@ -34,8 +36,10 @@
 import java.security.cert.CertificateFactory;
 import java.security.cert.X509Certificate;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
 import java.util.stream.Collectors;
 import javax.security.auth.x500.X500Principal;
 import javax.ws.rs.core.Response;
@@ -629,6 +633,127 @@ public void testOcspCheckBrokenServerUrls() throws URISyntaxException {
     assertThat(ocspChecker.passesOcspCheck(certs), is(true));
   }
 
+  @Test
+  public void testOcspCheckGoodStatusIsCached() throws URISyntaxException {
+    goodEndpoints.add(new URI("https://goodurl:8993"));
+    goodEndpoints.add(new URI(EMBEDDED_OCSP_SERVER_URL));
+
+    OcspChecker ocspChecker = new OcspChecker(factory, eventAdmin);
+    ocspChecker.setSecurityLogger(mock(SecurityLogger.class));
+    ocspChecker.setOcspEnabled(true);
+    ocspChecker.setOcspServerUrls(Collections.singletonList("https://goodurl:8993"));
+
+    X509Certificate[] certs = new X509Certificate[] {trustedCertX509};
+
+    assertThat(ocspChecker.passesOcspCheck(certs), is(true));
+    assertThat(ocspChecker.passesOcspCheck(certs), is(true));
+    verify(goodWebClient, times(2)).post(any());
+  }
+
+  @Test
+  public void testOcspCheckRevokedStatusIsCached() throws URISyntaxException {
+    revokedEndpoints.add(new URI("https://revokedurl:8993"));
+    brokenEndpoints.add(new URI(EMBEDDED_OCSP_SERVER_URL));
+
+    OcspChecker ocspChecker = new OcspChecker(factory, eventAdmin);
+    ocspChecker.setSecurityLogger(mock(SecurityLogger.class));
+    ocspChecker.setOcspEnabled(true);
+    ocspChecker.setOcspServerUrls(Collections.singletonList("https://revokedurl:8993"));
+
+    X509Certificate[] certs = new X509Certificate[] {trustedCertX509};
+
+    assertThat(ocspChecker.passesOcspCheck(certs), is(false));
+    assertThat(ocspChecker.passesOcspCheck(certs), is(false));
+    verify(revokedWebClient, times(1)).post(any());
+  }
+
+  @Test
+  public void testOcspCheckGoodStatusWithBrokenServerIsNotCached() throws URISyntaxException {
+    goodEndpoints.add(new URI("https://goodurl:8993"));
+    brokenEndpoints.add(new URI(EMBEDDED_OCSP_SERVER_URL));
+
+    OcspChecker ocspChecker = new OcspChecker(factory, eventAdmin);
+    ocspChecker.setSecurityLogger(mock(SecurityLogger.class));
+    ocspChecker.setOcspEnabled(true);
+    ocspChecker.setOcspServerUrls(Collections.singletonList("https://goodurl:8993"));
+
+    X509Certificate[] certs = new X509Certificate[] {trustedCertX509};
+
+    assertThat(ocspChecker.passesOcspCheck(certs), is(true));
+    assertThat(ocspChecker.passesOcspCheck(certs), is(true));
+    verify(goodWebClient, times(2)).post(any());
+  }
+
+  @Test
+  public void testOcspCheckResponseCacheDisabled() throws URISyntaxException {
+    revokedEndpoints.add(new URI("https://revokedurl:8993"));
+    brokenEndpoints.add(new URI(EMBEDDED_OCSP_SERVER_URL));
+
+    OcspChecker ocspChecker = new OcspChecker(factory, eventAdmin);
+    ocspChecker.setSecurityLogger(mock(SecurityLogger.class));
+    ocspChecker.setOcspEnabled(true);
+    ocspChecker.setResponseCacheSeconds(0);
+    ocspChecker.setOcspServerUrls(Collections.singletonList("https://revokedurl:8993"));
+
+    X509Certificate[] certs = new X509Certificate[] {trustedCertX509};
+
+    assertThat(ocspChecker.passesOcspCheck(certs), is(false));
+    assertThat(ocspChecker.passesOcspCheck(certs), is(false));
+    verify(revokedWebClient, times(2)).post(any());
+  }
+
+  @Test
+  public void testSendOcspRequestsHungResponderIsUnknown() throws Exception {
+    URI hungEndpoint = new URI("https://hungurl:8993");
+    goodEndpoints.add(hungEndpoint);
+    brokenEndpoints.add(new URI(EMBEDDED_OCSP_SERVER_URL));
+    CountDownLatch responded = new CountDownLatch(1);
+    when(goodWebClient.post(any()))
+        .then(
+            invocation -> {
+              responded.await();
+              return goodResponse;
+            });
+
+    OcspChecker ocspChecker = new OcspChecker(factory, eventAdmin);
+    ocspChecker.setSecurityLogger(mock(SecurityLogger.class));
+    ocspChecker.setOcspEnabled(true);
+    ocspChecker.setResponderTimeoutMillis(100);
+    ocspChecker.setOcspServerUrls(Collections.singletonList(hungEndpoint.toString()));
+
+    try {
+      OCSPReq ocspReq = ocspChecker.generateOcspRequest(trustedCertBc);
+      Map<URI, CertificateStatus> ocspStatuses =
+          ocspChecker.sendOcspRequests(trustedCertX509, ocspReq);
+
+      assertThat(ocspStatuses.get(hungEndpoint), instanceOf(UnknownStatus.class));
+    } finally {
+      responded.countDown();
+      ocspChecker.destroy();
+    }
+  }
+
+  @Test
+  public void testSendOcspRequestsAfterDestroyIsUnknown() throws Exception {
+    goodEndpoints.add(new URI("https://goodurl:8993"));
+    unknownEndpoints.add(new URI(EMBEDDED_OCSP_SERVER_URL));
+
+    OcspChecker ocspChecker = new OcspChecker(factory, eventAdmin);
+    ocspChecker.setSecurityLogger(mock(SecurityLogger.class));
+    ocspChecker.setOcspEnabled(true);
+    ocspChecker.setOcspServerUrls(
+        goodEndpoints.stream().map(URI::toString).collect(Collectors.toList()));
+    ocspChecker.destroy();
+
+    OCSPReq ocspReq = ocspChecker.generateOcspRequest(trustedCertBc);
+    Map<URI, CertificateStatus> ocspStatuses =
+        ocspChecker.sendOcspRequests(trustedCertX509, ocspReq);
+
+    goodEndpoints.forEach(
+        endpoint -> assertThat(ocspStatuses.get(endpoint), instanceOf(UnknownStatus.class)));
+    verify(goodWebClient, times(0)).post(any());
+  }
+
   @Test
   public void testOcspCheckDisabled() throws Exception {
     OcspChecker ocspChecker = new OcspChecker(factory, eventAdmin);
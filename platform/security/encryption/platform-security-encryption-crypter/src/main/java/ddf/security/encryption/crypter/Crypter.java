@@ -33,6 +33,7 @@
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.SeekableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
@@ -282,6 +283,34 @@ public InputStream decrypt(InputStream encryptedInputStream) throws CrypterExcep
     }
   }
 
+  /**
+   * Decrypts an encrypted channel using Tink, without reading the content up front. Content
+   * encrypted with {@link #encrypt(InputStream)} is made of independently authenticated segments,
+   * so the returned channel can be positioned anywhere in the plain content and only the segments
+   * that are read are decrypted. The size of the returned channel is the size of the plain content.
+   *
+   * @param encryptedChannel The channel to decrypt.
+   */
+  public SeekableByteChannel decrypt(SeekableByteChannel encryptedChannel)
+      throws CrypterException {
+    if (associatedData == null) {
+      throw new CrypterException("Associated data cannot be null.");
+    }
+    try {
+      if (encryptedChannel == null || encryptedChannel.size() < 1) {
+        throw new CrypterException("Encrypted channel cannot be null or empty.");
+      }
+    } catch (IOException e) {
+      throw new CrypterException("Problem reading data from encrypted channel.", e);
+    }
+
+    try {
+      return streamingAead.newSeekableDecryptingChannel(encryptedChannel, associatedData);
+    } catch (GeneralSecurityException | IOException e) {
+      throw new CrypterException("Problem decrypting.", e);
+    }
+  }
+
   private int getAvailableBytesLessThanChunkSize(InputStream inputStream) throws IOException {
     int available = inputStream.available();
     return available > CHUNK_SIZE ? CHUNK_SIZE : available;
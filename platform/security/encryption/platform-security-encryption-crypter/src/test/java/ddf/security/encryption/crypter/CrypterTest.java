@@ -25,7 +25,13 @@
 import java.io.FileOutputStream;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.security.SecureRandom;
+import java.util.Arrays;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Rule;
@@ -102,6 +108,43 @@ public void testEncryptDecryptStream() throws Exception {
     assertArrayEquals(plainBytes, decryptedBytes);
   }
 
+  @Test
+  public void testSeekableDecrypt() throws Exception {
+    // make test data span several encryption segments
+    final byte[] plainBytes = new byte[CHUNK_SIZE * 64];
+    new SecureRandom().nextBytes(plainBytes);
+    final Crypter crypter = new Crypter();
+
+    final Path encryptedFile = temporaryFolder.newFile("encrypted").toPath();
+    try (InputStream encryptedInputStream =
+        crypter.encrypt(new ByteArrayInputStream(plainBytes))) {
+      Files.copy(encryptedInputStream, encryptedFile, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    final int offset = CHUNK_SIZE * 40 + 7;
+    try (SeekableByteChannel decryptedChannel =
+        crypter.decrypt(Files.newByteChannel(encryptedFile))) {
+      assertEquals(plainBytes.length, decryptedChannel.size());
+
+      decryptedChannel.position(offset);
+      final ByteBuffer decryptedBytes = ByteBuffer.allocate(plainBytes.length - offset);
+      while (decryptedBytes.hasRemaining() && decryptedChannel.read(decryptedBytes) > 0) {
+        // keep reading until the buffer is full
+      }
+
+      assertArrayEquals(
+          Arrays.copyOfRange(plainBytes, offset, plainBytes.length), decryptedBytes.array());
+    }
+  }
+
+  @Test(expected = CrypterException.class)
+  public void testSeekableDecryptNull() {
+    final Crypter crypter = new Crypter();
+    final SeekableByteChannel nullChannel = null;
+
+    crypter.decrypt(nullChannel);
+  }
+
   @Test(expected = CrypterException.class)
   public void testEncryptNull() {
     final Crypter crypter = new Crypter();
@@ -13,7 +13,10 @@
  */
 package ddf.security.pdp.realm;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import ddf.security.audit.SecurityLogger;
+import ddf.security.expansion.Expansion;
 import ddf.security.pdp.realm.xacml.XacmlPdp;
 import ddf.security.pdp.realm.xacml.processor.PdpException;
 import ddf.security.permission.CollectionPermission;
@@ -27,11 +30,16 @@
 import ddf.security.service.impl.AbstractAuthorizingRealm;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 import org.apache.shiro.authc.AuthenticationException;
 import org.apache.shiro.authc.AuthenticationInfo;
 import org.apache.shiro.authc.AuthenticationToken;
@@ -42,6 +50,7 @@
 import org.apache.shiro.subject.PrincipalCollection;
 import org.apache.shiro.util.CollectionUtils;
 import org.codice.ddf.parser.Parser;
+import org.osgi.framework.ServiceReference;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -63,6 +72,10 @@ public class AuthzRealm extends AbstractAuthorizingRealm {
   private static final String POLICY_EXTENSION_WARNING_MSG =
       "Policy Extension plugin did not complete correctly. This could allow access to a resource.";
 
+  private static final int DECISION_CACHE_SIZE = 10_000;
+
+  private static final int DEFAULT_DECISION_CACHE_SECONDS = 60;
+
   private final String dirPath;
 
   private final Parser parser;
@@ -79,6 +92,9 @@ public class AuthzRealm extends AbstractAuthorizingRealm {
 
   private SecurityLogger securityLogger;
 
+  private volatile Cache<List<Object>, Boolean> decisionCache =
+      newDecisionCache(DEFAULT_DECISION_CACHE_SECONDS);
+
   public AuthzRealm(String dirPath, Parser parser) throws PdpException {
     super();
 
@@ -192,10 +208,16 @@ public boolean isPermitted(PrincipalCollection subjectPrincipal, Permission perm
   public boolean[] isPermitted(PrincipalCollection subjectPrincipal, List<Permission> permissions) {
     boolean[] results = new boolean[permissions.size()];
     AuthorizationInfo authorizationInfo = getAuthorizationInfo(subjectPrincipal);
+    Collection<Permission> perms = getPermissions(authorizationInfo);
+    String curUser = "<user>";
+    if (subjectPrincipal != null && subjectPrincipal.getPrimaryPrincipal() != null) {
+      curUser = subjectPrincipal.getPrimaryPrincipal().toString();
+    }
+    List<Object> subjectKey = getSubjectKey(curUser, authorizationInfo, perms);
     List<Permission> expandedPermissions = expandPermissions(permissions);
     int i = 0;
     for (Permission permission : expandedPermissions) {
-      results[i++] = isPermitted(subjectPrincipal, permission, authorizationInfo);
+      results[i++] = isPermitted(curUser, permission, authorizationInfo, perms, subjectKey);
     }
 
     return results;
@@ -205,19 +227,22 @@ public boolean[] isPermitted(PrincipalCollection subjectPrincipal, List<Permissi
    * Checks if the corresponding Subject/user contained within the AuthorizationInfo object implies
    * the given Permission.
    *
+   * <p>Decisions on {@link KeyValueCollectionPermission}s are cached by subject, action and
+   * security markings, since the results of a query usually share their security markings.
+   *
+   * @param curUser the name of the subject/user.
    * @param permission the permission being checked.
    * @param authorizationInfo the application-specific subject/user identifier.
+   * @param perms the permissions of the subject/user.
+   * @param subjectKey the cache key of the subject/user.
    * @return true if the user is permitted
    */
   private boolean isPermitted(
-      PrincipalCollection subjectPrincipal,
+      String curUser,
       Permission permission,
-      AuthorizationInfo authorizationInfo) {
-    Collection<Permission> perms = getPermissions(authorizationInfo);
-    String curUser = "<user>";
-    if (subjectPrincipal != null && subjectPrincipal.getPrimaryPrincipal() != null) {
-      curUser = subjectPrincipal.getPrimaryPrincipal().toString();
-    }
+      AuthorizationInfo authorizationInfo,
+      Collection<Permission> perms,
+      List<Object> subjectKey) {
     if (!CollectionUtils.isEmpty(perms)) {
       if (permission instanceof KeyValuePermission) {
         permission =
@@ -228,59 +253,12 @@ private boolean isPermitted(
       }
       if (permission != null && permission instanceof KeyValueCollectionPermission) {
         KeyValueCollectionPermission kvcp = (KeyValueCollectionPermission) permission;
-        List<KeyValuePermission> keyValuePermissions = kvcp.getKeyValuePermissionList();
-        List<KeyValuePermission> matchOnePermissions = new ArrayList<>();
-        List<KeyValuePermission> matchAllPermissions = new ArrayList<>();
-
-        List<KeyValuePermission> matchAllPreXacmlPermissions = new ArrayList<>();
-
-        for (KeyValuePermission keyValuePermission : keyValuePermissions) {
-          String metacardKey = keyValuePermission.getKey();
-          // user specified this key in the match all list - remap key
-          if (matchAllMap.containsKey(metacardKey)) {
-            KeyValuePermission kvp =
-                new KeyValuePermissionImpl(
-                    matchAllMap.get(metacardKey), keyValuePermission.getValues());
-            matchAllPermissions.add(kvp);
-            // user specified this key in the match one list - remap key
-          } else if (matchOneMap.containsKey(metacardKey)) {
-            KeyValuePermission kvp =
-                new KeyValuePermissionImpl(
-                    matchOneMap.get(metacardKey), keyValuePermission.getValues());
-            matchOnePermissions.add(kvp);
-            // this key was not specified in either - default to match all with the
-            // same key value
-          } else {
-            // creating a KeyValuePermission list to try to quick match all of these permissions
-            // if that fails, then XACML will try to match them
-            // this covers the case where attributes on the user match up perfectly with the
-            // permissions being implied
-            // this also allows the xacml permissions to run through the policy extensions
-            matchAllPreXacmlPermissions.add(keyValuePermission);
-          }
-        }
-
-        CollectionPermission subjectAllCollection =
-            new CollectionPermissionImpl(CollectionPermission.UNKNOWN_ACTION, perms);
-        KeyValueCollectionPermission matchAllCollection =
-            new KeyValueCollectionPermissionImpl(kvcp.getAction(), matchAllPermissions);
-        KeyValueCollectionPermission matchAllPreXacmlCollection =
-            new KeyValueCollectionPermissionImpl(kvcp.getAction(), matchAllPreXacmlPermissions);
-        KeyValueCollectionPermission matchOneCollection =
-            new KeyValueCollectionPermissionImpl(kvcp.getAction(), matchOnePermissions);
-
-        matchAllCollection =
-            isPermittedByExtensionAll(subjectAllCollection, matchAllCollection, kvcp);
-        matchAllPreXacmlCollection =
-            isPermittedByExtensionAll(subjectAllCollection, matchAllPreXacmlCollection, kvcp);
-        matchOneCollection =
-            isPermittedByExtensionOne(subjectAllCollection, matchOneCollection, kvcp);
-        MatchOneCollectionPermission subjectOneCollection = new MatchOneCollectionPermission(perms);
-
-        boolean matchAll = subjectAllCollection.implies(matchAllCollection);
-        boolean matchAllXacml = subjectAllCollection.implies(matchAllPreXacmlCollection);
-        boolean matchOne = subjectOneCollection.implies(matchOneCollection);
-        if (!matchAll || !matchOne) {
+        List<Object> decisionKey = getDecisionKey(subjectKey, kvcp);
+        Boolean decision = decisionCache.getIfPresent(decisionKey);
+        if (decision == null) {
+          decision = isPermitted(curUser, kvcp, authorizationInfo, perms);
+          decisionCache.put(decisionKey, decision);
+        } else if (!decision) {
           securityLogger.audit(
               PERMISSION_FINISH_1_MSG
                   + curUser
@@ -288,23 +266,7 @@ private boolean isPermitted(
                   + permission
                   + "] is not implied.");
         }
-
-        // if we weren't able to automatically imply these permissions, call out to XACML
-        if (!matchAllXacml) {
-          KeyValueCollectionPermission xacmlPermissions =
-              new KeyValueCollectionPermissionImpl(kvcp.getAction(), matchAllPreXacmlPermissions);
-          configureXacmlPdp();
-          matchAllXacml = xacmlPdp.isPermitted(curUser, authorizationInfo, xacmlPermissions);
-          if (!matchAllXacml) {
-            securityLogger.audit(
-                PERMISSION_FINISH_1_MSG
-                    + curUser
-                    + PERMISSION_FINISH_2_MSG
-                    + permission
-                    + "] is not implied via XACML.");
-          }
-        }
-        return matchAll && matchOne && matchAllXacml;
+        return decision;
       }
 
       for (Permission perm : perms) {
@@ -323,6 +285,117 @@ private boolean isPermitted(
     return false;
   }
 
+  private boolean isPermitted(
+      String curUser,
+      KeyValueCollectionPermission kvcp,
+      AuthorizationInfo authorizationInfo,
+      Collection<Permission> perms) {
+    List<KeyValuePermission> keyValuePermissions = kvcp.getKeyValuePermissionList();
+    List<KeyValuePermission> matchOnePermissions = new ArrayList<>();
+    List<KeyValuePermission> matchAllPermissions = new ArrayList<>();
+
+    List<KeyValuePermission> matchAllPreXacmlPermissions = new ArrayList<>();
+
+    for (KeyValuePermission keyValuePermission : keyValuePermissions) {
+      String metacardKey = keyValuePermission.getKey();
+      // user specified this key in the match all list - remap key
+      if (matchAllMap.containsKey(metacardKey)) {
+        KeyValuePermission kvp =
+            new KeyValuePermissionImpl(
+                matchAllMap.get(metacardKey), keyValuePermission.getValues());
+        matchAllPermissions.add(kvp);
+        // user specified this key in the match one list - remap key
+      } else if (matchOneMap.containsKey(metacardKey)) {
+        KeyValuePermission kvp =
+            new KeyValuePermissionImpl(
+                matchOneMap.get(metacardKey), keyValuePermission.getValues());
+        matchOnePermissions.add(kvp);
+        // this key was not specified in either - default to match all with the
+        // same key value
+      } else {
+        // creating a KeyValuePermission list to try to quick match all of these permissions
+        // if that fails, then XACML will try to match them
+        // this covers the case where attributes on the user match up perfectly with the
+        // permissions being implied
+        // this also allows the xacml permissions to run through the policy extensions
+        matchAllPreXacmlPermissions.add(keyValuePermission);
+      }
+    }
+
+    CollectionPermission subjectAllCollection =
+        new CollectionPermissionImpl(CollectionPermission.UNKNOWN_ACTION, perms);
+    KeyValueCollectionPermission matchAllCollection =
+        new KeyValueCollectionPermissionImpl(kvcp.getAction(), matchAllPermissions);
+    KeyValueCollectionPermission matchAllPreXacmlCollection =
+        new KeyValueCollectionPermissionImpl(kvcp.getAction(), matchAllPreXacmlPermissions);
+    KeyValueCollectionPermission matchOneCollection =
+        new KeyValueCollectionPermissionImpl(kvcp.getAction(), matchOnePermissions);
+
+    matchAllCollection = isPermittedByExtensionAll(subjectAllCollection, matchAllCollection, kvcp);
+    matchAllPreXacmlCollection =
+        isPermittedByExtensionAll(subjectAllCollection, matchAllPreXacmlCollection, kvcp);
+    matchOneCollection = isPermittedByExtensionOne(subjectAllCollection, matchOneCollection, kvcp);
+    MatchOneCollectionPermission subjectOneCollection = new MatchOneCollectionPermission(perms);
+
+    boolean matchAll = subjectAllCollection.implies(matchAllCollection);
+    boolean matchAllXacml = subjectAllCollection.implies(matchAllPreXacmlCollection);
+    boolean matchOne = subjectOneCollection.implies(matchOneCollection);
+    if (!matchAll || !matchOne) {
+      securityLogger.audit(
+          PERMISSION_FINISH_1_MSG
+              + curUser
+              + PERMISSION_FINISH_2_MSG
+              + kvcp
+              + "] is not implied.");
+    }
+
+    // if we weren't able to automatically imply these permissions, call out to XACML
+    if (!matchAllXacml) {
+      KeyValueCollectionPermission xacmlPermissions =
+          new KeyValueCollectionPermissionImpl(kvcp.getAction(), matchAllPreXacmlPermissions);
+      configureXacmlPdp();
+      matchAllXacml = xacmlPdp.isPermitted(curUser, authorizationInfo, xacmlPermissions);
+      if (!matchAllXacml) {
+        securityLogger.audit(
+            PERMISSION_FINISH_1_MSG
+                + curUser
+                + PERMISSION_FINISH_2_MSG
+                + kvcp
+                + "] is not implied via XACML.");
+      }
+    }
+    return matchAll && matchOne && matchAllXacml;
+  }
+
+  private List<Object> getSubjectKey(
+      String curUser, AuthorizationInfo authorizationInfo, Collection<Permission> perms) {
+    Set<String> roles = new TreeSet<>();
+    if (authorizationInfo != null && authorizationInfo.getRoles() != null) {
+      roles.addAll(authorizationInfo.getRoles());
+    }
+    Set<String> subjectPermissions =
+        perms.stream().map(Object::toString).collect(Collectors.toCollection(TreeSet::new));
+    return Arrays.asList(curUser, roles, subjectPermissions);
+  }
+
+  private List<Object> getDecisionKey(List<Object> subjectKey, KeyValueCollectionPermission kvcp) {
+    List<List<Object>> securityMarkings = new ArrayList<>();
+    for (KeyValuePermission keyValuePermission : kvcp.getKeyValuePermissionList()) {
+      securityMarkings.add(
+          Arrays.asList(
+              keyValuePermission.getKey(), new TreeSet<>(keyValuePermission.getValues())));
+    }
+    securityMarkings.sort(Comparator.comparing(Object::toString));
+    return Arrays.asList(subjectKey, kvcp.getAction(), securityMarkings);
+  }
+
+  private static Cache<List<Object>, Boolean> newDecisionCache(int seconds) {
+    return CacheBuilder.newBuilder()
+        .maximumSize(seconds > 0 ? DECISION_CACHE_SIZE : 0)
+        .expireAfterWrite(Math.max(seconds, 0), TimeUnit.SECONDS)
+        .build();
+  }
+
   private void configureXacmlPdp() {
     if (xacmlPdp == null) {
       try {
@@ -458,20 +531,51 @@ private Collection<Permission> resolveRolePermissions(Collection<String> roleNam
    */
   public void setPolicyExtensions(List<PolicyExtension> policyExtensions) {
     this.policyExtensions = policyExtensions;
+    decisionCache.invalidateAll();
   }
 
   public void addPolicyExtension(PolicyExtension policyExtension) {
     if (policyExtensions != null) {
       policyExtensions.add(policyExtension);
+      decisionCache.invalidateAll();
     }
   }
 
   public void removePolicyExtension(PolicyExtension policyExtension) {
     if (policyExtensions != null) {
       policyExtensions.remove(policyExtension);
+      decisionCache.invalidateAll();
     }
   }
 
+  // Expansions change the attributes of the subject or the metacards that decisions are made on
+
+  @Override
+  public void addUserExpansion(
+      ServiceReference<Expansion> expansionServiceRef, Expansion expansion) {
+    super.addUserExpansion(expansionServiceRef, expansion);
+    decisionCache.invalidateAll();
+  }
+
+  @Override
+  public void removeUserExpansion(ServiceReference<Expansion> expansionServiceRef) {
+    super.removeUserExpansion(expansionServiceRef);
+    decisionCache.invalidateAll();
+  }
+
+  @Override
+  public void addMetacardExpansion(
+      ServiceReference<Expansion> expansionServiceRef, Expansion expansion) {
+    super.addMetacardExpansion(expansionServiceRef, expansion);
+    decisionCache.invalidateAll();
+  }
+
+  @Override
+  public void removeMetacardExpansion(ServiceReference<Expansion> expansionServiceRef) {
+    super.removeMetacardExpansion(expansionServiceRef);
+    decisionCache.invalidateAll();
+  }
+
   /**
    * Sets the mappings used by the "match all" evaluation to determine if this user should be
    * authorized to access requested data.
@@ -502,6 +606,7 @@ public void setMatchAllMappings(List<String> list) {
         }
       }
     }
+    decisionCache.invalidateAll();
   }
 
   /**
@@ -534,11 +639,24 @@ public void setMatchOneMappings(List<String> list) {
         }
       }
     }
+    decisionCache.invalidateAll();
   }
 
   public void setEnvironmentAttributes(List<String> environmentAttributes) {
     this.environmentAttributes.clear();
     this.environmentAttributes.addAll(environmentAttributes);
+    decisionCache.invalidateAll();
+  }
+
+  /**
+   * Sets how long authorization decisions are cached. Decisions are also discarded when the
+   * mappings, environment attributes, expansions or policy extensions change, but not when the
+   * XACML policies change.
+   *
+   * @param decisionCacheSeconds seconds to cache decisions for, 0 to disable the cache
+   */
+  public void setDecisionCacheSeconds(int decisionCacheSeconds) {
+    decisionCache = newDecisionCache(decisionCacheSeconds);
   }
 
   public void setSecurityLogger(SecurityLogger securityLogger) {
@@ -13,10 +13,13 @@
  */
 package ddf.security.pdp.realm.test;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 import ddf.security.audit.SecurityLogger;
+import ddf.security.expansion.Expansion;
 import ddf.security.pdp.realm.AuthzRealm;
 import ddf.security.pdp.realm.xacml.processor.PdpException;
 import ddf.security.permission.CollectionPermission;
@@ -29,6 +32,8 @@
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 import junit.framework.Assert;
 import org.apache.shiro.authz.AuthorizationInfo;
 import org.apache.shiro.authz.Permission;
@@ -38,6 +43,7 @@
 import org.codice.ddf.parser.xml.XmlParser;
 import org.junit.Before;
 import org.junit.Test;
+import org.osgi.framework.ServiceReference;
 
 /** User: tustisos Date: 3/20/13 Time: 9:35 AM */
 public class AuthzRealmTest {
@@ -273,6 +279,99 @@ public KeyValueCollectionPermission isPermittedMatchOne(
     }
   }
 
+  @Test
+  public void testDecisionsAreCached() {
+    AtomicInteger evaluations = new AtomicInteger();
+    testRealm.addPolicyExtension(countingPolicyExtension(evaluations));
+
+    HashMap<String, List<String>> sameSecurity = new HashMap<>();
+    sameSecurity.put("rule", Arrays.asList("B", "A"));
+    sameSecurity.put("country", Arrays.asList("GBR", "CAN", "AUS"));
+    List<Permission> permissions =
+        Arrays.asList(
+            new KeyValueCollectionPermissionImpl("action", security),
+            new KeyValueCollectionPermissionImpl("action", sameSecurity));
+
+    boolean[] permittedArray = testRealm.isPermitted(mockSubjectPrincipal, permissions);
+    Assert.assertEquals(true, permittedArray[0]);
+    Assert.assertEquals(true, permittedArray[1]);
+    Assert.assertEquals(1, evaluations.get());
+
+    Assert.assertEquals(
+        true,
+        testRealm.isPermitted(
+            mockSubjectPrincipal, new KeyValueCollectionPermissionImpl("other", security)));
+    Assert.assertEquals(2, evaluations.get());
+
+    testRealm.setMatchAllMappings(Arrays.asList("FineAccessControls=rule"));
+    testRealm.isPermitted(mockSubjectPrincipal, permissions.get(0));
+    Assert.assertEquals(3, evaluations.get());
+  }
+
+  @Test
+  public void testDecisionCacheDisabled() {
+    AtomicInteger evaluations = new AtomicInteger();
+    testRealm.addPolicyExtension(countingPolicyExtension(evaluations));
+    testRealm.setDecisionCacheSeconds(0);
+    KeyValueCollectionPermission kvcp = new KeyValueCollectionPermissionImpl("action", security);
+
+    testRealm.isPermitted(mockSubjectPrincipal, kvcp);
+    testRealm.isPermitted(mockSubjectPrincipal, kvcp);
+
+    Assert.assertEquals(2, evaluations.get());
+  }
+
+  @Test
+  public void testDecisionCacheIsClearedWhenExpansionsChange() {
+    AtomicInteger evaluations = new AtomicInteger();
+    testRealm.addPolicyExtension(countingPolicyExtension(evaluations));
+    KeyValueCollectionPermission kvcp = new KeyValueCollectionPermissionImpl("action", security);
+    ServiceReference<Expansion> expansionRef = mock(ServiceReference.class);
+    Expansion expansion = mock(Expansion.class);
+    when(expansion.expand(anyString(), any(Set.class)))
+        .thenAnswer(invocation -> invocation.getArgument(1));
+
+    testRealm.isPermitted(mockSubjectPrincipal, kvcp);
+    Assert.assertEquals(1, evaluations.get());
+
+    testRealm.addUserExpansion(expansionRef, expansion);
+    testRealm.isPermitted(mockSubjectPrincipal, kvcp);
+    Assert.assertEquals(2, evaluations.get());
+
+    testRealm.removeUserExpansion(expansionRef);
+    testRealm.isPermitted(mockSubjectPrincipal, kvcp);
+    Assert.assertEquals(3, evaluations.get());
+
+    testRealm.addMetacardExpansion(expansionRef, expansion);
+    testRealm.isPermitted(mockSubjectPrincipal, kvcp);
+    Assert.assertEquals(4, evaluations.get());
+
+    testRealm.removeMetacardExpansion(expansionRef);
+    testRealm.isPermitted(mockSubjectPrincipal, kvcp);
+    Assert.assertEquals(5, evaluations.get());
+  }
+
+  private PolicyExtension countingPolicyExtension(AtomicInteger evaluations) {
+    return new PolicyExtension() {
+      @Override
+      public KeyValueCollectionPermission isPermittedMatchAll(
+          CollectionPermission subjectAllCollection,
+          KeyValueCollectionPermission matchAllCollection,
+          KeyValueCollectionPermission allPermissionsCollection) {
+        return matchAllCollection;
+      }
+
+      @Override
+      public KeyValueCollectionPermission isPermittedMatchOne(
+          CollectionPermission subjectAllCollection,
+          KeyValueCollectionPermission matchOneCollection,
+          KeyValueCollectionPermission allPermissionsCollection) {
+        evaluations.incrementAndGet();
+        return matchOneCollection;
+      }
+    };
+  }
+
   @Test
   public void testAddRemoveSetPolicyExtension() {
     PolicyExtension policyExtension =
@@ -198,6 +198,27 @@ public String getRootNamespace(String xml) {
         });
   }
 
+  /**
+   * Only the XML up to the root element is read from the stream, so the root namespace of large
+   * documents can be retrieved without reading them into memory.
+   *
+   * @param xml The XML whose root namespace you want
+   * @return Root Namespace
+   */
+  public String getRootNamespace(InputStream xml) {
+
+    if (xml == null) {
+      return null;
+    }
+
+    return processElements(
+        xml,
+        (result, xmlStreamReader) -> {
+          result.set(xmlStreamReader.getNamespaceURI());
+          return false;
+        });
+  }
+
   private void transformation(
       Source sourceXml, TransformerProperties transformProperties, Result result) {
     ClassLoader tccl = Thread.currentThread().getContextClassLoader();
@@ -241,15 +262,40 @@ private void transformation(
    */
   public <T> T processElements(
       String xml, BiFunction<ResultHolder<T>, XMLStreamReader, Boolean> processElementFunction) {
+    try (StringReader strReader = new StringReader(xml)) {
+      return processElements(
+          factory -> factory.createXMLStreamReader(strReader), processElementFunction);
+    }
+  }
+
+  /**
+   * Iterate through the elements of an XML document read from a stream, as {@link
+   * #processElements(String, BiFunction)} does. The stream is only read up to the element where
+   * processing stops, and is not closed.
+   *
+   * @param xml The XML to process
+   * @param processElementFunction Function that accepts an instance of XMLStreamReader and result
+   *     holder. The function must return a boolean.
+   * @return <T> The result of the processing
+   */
+  public <T> T processElements(
+      InputStream xml,
+      BiFunction<ResultHolder<T>, XMLStreamReader, Boolean> processElementFunction) {
+    return processElements(factory -> factory.createXMLStreamReader(xml), processElementFunction);
+  }
+
+  private <T> T processElements(
+      XMLStreamReaderFactory xmlStreamReaderFactory,
+      BiFunction<ResultHolder<T>, XMLStreamReader, Boolean> processElementFunction) {
 
     initializeXMLInputFactory();
     XMLStreamReader xmlStreamReader = null;
     ResultHolder<T> result = new ResultHolder<>();
     boolean keepProcessing = true;
 
-    try (StringReader strReader = new StringReader(xml)) {
+    try {
       synchronized (XMLUtils.class) {
-        xmlStreamReader = xmlInputFactory.createXMLStreamReader(strReader);
+        xmlStreamReader = xmlStreamReaderFactory.create(xmlInputFactory);
       }
       while (keepProcessing && xmlStreamReader.hasNext()) {
         int event = xmlStreamReader.next();
@@ -273,6 +319,11 @@ public <T> T processElements(
     return result.get();
   }
 
+  @FunctionalInterface
+  private interface XMLStreamReaderFactory {
+    XMLStreamReader create(XMLInputFactory xmlInputFactory) throws XMLStreamException;
+  }
+
   /**
    * This class is used with the processElements method. Inside the function, set the value of the
    * result holder. That value is then returned by the processElementsFunction.
@@ -24,6 +24,7 @@
 import java.io.StringReader;
 import java.io.StringWriter;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.stream.XMLEventReader;
@@ -150,6 +151,22 @@ public void testGetRootNamespace() {
     assert "doggy-namespace".equals(XML_UTILS.getRootNamespace(XML_WITH_NAMESPACE));
   }
 
+  @Test
+  public void testGetRootNamespaceFromStream() {
+    assertThat(
+        XML_UTILS.getRootNamespace(
+            new ByteArrayInputStream(XML_WITH_NAMESPACE.getBytes(StandardCharsets.UTF_8))),
+        is("doggy-namespace"));
+  }
+
+  @Test
+  public void testGetRootNamespaceFromInvalidStream() {
+    assertThat(
+        XML_UTILS.getRootNamespace(
+            new ByteArrayInputStream("not xml".getBytes(StandardCharsets.UTF_8))),
+        is(nullValue()));
+  }
+
   @Test
   public void testProcessElementException() {
 